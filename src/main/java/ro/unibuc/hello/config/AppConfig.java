@@ -1,8 +1,12 @@
 package ro.unibuc.hello.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
+import ro.unibuc.hello.data.IdGenerator;
+import ro.unibuc.hello.data.ObjectIdGenerator;
+import ro.unibuc.hello.data.RandomUuidGenerator;
 
 @Configuration
 public class AppConfig {
@@ -11,4 +15,12 @@ public class AppConfig {
     public RestTemplate getRestTemplate() {
         return new RestTemplate();
     }
+
+    @Bean
+    public IdGenerator idGenerator(@Value("${ids.generator:objectid}") String generator) {
+        if ("uuid".equals(generator)) {
+            return new RandomUuidGenerator();
+        }
+        return new ObjectIdGenerator();
+    }
 }
@@ -0,0 +1,91 @@
+package ro.unibuc.hello.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import ro.unibuc.hello.data.report.BuyerPeriod;
+import ro.unibuc.hello.data.report.RevenueBucket;
+import ro.unibuc.hello.data.report.RevenueDimension;
+import ro.unibuc.hello.data.report.UniqueBuyers;
+import ro.unibuc.hello.service.RevenueAnalyticsService;
+import ro.unibuc.hello.service.UniqueBuyersService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Controller
+public class AnalyticsController {
+
+    @Autowired
+    private RevenueAnalyticsService revenueAnalyticsService;
+
+    @Autowired
+    private UniqueBuyersService uniqueBuyersService;
+
+    @GetMapping("/api/analytics/revenue/categories")
+    @ResponseBody
+    public List<RevenueBucket> getRevenueByCategory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return getRevenue(RevenueDimension.CATEGORY, from, to);
+    }
+
+    @GetMapping("/api/analytics/revenue/brands")
+    @ResponseBody
+    public List<RevenueBucket> getRevenueByBrand(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return getRevenue(RevenueDimension.BRAND, from, to);
+    }
+
+    @GetMapping("/api/analytics/revenue/hours")
+    @ResponseBody
+    public List<RevenueBucket> getRevenueByHour(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return getRevenue(RevenueDimension.HOUR, from, to);
+    }
+
+    @GetMapping("/api/analytics/buyers/daily")
+    @ResponseBody
+    public UniqueBuyers getDailyBuyers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return getBuyers(BuyerPeriod.DAY, from.atStartOfDay(), to.atStartOfDay());
+    }
+
+    // Orele care conțin from și to sunt incluse
+    @GetMapping("/api/analytics/buyers/hourly")
+    @ResponseBody
+    public UniqueBuyers getHourlyBuyers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return getBuyers(BuyerPeriod.HOUR, from, to);
+    }
+
+    private UniqueBuyers getBuyers(BuyerPeriod period, LocalDateTime from, LocalDateTime to) {
+        try {
+            return uniqueBuyersService.getUniqueBuyers(period, from, to);
+        } catch (Exception e) {
+            if (HttpStatus.BAD_REQUEST.toString().equals(e.getMessage())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date range");
+            }
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
+        }
+    }
+
+    private List<RevenueBucket> getRevenue(RevenueDimension dimension, LocalDate from, LocalDate to) {
+        try {
+            return revenueAnalyticsService.getRevenue(dimension, from, to);
+        } catch (Exception e) {
+            if (HttpStatus.BAD_REQUEST.toString().equals(e.getMessage())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date range");
+            }
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
+        }
+    }
+}
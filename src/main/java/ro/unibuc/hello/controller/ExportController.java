@@ -0,0 +1,76 @@
+package ro.unibuc.hello.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ro.unibuc.hello.data.transaction.TransactionExportFormat;
+import ro.unibuc.hello.service.TransactionExportService;
+
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+@Controller
+public class ExportController {
+
+    private static final String GZIP = "gzip";
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @GetMapping("/api/exports/transactions")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String userId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        TransactionExportFormat exportFormat = TransactionExportFormat.fromName(format);
+        if (exportFormat == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid format");
+        }
+        try {
+            transactionExportService.checkFilters(from, to, userId);
+        } catch (Exception e) {
+            if (HttpStatus.BAD_REQUEST.toString().equals(e.getMessage())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date range");
+            } else if (HttpStatus.NOT_FOUND.toString().equals(e.getMessage())) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+            }
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
+        }
+
+        // Comprimarea se face pe măsură ce se scrie, doar dacă clientul o acceptă
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains(GZIP);
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(output, GZIP_BUFFER_SIZE);
+                transactionExportService.export(exportFormat, from, to, userId, compressed);
+                compressed.finish();
+            } else {
+                transactionExportService.export(exportFormat, from, to, userId, output);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transactions." + exportFormat.getExtension()).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return response.body(body);
+    }
+}
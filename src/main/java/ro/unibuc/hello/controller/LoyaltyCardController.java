@@ -102,10 +102,10 @@ public class LoyaltyCardController {
     
     @GetMapping("/api/loyalty-cards/{id}/discount")
     @ResponseBody
-    public Map<String, Double> calculateDiscount(@PathVariable String id, 
-                                                @RequestParam double amount) {
+    public Map<String, Long> calculateDiscount(@PathVariable String id, 
+                                              @RequestParam long amount) {
         try {
-            double discount = loyaltyCardService.calculateDiscount(id, amount);
+            long discount = loyaltyCardService.calculateDiscount(id, amount);
             return Map.of(
                 "original", amount,
                 "discount", discount,
@@ -0,0 +1,91 @@
+package ro.unibuc.hello.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import ro.unibuc.hello.data.report.BasketDistribution;
+import ro.unibuc.hello.data.report.SalesRollupEntity;
+import ro.unibuc.hello.data.report.TopProduct;
+import ro.unibuc.hello.service.BasketMetrics;
+import ro.unibuc.hello.service.SalesReportService;
+import ro.unibuc.hello.service.TopProductsService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Controller
+public class ReportController {
+
+    @Autowired
+    private SalesReportService salesReportService;
+
+    @Autowired
+    private TopProductsService topProductsService;
+
+    @Autowired
+    private BasketMetrics basketMetrics;
+
+    @GetMapping("/api/reports/sales/daily")
+    @ResponseBody
+    public List<SalesRollupEntity> getDailySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return salesReportService.getDailySales(from, to);
+        } catch (Exception e) {
+            throw reportError(e);
+        }
+    }
+
+    @GetMapping("/api/reports/sales/categories")
+    @ResponseBody
+    public List<SalesRollupEntity> getCategorySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return salesReportService.getCategorySales(from, to);
+        } catch (Exception e) {
+            throw reportError(e);
+        }
+    }
+
+    // Cele mai vândute produse din fereastra curentă, global sau dintr-o categorie
+    @GetMapping("/api/reports/top-products")
+    @ResponseBody
+    public List<TopProduct> getTopProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return topProductsService.getTopProducts(category, limit);
+        } catch (Exception e) {
+            if (HttpStatus.BAD_REQUEST.toString().equals(e.getMessage())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid limit");
+            }
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
+        }
+    }
+
+    // Distribuția coșurilor: linii, bucăți, valoare brută și proporția discount-ului
+    @GetMapping("/api/reports/basket-distribution")
+    @ResponseBody
+    public List<BasketDistribution> getBasketDistribution(@RequestParam(required = false) String category) {
+        try {
+            return basketMetrics.getDistribution(category);
+        } catch (Exception e) {
+            if (HttpStatus.NOT_FOUND.toString().equals(e.getMessage())) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found");
+            }
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
+        }
+    }
+
+    private static ResponseStatusException reportError(Exception e) {
+        if (HttpStatus.BAD_REQUEST.toString().equals(e.getMessage())) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date range");
+        }
+        return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
+    }
+}
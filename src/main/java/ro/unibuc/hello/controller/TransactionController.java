@@ -1,34 +1,108 @@
 package ro.unibuc.hello.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ro.unibuc.hello.data.transaction.CheckoutTicket;
+import ro.unibuc.hello.data.transaction.TransactionBatchResult;
 import ro.unibuc.hello.data.transaction.TransactionDTO;
 import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionListItem;
+import ro.unibuc.hello.data.transaction.TransactionPage;
+import ro.unibuc.hello.data.transaction.TransactionSummary;
+import ro.unibuc.hello.service.CheckoutQueue;
 import ro.unibuc.hello.service.TransactionService;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Controller
 public class TransactionController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
+    // Valorile parametrului view al listărilor
+    private static final String FULL = "full";
+    private static final String SUMMARY = "summary";
+
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private CheckoutQueue checkoutQueue;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/api/transactions")
     @ResponseBody
-    public TransactionEntity createTransaction(@RequestBody TransactionDTO transactionDTO) {
+    public TransactionEntity createTransaction(@RequestBody TransactionDTO transactionDTO,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            return transactionService.createTransaction(transactionDTO);
+            if (idempotencyKey == null) {
+                return transactionService.createTransaction(transactionDTO);
+            }
+            return transactionService.createTransaction(transactionDTO, idempotencyKey);
         } catch (Exception e) {
             if (e.getMessage().equals(HttpStatus.NOT_FOUND.toString())) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product or user not found");
             } else if (e.getMessage().equals(HttpStatus.BAD_REQUEST.toString())) {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Insufficient stock");
+            } else if (e.getMessage().equals(HttpStatus.CONFLICT.toString())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this idempotency key is still in progress");
+            } else if (e.getMessage().equals(HttpStatus.UNPROCESSABLE_ENTITY.toString())) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "This idempotency key was used for a different request");
+            } else {
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
+            }
+        }
+    }
+
+    @PostMapping("/api/transactions/batch")
+    @ResponseBody
+    public List<TransactionBatchResult> createTransactions(@RequestBody List<TransactionDTO> transactionDTOs) {
+        try {
+            return transactionService.createTransactions(transactionDTOs);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
+        }
+    }
+
+    @PostMapping("/api/transactions/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @ResponseBody
+    public CheckoutTicket submitTransaction(@RequestBody TransactionDTO transactionDTO) {
+        if (transactionDTO.getUserId() == null || transactionDTO.getProductsList() == null
+                || transactionDTO.getProductsList().isEmpty()
+                || transactionDTO.getProductsList().stream().anyMatch(entry -> entry.getProductId() == null || entry.getProductQuantity() <= 0)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid transaction");
+        }
+        try {
+            return checkoutQueue.submit(transactionDTO);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Checkout queue is full");
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
+        }
+    }
+
+    @GetMapping("/api/transactions/tickets/{id}")
+    @ResponseBody
+    public CheckoutTicket getTicket(@PathVariable String id) {
+        try {
+            return checkoutQueue.getTicket(id);
+        } catch (Exception e) {
+            if (e.getMessage().equals(HttpStatus.NOT_FOUND.toString())) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Ticket not found");
             } else {
                 throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
             }
@@ -51,19 +125,30 @@ public class TransactionController {
 
     @GetMapping("/api/transactions")
     @ResponseBody
-    public List<TransactionEntity> getAllTransactions() {
+    public TransactionPage<? extends TransactionListItem> getTransactions(@RequestParam(required = false) String after,
+                                                                          @RequestParam(defaultValue = "100") int limit,
+                                                                          @RequestParam(defaultValue = FULL) String view) {
+        Class<? extends TransactionListItem> type = viewType(view);
         try {
-            return transactionService.getAllTransactions();
+            return transactionService.getTransactionsPage(after, limit, type);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
         }
     }
 
+    @GetMapping(value = "/api/transactions", produces = NDJSON)
+    @ResponseBody
+    public StreamingResponseBody streamTransactions() {
+        return ndjson(transactionService::streamAllTransactions);
+    }
+
     @GetMapping("/api/transactions/user/{userId}")
     @ResponseBody
-    public List<TransactionEntity> getTransactionsByUser(@PathVariable String userId) {
+    public List<? extends TransactionListItem> getTransactionsByUser(@PathVariable String userId,
+                                                                    @RequestParam(defaultValue = FULL) String view) {
+        Class<? extends TransactionListItem> type = viewType(view);
         try {
-            return transactionService.getTransactionsByUser(userId);
+            return transactionService.getTransactionsByUser(userId, type);
         } catch (Exception e) {
             if (e.getMessage().equals(HttpStatus.NOT_FOUND.toString())) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
@@ -75,16 +160,32 @@ public class TransactionController {
 
     @GetMapping("/api/transactions/range")
     @ResponseBody
-    public List<TransactionEntity> getTransactionsByDateRange(
+    public TransactionPage<? extends TransactionListItem> getTransactionsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = FULL) String view) {
+        Class<? extends TransactionListItem> type = viewType(view);
         try {
-            return transactionService.getTransactionsByDateRange(startDate, endDate);
+            return transactionService.getTransactionsByDateRange(startDate, endDate, cursor, limit, type);
         } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
+            if (HttpStatus.BAD_REQUEST.toString().equals(e.getMessage())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            } else {
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
+            }
         }
     }
 
+    @GetMapping(value = "/api/transactions/range", produces = NDJSON)
+    @ResponseBody
+    public StreamingResponseBody streamTransactionsByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        return ndjson(() -> transactionService.streamTransactionsByDateRange(startDate, endDate));
+    }
+
     @DeleteMapping("/api/transactions/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteTransaction(@PathVariable String id) {
@@ -93,9 +194,33 @@ public class TransactionController {
         } catch (Exception e) {
             if (e.getMessage().equals(HttpStatus.NOT_FOUND.toString())) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Transaction not found");
+            } else if (e.getMessage().equals(HttpStatus.CONFLICT.toString())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Archived transactions cannot be deleted");
             } else {
                 throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
             }
         }
     }
-}
\ No newline at end of file
+
+    private static Class<? extends TransactionListItem> viewType(String view) {
+        // summary citește din Mongo doar id, userId, date și finalAmount
+        return switch (view) {
+            case FULL -> TransactionEntity.class;
+            case SUMMARY -> TransactionSummary.class;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid view");
+        };
+    }
+
+    private StreamingResponseBody ndjson(Supplier<Stream<TransactionEntity>> source) {
+        // Documentele se scriu direct din cursorul Mongo, câte o linie JSON per tranzacție
+        return output -> {
+            try (Stream<TransactionEntity> transactions = source.get()) {
+                Iterator<TransactionEntity> iterator = transactions.iterator();
+                while (iterator.hasNext()) {
+                    output.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    output.write('\n');
+                }
+            }
+        };
+    }
+}
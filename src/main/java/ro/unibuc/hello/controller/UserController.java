@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import ro.unibuc.hello.data.user.User;
 import ro.unibuc.hello.data.user.UserDTO;
+import ro.unibuc.hello.data.user.UserSpendSummary;
 import ro.unibuc.hello.service.UserService;
 import ro.unibuc.hello.data.loyalty.LoyaltyCardEntity;
 import java.util.List;
@@ -53,6 +54,20 @@ public class UserController {
         }
     }
 
+    @GetMapping("/api/users/{id}/summary")
+    @ResponseBody
+    public UserSpendSummary getUserSummary(@PathVariable String id) {
+        try {
+            return userService.getUserSummary(id);
+        } catch (Exception e) {
+            if (HttpStatus.NOT_FOUND.toString().equals(e.getMessage())) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+            } else {
+                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
+            }
+        }
+    }
+
     @DeleteMapping("/api/users/{id}")
     @ResponseBody
     public void deleteUserById(@PathVariable String id) {
@@ -0,0 +1,9 @@
+package ro.unibuc.hello.data;
+
+/**
+ * Generates the _id of new documents. The implementation is picked with the ids.generator property.
+ */
+public interface IdGenerator {
+
+    String nextId();
+}
@@ -1,12 +1,16 @@
 package ro.unibuc.hello.data;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
 
+@Document
 public class InformationEntity {
 
     @Id
     private String id;
 
+    @Indexed
     private String title;
     private String description;
 
@@ -0,0 +1,19 @@
+package ro.unibuc.hello.data;
+
+import java.time.Duration;
+
+/**
+ * Lock on a one-time migration, held in its {@link MigrationRecord}, so that instances starting together do not run
+ * it twice. Spring Data wires {@link MigrationLockRepositoryImpl} into {@link MigrationRecordRepository}.
+ */
+public interface MigrationLockRepository {
+
+    // Ia lock-ul dacă migrarea nu e terminată și nu o ține altă instanță; un lock expirat se poate lua din nou
+    boolean tryLock(String id, Duration timeout);
+
+    // Marchează migrarea ca terminată și eliberează lock-ul
+    void complete(String id);
+
+    // Eliberează lock-ul unei migrări care a eșuat, ca următoarea pornire să o reia
+    void unlock(String id);
+}
@@ -0,0 +1,47 @@
+package ro.unibuc.hello.data;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class MigrationLockRepositoryImpl implements MigrationLockRepository {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean tryLock(String id, Duration timeout) {
+        LocalDateTime now = LocalDateTime.now();
+        Query free = Query.query(Criteria.where("_id").is(id).and("completedAt").is(null)
+                .orOperator(Criteria.where("lockedUntil").is(null), Criteria.where("lockedUntil").lt(now)));
+        try {
+            // Dacă documentul există dar nu corespunde, upsert-ul încearcă să insereze același _id și eșuează
+            mongoTemplate.upsert(free, new Update().set("lockedUntil", now.plus(timeout)), MigrationRecord.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void complete(String id) {
+        mongoTemplate.updateFirst(byId(id), new Update().set("completedAt", LocalDateTime.now()).unset("lockedUntil"),
+                MigrationRecord.class);
+    }
+
+    @Override
+    public void unlock(String id) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id).and("completedAt").is(null)),
+                new Update().unset("lockedUntil"), MigrationRecord.class);
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+}
@@ -0,0 +1,48 @@
+package ro.unibuc.hello.data;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Marchează o migrare care trebuie rulată o singură dată: lockedUntil cât rulează pe o instanță, completedAt după ce s-a terminat
+@Document(collection = "migrations")
+public class MigrationRecord {
+
+    @Id
+    private String id;                   // Numele migrării
+    private LocalDateTime lockedUntil;   // Până când o ține instanța care o rulează; după, altă instanță o poate relua
+    private LocalDateTime completedAt;
+
+    public MigrationRecord() {
+    }
+
+    public MigrationRecord(String id) {
+        this.id = id;
+        this.completedAt = LocalDateTime.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,10 @@
+package ro.unibuc.hello.data;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MigrationRecordRepository extends MongoRepository<MigrationRecord, String>, MigrationLockRepository {
+
+    boolean existsByIdAndCompletedAtIsNotNull(String id);
+}
@@ -0,0 +1,23 @@
+package ro.unibuc.hello.data;
+
+/**
+ * Money is stored, computed and serialized as a primitive long number of cents, so totals are exact and
+ * summing them needs no allocation. These helpers cover the few places where a percentage or a unit value is needed.
+ */
+public final class Money {
+
+    public static final long CENTS_PER_UNIT = 100;
+
+    private Money() {
+    }
+
+    // Procent din sumă, rotunjit în jos la cent; aceleași operații ca expresia $floor($divide($multiply)) din MongoDB
+    public static long percentOf(long cents, double percent) {
+        return (long) Math.floor(cents * percent / 100.0);
+    }
+
+    // Doar pentru metrici și afișare, nu pentru calcule
+    public static double toUnits(long cents) {
+        return (double) cents / CENTS_PER_UNIT;
+    }
+}
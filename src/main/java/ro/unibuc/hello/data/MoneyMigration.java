@@ -0,0 +1,68 @@
+package ro.unibuc.hello.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.product.ProductEntity;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+
+import java.util.List;
+
+/**
+ * Converts amounts written before prices were stored in cents. Only fields still holding a double are touched,
+ * so running it on every startup is a no-op once the data is migrated. It runs once all beans exist and before the web
+ * server starts, so no request reads a legacy double price as a whole number of cents.
+ */
+@Component
+public class MoneyMigration implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoneyMigration.class);
+
+    // Codul BSON pentru tipul double
+    private static final int BSON_DOUBLE = 1;
+
+    private static final List<String> TRANSACTION_AMOUNTS = List.of("totalAmount", "discountAmount",
+            "promotionDiscount", "loyaltyDiscount", "totalDiscount", "finalAmount");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrateProducts();
+        migrateTransactions();
+    }
+
+    // Colecția vine din maparea entității: ProductEntity are un @Document fără nume
+    public void migrateProducts() {
+        migrate(mongoTemplate.getCollectionName(ProductEntity.class), "price");
+    }
+
+    // Rulată și de TransactionPartitionMigration, înainte să mute tranzacțiile din colecția veche în partiții
+    public void migrateTransactions() {
+        String collection = mongoTemplate.getCollectionName(TransactionEntity.class);
+        for (String field : TRANSACTION_AMOUNTS) {
+            migrate(collection, field);
+        }
+    }
+
+    private void migrate(String collection, String field) {
+        // field = toLong(round(field * 100)), direct pe server
+        AggregationUpdate toCents = AggregationUpdate.update().set(field).toValueOf(
+                ConvertOperators.ToLong.toLong(ArithmeticOperators.Round.roundValueOf(
+                        ArithmeticOperators.Multiply.valueOf(field).multiplyBy(Money.CENTS_PER_UNIT))));
+        long migrated = mongoTemplate.updateMulti(Query.query(Criteria.where(field).type(BSON_DOUBLE)), toCents, collection)
+                .getModifiedCount();
+        if (migrated > 0) {
+            logger.info("Converted {} in {} documents of {} to cents", field, migrated, collection);
+        }
+    }
+}
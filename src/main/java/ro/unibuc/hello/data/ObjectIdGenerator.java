@@ -0,0 +1,16 @@
+package ro.unibuc.hello.data;
+
+import org.bson.types.ObjectId;
+
+/**
+ * Time-ordered ids: 4 bytes of seconds, 5 random bytes per process and a 3 byte counter, so no coordination
+ * between nodes is needed. Spring Data stores a String id holding a valid hex ObjectId as a 12 byte ObjectId,
+ * which keeps the _id index small and appends new keys at its right edge.
+ */
+public class ObjectIdGenerator implements IdGenerator {
+
+    @Override
+    public String nextId() {
+        return new ObjectId().toHexString();
+    }
+}
@@ -0,0 +1,14 @@
+package ro.unibuc.hello.data;
+
+import java.util.UUID;
+
+/**
+ * The previous scheme: random 36 character UUID strings. Kept for deployments that need ids in UUID format.
+ */
+public class RandomUuidGenerator implements IdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
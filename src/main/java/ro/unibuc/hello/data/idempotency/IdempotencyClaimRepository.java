@@ -0,0 +1,18 @@
+package ro.unibuc.hello.data.idempotency;
+
+/**
+ * Conditional updates of a PROCESSING key: each one matches only the claim token its caller holds, so an owner that
+ * lost its claim to a takeover can no longer release or complete the key of the new owner. Spring Data wires
+ * {@link IdempotencyClaimRepositoryImpl} into {@link IdempotencyRecordRepository}.
+ */
+public interface IdempotencyClaimRepository {
+
+    // Preia cheia de la claimToken-ul observat; dintre mai mulți care văd același claim, doar unul reușește
+    boolean takeOver(String key, String observedToken, String claimToken);
+
+    // PROCESSING -> COMPLETED, doar dacă cheia e încă a lui claimToken
+    boolean complete(String key, String claimToken, String transactionId);
+
+    // Șterge cheia, doar dacă e încă a lui claimToken
+    boolean release(String key, String claimToken);
+}
@@ -0,0 +1,41 @@
+package ro.unibuc.hello.data.idempotency;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+public class IdempotencyClaimRepositoryImpl implements IdempotencyClaimRepository {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean takeOver(String key, String observedToken, String claimToken) {
+        Update update = new Update().set("claimToken", claimToken).set("createdAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(claimedBy(key, observedToken), update, IdempotencyRecord.class)
+                .getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean complete(String key, String claimToken, String transactionId) {
+        Update update = new Update().set("status", IdempotencyRecord.Status.COMPLETED).set("transactionId", transactionId);
+        return mongoTemplate.updateFirst(claimedBy(key, claimToken), update, IdempotencyRecord.class)
+                .getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean release(String key, String claimToken) {
+        return mongoTemplate.remove(claimedBy(key, claimToken), IdempotencyRecord.class).getDeletedCount() > 0;
+    }
+
+    private static Query claimedBy(String key, String claimToken) {
+        // Cheile revendicate înainte de token au claimToken lipsă, pe care is(null) îl potrivește
+        return Query.query(Criteria.where("_id").is(key)
+                .and("status").is(IdempotencyRecord.Status.PROCESSING)
+                .and("claimToken").is(claimToken));
+    }
+}
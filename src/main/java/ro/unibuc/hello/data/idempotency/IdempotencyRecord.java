@@ -0,0 +1,89 @@
+package ro.unibuc.hello.data.idempotency;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    public enum Status {
+        PROCESSING,  // checkout-ul pentru această cheie rulează
+        COMPLETED    // tranzacția a fost salvată
+    }
+
+    @Id
+    private String key;               // Valoarea header-ului Idempotency-Key; _id garantează unicitatea
+    private Status status;
+    private String transactionId;     // Tranzacția creată, după COMPLETED
+    private String requestHash;       // SHA-256 al corpului cererii; aceeași cheie cu alt corp e respinsă
+    private String claimToken;        // Generat la fiecare revendicare, ca doar deținătorul curent să poată termina
+    @Indexed(expireAfterSeconds = 86400)
+    private LocalDateTime createdAt;  // Cheile expiră după 24 de ore
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String key, Status status, String transactionId) {
+        this.key = key;
+        this.status = status;
+        this.transactionId = transactionId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public IdempotencyRecord(String key, String requestHash, String claimToken) {
+        this(key, Status.PROCESSING, null);
+        this.requestHash = requestHash;
+        this.claimToken = claimToken;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public String getClaimToken() {
+        return claimToken;
+    }
+
+    public void setClaimToken(String claimToken) {
+        this.claimToken = claimToken;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,8 @@
+package ro.unibuc.hello.data.idempotency;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordRepository extends MongoRepository<IdempotencyRecord, String>, IdempotencyClaimRepository {
+}
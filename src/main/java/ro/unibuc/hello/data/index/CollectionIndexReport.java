@@ -0,0 +1,39 @@
+package ro.unibuc.hello.data.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CollectionIndexReport {
+    public String collection;
+    public List<String> declared = new ArrayList<>();    // Indexurile declarate pe entitate, ca "câmp_direcție"
+    public List<String> missing = new ArrayList<>();     // Declarate, dar inexistente în baza de date
+    public List<String> undeclared = new ArrayList<>();  // Existente în baza de date, dar nedeclarate în cod
+    public List<String> unused = new ArrayList<>();      // Fără nicio utilizare de la ultima repornire a serverului Mongo
+
+    public CollectionIndexReport() {
+    }
+
+    public CollectionIndexReport(String collection) {
+        this.collection = collection;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public List<String> getDeclared() {
+        return declared;
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public List<String> getUndeclared() {
+        return undeclared;
+    }
+
+    public List<String> getUnused() {
+        return unused;
+    }
+}
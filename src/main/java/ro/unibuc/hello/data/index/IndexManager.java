@@ -0,0 +1,161 @@
+package ro.unibuc.hello.data.index;
+
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.transaction.TransactionPartitions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Owns the indexes declared with @Indexed and @CompoundIndex on the @Document classes: creates them on a
+ * background thread once the application is ready, and compares them with what the live database has.
+ */
+@Component
+public class IndexManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexManager.class);
+
+    private static final String ID_INDEX = "_id_";
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final IndexResolver indexResolver;
+    private final boolean createOnStartup;
+
+    private volatile boolean creationFinished;
+
+    public IndexManager(MongoTemplate mongoTemplate, MongoMappingContext mappingContext,
+                        @Value("${mongodb.indexes.create-on-startup:true}") boolean createOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.indexResolver = IndexResolver.create(mappingContext);
+        this.createOnStartup = createOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexesInBackground() {
+        // Pornirea nu așteaptă construirea indexurilor pe colecții mari
+        if (createOnStartup) {
+            Thread.ofVirtual().name("index-manager").start(this::ensureIndexes);
+        }
+    }
+
+    public void ensureIndexes() {
+        targetIndexes().forEach((collection, definitions) -> {
+            for (IndexDefinition definition : definitions) {
+                try {
+                    mongoTemplate.indexOps(collection).ensureIndex(definition);
+                } catch (RuntimeException e) {
+                    // De obicei un index existent cu aceleași chei, dar alte opțiuni; rămâne vizibil în raport
+                    logger.error("Could not create index {} on {}", describe(definition.getIndexKeys()), collection, e);
+                }
+            }
+        });
+        creationFinished = true;
+
+        for (CollectionIndexReport report : report()) {
+            if (!report.getMissing().isEmpty()) {
+                logger.warn("Collection {} is missing declared indexes {}", report.getCollection(), report.getMissing());
+            }
+        }
+    }
+
+    public boolean isCreationFinished() {
+        return creationFinished;
+    }
+
+    public Map<String, List<IndexDefinition>> declaredIndexes() {
+        Map<String, List<IndexDefinition>> declared = new TreeMap<>();
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                List<IndexDefinition> definitions = declared.computeIfAbsent(entity.getCollection(), collection -> new ArrayList<>());
+                indexResolver.resolveIndexFor(entity.getTypeInformation()).forEach(definitions::add);
+            }
+        }
+        return declared;
+    }
+
+    // Indexurile declarate, plus cele ale tranzacțiilor copiate pe fiecare partiție lunară existentă și pe cea fără dată
+    Map<String, List<IndexDefinition>> targetIndexes() {
+        Map<String, List<IndexDefinition>> targets = declaredIndexes();
+        List<IndexDefinition> transactionIndexes = targets.get(TransactionPartitions.LEGACY_COLLECTION);
+        if (transactionIndexes != null) {
+            for (String collection : mongoTemplate.getCollectionNames()) {
+                if (TransactionPartitions.isPartition(collection) || TransactionPartitions.UNDATED_COLLECTION.equals(collection)) {
+                    targets.put(collection, transactionIndexes);
+                }
+            }
+        }
+        return targets;
+    }
+
+    public List<CollectionIndexReport> report() {
+        List<CollectionIndexReport> reports = new ArrayList<>();
+        targetIndexes().forEach((collection, definitions) -> {
+            MongoCollection<Document> mongoCollection = mongoTemplate.getCollection(collection);
+            List<Document> existing = mongoCollection.listIndexes().into(new ArrayList<>());
+            List<Document> stats = mongoCollection.aggregate(List.of(new Document("$indexStats", new Document())))
+                    .into(new ArrayList<>());
+            reports.add(compare(collection, definitions, existing, stats));
+        });
+        return reports;
+    }
+
+    static CollectionIndexReport compare(String collection, List<IndexDefinition> declared,
+                                         List<Document> existing, List<Document> stats) {
+        CollectionIndexReport report = new CollectionIndexReport(collection);
+
+        List<String> existingKeys = new ArrayList<>();
+        for (Document index : existing) {
+            existingKeys.add(describe(index.get("key", Document.class)));
+        }
+
+        for (IndexDefinition definition : declared) {
+            String keys = describe(definition.getIndexKeys());
+            report.declared.add(keys);
+            if (!existingKeys.contains(keys)) {
+                report.missing.add(keys);
+            }
+        }
+
+        for (Document index : existing) {
+            String keys = describe(index.get("key", Document.class));
+            if (!ID_INDEX.equals(index.getString("name")) && !report.declared.contains(keys)) {
+                report.undeclared.add(keys);
+            }
+        }
+
+        // $indexStats numără utilizările de la ultima repornire a serverului Mongo
+        for (Document stat : stats) {
+            Document accesses = stat.get("accesses", Document.class);
+            if (!ID_INDEX.equals(stat.getString("name")) && accesses != null
+                    && ((Number) accesses.get("ops")).longValue() == 0) {
+                report.unused.add(describe(stat.get("key", Document.class)));
+            }
+        }
+        return report;
+    }
+
+    // Aceeași formă ca numele generate de Mongo, de ex. userId_1_date_1; valorile numerice pot veni ca int, long sau double
+    static String describe(Document keys) {
+        StringJoiner description = new StringJoiner("_");
+        keys.forEach((field, direction) -> description.add(field)
+                .add(direction instanceof Number number ? String.valueOf(number.intValue()) : String.valueOf(direction)));
+        return description.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package ro.unibuc.hello.data.index;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes /actuator/indexes: declared, missing, undeclared and unused indexes of every mapped collection.
+ */
+@Component
+@Endpoint(id = "indexes")
+public class IndexReportEndpoint {
+
+    private final IndexManager indexManager;
+
+    public IndexReportEndpoint(IndexManager indexManager) {
+        this.indexManager = indexManager;
+    }
+
+    @ReadOperation
+    public Map<String, Object> indexes() {
+        List<CollectionIndexReport> collections = indexManager.report();
+        return Map.of(
+            "creationFinished", indexManager.isCreationFinished(),
+            "collections", collections
+        );
+    }
+}
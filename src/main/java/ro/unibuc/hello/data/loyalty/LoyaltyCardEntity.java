@@ -1,7 +1,10 @@
 package ro.unibuc.hello.data.loyalty;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import ro.unibuc.hello.data.Money;
+
 import java.time.LocalDate;
 
 @Document(collection = "loyalty_cards")
@@ -11,14 +14,19 @@ public class LoyaltyCardEntity {
         BRONZE, GOLD, PREMIUM
     }
     
+    // Un punct pentru fiecare 10 unități monetare plătite
+    public static final long CENTS_PER_POINT = 10 * Money.CENTS_PER_UNIT;
+    
     @Id
     private String id;
     
+    @Indexed
     private CardType cardType;
     private int points;
     private LocalDate issueDate;
     private LocalDate expiryDate;
     private double discountPercentage;
+    @Indexed
     private String userId; // Modificat din customerId în userId
     
     public LoyaltyCardEntity() {
@@ -5,7 +5,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface LoyaltyCardRepository extends MongoRepository<LoyaltyCardEntity, String> {
+public interface LoyaltyCardRepository extends MongoRepository<LoyaltyCardEntity, String>, LoyaltyPointsRepository {
     List<LoyaltyCardEntity> findByUserId(String userId);
     List<LoyaltyCardEntity> findByCardType(LoyaltyCardEntity.CardType cardType);
 }
\ No newline at end of file
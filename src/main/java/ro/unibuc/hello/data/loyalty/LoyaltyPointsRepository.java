@@ -0,0 +1,17 @@
+package ro.unibuc.hello.data.loyalty;
+
+/**
+ * Point updates executed server-side with findAndModify, so concurrent purchases on the same card
+ * never overwrite each other. Spring Data wires {@link LoyaltyPointsRepositoryImpl} into {@link LoyaltyCardRepository}.
+ */
+public interface LoyaltyPointsRepository {
+
+    // $inc pe points; întoarce cardul actualizat sau null dacă nu există
+    LoyaltyCardEntity incrementPoints(String cardId, int points);
+
+    // Acordă punctele pentru amount (în cenți) minus discount-ul cardului, într-o singură operație; întoarce cardul actualizat sau null
+    LoyaltyCardEntity accruePointsForPurchase(String cardId, long amount);
+
+    // Scade points fără să coboare sub zero, într-o singură operație; întoarce cardul actualizat sau null dacă nu există
+    LoyaltyCardEntity deductPoints(String cardId, int points);
+}
@@ -0,0 +1,54 @@
+package ro.unibuc.hello.data.loyalty;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+public class LoyaltyPointsRepositoryImpl implements LoyaltyPointsRepository {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public LoyaltyCardEntity incrementPoints(String cardId, int points) {
+        return mongoTemplate.findAndModify(byId(cardId), new Update().inc("points", points),
+                FindAndModifyOptions.options().returnNew(true), LoyaltyCardEntity.class);
+    }
+
+    @Override
+    public LoyaltyCardEntity accruePointsForPurchase(String cardId, long amount) {
+        // points += (amount - floor(amount * discountPercentage / 100)) / CENTS_PER_POINT, calculat pe server din procentul
+        // curent al cardului; discount-ul se rotunjește exact ca în Money.percentOf
+        AggregationExpression discount = context -> new Document("$floor", new Document("$divide",
+                List.of(new Document("$multiply", List.of(amount, "$discountPercentage")), 100.0)));
+        AggregationExpression points = context -> new Document("$add", List.of("$points",
+                new Document("$toInt", new Document("$floor", new Document("$divide",
+                        List.of(new Document("$subtract", List.of(amount, discount.toDocument(context))),
+                                LoyaltyCardEntity.CENTS_PER_POINT))))));
+
+        return mongoTemplate.findAndModify(byId(cardId), AggregationUpdate.update().set("points").toValueOf(points),
+                FindAndModifyOptions.options().returnNew(true), LoyaltyCardEntity.class);
+    }
+
+    @Override
+    public LoyaltyCardEntity deductPoints(String cardId, int points) {
+        // points = max(0, points - n), calculat pe server ca să nu piardă punctele adăugate între timp
+        AggregationExpression remaining = context -> new Document("$max", List.of(0,
+                new Document("$subtract", List.of("$points", points))));
+
+        return mongoTemplate.findAndModify(byId(cardId), AggregationUpdate.update().set("points").toValueOf(remaining),
+                FindAndModifyOptions.options().returnNew(true), LoyaltyCardEntity.class);
+    }
+
+    private static Query byId(String cardId) {
+        return Query.query(Criteria.where("_id").is(cardId));
+    }
+}
@@ -2,13 +2,13 @@ package ro.unibuc.hello.data.product;
 
 public class ProductDTO{
     public String name;
-    public float price;
+    public long price;        // prețul în cenți
     public int stockSize;
     public String category;
     public String brand;
     public String description;
 
-    public ProductDTO(String name, float price, int stockSize, String category, String brand, String description){
+    public ProductDTO(String name, long price, int stockSize, String category, String brand, String description){
         this.name = name;
         this.price = price;
         this.stockSize = stockSize;
@@ -23,10 +23,10 @@ public class ProductDTO{
     public void setName(String name){
         this.name = name;
     }
-    public float getPrice(){
+    public long getPrice(){
         return price;
     }
-    public void setPrice(float price){
+    public void setPrice(long price){
         this.price = price;
     }
 
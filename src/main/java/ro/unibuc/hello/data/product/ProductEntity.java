@@ -2,12 +2,16 @@ package ro.unibuc.hello.data.product;
 
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
 
+@Document
 public class ProductEntity {
     @Id
     public String id;
+    @Indexed
     public String name;
-    public float price;
+    public long price;        // prețul în cenți
     public boolean inStock;
     public int stockSize;
     public String category;
@@ -30,11 +34,11 @@ public class ProductEntity {
         this.name = name;
     }
 
-    public float getPrice(){
+    public long getPrice(){
         return price;
     }
 
-    public void setPrice(float price){
+    public void setPrice(long price){
         this.price = price;
     }
 
@@ -72,7 +76,7 @@ public class ProductEntity {
 
     public ProductEntity(){}
 
-    public ProductEntity(String id, String name, float price, boolean inStock, int stockSize, String category, String brand, String description){
+    public ProductEntity(String id, String name, long price, boolean inStock, int stockSize, String category, String brand, String description){
         this.id = id;
         this.name = name;
         this.price = price;
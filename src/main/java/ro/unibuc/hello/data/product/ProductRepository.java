@@ -2,7 +2,7 @@ package ro.unibuc.hello.data.product;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface ProductRepository extends MongoRepository<ProductEntity, String> {
+public interface ProductRepository extends MongoRepository<ProductEntity, String>, ProductStockRepository {
     ProductEntity findByName(String name);
     
 }
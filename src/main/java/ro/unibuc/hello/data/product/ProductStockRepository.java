@@ -0,0 +1,19 @@
+package ro.unibuc.hello.data.product;
+
+import java.util.Map;
+
+/**
+ * Stock operations executed server-side, without loading the product documents.
+ * Spring Data wires {@link ProductStockRepositoryImpl} into {@link ProductRepository}.
+ */
+public interface ProductStockRepository {
+
+    // Aplică toate modificările de stoc (productId -> delta) într-un singur bulk write neordonat
+    void adjustStock(Map<String, Integer> deltas);
+
+    // Scade atomic quantity din stoc doar dacă stockSize >= quantity; întoarce false dacă nu există stoc suficient
+    boolean reserveStock(String productId, int quantity);
+
+    // Doar stockSize și inStock ale produsului, fără restul documentului; null dacă produsul nu există
+    ProductEntity findStock(String productId);
+}
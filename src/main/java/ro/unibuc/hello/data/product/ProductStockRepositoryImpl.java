@@ -0,0 +1,52 @@
+package ro.unibuc.hello.data.product;
+
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Map;
+
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void adjustStock(Map<String, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductEntity.class);
+        deltas.forEach((productId, delta) ->
+                bulk.updateOne(Query.query(Criteria.where("_id").is(productId)), stockUpdate(delta)));
+        bulk.execute();
+    }
+
+    @Override
+    public boolean reserveStock(String productId, int quantity) {
+        Query query = Query.query(Criteria.where("_id").is(productId).and("stockSize").gte(quantity));
+        UpdateResult result = mongoTemplate.updateFirst(query, stockUpdate(-quantity), ProductEntity.class);
+        return result.getMatchedCount() == 1;
+    }
+
+    @Override
+    public ProductEntity findStock(String productId) {
+        Query query = Query.query(Criteria.where("_id").is(productId));
+        query.fields().include("stockSize", "inStock");
+        return mongoTemplate.findOne(query, ProductEntity.class);
+    }
+
+    // stockSize += delta, apoi inStock = stockSize > 0, ambele în același update
+    static AggregationUpdate stockUpdate(int delta) {
+        return AggregationUpdate.update()
+                .set("stockSize").toValueOf(ArithmeticOperators.valueOf("stockSize").add(delta))
+                .set("inStock").toValueOf(ComparisonOperators.valueOf("stockSize").greaterThanValue(0));
+    }
+}
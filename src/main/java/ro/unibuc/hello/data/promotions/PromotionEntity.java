@@ -1,10 +1,13 @@
 package ro.unibuc.hello.data.promotions;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
 @Document(collection = "promotions")
+// Egalitatea pe active, apoi intervalul; acoperă și findByActiveTrue prin prefix
+@CompoundIndex(name = "active_endDate_startDate", def = "{'active': 1, 'endDate': 1, 'startDate': 1}")
 public class PromotionEntity {
     
     public enum PromotionType {
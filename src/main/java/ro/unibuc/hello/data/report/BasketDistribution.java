@@ -0,0 +1,78 @@
+package ro.unibuc.hello.data.report;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Distribuția unei metrici de coș, global sau pentru o categorie
+public class BasketDistribution {
+    public String metric;                                         // Numele metricii exportate în Prometheus
+    public boolean overflow;                                      // Seria comună a categoriilor peste max-categories
+    public long count;                                            // Coșuri înregistrate de la pornire
+    public double mean;
+    public double max;                                            // Maximul din ultimele minute
+    public Map<String, Double> percentiles = new LinkedHashMap<>(); // "0.5" -> valoare, din ultimele minute
+    public Map<String, Double> buckets = new LinkedHashMap<>();     // Limita bucket-ului -> coșuri cu valoare <= limită
+
+    public BasketDistribution() {
+    }
+
+    public BasketDistribution(String metric) {
+        this.metric = metric;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public void setMetric(String metric) {
+        this.metric = metric;
+    }
+
+    public boolean isOverflow() {
+        return overflow;
+    }
+
+    public void setOverflow(boolean overflow) {
+        this.overflow = overflow;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public void setMean(double mean) {
+        this.mean = mean;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public void setMax(double max) {
+        this.max = max;
+    }
+
+    public Map<String, Double> getPercentiles() {
+        return percentiles;
+    }
+
+    public void setPercentiles(Map<String, Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    public Map<String, Double> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(Map<String, Double> buckets) {
+        this.buckets = buckets;
+    }
+}
@@ -0,0 +1,26 @@
+package ro.unibuc.hello.data.report;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+// Intervalele pentru care se păstrează câte un sketch de cumpărători unici
+public enum BuyerPeriod {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    BuyerPeriod(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    // Începutul intervalului care conține date
+    public LocalDateTime startOf(LocalDateTime date) {
+        return date.truncatedTo(unit);
+    }
+
+    // Câte intervale sunt de la from la to inclusiv; ambele capete sunt începuturi de interval
+    public long count(LocalDateTime from, LocalDateTime to) {
+        return unit.between(from, to) + 1;
+    }
+}
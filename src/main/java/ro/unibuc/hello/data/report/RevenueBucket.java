@@ -0,0 +1,51 @@
+package ro.unibuc.hello.data.report;
+
+// Venitul unei valori a dimensiunii (categorie, brand sau oră), pe o zi sau pe tot intervalul
+public class RevenueBucket {
+    public String day;        // Ziua, ISO yyyy-MM-dd; null în totalurile pe interval
+    public String key;        // Categoria, brandul sau ora
+    public long count;        // Numărul de tranzacții
+    public long revenue;      // Venitul în cenți
+
+    public RevenueBucket() {
+    }
+
+    public RevenueBucket(String day, String key, long count, long revenue) {
+        this.day = day;
+        this.key = key;
+        this.count = count;
+        this.revenue = revenue;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public void setDay(String day) {
+        this.day = day;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(long revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,8 @@
+package ro.unibuc.hello.data.report;
+
+// Dimensiunile după care se împarte venitul în analize
+public enum RevenueDimension {
+    CATEGORY,   // venitul net din defalcarea pe categorii a tranzacției
+    BRAND,      // venitul brut al liniilor, la prețul de la checkout
+    HOUR        // venitul net după ora din zi a tranzacției, "00".."23"
+}
@@ -0,0 +1,105 @@
+package ro.unibuc.hello.data.report;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "sales_rollups")
+@CompoundIndex(name = "category_day", def = "{'category': 1, 'day': 1}")
+public class SalesRollupEntity {
+    @Id
+    public String id;                // "yyyy-MM-dd" pentru totalul zilei, "yyyy-MM-dd|categorie" pentru o categorie
+    public String day;               // Ziua tranzacțiilor, ISO yyyy-MM-dd
+    public String category;          // null pentru totalul zilei
+    // Toate sumele sunt în cenți
+    public long count;               // Numărul de tranzacții
+    public long gross;               // Suma înainte de discount
+    public long promotionDiscount;   // Discount din promoții
+    public long loyaltyDiscount;     // Discount din carduri de fidelitate
+    public long net;                 // Suma încasată
+
+    public SalesRollupEntity() {
+    }
+
+    public SalesRollupEntity(String day, String category) {
+        this.id = id(day, category);
+        this.day = day;
+        this.category = category;
+    }
+
+    public static String id(String day, String category) {
+        return category == null ? day : day + "|" + category;
+    }
+
+    public void add(long count, long gross, long promotionDiscount, long loyaltyDiscount, long net) {
+        this.count += count;
+        this.gross += gross;
+        this.promotionDiscount += promotionDiscount;
+        this.loyaltyDiscount += loyaltyDiscount;
+        this.net += net;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public void setDay(String day) {
+        this.day = day;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getGross() {
+        return gross;
+    }
+
+    public void setGross(long gross) {
+        this.gross = gross;
+    }
+
+    public long getPromotionDiscount() {
+        return promotionDiscount;
+    }
+
+    public void setPromotionDiscount(long promotionDiscount) {
+        this.promotionDiscount = promotionDiscount;
+    }
+
+    public long getLoyaltyDiscount() {
+        return loyaltyDiscount;
+    }
+
+    public void setLoyaltyDiscount(long loyaltyDiscount) {
+        this.loyaltyDiscount = loyaltyDiscount;
+    }
+
+    public long getNet() {
+        return net;
+    }
+
+    public void setNet(long net) {
+        this.net = net;
+    }
+}
@@ -0,0 +1,17 @@
+package ro.unibuc.hello.data.report;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.util.List;
+
+public interface SalesRollupRepository extends MongoRepository<SalesRollupEntity, String>, SalesRollupUpdateRepository {
+
+    // Totalurile zilnice dintre fromDay și toDay inclusiv, în ordinea zilelor
+    @Query(value = "{ 'category': null, 'day': { $gte: ?0, $lte: ?1 } }", sort = "{ 'day': 1 }")
+    List<SalesRollupEntity> findDailyTotals(String fromDay, String toDay);
+
+    // Totalurile pe categorii și zile dintre fromDay și toDay inclusiv
+    @Query(value = "{ 'category': { $ne: null }, 'day': { $gte: ?0, $lte: ?1 } }", sort = "{ 'day': 1 }")
+    List<SalesRollupEntity> findCategoryTotals(String fromDay, String toDay);
+}
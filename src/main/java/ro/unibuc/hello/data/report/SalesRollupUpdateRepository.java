@@ -0,0 +1,18 @@
+package ro.unibuc.hello.data.report;
+
+import java.util.Collection;
+
+/**
+ * Rollup maintenance executed server-side with $inc upserts, so concurrent checkouts never overwrite each other.
+ * Spring Data wires {@link SalesRollupUpdateRepositoryImpl} into {@link SalesRollupRepository}.
+ */
+public interface SalesRollupUpdateRepository {
+
+    // Adună fiecare delta (count, gross, discount-uri, net) în documentul cu același id, creându-l dacă lipsește;
+    // toate documentele se actualizează într-un singur bulk write neordonat
+    void increment(Collection<SalesRollupEntity> deltas);
+
+    // Scrie rollup-urile recalculate din tranzacții cu $set pe fiecare _id, fără să șteargă colecția, apoi șterge
+    // rollup-urile cu număr negativ, rămase de la ștergerea unor tranzacții care nu fuseseră numărate
+    void rebuild(Collection<SalesRollupEntity> rollups);
+}
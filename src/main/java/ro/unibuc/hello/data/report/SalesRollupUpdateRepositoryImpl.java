@@ -0,0 +1,62 @@
+package ro.unibuc.hello.data.report;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+
+public class SalesRollupUpdateRepositoryImpl implements SalesRollupUpdateRepository {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void increment(Collection<SalesRollupEntity> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SalesRollupEntity.class);
+        for (SalesRollupEntity delta : deltas) {
+            Update update = new Update()
+                    .inc("count", delta.count)
+                    .inc("gross", delta.gross)
+                    .inc("promotionDiscount", delta.promotionDiscount)
+                    .inc("loyaltyDiscount", delta.loyaltyDiscount)
+                    .inc("net", delta.net)
+                    .setOnInsert("day", delta.day);
+            if (delta.category != null) {
+                update.setOnInsert("category", delta.category);
+            }
+            bulk.upsert(Query.query(Criteria.where("_id").is(delta.id)), update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public void rebuild(Collection<SalesRollupEntity> rollups) {
+        if (!rollups.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SalesRollupEntity.class);
+            for (SalesRollupEntity rollup : rollups) {
+                Update update = new Update()
+                        .set("day", rollup.day)
+                        .set("count", rollup.count)
+                        .set("gross", rollup.gross)
+                        .set("promotionDiscount", rollup.promotionDiscount)
+                        .set("loyaltyDiscount", rollup.loyaltyDiscount)
+                        .set("net", rollup.net);
+                if (rollup.category != null) {
+                    update.set("category", rollup.category);
+                }
+                bulk.upsert(Query.query(Criteria.where("_id").is(rollup.id)), update);
+            }
+            bulk.execute();
+        }
+        // Un rollup recalculat nu e niciodată negativ, iar unul creat între timp de un checkout nici atât
+        mongoTemplate.remove(Query.query(Criteria.where("count").lt(0)), SalesRollupEntity.class);
+    }
+}
@@ -0,0 +1,166 @@
+package ro.unibuc.hello.data.report;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving summary of the heaviest items in a weighted stream, in at most {@code capacity} counters. An item that
+ * is not tracked when the summary is full takes over the counter with the smallest count and inherits that count as
+ * its error, so every tracked count overestimates the true total by at most its error, and any item whose true total
+ * exceeds {@link #minCount()} is guaranteed to be tracked. Counters sit in a min-heap, so an update costs O(log
+ * capacity). Not thread-safe.
+ */
+public class SpaceSavingSummary {
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    private final Counter[] heap;
+    private int size;
+
+    public SpaceSavingSummary(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    public void offer(String item, long weight) {
+        merge(item, weight, 0);
+    }
+
+    // Adaugă un contor dintr-un alt rezumat: eroarea lui se adună la cea a contorului de aici, ca minimul să rămână garantat
+    public void merge(String item, long count, long error) {
+        if (count <= 0) {
+            return;
+        }
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count += count;
+            counter.error += error;
+            siftDown(counter.index);
+        } else if (size < capacity) {
+            restore(item, count, error);
+        } else {
+            // Contorul cel mai mic trece la noul produs, iar valoarea lui devine eroarea estimării
+            Counter evicted = heap[0];
+            counters.remove(evicted.item);
+            long floor = evicted.count;
+            evicted.item = item;
+            evicted.error = floor + error;
+            evicted.count = floor + count;
+            counters.put(item, evicted);
+            siftDown(0);
+        }
+    }
+
+    // Adaugă un contor cu valorile salvate într-un checkpoint; contoarele care nu mai încap se ignoră
+    public void restore(String item, long count, long error) {
+        if (size == capacity || counters.containsKey(item)) {
+            return;
+        }
+        Counter counter = new Counter(item, count, error);
+        counter.index = size;
+        heap[size++] = counter;
+        counters.put(item, counter);
+        siftUp(counter.index);
+    }
+
+    // Limita de sus pentru un produs care nu are contor; 0 cât timp rezumatul nu e plin
+    public long minCount() {
+        return size < capacity ? 0 : heap[0].count;
+    }
+
+    public Counter get(String item) {
+        return counters.get(item);
+    }
+
+    public List<Counter> counters() {
+        List<Counter> copy = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            copy.add(new Counter(heap[i].item, heap[i].count, heap[i].error));
+        }
+        return copy;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i] = null;
+        }
+        counters.clear();
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    public static class Counter {
+        private String item;
+        private long count;
+        private long error;
+        private int index;
+
+        Counter(String item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getItem() {
+            return item;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+}
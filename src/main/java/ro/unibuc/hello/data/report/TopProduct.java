@@ -0,0 +1,41 @@
+package ro.unibuc.hello.data.report;
+
+// Un produs din topul vânzărilor pe fereastra curentă
+public class TopProduct {
+    public String productId;
+    public long quantity;            // Bucăți vândute, estimare de sus
+    public long minQuantity;         // Bucăți vândute sigur; egal cu quantity cât timp produsul n-a fost estimat
+
+    public TopProduct() {
+    }
+
+    public TopProduct(String productId, long quantity, long minQuantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.minQuantity = minQuantity;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    public long getMinQuantity() {
+        return minQuantity;
+    }
+
+    public void setMinQuantity(long minQuantity) {
+        this.minQuantity = minQuantity;
+    }
+}
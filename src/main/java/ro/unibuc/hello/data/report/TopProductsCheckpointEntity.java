@@ -0,0 +1,142 @@
+package ro.unibuc.hello.data.report;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Starea salvată a topului de produse pentru un scope: global sau o categorie
+@Document(collection = "top_products_checkpoints")
+public class TopProductsCheckpointEntity {
+    @Id
+    public String id;                // "global" sau "category|<categorie>"
+    public String category;          // null pentru topul global
+    public long bucketMillis;        // Durata unui interval; checkpoint-urile cu altă durată se ignoră
+    public List<Bucket> buckets = new ArrayList<>();
+    public LocalDateTime savedAt;
+
+    public static final String GLOBAL = "global";
+
+    public TopProductsCheckpointEntity() {
+    }
+
+    public TopProductsCheckpointEntity(String category, long bucketMillis) {
+        this.id = id(category);
+        this.category = category;
+        this.bucketMillis = bucketMillis;
+    }
+
+    public static String id(String category) {
+        return category == null ? GLOBAL : "category|" + category;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    public void setBucketMillis(long bucketMillis) {
+        this.bucketMillis = bucketMillis;
+    }
+
+    public List<Bucket> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<Bucket> buckets) {
+        this.buckets = buckets;
+    }
+
+    public LocalDateTime getSavedAt() {
+        return savedAt;
+    }
+
+    public void setSavedAt(LocalDateTime savedAt) {
+        this.savedAt = savedAt;
+    }
+
+    // Un interval din fereastră și contoarele lui
+    public static class Bucket {
+        public long index;           // Numărul intervalului de la epoch, în bucketMillis
+        public List<Counter> counters = new ArrayList<>();
+
+        public Bucket() {
+        }
+
+        public Bucket(long index) {
+            this.index = index;
+        }
+
+        public long getIndex() {
+            return index;
+        }
+
+        public void setIndex(long index) {
+            this.index = index;
+        }
+
+        public List<Counter> getCounters() {
+            return counters;
+        }
+
+        public void setCounters(List<Counter> counters) {
+            this.counters = counters;
+        }
+    }
+
+    public static class Counter {
+        public String productId;
+        public long count;
+        public long error;
+
+        public Counter() {
+        }
+
+        public Counter(String productId, long count, long error) {
+            this.productId = productId;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getProductId() {
+            return productId;
+        }
+
+        public void setProductId(String productId) {
+            this.productId = productId;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        public void setError(long error) {
+            this.error = error;
+        }
+    }
+}
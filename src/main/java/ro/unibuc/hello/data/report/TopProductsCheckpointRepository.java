@@ -0,0 +1,6 @@
+package ro.unibuc.hello.data.report;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface TopProductsCheckpointRepository extends MongoRepository<TopProductsCheckpointEntity, String> {
+}
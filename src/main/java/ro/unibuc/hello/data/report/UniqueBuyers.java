@@ -0,0 +1,93 @@
+package ro.unibuc.hello.data.report;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Numărul estimat de cumpărători distincți pe un interval și pe fiecare oră sau zi din el
+public class UniqueBuyers {
+    public BuyerPeriod period;
+    public LocalDateTime from;       // Începutul primului interval
+    public LocalDateTime to;         // Începutul ultimului interval
+    public long uniqueBuyers;        // Cumpărători distincți pe tot intervalul, nu suma pe perioade
+    public List<Period> periods = new ArrayList<>();
+
+    public UniqueBuyers() {
+    }
+
+    public UniqueBuyers(BuyerPeriod period, LocalDateTime from, LocalDateTime to) {
+        this.period = period;
+        this.from = from;
+        this.to = to;
+    }
+
+    public BuyerPeriod getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(BuyerPeriod period) {
+        this.period = period;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public long getUniqueBuyers() {
+        return uniqueBuyers;
+    }
+
+    public void setUniqueBuyers(long uniqueBuyers) {
+        this.uniqueBuyers = uniqueBuyers;
+    }
+
+    public List<Period> getPeriods() {
+        return periods;
+    }
+
+    public void setPeriods(List<Period> periods) {
+        this.periods = periods;
+    }
+
+    // O oră sau o zi cu cel puțin un cumpărător
+    public static class Period {
+        public LocalDateTime start;
+        public long uniqueBuyers;
+
+        public Period() {
+        }
+
+        public Period(LocalDateTime start, long uniqueBuyers) {
+            this.start = start;
+            this.uniqueBuyers = uniqueBuyers;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public void setStart(LocalDateTime start) {
+            this.start = start;
+        }
+
+        public long getUniqueBuyers() {
+            return uniqueBuyers;
+        }
+
+        public void setUniqueBuyers(long uniqueBuyers) {
+            this.uniqueBuyers = uniqueBuyers;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ro.unibuc.hello.data.report;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Sketch-ul HyperLogLog al cumpărătorilor dintr-un interval, scris de o singură instanță; instanțele se adună la citire
+@Document(collection = "unique_buyer_sketches")
+@CompoundIndex(name = "period_start", def = "{'period': 1, 'start': 1}")
+public class UniqueBuyersSketchEntity {
+    @Id
+    public String id;                // "<period>|<start>|<instanță>"
+    public BuyerPeriod period;
+    public LocalDateTime start;      // Începutul intervalului, ora locală ca în tranzacții
+    public String instanceId;
+    public byte[] registers;         // Registrele HyperLogLog
+    public LocalDateTime updatedAt;
+    @Indexed(expireAfterSeconds = 0)
+    public LocalDateTime expiresAt;  // Doar sketch-urile orare expiră; cele zilnice rămân
+
+    public UniqueBuyersSketchEntity() {
+    }
+
+    public UniqueBuyersSketchEntity(BuyerPeriod period, LocalDateTime start, String instanceId) {
+        this.id = id(period, start, instanceId);
+        this.period = period;
+        this.start = start;
+        this.instanceId = instanceId;
+    }
+
+    public static String id(BuyerPeriod period, LocalDateTime start, String instanceId) {
+        return period + "|" + start + "|" + instanceId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public BuyerPeriod getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(BuyerPeriod period) {
+        this.period = period;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public byte[] getRegisters() {
+        return registers;
+    }
+
+    public void setRegisters(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,14 @@
+package ro.unibuc.hello.data.report;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface UniqueBuyersSketchRepository extends MongoRepository<UniqueBuyersSketchEntity, String> {
+
+    // Sketch-urile tuturor instanțelor pentru intervalele care încep între from și to inclusiv
+    @Query(value = "{ 'period': ?0, 'start': { $gte: ?1, $lte: ?2 } }", sort = "{ 'start': 1 }")
+    List<UniqueBuyersSketchEntity> findSketches(BuyerPeriod period, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,61 @@
+package ro.unibuc.hello.data.transaction;
+
+// Partea unei tranzacții care revine unei categorii; sumele sunt în cenți și se adună exact la totalurile tranzacției
+public class CategorySale {
+    public String category;
+    public long gross;               // Suma produselor din categorie, înainte de discount
+    public long promotionDiscount;   // Discount-ul din promoțiile categoriei
+    public long loyaltyDiscount;     // Cota categoriei din discount-ul cardului de fidelitate
+    public long net;                 // gross - promotionDiscount - loyaltyDiscount
+
+    public CategorySale() {
+    }
+
+    public CategorySale(String category, long gross, long promotionDiscount, long loyaltyDiscount) {
+        this.category = category;
+        this.gross = gross;
+        this.promotionDiscount = promotionDiscount;
+        this.loyaltyDiscount = loyaltyDiscount;
+        this.net = gross - promotionDiscount - loyaltyDiscount;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public long getGross() {
+        return gross;
+    }
+
+    public void setGross(long gross) {
+        this.gross = gross;
+    }
+
+    public long getPromotionDiscount() {
+        return promotionDiscount;
+    }
+
+    public void setPromotionDiscount(long promotionDiscount) {
+        this.promotionDiscount = promotionDiscount;
+    }
+
+    public long getLoyaltyDiscount() {
+        return loyaltyDiscount;
+    }
+
+    public void setLoyaltyDiscount(long loyaltyDiscount) {
+        this.loyaltyDiscount = loyaltyDiscount;
+    }
+
+    public long getNet() {
+        return net;
+    }
+
+    public void setNet(long net) {
+        this.net = net;
+    }
+}
@@ -0,0 +1,68 @@
+package ro.unibuc.hello.data.transaction;
+
+import java.time.LocalDateTime;
+
+public class CheckoutTicket {
+
+    public enum Status {
+        QUEUED,      // așteaptă în coadă
+        PROCESSING,  // checkout-ul rulează
+        COMPLETED,   // tranzacția a fost salvată
+        FAILED       // checkout-ul a fost respins, vezi result.error
+    }
+
+    public String id;
+    public volatile Status status;
+    public LocalDateTime submittedAt;
+    public volatile LocalDateTime completedAt;
+    public volatile TransactionBatchResult result;   // Rezultatul, după ce checkout-ul s-a terminat
+
+    public CheckoutTicket() {
+    }
+
+    public CheckoutTicket(String id) {
+        this.id = id;
+        this.status = Status.QUEUED;
+        this.submittedAt = LocalDateTime.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public TransactionBatchResult getResult() {
+        return result;
+    }
+
+    public void setResult(TransactionBatchResult result) {
+        this.result = result;
+    }
+}
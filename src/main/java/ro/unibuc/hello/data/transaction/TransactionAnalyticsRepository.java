@@ -0,0 +1,17 @@
+package ro.unibuc.hello.data.transaction;
+
+import ro.unibuc.hello.data.report.RevenueBucket;
+import ro.unibuc.hello.data.report.RevenueDimension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Revenue aggregations computed by Mongo over the monthly transaction partitions; only the grouped buckets leave
+ * the database. Spring Data wires {@link TransactionAnalyticsRepositoryImpl} into {@link TransactionRepository}.
+ */
+public interface TransactionAnalyticsRepository {
+
+    // Venitul pe zi și valoare a dimensiunii pentru tranzacțiile din zilele fromDay..toDay inclusiv
+    List<RevenueBucket> revenueByDay(RevenueDimension dimension, LocalDate fromDay, LocalDate toDay);
+}
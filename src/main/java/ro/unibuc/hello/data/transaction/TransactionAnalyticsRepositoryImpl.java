@@ -0,0 +1,102 @@
+package ro.unibuc.hello.data.transaction;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import ro.unibuc.hello.data.report.RevenueBucket;
+import ro.unibuc.hello.data.report.RevenueDimension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TransactionAnalyticsRepositoryImpl implements TransactionAnalyticsRepository {
+
+    static final String UNKNOWN = "unknown";
+
+    // LocalDateTime se salvează convertit din fusul orar al aplicației, deci zilele și orele se calculează în același fus
+    private static final String TIMEZONE = ZoneId.systemDefault().getId();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TransactionPartitions partitions;
+
+    @Autowired
+    private TransactionArchive archive;
+
+    @Override
+    public List<RevenueBucket> revenueByDay(RevenueDimension dimension, LocalDate fromDay, LocalDate toDay) {
+        // Intervalul folosește prefixul date al indexului date_id
+        LocalDateTime from = fromDay.atStartOfDay();
+        LocalDateTime to = toDay.plusDays(1).atStartOfDay();
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(Criteria.where("date").gte(from).lt(to)));
+        stages.addAll(pipeline(dimension));
+        stages.add(stage("$project", new Document("_id", 0)
+                .append("day", "$_id.day")
+                .append("key", "$_id.key")
+                .append("count", new Document("$toLong", "$count"))
+                .append("revenue", new Document("$toLong", "$revenue"))));
+
+        // O zi cade într-o singură partiție lunară, deci rezultatele partițiilor nu mai trebuie regrupate
+        TypedAggregation<TransactionEntity> aggregation = Aggregation.newAggregation(TransactionEntity.class, stages);
+        // Zilele lunilor arhivate se calculează din segmente
+        List<RevenueBucket> buckets = archive.revenueByDay(dimension, fromDay, toDay);
+        for (String partition : partitions.between(from, toDay.atTime(LocalTime.MAX))) {
+            buckets.addAll(mongoTemplate.aggregate(aggregation, partition, RevenueBucket.class).getMappedResults());
+        }
+        return buckets;
+    }
+
+    static List<AggregationOperation> pipeline(RevenueDimension dimension) {
+        return switch (dimension) {
+            // Tranzacțiile fără defalcare pe categorii (create înainte de ea) nu au ce desface și sunt omise
+            case CATEGORY -> List.of(
+                    stage("$unwind", "$categorySales"),
+                    group(key("$categorySales.category"), "$categorySales.net"));
+            // Liniile fără preț copiat la checkout sunt omise; fiecare tranzacție se numără o dată pe brand
+            case BRAND -> List.of(
+                    stage("$unwind", "$productsList"),
+                    stage("$match", new Document("productsList.unitPrice", new Document("$gt", 0))),
+                    stage("$group", new Document("_id", new Document("transaction", "$_id")
+                                    .append("day", day())
+                                    .append("key", new Document("$ifNull", List.of("$productsList.brand", UNKNOWN))))
+                            .append("revenue", new Document("$sum", new Document("$multiply",
+                                    List.of("$productsList.unitPrice", "$productsList.productQuantity"))))),
+                    stage("$group", new Document("_id", new Document("day", "$_id.day").append("key", "$_id.key"))
+                            .append("count", new Document("$sum", 1))
+                            .append("revenue", new Document("$sum", "$revenue"))));
+            case HOUR -> List.of(
+                    group(new Document("$dateToString", new Document("format", "%H").append("date", "$date")
+                            .append("timezone", TIMEZONE)), "$finalAmount"));
+        };
+    }
+
+    private static AggregationOperation group(Object key, String revenue) {
+        return stage("$group", new Document("_id", new Document("day", day()).append("key", key))
+                .append("count", new Document("$sum", 1))
+                .append("revenue", new Document("$sum", revenue)));
+    }
+
+    private static Document key(String field) {
+        return new Document("$ifNull", List.of(field, UNKNOWN));
+    }
+
+    private static Document day() {
+        return new Document("$dateToString", new Document("format", "%Y-%m-%d").append("date", "$date")
+                .append("timezone", TIMEZONE));
+    }
+
+    private static AggregationOperation stage(String operator, Object value) {
+        return context -> new Document(operator, value);
+    }
+}
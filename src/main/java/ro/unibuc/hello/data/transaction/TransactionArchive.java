@@ -0,0 +1,396 @@
+package ro.unibuc.hello.data.transaction;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.report.RevenueBucket;
+import ro.unibuc.hello.data.report.RevenueDimension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier of the transaction history: months moved out of Mongo by {@link TransactionArchiver} into one
+ * {@link TransactionSegment} file each. The segments present in the archive directory are mapped once and picked up
+ * again periodically, and every read uses the sparse index of a segment to skip the blocks that cannot match.
+ * Results have the same order and projection as the queries on the monthly partitions, so the repository merges
+ * the two tiers without callers noticing where a transaction lives. Archived transactions are read-only.
+ */
+@Component
+public class TransactionArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchive.class);
+
+    private final MongoConverter converter;
+    private final Path directory;
+
+    private volatile NavigableMap<YearMonth, TransactionSegment> segments;
+
+    public TransactionArchive(MongoTemplate mongoTemplate,
+                              @Value("${transactions.archive.dir:archive/transactions}") String directory) {
+        this.converter = mongoTemplate.getConverter();
+        this.directory = Paths.get(directory);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public Path pathFor(YearMonth month) {
+        return directory.resolve(TransactionSegment.fileName(month));
+    }
+
+    public TransactionSegmentWriter writer(YearMonth month, int blockRows) throws IOException {
+        Files.createDirectories(directory);
+        return new TransactionSegmentWriter(pathFor(month), blockRows);
+    }
+
+    public TransactionSegment segment(YearMonth month) {
+        return segments().get(month);
+    }
+
+    public List<YearMonth> months() {
+        return new ArrayList<>(segments().keySet());
+    }
+
+    // Recitește periodic directorul, ca să vadă segmentele scrise de alte instanțe pe un volum comun
+    @Scheduled(fixedDelayString = "${transactions.partitions.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        NavigableMap<YearMonth, TransactionSegment> previous = segments == null ? Collections.emptyNavigableMap() : segments;
+        NavigableMap<YearMonth, TransactionSegment> found = new TreeMap<>();
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    YearMonth month = TransactionSegment.monthOf(file);
+                    if (month != null) {
+                        TransactionSegment segment = open(file, previous.get(month));
+                        if (segment != null) {
+                            found.put(month, segment);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                logger.error("Could not list transaction archive {}", directory, e);
+                return;
+            }
+        }
+        segments = Collections.unmodifiableNavigableMap(found);
+    }
+
+    private static TransactionSegment open(Path file, TransactionSegment current) {
+        try {
+            // Un segment nu se modifică pe loc, deci același fișier înseamnă aceeași mapare
+            if (current != null && current.isCurrent(Files.readAttributes(file, BasicFileAttributes.class))) {
+                return current;
+            }
+            return TransactionSegment.open(file);
+        } catch (IOException e) {
+            logger.error("Skipping unreadable transaction segment {}", file, e);
+            return null;
+        }
+    }
+
+    // Retenția: segmentele lunilor expirate se șterg întregi
+    public synchronized List<Path> dropBefore(YearMonth month) {
+        List<Path> dropped = new ArrayList<>();
+        for (TransactionSegment segment : segments().headMap(month, false).values()) {
+            try {
+                Files.deleteIfExists(segment.getPath());
+                dropped.add(segment.getPath());
+                logger.info("Dropped transaction segment {}", segment.getPath());
+            } catch (IOException e) {
+                logger.error("Could not drop transaction segment {}", segment.getPath(), e);
+            }
+        }
+        refresh();
+        return dropped;
+    }
+
+    public Optional<TransactionEntity> findById(String id) {
+        for (TransactionSegment segment : forId(id)) {
+            for (TransactionSegmentBlock block : segment.getBlocks()) {
+                if (!block.mayContainId(id)) {
+                    continue;
+                }
+                TransactionSegment.Block rows = segment.read(block);
+                String[] ids = rows.ids();
+                for (int i = 0; i < ids.length; i++) {
+                    if (ids[i].equals(id)) {
+                        return Optional.of(rows.row(i));
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Cel mult limit tranzacții cu _id > afterId, în ordinea _id, la fel ca findPageAfter pe partiții
+    public <T extends TransactionListItem> List<T> findPageAfter(String afterId, int limit, Class<T> type) {
+        Collection<TransactionSegment> routed = afterId != null && ObjectId.isValid(afterId)
+                ? between(TransactionPartitions.createdAt(afterId), null) : segments().values();
+
+        // Se păstrează doar cele mai mici limit id-uri; rândurile se materializează abia la final
+        Comparator<Candidate> byId = Comparator.comparing((Candidate candidate) -> candidate.id, TransactionQueryRepositoryImpl.ID_ORDER);
+        PriorityQueue<Candidate> smallest = new PriorityQueue<>(byId.reversed());
+        // Id-urile String nu urmează lunile, deci se parcurg toate segmentele rutate; indexul rar sare peste blocurile
+        // care nu pot intra în pagină, așa că se decomprimă doar blocurile cu id-uri candidate
+        for (TransactionSegment segment : routed) {
+            for (TransactionSegmentBlock block : segment.getBlocks()) {
+                if (afterId != null && TransactionQueryRepositoryImpl.ID_ORDER.compare(block.getMaxId(), afterId) <= 0) {
+                    continue;
+                }
+                if (!smallest.isEmpty() && smallest.size() >= limit
+                        && TransactionQueryRepositoryImpl.ID_ORDER.compare(block.getMinId(), smallest.peek().id) > 0) {
+                    continue;
+                }
+                TransactionSegment.Block rows = segment.read(block);
+                String[] ids = rows.ids();
+                for (int i = 0; i < ids.length; i++) {
+                    if (afterId == null || TransactionQueryRepositoryImpl.ID_ORDER.compare(ids[i], afterId) > 0) {
+                        smallest.add(new Candidate(ids[i], rows, i));
+                        if (smallest.size() > limit) {
+                            smallest.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Candidate> page = new ArrayList<>(smallest);
+        page.sort(byId);
+        List<T> items = new ArrayList<>(page.size());
+        for (Candidate candidate : page) {
+            items.add(as(candidate.rows.row(candidate.index), type));
+        }
+        return items;
+    }
+
+    // Cel mult limit tranzacții cu startDate < date < endDate, după poziția after, în ordinea (date, _id)
+    public <T extends TransactionListItem> List<T> findDateRangePage(LocalDateTime startDate, LocalDateTime endDate,
+                                                                    DateRangeCursor after, int limit, Class<T> type) {
+        LocalDateTime from = after != null && after.getDate().isAfter(startDate) ? after.getDate() : startDate;
+        List<T> page = new ArrayList<>();
+        for (TransactionSegment segment : between(from, endDate)) {
+            for (TransactionSegmentBlock block : segment.getBlocks()) {
+                if (!block.overlaps(from, endDate)) {
+                    continue;
+                }
+                TransactionSegment.Block rows = segment.read(block);
+                LocalDateTime[] dates = rows.dates();
+                String[] ids = rows.ids();
+                for (int i = 0; i < dates.length; i++) {
+                    if (!dates[i].isAfter(startDate) || !dates[i].isBefore(endDate)) {
+                        continue;
+                    }
+                    if (after != null && !isAfter(dates[i], ids[i], after)) {
+                        continue;
+                    }
+                    page.add(as(rows.row(i), type));
+                    if (page.size() >= limit) {
+                        return page;
+                    }
+                }
+            }
+        }
+        return page;
+    }
+
+    // (date, id) > (after.date, after.id)
+    private static boolean isAfter(LocalDateTime date, String id, DateRangeCursor after) {
+        int byDate = date.compareTo(after.getDate());
+        return byDate > 0 || byDate == 0 && TransactionQueryRepositoryImpl.ID_ORDER.compare(id, after.getId()) > 0;
+    }
+
+    public Stream<TransactionEntity> streamAll() {
+        return rows(segments().values(), block -> true, date -> true, null);
+    }
+
+    // Tranzacțiile cu startDate < date < endDate, în ordinea (date, _id), decomprimate bloc cu bloc
+    public Stream<TransactionEntity> streamByDateBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return rows(between(startDate, endDate), block -> block.overlaps(startDate, endDate),
+                date -> date.isAfter(startDate) && date.isBefore(endDate), null);
+    }
+
+    // Tranzacțiile cu from <= date < to, opțional doar ale unui utilizator; null înseamnă fără filtru
+    public Stream<TransactionEntity> streamForExport(LocalDateTime from, LocalDateTime to, String userId) {
+        return rows(between(from, to), block -> block.overlaps(from, to),
+                date -> (from == null || !date.isBefore(from)) && (to == null || date.isBefore(to)), userId);
+    }
+
+    // Fără index pe utilizator, se citește doar coloana userId a fiecărui bloc
+    public <T> List<T> findByUserId(String userId, Class<T> type) {
+        List<T> transactions = new ArrayList<>();
+        for (TransactionSegment segment : segments().values()) {
+            for (TransactionSegmentBlock block : segment.getBlocks()) {
+                TransactionSegment.Block rows = segment.read(block);
+                String[] userIds = rows.userIds();
+                for (int i = 0; i < userIds.length; i++) {
+                    if (userId.equals(userIds[i])) {
+                        transactions.add(as(rows.row(i), type));
+                    }
+                }
+            }
+        }
+        return transactions;
+    }
+
+    public TransactionEntity findFirstByUserIdOrderByDateDesc(String userId) {
+        for (TransactionSegment segment : segments().descendingMap().values()) {
+            List<TransactionSegmentBlock> blocks = segment.getBlocks();
+            for (int b = blocks.size() - 1; b >= 0; b--) {
+                TransactionSegment.Block rows = segment.read(blocks.get(b));
+                String[] userIds = rows.userIds();
+                for (int i = userIds.length - 1; i >= 0; i--) {
+                    if (userId.equals(userIds[i])) {
+                        return rows.row(i);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    // Aceleași grupări ca pipeline-urile din TransactionAnalyticsRepositoryImpl, calculate din segmente
+    public List<RevenueBucket> revenueByDay(RevenueDimension dimension, LocalDate fromDay, LocalDate toDay) {
+        LocalDateTime from = fromDay.atStartOfDay();
+        LocalDateTime to = toDay.plusDays(1).atStartOfDay();
+        Map<String, Map<String, RevenueBucket>> byDay = new TreeMap<>();
+        try (Stream<TransactionEntity> transactions = rows(between(from, to), block -> block.overlaps(from, to),
+                date -> !date.isBefore(from) && date.isBefore(to), null)) {
+            transactions.forEach(transaction -> {
+                String day = transaction.getDate().toLocalDate().toString();
+                Map<String, RevenueBucket> buckets = byDay.computeIfAbsent(day, d -> new LinkedHashMap<>());
+                switch (dimension) {
+                    case CATEGORY -> {
+                        if (transaction.getCategorySales() != null) {
+                            for (CategorySale sale : transaction.getCategorySales()) {
+                                add(buckets, day, sale.getCategory(), sale.getNet());
+                            }
+                        }
+                    }
+                    case BRAND -> {
+                        // Fiecare tranzacție se numără o dată pe brand
+                        Map<String, Long> byBrand = new LinkedHashMap<>();
+                        if (transaction.getProductsList() != null) {
+                            for (TransactionEntry entry : transaction.getProductsList()) {
+                                if (entry.getUnitPrice() > 0) {
+                                    byBrand.merge(entry.getBrand() == null ? TransactionAnalyticsRepositoryImpl.UNKNOWN
+                                            : entry.getBrand(), entry.getUnitPrice() * entry.getProductQuantity(), Long::sum);
+                                }
+                            }
+                        }
+                        byBrand.forEach((brand, revenue) -> add(buckets, day, brand, revenue));
+                    }
+                    case HOUR -> add(buckets, day, String.format("%02d", transaction.getDate().getHour()),
+                            transaction.getFinalAmount());
+                }
+            });
+        }
+
+        List<RevenueBucket> result = new ArrayList<>();
+        byDay.values().forEach(buckets -> result.addAll(buckets.values()));
+        return result;
+    }
+
+    private static void add(Map<String, RevenueBucket> buckets, String day, String key, long revenue) {
+        RevenueBucket bucket = buckets.computeIfAbsent(key == null ? TransactionAnalyticsRepositoryImpl.UNKNOWN : key,
+                k -> new RevenueBucket(day, k, 0, 0));
+        bucket.setCount(bucket.getCount() + 1);
+        bucket.setRevenue(bucket.getRevenue() + revenue);
+    }
+
+    // Rândurile blocurilor acceptate de filtrul din index; coloanele de date și, dacă e cazul, de utilizator decid
+    // ce rânduri se materializează
+    private static Stream<TransactionEntity> rows(Collection<TransactionSegment> segments,
+                                                  Predicate<TransactionSegmentBlock> blocks,
+                                                  Predicate<LocalDateTime> accept, String userId) {
+        return segments.stream().flatMap(segment -> segment.getBlocks().stream()
+                .filter(blocks)
+                .flatMap(block -> {
+                    TransactionSegment.Block rows = segment.read(block);
+                    LocalDateTime[] dates = rows.dates();
+                    String[] userIds = userId == null ? null : rows.userIds();
+                    return IntStream.range(0, dates.length)
+                            .filter(i -> accept.test(dates[i]) && (userIds == null || userId.equals(userIds[i])))
+                            .mapToObj(rows::row);
+                }));
+    }
+
+    // Segmentele în care poate fi tranzacția: luna din ObjectId, sau toate pentru id-urile vechi (UUID)
+    private Collection<TransactionSegment> forId(String id) {
+        if (!ObjectId.isValid(id)) {
+            return segments().values();
+        }
+        LocalDateTime created = TransactionPartitions.createdAt(id);
+        return between(created, created.plus(TransactionPartitions.ID_DATE_SKEW));
+    }
+
+    private Collection<TransactionSegment> between(LocalDateTime from, LocalDateTime to) {
+        NavigableMap<YearMonth, TransactionSegment> range = segments();
+        if (from != null) {
+            range = range.tailMap(YearMonth.from(from), true);
+        }
+        if (to != null) {
+            range = range.headMap(YearMonth.from(to), true);
+        }
+        return range.values();
+    }
+
+    private <T> T as(TransactionEntity transaction, Class<T> type) {
+        if (type.isInstance(transaction)) {
+            return type.cast(transaction);
+        }
+        // Aceeași proiecție ca în Mongo: documentul tranzacției se citește ca DTO, care păstrează doar câmpurile lui
+        Document document = new Document();
+        converter.write(transaction, document);
+        return converter.read(type, document);
+    }
+
+    // Un rând candidat la pagină, materializat doar dacă ajunge între primele limit id-uri
+    private static class Candidate {
+        private final String id;
+        private final TransactionSegment.Block rows;
+        private final int index;
+
+        private Candidate(String id, TransactionSegment.Block rows, int index) {
+            this.id = id;
+            this.rows = rows;
+            this.index = index;
+        }
+    }
+
+    private NavigableMap<YearMonth, TransactionSegment> segments() {
+        NavigableMap<YearMonth, TransactionSegment> current = segments;
+        if (current == null) {
+            refresh();
+            current = segments;
+        }
+        return current == null ? Collections.emptyNavigableMap() : current;
+    }
+}
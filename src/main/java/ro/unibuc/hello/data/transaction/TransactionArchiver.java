@@ -0,0 +1,202 @@
+package ro.unibuc.hello.data.transaction;
+
+import com.mongodb.MongoNamespace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Moves monthly partitions older than {@code transactions.archive.after-months} out of Mongo into segment files of
+ * the {@link TransactionArchive}. Once a partition is dropped its segment is the only copy, so nothing is archived
+ * unless {@code transactions.archive.durable} declares that {@code transactions.archive.dir} is on durable storage,
+ * such as a persistent volume. A partition is streamed in (date, _id) order into a new segment, then renamed with the
+ * {@value #FROZEN_SUFFIX} suffix so no write can reach it, and its row count is checked against the segment again
+ * before the segment is committed and the renamed collection dropped. If a segment already exists for the month,
+ * which happens when an earlier run stopped between writing it and dropping the partition, the two are merged and the
+ * partition's copy of a transaction wins; a renamed partition left behind by such a run is renamed back first.
+ */
+@Component
+public class TransactionArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    // Partiția redenumită pe durata verificării finale; numele nu e al unei partiții, deci nu mai primește scrieri
+    static final String FROZEN_SUFFIX = "_archiving";
+
+    private final MongoTemplate mongoTemplate;
+    private final TransactionPartitions partitions;
+    private final TransactionArchive archive;
+    private final int afterMonths;
+    private final int retentionMonths;
+    private final int blockRows;
+    private final boolean durable;
+
+    public TransactionArchiver(MongoTemplate mongoTemplate, TransactionPartitions partitions, TransactionArchive archive,
+                               @Value("${transactions.archive.after-months:0}") int afterMonths,
+                               @Value("${transactions.retention-months:0}") int retentionMonths,
+                               @Value("${transactions.archive.block-rows:1024}") int blockRows,
+                               @Value("${transactions.archive.durable:false}") boolean durable) {
+        this.mongoTemplate = mongoTemplate;
+        this.partitions = partitions;
+        this.archive = archive;
+        this.afterMonths = afterMonths;
+        this.retentionMonths = retentionMonths;
+        this.blockRows = blockRows;
+        this.durable = durable;
+    }
+
+    @Scheduled(cron = "${transactions.archive.cron:0 0 2 * * ?}")
+    public void run() {
+        if (afterMonths > 0) {
+            archiveBefore(YearMonth.now().minusMonths(afterMonths));
+        }
+        // Retenția se aplică și istoricului arhivat, nu doar partițiilor
+        if (retentionMonths > 0) {
+            archive.dropBefore(YearMonth.now().minusMonths(retentionMonths));
+        }
+    }
+
+    // Arhivează partițiile lunilor dinaintea lui month; întoarce partițiile mutate
+    public synchronized List<String> archiveBefore(YearMonth month) {
+        List<String> archived = new ArrayList<>();
+        // Pe discul local al pod-ului, segmentul s-ar pierde la repornire odată cu singura copie a lunii
+        if (!durable) {
+            logger.warn("Not archiving transaction partitions: transactions.archive.dir {} is not declared durable",
+                    archive.getDirectory());
+            return archived;
+        }
+        for (String partition : partitions.all()) {
+            YearMonth partitionMonth = TransactionPartitions.monthOf(partition);
+            // Tranzacțiile fără dată nu au o lună în care să fie arhivate
+            if (partitionMonth == null) {
+                continue;
+            }
+            if (!partitionMonth.isBefore(month)) {
+                break;
+            }
+            try {
+                if (archive(partitionMonth, partition)) {
+                    archived.add(partition);
+                }
+            } catch (IOException | RuntimeException e) {
+                // Partiția rămâne în Mongo și se reîncearcă la următoarea rulare
+                logger.error("Could not archive transaction partition {}", partition, e);
+            }
+        }
+        if (!archived.isEmpty()) {
+            partitions.refresh();
+        }
+        return archived;
+    }
+
+    boolean archive(YearMonth month, String partition) throws IOException {
+        String frozen = partition + FROZEN_SUFFIX;
+        if (mongoTemplate.collectionExists(frozen)) {
+            if (mongoTemplate.collectionExists(partition)) {
+                logger.error("Both {} and {} exist, archive them by hand", partition, frozen);
+                return false;
+            }
+            // O rulare anterioară s-a oprit după redenumire; partiția revine și se arhivează de la capăt
+            rename(frozen, partition);
+        }
+
+        Query query = new Query().with(Sort.by("date", "_id")).cursorBatchSize(STREAM_BATCH_SIZE);
+        TransactionSegment existing = archive.segment(month);
+        AtomicLong fromPartition = new AtomicLong();
+        long written;
+        try (TransactionSegmentWriter writer = archive.writer(month, blockRows);
+             Stream<TransactionEntity> hot = mongoTemplate.stream(query, TransactionEntity.class, partition)
+                     .peek(transaction -> fromPartition.incrementAndGet());
+             Stream<TransactionEntity> cold = existing == null ? Stream.empty() : existing.rows()) {
+            Iterator<TransactionEntity> rows = merge(cold.iterator(), hot.iterator());
+            while (rows.hasNext()) {
+                writer.append(rows.next());
+            }
+
+            // O ștergere făcută cât timp se scria segmentul s-ar pierde, deci partiția rămâne până la rularea următoare
+            if (changed(partition, fromPartition.get())) {
+                return false;
+            }
+            // După redenumire nicio scriere nu mai ajunge la rânduri, deci numărătoarea de acum rămâne valabilă la ștergere
+            rename(partition, frozen);
+            if (changed(frozen, fromPartition.get())) {
+                rename(frozen, partition);
+                return false;
+            }
+            written = writer.commit();
+        }
+
+        archive.refresh();
+        mongoTemplate.dropCollection(frozen);
+        logger.info("Archived transaction partition {} into {} ({} transactions)", partition, archive.pathFor(month),
+                written);
+        return true;
+    }
+
+    private boolean changed(String collection, long read) {
+        long remaining = mongoTemplate.count(new Query(), collection);
+        if (remaining != read) {
+            logger.warn("Transaction partition {} changed while archiving ({} rows read, {} now), retrying later",
+                    collection, read, remaining);
+            return true;
+        }
+        return false;
+    }
+
+    private void rename(String from, String to) {
+        mongoTemplate.getCollection(from).renameCollection(new MongoNamespace(mongoTemplate.getDb().getName(), to));
+    }
+
+    // Interclasează două șiruri în ordinea (date, _id); la același id se păstrează varianta din partiție
+    static Iterator<TransactionEntity> merge(Iterator<TransactionEntity> cold, Iterator<TransactionEntity> hot) {
+        return new Iterator<>() {
+            private TransactionEntity nextCold = advance(cold);
+            private TransactionEntity nextHot = advance(hot);
+
+            @Override
+            public boolean hasNext() {
+                return nextCold != null || nextHot != null;
+            }
+
+            @Override
+            public TransactionEntity next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int order = nextCold == null ? 1 : nextHot == null ? -1 : TransactionSegment.ORDER.compare(nextCold, nextHot);
+                TransactionEntity next;
+                if (order < 0) {
+                    next = nextCold;
+                    nextCold = advance(cold);
+                } else {
+                    if (order == 0) {
+                        nextCold = advance(cold);
+                    }
+                    next = nextHot;
+                    nextHot = advance(hot);
+                }
+                return next;
+            }
+        };
+    }
+
+    private static TransactionEntity advance(Iterator<TransactionEntity> rows) {
+        return rows.hasNext() ? rows.next() : null;
+    }
+}
@@ -0,0 +1,61 @@
+package ro.unibuc.hello.data.transaction;
+
+import org.springframework.http.HttpStatus;
+
+public class TransactionBatchResult {
+    public int index;                       // Poziția coșului în cererea de lot
+    public int status;                      // Codul HTTP pe care l-ar fi primit coșul trimis separat
+    public TransactionEntity transaction;   // Tranzacția salvată, doar pentru coșurile reușite
+    public String error;                    // Motivul eșecului, doar pentru coșurile respinse
+
+    public TransactionBatchResult() {
+    }
+
+    public static TransactionBatchResult success(int index, TransactionEntity transaction) {
+        TransactionBatchResult result = new TransactionBatchResult();
+        result.index = index;
+        result.status = HttpStatus.OK.value();
+        result.transaction = transaction;
+        return result;
+    }
+
+    public static TransactionBatchResult failure(int index, HttpStatus status, String error) {
+        TransactionBatchResult result = new TransactionBatchResult();
+        result.index = index;
+        result.status = status.value();
+        result.error = error;
+        return result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public TransactionEntity getTransaction() {
+        return transaction;
+    }
+
+    public void setTransaction(TransactionEntity transaction) {
+        this.transaction = transaction;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
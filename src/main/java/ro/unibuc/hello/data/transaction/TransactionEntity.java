@@ -1,24 +1,34 @@
 package ro.unibuc.hello.data.transaction;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 import java.util.List;
 
-@Document(collection = "transactions")
-public class TransactionEntity {
+@Document(collection = "transactions") // Colecția dinaintea partiționării; tranzacțiile se scriu în TransactionPartitions
+@CompoundIndexes({
+    @CompoundIndex(name = "date_id", def = "{'date': 1, '_id': 1}"),       // Interogările pe interval, paginate după (date, _id)
+    @CompoundIndex(name = "userId_date", def = "{'userId': 1, 'date': 1}")  // findByUserId prin prefix, în ordine cronologică
+})
+public class TransactionEntity implements TransactionListItem {
     @Id
     public String id;
     public String userId;
     public List<TransactionEntry> productsList;
+    @Indexed(sparse = true)
     public String loyaltyCardId;      // ID-ul cardului de fidelitate utilizat
     public boolean useDiscount;       // Flag pentru aplicarea discount-ului
     public LocalDateTime date;        // Data tranzacției
-    public double totalAmount;        // Suma totală înainte de discount
-    public double discountAmount;     // Valoarea discount-ului din cardul de fidelitate
-    public double promotionDiscount;  // Discount din promoții
-    public double loyaltyDiscount;    // Discount din card de fidelitate
-    public double totalDiscount;      // Discount total
-    public double finalAmount;        // Suma finală după aplicarea discount-ului
+    // Toate sumele sunt în cenți
+    public long totalAmount;          // Suma totală înainte de discount
+    public long discountAmount;       // Valoarea discount-ului din cardul de fidelitate
+    public long promotionDiscount;    // Discount din promoții
+    public long loyaltyDiscount;      // Discount din card de fidelitate
+    public long totalDiscount;        // Discount total
+    public long finalAmount;          // Suma finală după aplicarea discount-ului
+    public List<CategorySale> categorySales; // Defalcarea sumelor pe categorii, pentru rapoarte
 
     // Getters și setters
     public String getId() {
@@ -69,51 +79,59 @@ public class TransactionEntity {
         this.date = date;
     }
 
-    public double getTotalAmount() {
+    public long getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(double totalAmount) {
+    public void setTotalAmount(long totalAmount) {
         this.totalAmount = totalAmount;
     }
 
-    public double getDiscountAmount() {
+    public long getDiscountAmount() {
         return discountAmount;
     }
 
-    public void setDiscountAmount(double discountAmount) {
+    public void setDiscountAmount(long discountAmount) {
         this.discountAmount = discountAmount;
     }
     
-    public double getPromotionDiscount() {
+    public long getPromotionDiscount() {
         return promotionDiscount;
     }
 
-    public void setPromotionDiscount(double promotionDiscount) {
+    public void setPromotionDiscount(long promotionDiscount) {
         this.promotionDiscount = promotionDiscount;
     }
 
-    public double getLoyaltyDiscount() {
+    public long getLoyaltyDiscount() {
         return loyaltyDiscount;
     }
 
-    public void setLoyaltyDiscount(double loyaltyDiscount) {
+    public void setLoyaltyDiscount(long loyaltyDiscount) {
         this.loyaltyDiscount = loyaltyDiscount;
     }
 
-    public double getTotalDiscount() {
+    public long getTotalDiscount() {
         return totalDiscount;
     }
 
-    public void setTotalDiscount(double totalDiscount) {
+    public void setTotalDiscount(long totalDiscount) {
         this.totalDiscount = totalDiscount;
     }
 
-    public double getFinalAmount() {
+    public long getFinalAmount() {
         return finalAmount;
     }
 
-    public void setFinalAmount(double finalAmount) {
+    public void setFinalAmount(long finalAmount) {
         this.finalAmount = finalAmount;
     }
+
+    public List<CategorySale> getCategorySales() {
+        return categorySales;
+    }
+
+    public void setCategorySales(List<CategorySale> categorySales) {
+        this.categorySales = categorySales;
+    }
 }
\ No newline at end of file
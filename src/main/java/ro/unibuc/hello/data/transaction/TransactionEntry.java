@@ -3,6 +3,10 @@ package ro.unibuc.hello.data.transaction;
 public class TransactionEntry {
     public String productId;
     public int productQuantity;
+    // Copiate din produs la checkout, ca analizele să nu depindă de prețul sau brandul curent
+    public String category;
+    public String brand;
+    public long unitPrice;        // prețul unitar în cenți
 
     public String getProductId() {
         return productId;
@@ -19,4 +23,28 @@ public class TransactionEntry {
     public void setProductQuantity(int productQuantity) {
         this.productQuantity = productQuantity;
     }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public long getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(long unitPrice) {
+        this.unitPrice = unitPrice;
+    }
 }
\ No newline at end of file
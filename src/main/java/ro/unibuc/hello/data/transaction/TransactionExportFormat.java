@@ -0,0 +1,33 @@
+package ro.unibuc.hello.data.transaction;
+
+// Formatele exportului de tranzacții; COLUMNAR e formatul segmentelor din arhivă, descris în TransactionSegment
+public enum TransactionExportFormat {
+    CSV("text/csv", "csv"),
+    COLUMNAR("application/octet-stream", "seg");
+
+    private final String contentType;
+    private final String extension;
+
+    TransactionExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    // Formatul după nume, fără diferență între litere mari și mici, sau null
+    public static TransactionExportFormat fromName(String name) {
+        for (TransactionExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,9 @@
+package ro.unibuc.hello.data.transaction;
+
+import java.time.LocalDateTime;
+
+// Ce trebuie să aibă orice formă a unei tranzacții din listări: câmpurile din care se construiesc cursoarele de paginare
+public interface TransactionListItem {
+    String getId();
+    LocalDateTime getDate();
+}
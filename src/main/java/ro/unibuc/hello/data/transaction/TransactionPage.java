@@ -0,0 +1,32 @@
+package ro.unibuc.hello.data.transaction;
+
+import java.util.List;
+
+public class TransactionPage<T> {
+    public List<T> items;                  // Tranzacțiile din pagina curentă, întregi sau ca TransactionSummary
+    public String nextCursor;              // Se trimite ca after pentru pagina următoare; null după ultima pagină
+
+    public TransactionPage() {
+    }
+
+    public TransactionPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,112 @@
+package ro.unibuc.hello.data.transaction;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.MoneyMigration;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves transactions written before partitioning from the single transactions collection into their monthly
+ * partitions, in batches. It runs once all beans exist and before the web server starts, so no request ever reads
+ * the partitions while legacy transactions are still outside them. A transaction without a date gets the time of its
+ * ObjectId, which is when it was created; one with a legacy UUID id goes to
+ * {@value TransactionPartitions#UNDATED_COLLECTION}. Every batch is upserted by _id before it is deleted from the
+ * old collection, so an interrupted run is simply resumed on the next startup, and once the old collection is empty
+ * this is a no-op.
+ */
+@Component
+public class TransactionPartitionMigration implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionMigration.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TransactionPartitions partitions;
+
+    @Autowired
+    private MoneyMigration moneyMigration;
+
+    private boolean done;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrate();
+    }
+
+    // Rulată și de backfill-urile care citesc toate tranzacțiile, ca să le găsească deja în partiții
+    public synchronized void migrate() {
+        if (done) {
+            return;
+        }
+        // MoneyMigration convertește doar colecția veche, deci sumele trebuie să fie în cenți înainte de mutare
+        moneyMigration.migrateTransactions();
+
+        MongoCollection<Document> legacy = mongoTemplate.getCollection(TransactionPartitions.LEGACY_COLLECTION);
+        long moved = 0;
+        long undated = 0;
+        List<Document> batch;
+        while (!(batch = legacy.find().limit(BATCH_SIZE).into(new ArrayList<>())).isEmpty()) {
+            Map<String, List<WriteModel<Document>>> byPartition = new LinkedHashMap<>();
+            List<Object> ids = new ArrayList<>(batch.size());
+            for (Document transaction : batch) {
+                String partition = partitionOf(transaction);
+                if (TransactionPartitions.UNDATED_COLLECTION.equals(partition)) {
+                    undated++;
+                }
+                byPartition.computeIfAbsent(partition, name -> new ArrayList<>())
+                        .add(new ReplaceOneModel<>(Filters.eq("_id", transaction.get("_id")), transaction,
+                                new ReplaceOptions().upsert(true)));
+                ids.add(transaction.get("_id"));
+            }
+            byPartition.forEach((partition, writes) ->
+                    mongoTemplate.getCollection(partition).bulkWrite(writes, new BulkWriteOptions().ordered(false)));
+            legacy.deleteMany(Filters.in("_id", ids));
+            moved += batch.size();
+        }
+
+        if (moved > 0) {
+            logger.info("Moved {} transactions into monthly partitions", moved);
+        }
+        if (undated > 0) {
+            logger.warn("{} transactions without a date or an ObjectId were moved to {}", undated,
+                    TransactionPartitions.UNDATED_COLLECTION);
+        }
+        done = true;
+    }
+
+    private String partitionOf(Document transaction) {
+        Date date = transaction.get("date") instanceof Date stored ? stored : null;
+        if (date == null && transaction.get("_id") instanceof ObjectId id) {
+            // Data se setează imediat după generarea id-ului, deci timpul din ObjectId e data tranzacției
+            date = id.getDate();
+            transaction.put("date", date);
+        }
+        if (date == null) {
+            return partitions.ensureUndated();
+        }
+        return partitions.ensureFor(LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()));
+    }
+}
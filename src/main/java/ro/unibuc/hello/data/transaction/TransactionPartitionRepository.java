@@ -0,0 +1,30 @@
+package ro.unibuc.hello.data.transaction;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes and point lookups routed to the monthly partitions of {@link TransactionPartitions}: a transaction is
+ * written to the month of its date and found through the month encoded in its ObjectId. Reads fall back to the
+ * {@link TransactionArchive} for months that were moved out of Mongo. Spring Data wires
+ * {@link TransactionPartitionRepositoryImpl} into {@link TransactionRepository}.
+ */
+public interface TransactionPartitionRepository {
+
+    <S extends TransactionEntity> S save(S transaction);
+
+    // Tranzacțiile se grupează pe partiții, cu un singur insert pentru fiecare
+    <S extends TransactionEntity> List<S> insert(Iterable<S> transactions);
+
+    // Caută în partiții, apoi în arhivă
+    Optional<TransactionEntity> findById(String id);
+
+    // false dacă tranzacția nu e în Mongo; cele arhivate nu se pot șterge
+    boolean deleteById(String id);
+
+    // Tranzacțiile utilizatorului în ordinea datei; proiecție dinamică: pentru un DTO se citesc doar câmpurile lui
+    <T> List<T> findByUserId(String userId, Class<T> type);
+
+    // Ultima tranzacție a utilizatorului, căutată de la cea mai nouă partiție spre cea mai veche, apoi în arhivă
+    TransactionEntity findFirstByUserIdOrderByDateDesc(String userId);
+}
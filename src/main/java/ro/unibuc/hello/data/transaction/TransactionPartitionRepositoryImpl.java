@@ -0,0 +1,97 @@
+package ro.unibuc.hello.data.transaction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class TransactionPartitionRepositoryImpl implements TransactionPartitionRepository {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TransactionPartitions partitions;
+
+    @Autowired
+    private TransactionArchive archive;
+
+    @Override
+    public <S extends TransactionEntity> S save(S transaction) {
+        return mongoTemplate.save(transaction, partitions.ensureFor(transaction.getDate()));
+    }
+
+    @Override
+    public <S extends TransactionEntity> List<S> insert(Iterable<S> transactions) {
+        Map<String, List<S>> byPartition = new LinkedHashMap<>();
+        for (S transaction : transactions) {
+            byPartition.computeIfAbsent(partitions.ensureFor(transaction.getDate()), partition -> new ArrayList<>())
+                    .add(transaction);
+        }
+
+        List<S> inserted = new ArrayList<>();
+        byPartition.forEach((partition, batch) -> inserted.addAll(mongoTemplate.insert(batch, partition)));
+        return inserted;
+    }
+
+    @Override
+    public Optional<TransactionEntity> findById(String id) {
+        for (String partition : partitions.forId(id)) {
+            TransactionEntity transaction = mongoTemplate.findById(id, TransactionEntity.class, partition);
+            if (transaction != null) {
+                return Optional.of(transaction);
+            }
+        }
+        return archive.findById(id);
+    }
+
+    @Override
+    public boolean deleteById(String id) {
+        Query byId = Query.query(Criteria.where("_id").is(id));
+        for (String partition : partitions.forId(id)) {
+            if (mongoTemplate.remove(byId, TransactionEntity.class, partition).getDeletedCount() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public <T> List<T> findByUserId(String userId, Class<T> type) {
+        // Arhiva are lunile mai vechi, iar partițiile sunt în ordinea lunilor, deci listele sortate după dată se pot concatena
+        Query query = byUser(userId).with(Sort.by("date"));
+        List<T> transactions = archive.findByUserId(userId, type);
+        for (String partition : partitions.all()) {
+            transactions.addAll(mongoTemplate.query(TransactionEntity.class).inCollection(partition).as(type)
+                    .matching(query).all());
+        }
+        return transactions;
+    }
+
+    @Override
+    public TransactionEntity findFirstByUserIdOrderByDateDesc(String userId) {
+        Query query = byUser(userId).with(Sort.by(Sort.Direction.DESC, "date"));
+        List<String> newestFirst = new ArrayList<>(partitions.all());
+        Collections.reverse(newestFirst);
+        for (String partition : newestFirst) {
+            TransactionEntity latest = mongoTemplate.findOne(query, TransactionEntity.class, partition);
+            if (latest != null) {
+                return latest;
+            }
+        }
+        return archive.findFirstByUserIdOrderByDateDesc(userId);
+    }
+
+    private static Query byUser(String userId) {
+        // Folosește indexul userId_date al fiecărei partiții
+        return Query.query(Criteria.where("userId").is(userId));
+    }
+}
@@ -0,0 +1,217 @@
+package ro.unibuc.hello.data.transaction;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.index.IndexManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Transactions are stored in one collection per month of their date, named transactions_yyyy_MM, so a date range
+ * only touches the months it overlaps and retention drops whole months. Legacy transactions that have neither a date
+ * nor an ObjectId live in {@value #UNDATED_COLLECTION}, which is listed before the months by {@link #all()} but never
+ * matches a date range. The set of existing partitions is cached and refreshed periodically, so partitions created by
+ * other instances become visible without a restart.
+ */
+@Component
+public class TransactionPartitions {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitions.class);
+
+    // Colecția dinaintea partiționării; entitatea o declară în continuare, ca șablon pentru indexurile partițiilor
+    public static final String LEGACY_COLLECTION = "transactions";
+
+    // Tranzacțiile vechi fără dată și cu id UUID, care nu pot fi puse într-o lună
+    public static final String UNDATED_COLLECTION = "transactions_undated";
+
+    static final String PREFIX = "transactions_";
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    // Data tranzacției se setează imediat după generarea id-ului, deci poate cădea puțin după timpul din ObjectId
+    static final Duration ID_DATE_SKEW = Duration.ofMinutes(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final IndexManager indexManager;
+    private final int retentionMonths;
+
+    private volatile NavigableSet<YearMonth> months;
+    private volatile boolean undated;
+
+    public TransactionPartitions(MongoTemplate mongoTemplate, IndexManager indexManager,
+                                 @Value("${transactions.retention-months:0}") int retentionMonths) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexManager = indexManager;
+        this.retentionMonths = retentionMonths;
+    }
+
+    public static String collectionName(YearMonth month) {
+        return PREFIX + month.format(MONTH_FORMAT);
+    }
+
+    // Luna unei partiții, sau null dacă numele nu e al unei partiții
+    public static YearMonth monthOf(String collection) {
+        if (!collection.startsWith(PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(collection.substring(PREFIX.length()), MONTH_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public static boolean isPartition(String collection) {
+        return monthOf(collection) != null;
+    }
+
+    // Toate partițiile existente: cea fără dată, dacă există, apoi lunile în ordine
+    public List<String> all() {
+        List<String> names = names(months());
+        if (undated) {
+            names.add(0, UNDATED_COLLECTION);
+        }
+        return names;
+    }
+
+    // Partițiile existente ale lunilor dintre from și to inclusiv; null la un capăt înseamnă fără limită
+    public List<String> between(LocalDateTime from, LocalDateTime to) {
+        NavigableSet<YearMonth> range = months();
+        if (from != null) {
+            range = range.tailSet(YearMonth.from(from), true);
+        }
+        if (to != null) {
+            range = range.headSet(YearMonth.from(to), true);
+        }
+        return names(range);
+    }
+
+    // Partițiile în care poate fi tranzacția: luna din ObjectId, sau toate pentru id-urile vechi (UUID)
+    public List<String> forId(String id) {
+        if (!ObjectId.isValid(id)) {
+            return all();
+        }
+        LocalDateTime created = createdAt(id);
+        return between(created, created.plus(ID_DATE_SKEW));
+    }
+
+    static LocalDateTime createdAt(String objectId) {
+        return LocalDateTime.ofInstant(new ObjectId(objectId).getDate().toInstant(), ZoneId.systemDefault());
+    }
+
+    // Partiția lunii datei; la prima scriere din lună se creează împreună cu indexurile ei
+    public String ensureFor(LocalDateTime date) {
+        YearMonth month = YearMonth.from(date);
+        if (!months().contains(month)) {
+            create(month);
+        }
+        return collectionName(month);
+    }
+
+    // Partiția tranzacțiilor fără dată, creată la nevoie de migrarea colecției vechi
+    public synchronized String ensureUndated() {
+        months();
+        if (!undated) {
+            createWithIndexes(UNDATED_COLLECTION);
+            undated = true;
+        }
+        return UNDATED_COLLECTION;
+    }
+
+    private synchronized void create(YearMonth month) {
+        if (months().contains(month)) {
+            return;
+        }
+        String name = collectionName(month);
+        createWithIndexes(name);
+
+        NavigableSet<YearMonth> updated = new TreeSet<>(months());
+        updated.add(month);
+        months = Collections.unmodifiableNavigableSet(updated);
+        logger.info("Created transaction partition {}", name);
+    }
+
+    private void createWithIndexes(String name) {
+        if (!mongoTemplate.collectionExists(name)) {
+            try {
+                mongoTemplate.createCollection(name);
+            } catch (RuntimeException e) {
+                // O altă instanță a creat-o între timp
+                if (!mongoTemplate.collectionExists(name)) {
+                    throw e;
+                }
+            }
+        }
+        // Indexurile se construiesc cât colecția e încă goală
+        for (IndexDefinition definition : indexManager.declaredIndexes().getOrDefault(LEGACY_COLLECTION, List.of())) {
+            mongoTemplate.indexOps(name).ensureIndex(definition);
+        }
+    }
+
+    // Recitește periodic partițiile, ca să le vadă și pe cele create sau șterse de alte instanțe
+    @Scheduled(fixedDelayString = "${transactions.partitions.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        NavigableSet<YearMonth> found = new TreeSet<>();
+        boolean foundUndated = false;
+        for (String name : mongoTemplate.getCollectionNames()) {
+            YearMonth month = monthOf(name);
+            if (month != null) {
+                found.add(month);
+            }
+            foundUndated |= UNDATED_COLLECTION.equals(name);
+        }
+        undated = foundUndated;
+        months = Collections.unmodifiableNavigableSet(found);
+    }
+
+    // Retenția: o lună expirată se șterge cu un singur drop, fără să atingă documentele una câte una
+    public synchronized List<String> dropBefore(YearMonth month) {
+        List<String> dropped = names(months().headSet(month, false));
+        for (String name : dropped) {
+            mongoTemplate.dropCollection(name);
+            logger.info("Dropped transaction partition {}", name);
+        }
+        refresh();
+        return dropped;
+    }
+
+    @Scheduled(cron = "0 30 0 1 * ?") // Rulează lunar, după ce începe o lună nouă
+    public void applyRetention() {
+        if (retentionMonths > 0) {
+            dropBefore(YearMonth.now().minusMonths(retentionMonths));
+        }
+    }
+
+    private NavigableSet<YearMonth> months() {
+        NavigableSet<YearMonth> current = months;
+        if (current == null) {
+            refresh();
+            current = months;
+        }
+        return current;
+    }
+
+    private static List<String> names(NavigableSet<YearMonth> months) {
+        List<String> names = new ArrayList<>(months.size());
+        for (YearMonth month : months) {
+            names.add(collectionName(month));
+        }
+        return names;
+    }
+}
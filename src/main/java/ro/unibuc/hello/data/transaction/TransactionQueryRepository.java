@@ -0,0 +1,33 @@
+package ro.unibuc.hello.data.transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Bounded reads over the monthly transaction partitions: keyset pages and cursor-backed streams, so no request
+ * ever holds a whole collection in memory. Each read goes only to the partitions that can hold matching
+ * transactions, and their results are merged in order after those of the {@link TransactionArchive}. Pages are read as {@code type}: {@link TransactionEntity}
+ * for whole documents, or a DTO such as {@link TransactionSummary}, in which case Mongo returns only the DTO's
+ * fields. Spring Data wires {@link TransactionQueryRepositoryImpl} into {@link TransactionRepository}.
+ */
+public interface TransactionQueryRepository {
+
+    // Cel mult limit tranzacții cu _id > afterId, în ordinea _id; afterId null înseamnă de la început
+    <T extends TransactionListItem> List<T> findPageAfter(String afterId, int limit, Class<T> type);
+
+    // Toate tranzacțiile, partiție cu partiție în ordinea _id, citite din cursoarele Mongo pe măsură ce sunt consumate;
+    // stream-ul trebuie închis
+    Stream<TransactionEntity> streamAll();
+
+    // Cel mult limit tranzacții cu startDate < date < endDate, după poziția after, în ordinea (date, _id) a indexului date_id
+    <T extends TransactionListItem> List<T> findDateRangePage(LocalDateTime startDate, LocalDateTime endDate,
+                                                              DateRangeCursor after, int limit, Class<T> type);
+
+    // Toate tranzacțiile din interval în ordinea (date, _id), citite din cursorul Mongo; stream-ul trebuie închis
+    Stream<TransactionEntity> streamByDateBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    // Tranzacțiile cu from <= date < to, opțional doar ale unui utilizator, în ordinea (date, _id); null la oricare
+    // parametru înseamnă fără filtru. Citite din cursoarele Mongo; stream-ul trebuie închis
+    Stream<TransactionEntity> streamForExport(LocalDateTime from, LocalDateTime to, String userId);
+}
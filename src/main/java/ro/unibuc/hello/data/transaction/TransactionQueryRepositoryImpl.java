@@ -0,0 +1,176 @@
+package ro.unibuc.hello.data.transaction;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public class TransactionQueryRepositoryImpl implements TransactionQueryRepository {
+
+    // Codurile BSON pentru String și ObjectId
+    private static final int BSON_STRING = 2;
+    private static final int BSON_OBJECT_ID = 7;
+
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    // Ordinea lui Mongo pentru _id: String-urile (UUID vechi) înaintea ObjectId-urilor, apoi lexicografic
+    static final Comparator<String> ID_ORDER = Comparator.comparing((String id) -> ObjectId.isValid(id))
+            .thenComparing(Comparator.naturalOrder());
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TransactionPartitions partitions;
+
+    @Autowired
+    private TransactionArchive archive;
+
+    @Override
+    public <T extends TransactionListItem> List<T> findPageAfter(String afterId, int limit, Class<T> type) {
+        // Arhiva are lunile cele mai vechi; întoarce deja primele limit id-uri din toate segmentele ei
+        List<T> page = archive.findPageAfter(afterId, limit, type);
+        boolean objectIdCursor = afterId != null && ObjectId.isValid(afterId);
+        if (!objectIdCursor) {
+            // Id-urile String (UUID-urile vechi, sau toate cu ids.generator=uuid) nu urmează lunile, deci se iau primele
+            // limit din fiecare partiție; în ordinea lui Mongo vin înaintea oricărui ObjectId
+            Query strings = new Query(afterId == null ? Criteria.where("_id").type(BSON_STRING)
+                    : Criteria.where("_id").gt(afterId)).with(Sort.by("_id")).limit(limit);
+            for (String partition : partitions.all()) {
+                page.addAll(find(strings, type, partition));
+            }
+        }
+
+        // Un ObjectId conține timpul creării, iar data se setează imediat după, deci ObjectId-urile urmează lunile și
+        // partițiile se citesc în ordine. După cea care umple pagina se mai citește una, pentru tranzacțiile de la
+        // granița lunilor, al căror id poate fi cu câteva milisecunde înaintea datei
+        Query objectIds = new Query(objectIdCursor ? Criteria.where("_id").gt(new ObjectId(afterId))
+                : Criteria.where("_id").type(BSON_OBJECT_ID)).with(Sort.by("_id")).limit(limit);
+        List<String> routed = objectIdCursor ? partitions.between(TransactionPartitions.createdAt(afterId), null)
+                : partitions.all();
+        boolean full = page.size() >= limit;
+        for (String partition : routed) {
+            page.addAll(find(objectIds, type, partition));
+            if (full) {
+                break;
+            }
+            full = page.size() >= limit;
+        }
+        page.sort(Comparator.comparing(TransactionListItem::getId, ID_ORDER));
+        return truncate(page, limit);
+    }
+
+    @Override
+    public Stream<TransactionEntity> streamAll() {
+        Query query = new Query().with(Sort.by("_id")).cursorBatchSize(STREAM_BATCH_SIZE);
+        return Stream.concat(archive.streamAll(),
+                concat(partitions.all(), partition -> mongoTemplate.stream(query, TransactionEntity.class, partition)));
+    }
+
+    @Override
+    public <T extends TransactionListItem> List<T> findDateRangePage(LocalDateTime startDate, LocalDateTime endDate,
+                                                                    DateRangeCursor after, int limit, Class<T> type) {
+        Query query = dateRange(startDate, endDate).limit(limit);
+        LocalDateTime from = startDate;
+        if (after != null) {
+            // (date, _id) > (after.date, after.id)
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("date").gt(after.getDate()),
+                    new Criteria().andOperator(Criteria.where("date").is(after.getDate()), idAfter(after.getId()))));
+            from = after.getDate();
+        }
+
+        // Partițiile împart datele pe luni, deci ordinea lor e chiar ordinea (date, _id) și citirea se oprește la pagina
+        // plină. Lunile arhivate sunt mai vechi și vin primele; prima partiție se citește oricum și rezultatul se
+        // sortează, pentru luna rămasă în ambele când arhivarea s-a oprit între scrierea segmentului și drop
+        List<T> page = archive.findDateRangePage(startDate, endDate, after, limit, type);
+        for (String partition : partitions.between(from, endDate)) {
+            page.addAll(find(query, type, partition));
+            if (page.size() >= limit) {
+                break;
+            }
+        }
+        page.sort(TransactionSegment.ORDER);
+        return truncate(page, limit);
+    }
+
+    @Override
+    public Stream<TransactionEntity> streamByDateBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        Query query = dateRange(startDate, endDate).cursorBatchSize(STREAM_BATCH_SIZE);
+        return Stream.concat(archive.streamByDateBetween(startDate, endDate), concat(partitions.between(startDate, endDate),
+                partition -> mongoTemplate.stream(query, TransactionEntity.class, partition)));
+    }
+
+    @Override
+    public Stream<TransactionEntity> streamForExport(LocalDateTime from, LocalDateTime to, String userId) {
+        // Ordinea (date, _id) e cea a segmentelor; cu userId, indexul userId_date mai sortează doar egalitățile de dată
+        Query query = new Query().with(Sort.by("date", "_id")).cursorBatchSize(STREAM_BATCH_SIZE);
+        if (from != null || to != null) {
+            Criteria date = Criteria.where("date");
+            if (from != null) {
+                date.gte(from);
+            }
+            if (to != null) {
+                date.lt(to);
+            }
+            query.addCriteria(date);
+        }
+        if (userId != null) {
+            query.addCriteria(Criteria.where("userId").is(userId));
+        }
+        // Fără interval se exportă tot, inclusiv transactions_undated, pe care between() nu îl întoarce niciodată
+        List<String> names = from == null && to == null ? partitions.all() : partitions.between(from, to);
+        return Stream.concat(archive.streamForExport(from, to, userId), concat(names,
+                partition -> mongoTemplate.stream(query, TransactionEntity.class, partition)));
+    }
+
+    private <T> List<T> find(Query query, Class<T> type, String partition) {
+        // Criteriile se mapează pe TransactionEntity; pentru un DTO, as() limitează câmpurile citite la proprietățile lui
+        return mongoTemplate.query(TransactionEntity.class).inCollection(partition).as(type).matching(query).all();
+    }
+
+    private static <T> Stream<T> concat(List<String> partitions, Function<String, Stream<T>> open) {
+        // Un singur cursor deschis odată; închiderea stream-ului închide și cursorul în curs de citire
+        AtomicReference<Stream<T>> current = new AtomicReference<>();
+        return partitions.stream()
+                .flatMap(partition -> {
+                    Stream<T> cursor = open.apply(partition);
+                    current.set(cursor);
+                    return cursor;
+                })
+                .onClose(() -> {
+                    Stream<T> cursor = current.get();
+                    if (cursor != null) {
+                        cursor.close();
+                    }
+                });
+    }
+
+    private static <T> List<T> truncate(List<T> page, int limit) {
+        return page.size() > limit ? new ArrayList<>(page.subList(0, limit)) : page;
+    }
+
+    private static Query dateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        // Aceleași limite exclusive ca findByDateBetween; sortarea urmează indexul date_id
+        return Query.query(Criteria.where("date").gt(startDate).lt(endDate)).with(Sort.by("date", "_id"));
+    }
+
+    static Criteria idAfter(String afterId) {
+        if (ObjectId.isValid(afterId)) {
+            return Criteria.where("_id").gt(new ObjectId(afterId));
+        }
+        // Id-urile vechi (UUID) sunt String și se sortează înaintea tuturor ObjectId-urilor, dar $gt compară doar
+        // valori de același tip, așa că ObjectId-urile se adaugă explicit
+        return new Criteria().orOperator(Criteria.where("_id").gt(afterId), Criteria.where("_id").type(BSON_OBJECT_ID));
+    }
+}
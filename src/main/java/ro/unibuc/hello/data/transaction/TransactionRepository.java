@@ -1,13 +1,11 @@
 package ro.unibuc.hello.data.transaction;
 
-import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.stereotype.Repository;
-import java.time.LocalDateTime;
-import java.util.List;
+import org.springframework.data.repository.Repository;
 
-@Repository
-public interface TransactionRepository extends MongoRepository<TransactionEntity, String> {
-    List<TransactionEntity> findByUserId(String userId);
-    List<TransactionEntity> findByDateBetween(LocalDateTime startDate, LocalDateTime endDate);
-    List<TransactionEntity> findByLoyaltyCardId(String loyaltyCardId);
-}
\ No newline at end of file
+/**
+ * Transactions live in monthly partitions rather than a single collection, so the repository exposes no derived
+ * queries or generic CRUD bound to one collection: every method comes from a fragment that routes to partitions.
+ */
+public interface TransactionRepository extends Repository<TransactionEntity, String>, TransactionPartitionRepository,
+        TransactionQueryRepository, TransactionAnalyticsRepository {
+}
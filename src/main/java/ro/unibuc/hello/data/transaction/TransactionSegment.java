@@ -0,0 +1,371 @@
+package ro.unibuc.hello.data.transaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read side of an archived month of transactions. The file is memory-mapped and only its sparse index is parsed
+ * on open; a block is inflated when a query reaches it, and only the columns the query needs: lookups by id, date
+ * or user read one column before deciding which rows to materialize.
+ *
+ * <p>Layout: a header, then blocks of up to {@code blockRows} transactions in (date, _id) order, then the index with
+ * one {@link TransactionSegmentBlock} per block and a fixed-size trailer pointing at it. Each block starts with the
+ * raw and compressed length of every column, followed by the columns, each deflated on its own.
+ */
+public class TransactionSegment {
+
+    static final int MAGIC = 0x54585347; // "TXSG"
+    static final int VERSION = 1;
+    static final String EXTENSION = ".seg";
+
+    // Coloanele unui bloc, în ordinea din fișier
+    static final int ID = 0;
+    static final int DATE = 1;              // Milisecunde, ca diferență față de rândul anterior
+    static final int USER = 2;
+    static final int LOYALTY_CARD = 3;
+    static final int USE_DISCOUNT = 4;
+    static final int AMOUNTS = 5;           // Cele șase sume, fiecare pentru toate rândurile la rând
+    static final int PRODUCTS = 6;
+    static final int CATEGORY_SALES = 7;
+    static final int COLUMNS = 8;
+
+    static final int HEADER_LENGTH = 8;     // MAGIC, VERSION
+    static final int TRAILER_LENGTH = 24;   // poziția indexului, numărul de blocuri, numărul de rânduri, MAGIC
+
+    // Ordinea rândurilor în segment, aceeași cu a indexului date_id
+    public static final Comparator<TransactionListItem> ORDER = Comparator.comparing(TransactionListItem::getDate)
+            .thenComparing(TransactionListItem::getId, TransactionQueryRepositoryImpl.ID_ORDER);
+
+    private final Path path;
+    private final YearMonth month;
+    private final ByteBuffer data;
+    private final List<TransactionSegmentBlock> blocks;
+    private final long rowCount;
+    private final BasicFileAttributes attributes;
+
+    private TransactionSegment(Path path, YearMonth month, ByteBuffer data, List<TransactionSegmentBlock> blocks,
+                               long rowCount, BasicFileAttributes attributes) {
+        this.path = path;
+        this.month = month;
+        this.data = data;
+        this.blocks = blocks;
+        this.rowCount = rowCount;
+        this.attributes = attributes;
+    }
+
+    public static TransactionSegment open(Path path) throws IOException {
+        YearMonth month = monthOf(path);
+        if (month == null) {
+            throw new IOException("Not a transaction segment: " + path);
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segment too large to map: " + path);
+            }
+            if (size < HEADER_LENGTH + TRAILER_LENGTH) {
+                throw new IOException("Truncated segment: " + path);
+            }
+            // Maparea rămâne validă și după închiderea canalului
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION || data.getInt((int) size - 4) != MAGIC) {
+                throw new IOException("Unsupported or incomplete segment: " + path);
+            }
+
+            int trailer = (int) size - TRAILER_LENGTH;
+            long indexOffset = data.getLong(trailer);
+            int blockCount = data.getInt(trailer + 8);
+            long rowCount = data.getLong(trailer + 12);
+            byte[] index = new byte[trailer - (int) indexOffset];
+            data.get((int) indexOffset, index);
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(index));
+            List<TransactionSegmentBlock> blocks = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                blocks.add(new TransactionSegmentBlock(in.readLong(), in.readInt(), in.readInt(),
+                        toDate(in.readLong()), toDate(in.readLong()), in.readUTF(), in.readUTF()));
+            }
+            return new TransactionSegment(path, month, data, Collections.unmodifiableList(blocks), rowCount, attributes);
+        }
+    }
+
+    // Luna din numele fișierului, de forma transactions_yyyy_MM.seg, sau null
+    public static YearMonth monthOf(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.endsWith(EXTENSION)) {
+            return null;
+        }
+        return TransactionPartitions.monthOf(name.substring(0, name.length() - EXTENSION.length()));
+    }
+
+    public static String fileName(YearMonth month) {
+        return TransactionPartitions.collectionName(month) + EXTENSION;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public List<TransactionSegmentBlock> getBlocks() {
+        return blocks;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    // Dacă fișierul de pe disc e tot cel mapat; un segment înlocuit e un fișier nou, mutat peste cel vechi
+    boolean isCurrent(BasicFileAttributes current) {
+        return Objects.equals(attributes.fileKey(), current.fileKey()) && attributes.size() == current.size()
+                && attributes.lastModifiedTime().equals(current.lastModifiedTime());
+    }
+
+    public Block read(TransactionSegmentBlock block) {
+        return new Block(block);
+    }
+
+    // Toate rândurile segmentului, bloc cu bloc
+    public Stream<TransactionEntity> rows() {
+        return blocks.stream().flatMap(block -> read(block).rows().stream());
+    }
+
+    static long toMillis(LocalDateTime date) {
+        return date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static LocalDateTime toDate(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * One block of a segment. Columns are inflated on first use and kept for the lifetime of this object.
+     */
+    public class Block {
+        private final TransactionSegmentBlock block;
+        private final byte[][] columns = new byte[COLUMNS][];
+        private String[] ids;
+        private LocalDateTime[] dates;
+        private String[] userIds;
+        private List<TransactionEntity> rows;
+
+        private Block(TransactionSegmentBlock block) {
+            this.block = block;
+        }
+
+        public TransactionSegmentBlock getBlock() {
+            return block;
+        }
+
+        public String[] ids() {
+            if (ids == null) {
+                DataInputStream in = column(ID);
+                ids = new String[block.getRows()];
+                try {
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = in.readUTF();
+                    }
+                } catch (IOException e) {
+                    throw corrupt(e);
+                }
+            }
+            return ids;
+        }
+
+        public LocalDateTime[] dates() {
+            if (dates == null) {
+                DataInputStream in = column(DATE);
+                dates = new LocalDateTime[block.getRows()];
+                try {
+                    long millis = 0;
+                    for (int i = 0; i < dates.length; i++) {
+                        millis += in.readLong();
+                        dates[i] = toDate(millis);
+                    }
+                } catch (IOException e) {
+                    throw corrupt(e);
+                }
+            }
+            return dates;
+        }
+
+        public String[] userIds() {
+            if (userIds == null) {
+                DataInputStream in = column(USER);
+                userIds = new String[block.getRows()];
+                try {
+                    for (int i = 0; i < userIds.length; i++) {
+                        userIds[i] = readNullable(in);
+                    }
+                } catch (IOException e) {
+                    throw corrupt(e);
+                }
+            }
+            return userIds;
+        }
+
+        public TransactionEntity row(int index) {
+            return rows().get(index);
+        }
+
+        // Toate rândurile blocului; abia aici se decomprimă restul coloanelor
+        public List<TransactionEntity> rows() {
+            if (rows == null) {
+                rows = decodeRows();
+            }
+            return rows;
+        }
+
+        private List<TransactionEntity> decodeRows() {
+            int count = block.getRows();
+            String[] ids = ids();
+            LocalDateTime[] dates = dates();
+            String[] userIds = userIds();
+            DataInputStream cards = column(LOYALTY_CARD);
+            DataInputStream flags = column(USE_DISCOUNT);
+            DataInputStream amounts = column(AMOUNTS);
+            DataInputStream products = column(PRODUCTS);
+            DataInputStream categorySales = column(CATEGORY_SALES);
+            try {
+                List<TransactionEntity> decoded = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    TransactionEntity transaction = new TransactionEntity();
+                    transaction.setId(ids[i]);
+                    transaction.setDate(dates[i]);
+                    transaction.setUserId(userIds[i]);
+                    transaction.setLoyaltyCardId(readNullable(cards));
+                    transaction.setUseDiscount(flags.readBoolean());
+                    transaction.setProductsList(readProducts(products));
+                    transaction.setCategorySales(readCategorySales(categorySales));
+                    decoded.add(transaction);
+                }
+                for (TransactionEntity transaction : decoded) {
+                    transaction.setTotalAmount(amounts.readLong());
+                }
+                for (TransactionEntity transaction : decoded) {
+                    transaction.setDiscountAmount(amounts.readLong());
+                }
+                for (TransactionEntity transaction : decoded) {
+                    transaction.setPromotionDiscount(amounts.readLong());
+                }
+                for (TransactionEntity transaction : decoded) {
+                    transaction.setLoyaltyDiscount(amounts.readLong());
+                }
+                for (TransactionEntity transaction : decoded) {
+                    transaction.setTotalDiscount(amounts.readLong());
+                }
+                for (TransactionEntity transaction : decoded) {
+                    transaction.setFinalAmount(amounts.readLong());
+                }
+                return Collections.unmodifiableList(decoded);
+            } catch (IOException e) {
+                throw corrupt(e);
+            }
+        }
+
+        private DataInputStream column(int column) {
+            if (columns[column] == null) {
+                columns[column] = inflate(column);
+            }
+            return new DataInputStream(new ByteArrayInputStream(columns[column]));
+        }
+
+        private byte[] inflate(int column) {
+            int header = (int) block.getOffset();
+            int start = header + 4 + COLUMNS * 8;
+            for (int i = 0; i < column; i++) {
+                start += data.getInt(header + 4 + i * 8 + 4);
+            }
+            int rawLength = data.getInt(header + 4 + column * 8);
+            int compressedLength = data.getInt(header + 4 + column * 8 + 4);
+
+            // Inflater citește direct din fișierul mapat; slice-ul propriu face citirea sigură între fire
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data.slice(start, compressedLength));
+                byte[] raw = new byte[rawLength];
+                int read = 0;
+                while (read < rawLength) {
+                    int inflated = inflater.inflate(raw, read, rawLength - read);
+                    if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw corrupt(new IOException("Column " + column + " is shorter than declared"));
+                    }
+                    read += inflated;
+                }
+                return raw;
+            } catch (DataFormatException e) {
+                throw corrupt(new IOException(e));
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    private static List<TransactionEntry> readProducts(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            return null;
+        }
+        List<TransactionEntry> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TransactionEntry entry = new TransactionEntry();
+            entry.setProductId(readNullable(in));
+            entry.setProductQuantity(in.readInt());
+            entry.setCategory(readNullable(in));
+            entry.setBrand(readNullable(in));
+            entry.setUnitPrice(in.readLong());
+            products.add(entry);
+        }
+        return products;
+    }
+
+    private static List<CategorySale> readCategorySales(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            return null;
+        }
+        List<CategorySale> sales = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CategorySale sale = new CategorySale();
+            sale.setCategory(readNullable(in));
+            sale.setGross(in.readLong());
+            sale.setPromotionDiscount(in.readLong());
+            sale.setLoyaltyDiscount(in.readLong());
+            sale.setNet(in.readLong());
+            sales.add(sale);
+        }
+        return sales;
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private UncheckedIOException corrupt(IOException cause) {
+        return new UncheckedIOException("Corrupt transaction segment " + path, cause);
+    }
+}
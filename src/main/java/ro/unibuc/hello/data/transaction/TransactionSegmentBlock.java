@@ -0,0 +1,63 @@
+package ro.unibuc.hello.data.transaction;
+
+import java.time.LocalDateTime;
+
+// Intrarea din indexul rar al unui segment: unde începe blocul și ce interval de date și id-uri acoperă
+public class TransactionSegmentBlock {
+    private final long offset;            // Poziția blocului în fișier
+    private final int length;             // Lungimea lui în octeți, cu tot cu antet
+    private final int rows;               // Numărul de tranzacții din bloc
+    private final LocalDateTime minDate;  // Blocul e în ordinea (date, _id), deci prima și ultima dată
+    private final LocalDateTime maxDate;
+    private final String minId;           // Cel mai mic și cel mai mare id după ordinea lui Mongo
+    private final String maxId;
+
+    public TransactionSegmentBlock(long offset, int length, int rows, LocalDateTime minDate, LocalDateTime maxDate,
+                                   String minId, String maxId) {
+        this.offset = offset;
+        this.length = length;
+        this.rows = rows;
+        this.minDate = minDate;
+        this.maxDate = maxDate;
+        this.minId = minId;
+        this.maxId = maxId;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public LocalDateTime getMinDate() {
+        return minDate;
+    }
+
+    public LocalDateTime getMaxDate() {
+        return maxDate;
+    }
+
+    public String getMinId() {
+        return minId;
+    }
+
+    public String getMaxId() {
+        return maxId;
+    }
+
+    public boolean mayContainId(String id) {
+        return TransactionQueryRepositoryImpl.ID_ORDER.compare(minId, id) <= 0
+                && TransactionQueryRepositoryImpl.ID_ORDER.compare(id, maxId) <= 0;
+    }
+
+    // Dacă blocul poate avea tranzacții cu from <= date <= to; null la un capăt înseamnă fără limită
+    public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return (from == null || !maxDate.isBefore(from)) && (to == null || !minDate.isAfter(to));
+    }
+}
@@ -0,0 +1,259 @@
+package ro.unibuc.hello.data.transaction;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Writes transactions in the {@link TransactionSegment} format. Rows must be appended in (date, _id) order and are
+ * buffered one block at a time. An archive file is written under a temporary name and only moved into place by
+ * {@link #commit()}, after it has been synced, so readers never see a partial segment; the same format can also be
+ * streamed to any output, which is how exports produce their columnar variant.
+ */
+public class TransactionSegmentWriter implements Closeable {
+
+    private final Path target;
+    private final Path temporary;
+    private final int blockRows;
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final List<TransactionSegmentBlock> blocks = new ArrayList<>();
+    private final List<TransactionEntity> pending = new ArrayList<>();
+    private TransactionEntity last;
+    private long position;
+    private long rowCount;
+    private boolean committed;
+
+    public TransactionSegmentWriter(Path target, int blockRows) throws IOException {
+        this(target, target.resolveSibling(target.getFileName() + ".tmp"), blockRows);
+    }
+
+    // Scrie segmentul direct în output, fără fișier temporar; commit() doar termină formatul și nu închide output-ul
+    public TransactionSegmentWriter(OutputStream output, int blockRows) throws IOException {
+        this(null, null, null, output, blockRows);
+    }
+
+    private TransactionSegmentWriter(Path target, Path temporary, int blockRows) throws IOException {
+        this(target, temporary, FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), null, blockRows);
+    }
+
+    private TransactionSegmentWriter(Path target, Path temporary, FileChannel channel, OutputStream output,
+                                     int blockRows) throws IOException {
+        if (blockRows <= 0) {
+            throw new IllegalArgumentException("blockRows must be positive");
+        }
+        this.target = target;
+        this.temporary = temporary;
+        this.blockRows = blockRows;
+        this.channel = channel;
+        this.out = new DataOutputStream(new BufferedOutputStream(channel != null ? Channels.newOutputStream(channel)
+                : output));
+        out.writeInt(TransactionSegment.MAGIC);
+        out.writeInt(TransactionSegment.VERSION);
+        position = TransactionSegment.HEADER_LENGTH;
+    }
+
+    public void append(TransactionEntity transaction) throws IOException {
+        if (transaction.getId() == null || transaction.getDate() == null) {
+            throw new IllegalArgumentException("Segment rows need an id and a date");
+        }
+        if (last != null && TransactionSegment.ORDER.compare(last, transaction) >= 0) {
+            throw new IllegalArgumentException("Transactions must be appended in (date, _id) order: " + transaction.getId());
+        }
+        last = transaction;
+        pending.add(transaction);
+        if (pending.size() == blockRows) {
+            flushBlock();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount + pending.size();
+    }
+
+    // Scrie indexul; pentru un fișier îl sincronizează pe disc și îl mută atomic peste segmentul vechi, dacă exista
+    public long commit() throws IOException {
+        flushBlock();
+        long indexOffset = position;
+        for (TransactionSegmentBlock block : blocks) {
+            out.writeLong(block.getOffset());
+            out.writeInt(block.getLength());
+            out.writeInt(block.getRows());
+            out.writeLong(TransactionSegment.toMillis(block.getMinDate()));
+            out.writeLong(TransactionSegment.toMillis(block.getMaxDate()));
+            out.writeUTF(block.getMinId());
+            out.writeUTF(block.getMaxId());
+        }
+        out.writeLong(indexOffset);
+        out.writeInt(blocks.size());
+        out.writeLong(rowCount);
+        out.writeInt(TransactionSegment.MAGIC);
+        out.flush();
+        committed = true;
+        if (channel != null) {
+            channel.force(true);
+            out.close();
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return rowCount;
+    }
+
+    // Fără commit, fișierul temporar se șterge
+    @Override
+    public void close() throws IOException {
+        if (!committed && channel != null) {
+            out.close();
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        byte[][] columns = encode(pending);
+        byte[][] compressed = new byte[columns.length][];
+        int length = 4 + columns.length * 8;
+        out.writeInt(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            compressed[i] = deflate(columns[i]);
+            out.writeInt(columns[i].length);
+            out.writeInt(compressed[i].length);
+            length += compressed[i].length;
+        }
+        for (byte[] column : compressed) {
+            out.write(column);
+        }
+
+        String minId = pending.get(0).getId();
+        String maxId = minId;
+        for (TransactionEntity transaction : pending) {
+            if (TransactionQueryRepositoryImpl.ID_ORDER.compare(transaction.getId(), minId) < 0) {
+                minId = transaction.getId();
+            }
+            if (TransactionQueryRepositoryImpl.ID_ORDER.compare(transaction.getId(), maxId) > 0) {
+                maxId = transaction.getId();
+            }
+        }
+        blocks.add(new TransactionSegmentBlock(position, length, pending.size(), pending.get(0).getDate(),
+                pending.get(pending.size() - 1).getDate(), minId, maxId));
+        position += length;
+        rowCount += pending.size();
+        pending.clear();
+    }
+
+    private static byte[][] encode(List<TransactionEntity> rows) throws IOException {
+        ByteArrayOutputStream[] buffers = new ByteArrayOutputStream[TransactionSegment.COLUMNS];
+        DataOutputStream[] columns = new DataOutputStream[TransactionSegment.COLUMNS];
+        for (int i = 0; i < columns.length; i++) {
+            buffers[i] = new ByteArrayOutputStream();
+            columns[i] = new DataOutputStream(buffers[i]);
+        }
+
+        long previousDate = 0;
+        for (TransactionEntity transaction : rows) {
+            columns[TransactionSegment.ID].writeUTF(transaction.getId());
+            long date = TransactionSegment.toMillis(transaction.getDate());
+            columns[TransactionSegment.DATE].writeLong(date - previousDate);
+            previousDate = date;
+            writeNullable(columns[TransactionSegment.USER], transaction.getUserId());
+            writeNullable(columns[TransactionSegment.LOYALTY_CARD], transaction.getLoyaltyCardId());
+            columns[TransactionSegment.USE_DISCOUNT].writeBoolean(transaction.isUseDiscount());
+            writeProducts(columns[TransactionSegment.PRODUCTS], transaction.getProductsList());
+            writeCategorySales(columns[TransactionSegment.CATEGORY_SALES], transaction.getCategorySales());
+        }
+        // Valorile aceleiași sume stau una lângă alta, ca să se comprime împreună
+        DataOutputStream amounts = columns[TransactionSegment.AMOUNTS];
+        for (TransactionEntity transaction : rows) {
+            amounts.writeLong(transaction.getTotalAmount());
+        }
+        for (TransactionEntity transaction : rows) {
+            amounts.writeLong(transaction.getDiscountAmount());
+        }
+        for (TransactionEntity transaction : rows) {
+            amounts.writeLong(transaction.getPromotionDiscount());
+        }
+        for (TransactionEntity transaction : rows) {
+            amounts.writeLong(transaction.getLoyaltyDiscount());
+        }
+        for (TransactionEntity transaction : rows) {
+            amounts.writeLong(transaction.getTotalDiscount());
+        }
+        for (TransactionEntity transaction : rows) {
+            amounts.writeLong(transaction.getFinalAmount());
+        }
+
+        byte[][] encoded = new byte[columns.length][];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].flush();
+            encoded[i] = buffers[i].toByteArray();
+        }
+        return encoded;
+    }
+
+    private static void writeProducts(DataOutputStream out, List<TransactionEntry> products) throws IOException {
+        if (products == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(products.size());
+        for (TransactionEntry entry : products) {
+            writeNullable(out, entry.getProductId());
+            out.writeInt(entry.getProductQuantity());
+            writeNullable(out, entry.getCategory());
+            writeNullable(out, entry.getBrand());
+            out.writeLong(entry.getUnitPrice());
+        }
+    }
+
+    private static void writeCategorySales(DataOutputStream out, List<CategorySale> sales) throws IOException {
+        if (sales == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(sales.size());
+        for (CategorySale sale : sales) {
+            writeNullable(out, sale.getCategory());
+            out.writeLong(sale.getGross());
+            out.writeLong(sale.getPromotionDiscount());
+            out.writeLong(sale.getLoyaltyDiscount());
+            out.writeLong(sale.getNet());
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ro.unibuc.hello.data.transaction;
+
+import java.time.LocalDateTime;
+
+// Forma redusă a unei tranzacții pentru listări; interogările citesc din Mongo doar aceste câmpuri
+public class TransactionSummary implements TransactionListItem {
+    public String id;
+    public String userId;
+    public LocalDateTime date;        // Data tranzacției
+    public long finalAmount;          // Suma finală în cenți
+
+    public TransactionSummary() {
+    }
+
+    public TransactionSummary(String id, String userId, LocalDateTime date, long finalAmount) {
+        this.id = id;
+        this.userId = userId;
+        this.date = date;
+        this.finalAmount = finalAmount;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    @Override
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDateTime date) {
+        this.date = date;
+    }
+
+    public long getFinalAmount() {
+        return finalAmount;
+    }
+
+    public void setFinalAmount(long finalAmount) {
+        this.finalAmount = finalAmount;
+    }
+}
@@ -0,0 +1,78 @@
+package ro.unibuc.hello.data.user;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Document(collection = "user_spend_summaries")
+public class UserSpendSummary {
+    @Id
+    public String id;                        // ID-ul utilizatorului
+    public long orderCount;                  // Numărul de tranzacții
+    // Toate sumele sunt în cenți
+    public long lifetimeGross;               // Suma tranzacțiilor înainte de discount
+    public long lifetimeNet;                 // Suma încasată
+    public LocalDateTime lastPurchaseDate;   // Data ultimei tranzacții
+
+    public UserSpendSummary() {
+    }
+
+    public UserSpendSummary(String userId) {
+        this.id = userId;
+    }
+
+    public void add(long orderCount, long gross, long net, LocalDateTime date) {
+        this.orderCount += orderCount;
+        this.lifetimeGross += gross;
+        this.lifetimeNet += net;
+        if (date != null && (lastPurchaseDate == null || date.isAfter(lastPurchaseDate))) {
+            this.lastPurchaseDate = date;
+        }
+    }
+
+    // Coșul mediu în cenți, calculat la citire din totaluri
+    public long getAverageBasket() {
+        return orderCount > 0 ? lifetimeNet / orderCount : 0;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public long getLifetimeGross() {
+        return lifetimeGross;
+    }
+
+    public void setLifetimeGross(long lifetimeGross) {
+        this.lifetimeGross = lifetimeGross;
+    }
+
+    public long getLifetimeNet() {
+        return lifetimeNet;
+    }
+
+    public void setLifetimeNet(long lifetimeNet) {
+        this.lifetimeNet = lifetimeNet;
+    }
+
+    public LocalDateTime getLastPurchaseDate() {
+        return lastPurchaseDate;
+    }
+
+    public void setLastPurchaseDate(LocalDateTime lastPurchaseDate) {
+        this.lastPurchaseDate = lastPurchaseDate;
+    }
+}
@@ -0,0 +1,8 @@
+package ro.unibuc.hello.data.user;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserSpendSummaryRepository extends MongoRepository<UserSpendSummary, String>, UserSpendSummaryUpdateRepository {
+}
@@ -0,0 +1,21 @@
+package ro.unibuc.hello.data.user;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Summary maintenance executed server-side with $inc/$max, so concurrent checkouts of the same user never
+ * overwrite each other. Spring Data wires {@link UserSpendSummaryUpdateRepositoryImpl} into {@link UserSpendSummaryRepository}.
+ */
+public interface UserSpendSummaryUpdateRepository {
+
+    // Adună fiecare delta în sumarul utilizatorului, creându-l dacă lipsește, într-un singur bulk write neordonat
+    void increment(Collection<UserSpendSummary> deltas);
+
+    // Scade o tranzacție ștearsă; dacă era ultima, data ultimei tranzacții devine latestRemaining (null o șterge)
+    void decrement(UserSpendSummary delta, LocalDateTime removedDate, LocalDateTime latestRemaining);
+
+    // Scrie sumarele recalculate din tranzacții cu $set pe fiecare _id, fără să șteargă colecția, apoi șterge sumarele
+    // cu număr negativ, rămase de la ștergerea unor tranzacții care nu fuseseră numărate
+    void rebuild(Collection<UserSpendSummary> summaries);
+}
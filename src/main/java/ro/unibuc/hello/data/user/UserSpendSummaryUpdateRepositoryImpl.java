@@ -0,0 +1,81 @@
+package ro.unibuc.hello.data.user;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public class UserSpendSummaryUpdateRepositoryImpl implements UserSpendSummaryUpdateRepository {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void increment(Collection<UserSpendSummary> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserSpendSummary.class);
+        for (UserSpendSummary delta : deltas) {
+            Update update = totals(delta, 1);
+            if (delta.lastPurchaseDate != null) {
+                update.max("lastPurchaseDate", delta.lastPurchaseDate);
+            }
+            bulk.upsert(byId(delta.id), update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public void decrement(UserSpendSummary delta, LocalDateTime removedDate, LocalDateTime latestRemaining) {
+        mongoTemplate.updateFirst(byId(delta.id), totals(delta, -1), UserSpendSummary.class);
+        if (removedDate == null) {
+            return;
+        }
+
+        // Se schimbă doar dacă data nu a fost între timp mutată înainte de un checkout nou
+        Query wasLatest = byId(delta.id).addCriteria(Criteria.where("lastPurchaseDate").is(removedDate));
+        Update update = latestRemaining != null
+                ? new Update().set("lastPurchaseDate", latestRemaining)
+                : new Update().unset("lastPurchaseDate");
+        mongoTemplate.updateFirst(wasLatest, update, UserSpendSummary.class);
+    }
+
+    @Override
+    public void rebuild(Collection<UserSpendSummary> summaries) {
+        if (!summaries.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserSpendSummary.class);
+            for (UserSpendSummary summary : summaries) {
+                Update update = new Update()
+                        .set("orderCount", summary.orderCount)
+                        .set("lifetimeGross", summary.lifetimeGross)
+                        .set("lifetimeNet", summary.lifetimeNet);
+                // Un checkout făcut între timp pe altă instanță poate avea o dată mai nouă
+                if (summary.lastPurchaseDate != null) {
+                    update.max("lastPurchaseDate", summary.lastPurchaseDate);
+                }
+                bulk.upsert(byId(summary.id), update);
+            }
+            bulk.execute();
+        }
+        // Un sumar recalculat nu e niciodată negativ, iar unul creat între timp de un checkout nici atât
+        mongoTemplate.remove(Query.query(Criteria.where("orderCount").lt(0)), UserSpendSummary.class);
+    }
+
+    private static Update totals(UserSpendSummary delta, int sign) {
+        return new Update()
+                .inc("orderCount", sign * delta.orderCount)
+                .inc("lifetimeGross", sign * delta.lifetimeGross)
+                .inc("lifetimeNet", sign * delta.lifetimeNet);
+    }
+
+    private static Query byId(String userId) {
+        return Query.query(Criteria.where("_id").is(userId));
+    }
+}
@@ -0,0 +1,186 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.Money;
+import ro.unibuc.hello.data.report.BasketDistribution;
+import ro.unibuc.hello.data.transaction.CategorySale;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionEntry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shape of the checkouts: lines, units, gross amount and discount ratio of every basket, and of every category's share
+ * of it. Each is a Micrometer distribution summary with fixed buckets, exported to Prometheus as a histogram whose
+ * buckets add up across instances, plus HdrHistogram-based percentiles over the last few minutes that
+ * {@link #getDistribution(String)} reads back. At most {@code max-categories} categories get their own series; the
+ * rest share a single series tagged {@code overflow=true}, which every category series also carries as
+ * {@code overflow=false}, so the shared one never merges with a real category of the same name. Reading a folded
+ * category returns the shared distributions, flagged as {@link BasketDistribution#isOverflow() overflow}.
+ */
+@Component
+public class BasketMetrics {
+
+    static final String OVERFLOW = "_overflow";
+
+    private static final double[] LINE_BUCKETS = {1, 2, 3, 5, 8, 13, 21, 34, 55, 100};
+    private static final double[] UNIT_BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+    private static final double[] GROSS_BUCKETS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    private static final double[] RATIO_BUCKETS = {0.01, 0.05, 0.1, 0.15, 0.2, 0.3, 0.5, 0.75, 1};
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    private final MeterRegistry registry;
+    private final int maxCategories;
+    private final Summaries basket;
+    private final Map<String, Summaries> categories = new ConcurrentHashMap<>();
+    private final Set<String> folded = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger tracked = new AtomicInteger();
+    private volatile Summaries overflow;
+
+    public BasketMetrics(MeterRegistry registry, @Value("${metrics.basket.max-categories:50}") int maxCategories) {
+        this.registry = registry;
+        this.maxCategories = maxCategories;
+        this.basket = new Summaries("checkout.basket", null, false);
+    }
+
+    public void record(TransactionEntity transaction) {
+        if (transaction.getProductsList() == null) {
+            return;
+        }
+        Map<String, long[]> linesAndUnits = new HashMap<>();
+        long units = 0;
+        for (TransactionEntry entry : transaction.getProductsList()) {
+            units += entry.getProductQuantity();
+            String category = entry.getCategory() != null ? entry.getCategory() : TransactionService.UNCATEGORIZED;
+            long[] counts = linesAndUnits.computeIfAbsent(category, c -> new long[2]);
+            counts[0]++;
+            counts[1] += entry.getProductQuantity();
+        }
+        basket.record(transaction.getProductsList().size(), units, transaction.getTotalAmount(),
+                transaction.getTotalDiscount());
+
+        // Tranzacțiile vechi, fără defalcare pe categorii, contează doar în distribuția coșului
+        if (transaction.getCategorySales() == null) {
+            return;
+        }
+        for (CategorySale sale : transaction.getCategorySales()) {
+            long[] counts = linesAndUnits.getOrDefault(sale.getCategory(), new long[2]);
+            category(sale.getCategory()).record(counts[0], counts[1], sale.getGross(),
+                    sale.getPromotionDiscount() + sale.getLoyaltyDiscount());
+        }
+    }
+
+    // Distribuția coșului pentru category == null, altfel a categoriei; o categorie fără serie proprie primește seria comună
+    public List<BasketDistribution> getDistribution(String category) throws Exception {
+        Summaries summaries = category == null ? basket : categories.get(category);
+        if (summaries == null && category != null && folded.contains(category)) {
+            summaries = overflow;
+        }
+        if (summaries == null) {
+            throw new Exception(HttpStatus.NOT_FOUND.toString());
+        }
+        return summaries.distributions();
+    }
+
+    private Summaries category(String category) {
+        Summaries summaries = categories.get(category);
+        if (summaries != null) {
+            return summaries;
+        }
+        // Fiecare categorie înseamnă câte o serie pe bucket în Prometheus, deci numărul lor e limitat; locul se ia atomic,
+        // ca două categorii noi să nu poată trece amândouă de limită
+        summaries = categories.computeIfAbsent(category, name ->
+                tracked.getAndUpdate(count -> Math.min(count + 1, maxCategories)) < maxCategories
+                        ? new Summaries("checkout.category", name, false)
+                        : null);
+        if (summaries != null) {
+            return summaries;
+        }
+        summaries = overflow();
+        folded.add(category);
+        return summaries;
+    }
+
+    private Summaries overflow() {
+        Summaries summaries = overflow;
+        if (summaries == null) {
+            synchronized (this) {
+                summaries = overflow;
+                if (summaries == null) {
+                    summaries = new Summaries("checkout.category", OVERFLOW, true);
+                    overflow = summaries;
+                }
+            }
+        }
+        return summaries;
+    }
+
+    private final class Summaries {
+        private final DistributionSummary lines;
+        private final DistributionSummary units;
+        private final DistributionSummary gross;
+        private final DistributionSummary discountRatio;
+        private final boolean shared;
+
+        Summaries(String prefix, String category, boolean shared) {
+            this.shared = shared;
+            lines = summary(prefix + ".lines", category, null, LINE_BUCKETS);
+            units = summary(prefix + ".units", category, null, UNIT_BUCKETS);
+            gross = summary(prefix + ".gross", category, "RON", GROSS_BUCKETS);
+            discountRatio = summary(prefix + ".discount.ratio", category, null, RATIO_BUCKETS);
+        }
+
+        void record(long lineCount, long unitCount, long grossCents, long discountCents) {
+            lines.record(lineCount);
+            units.record(unitCount);
+            gross.record(Money.toUnits(grossCents));
+            if (grossCents > 0) {
+                discountRatio.record((double) discountCents / grossCents);
+            }
+        }
+
+        List<BasketDistribution> distributions() {
+            List<BasketDistribution> distributions = new ArrayList<>();
+            for (DistributionSummary summary : List.of(lines, units, gross, discountRatio)) {
+                HistogramSnapshot snapshot = summary.takeSnapshot();
+                BasketDistribution distribution = new BasketDistribution(summary.getId().getName());
+                distribution.setOverflow(shared);
+                distribution.setCount(snapshot.count());
+                distribution.setMean(snapshot.mean());
+                distribution.setMax(snapshot.max());
+                for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                    distribution.getPercentiles().put(String.valueOf(percentile.percentile()), percentile.value());
+                }
+                for (CountAtBucket bucket : snapshot.histogramCounts()) {
+                    distribution.getBuckets().put(String.valueOf(bucket.bucket()), bucket.count());
+                }
+                distributions.add(distribution);
+            }
+            return distributions;
+        }
+
+        private DistributionSummary summary(String name, String category, String baseUnit, double[] buckets) {
+            DistributionSummary.Builder builder = DistributionSummary.builder(name)
+                    .baseUnit(baseUnit)
+                    .serviceLevelObjectives(buckets)
+                    .publishPercentiles(PERCENTILES);
+            if (category != null) {
+                builder.tag("category", category).tag("overflow", String.valueOf(shared));
+            }
+            return builder.register(registry);
+        }
+    }
+}
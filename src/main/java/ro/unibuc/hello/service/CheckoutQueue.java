@@ -0,0 +1,114 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ro.unibuc.hello.data.transaction.CheckoutTicket;
+import ro.unibuc.hello.data.transaction.TransactionBatchResult;
+import ro.unibuc.hello.data.transaction.TransactionDTO;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs checkouts asynchronously: requests wait in a bounded in-process queue and are processed
+ * by a fixed number of virtual-thread workers, while clients poll the returned ticket.
+ */
+@Service
+public class CheckoutQueue {
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutQueue.class);
+
+    private final TransactionService transactionService;
+    private final BlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, CheckoutTicket> tickets = new ConcurrentHashMap<>();
+    private final long ticketRetentionMinutes;
+
+    private final Timer waitTimer;
+    private final Timer processingTimer;
+
+    public CheckoutQueue(TransactionService transactionService, MeterRegistry registry,
+                         @Value("${transactions.async.queue-capacity:1000}") int queueCapacity,
+                         @Value("${transactions.async.workers:16}") int workerCount,
+                         @Value("${transactions.async.ticket-retention-minutes:15}") long ticketRetentionMinutes) {
+        this.transactionService = transactionService;
+        this.ticketRetentionMinutes = ticketRetentionMinutes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS, queue,
+                Thread.ofVirtual().name("checkout-", 0).factory(), new ThreadPoolExecutor.AbortPolicy());
+
+        this.waitTimer = registry.timer("transactions.async.wait");
+        this.processingTimer = registry.timer("transactions.async.processing");
+        Gauge.builder("transactions.async.queue.depth", queue, BlockingQueue::size).register(registry);
+    }
+
+    // Aruncă RejectedExecutionException dacă coada este plină
+    public CheckoutTicket submit(TransactionDTO transaction) {
+        CheckoutTicket ticket = new CheckoutTicket(UUID.randomUUID().toString());
+        tickets.put(ticket.getId(), ticket);
+        long queuedAt = System.nanoTime();
+        try {
+            workers.execute(() -> process(ticket, transaction, queuedAt));
+        } catch (RuntimeException e) {
+            tickets.remove(ticket.getId());
+            throw e;
+        }
+        return ticket;
+    }
+
+    public CheckoutTicket getTicket(String id) throws Exception {
+        CheckoutTicket ticket = tickets.get(id);
+        if (ticket == null) {
+            throw new Exception(HttpStatus.NOT_FOUND.toString());
+        }
+        return ticket;
+    }
+
+    private void process(CheckoutTicket ticket, TransactionDTO transaction, long queuedAt) {
+        waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+        ticket.setStatus(CheckoutTicket.Status.PROCESSING);
+
+        Timer.Sample sample = Timer.start();
+        TransactionBatchResult result;
+        try {
+            TransactionEntity savedTransaction = transactionService.createTransaction(transaction);
+            result = TransactionBatchResult.success(0, savedTransaction);
+        } catch (Exception e) {
+            result = TransactionService.checkoutFailure(0, e);
+        }
+        sample.stop(processingTimer);
+
+        // Statusul se schimbă ultimul, ca cine face polling să vadă deja rezultatul
+        ticket.setResult(result);
+        ticket.setCompletedAt(LocalDateTime.now());
+        ticket.setStatus(result.getTransaction() != null ? CheckoutTicket.Status.COMPLETED : CheckoutTicket.Status.FAILED);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpiredTickets() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(ticketRetentionMinutes);
+        tickets.values().removeIf(ticket -> ticket.getCompletedAt() != null && ticket.getCompletedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Checkout queue stopped with {} pending checkouts", queue.size());
+        }
+    }
+}
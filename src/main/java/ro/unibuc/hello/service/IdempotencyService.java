@@ -0,0 +1,249 @@
+package ro.unibuc.hello.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ro.unibuc.hello.data.idempotency.IdempotencyRecord;
+import ro.unibuc.hello.data.idempotency.IdempotencyRecordRepository;
+import ro.unibuc.hello.data.transaction.TransactionDTO;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionEntry;
+import ro.unibuc.hello.data.transaction.TransactionRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes checkout idempotent per Idempotency-Key: a key is claimed in Mongo before the checkout runs,
+ * and repeated requests get the transaction created by the first one instead of running again.
+ * The key is bound to a hash of the request body, so reusing it for a different cart is rejected.
+ * Every claim carries its own token and is completed, released or taken over only while that token still holds it.
+ * Recently completed keys and in-flight checkouts are also tracked in memory, so local retries need no query.
+ * Once a checkout has succeeded its claim is never released: if marking the key completed fails, the claim is kept
+ * and completion is retried in the background, well within the claim timeout, so no other request can take it over
+ * and run the checkout a second time.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionRepository transactionRepository;
+    private final long waitTimeoutMs;
+    private final long claimTimeoutMs;
+
+    private final Map<String, Execution> completed;
+    private final Map<String, Execution> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, PendingCompletion> pendingCompletions = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              TransactionRepository transactionRepository,
+                              @Value("${transactions.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${transactions.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+                              @Value("${transactions.idempotency.claim-timeout-ms:60000}") long claimTimeoutMs) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionRepository = transactionRepository;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.claimTimeoutMs = claimTimeoutMs;
+        this.completed = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Execution> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public TransactionEntity execute(String key, TransactionDTO request, Callable<TransactionEntity> checkout) throws Exception {
+        String requestHash = hash(request);
+        Execution cached = completed.get(key);
+        if (cached != null) {
+            requireSameRequest(cached.requestHash, requestHash);
+            return cached.result.join();
+        }
+
+        // Un duplicat sosit cât timp prima cerere rulează pe aceeași instanță așteaptă rezultatul ei
+        Execution execution = new Execution(requestHash);
+        Execution running = inFlight.putIfAbsent(key, execution);
+        if (running != null) {
+            requireSameRequest(running.requestHash, requestHash);
+            return await(running.result);
+        }
+
+        try {
+            TransactionEntity result = executeOnce(key, requestHash, checkout);
+            execution.result.complete(result);
+            completed.put(key, execution);
+            return result;
+        } catch (Exception e) {
+            execution.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    private TransactionEntity executeOnce(String key, String requestHash, Callable<TransactionEntity> checkout) throws Exception {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        while (true) {
+            String claimToken = UUID.randomUUID().toString();
+            if (claim(key, requestHash, claimToken)) {
+                return runClaimed(key, claimToken, checkout);
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new Exception(HttpStatus.CONFLICT.toString());
+            }
+
+            IdempotencyRecord record = idempotencyRecordRepository.findById(key).orElse(null);
+            if (record == null) {
+                // Prima cerere a eșuat și a eliberat cheia
+                continue;
+            }
+            // Cheile salvate înainte de hash nu au cu ce fi comparate
+            if (record.getRequestHash() != null) {
+                requireSameRequest(record.getRequestHash(), requestHash);
+            }
+            if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                return transactionRepository.findById(record.getTransactionId())
+                        .orElseThrow(() -> new Exception(HttpStatus.NOT_FOUND.toString()));
+            }
+            if (record.getCreatedAt().isBefore(LocalDateTime.now().minus(Duration.ofMillis(claimTimeoutMs)))) {
+                // Instanța care a revendicat cheia nu a terminat la timp; dintre cei care văd același claim, doar unul
+                // îl preia, iar vechiul deținător nu mai poate termina sau elibera cheia
+                if (idempotencyRecordRepository.takeOver(key, record.getClaimToken(), claimToken)) {
+                    logger.warn("Took over stale idempotency key {}", key);
+                    return runClaimed(key, claimToken, checkout);
+                }
+                continue;
+            }
+            Thread.sleep(POLL_INTERVAL_MS);
+        }
+    }
+
+    private boolean claim(String key, String requestHash, String claimToken) {
+        try {
+            idempotencyRecordRepository.insert(new IdempotencyRecord(key, requestHash, claimToken));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private TransactionEntity runClaimed(String key, String claimToken, Callable<TransactionEntity> checkout) throws Exception {
+        TransactionEntity result;
+        try {
+            result = checkout.call();
+        } catch (Exception e) {
+            // Checkout-ul eșuat nu are efecte, deci cheia se eliberează și clientul poate reîncerca
+            idempotencyRecordRepository.release(key, claimToken);
+            throw e;
+        }
+        // Tranzacția e deja salvată, deci de aici cheia nu se mai eliberează: o reîncercare ar repeta checkout-ul
+        PendingCompletion completion = new PendingCompletion(claimToken, result.getId());
+        if (!tryComplete(key, completion)) {
+            pendingCompletions.put(key, completion);
+        }
+        return result;
+    }
+
+    // Reîncearcă finalizarea cheilor rămase PROCESSING după un checkout reușit, înainte ca alte instanțe să le preia
+    @Scheduled(fixedDelayString = "${transactions.idempotency.complete-retry-interval-ms:1000}")
+    public void retryPendingCompletions() {
+        pendingCompletions.forEach((key, completion) -> {
+            if (tryComplete(key, completion)) {
+                pendingCompletions.remove(key, completion);
+            }
+        });
+    }
+
+    private boolean tryComplete(String key, PendingCompletion completion) {
+        try {
+            if (!idempotencyRecordRepository.complete(key, completion.claimToken, completion.transactionId)) {
+                // Cheia a fost preluată cât timp checkout-ul rula; înregistrarea noului deținător rămâne neatinsă
+                logger.warn("Idempotency key {} was taken over before transaction {} completed", key, completion.transactionId);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("Could not complete idempotency key {} for transaction {}, retrying", key, completion.transactionId, e);
+            return false;
+        }
+    }
+
+    private static void requireSameRequest(String expectedHash, String requestHash) throws Exception {
+        if (!expectedHash.equals(requestHash)) {
+            throw new Exception(HttpStatus.UNPROCESSABLE_ENTITY.toString());
+        }
+    }
+
+    // SHA-256 peste câmpurile cererii, în ordine fixă; același coș trimis din nou dă același hash
+    static String hash(TransactionDTO request) {
+        StringBuilder canonical = new StringBuilder()
+                .append(request.getUserId()).append('|')
+                .append(request.getLoyaltyCardId()).append('|')
+                .append(request.isUseDiscount());
+        if (request.getProductsList() != null) {
+            for (TransactionEntry entry : request.getProductsList()) {
+                canonical.append('|').append(entry.getProductId()).append(':').append(entry.getProductQuantity());
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 e obligatoriu în orice JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private TransactionEntity await(CompletableFuture<TransactionEntity> running) throws Exception {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (TimeoutException e) {
+            throw new Exception(HttpStatus.CONFLICT.toString());
+        }
+    }
+
+    // Checkout-ul unei chei pe instanța curentă, cu hash-ul cererii care l-a pornit
+    private static final class Execution {
+        private final String requestHash;
+        private final CompletableFuture<TransactionEntity> result = new CompletableFuture<>();
+
+        Execution(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+
+    // Claim-ul păstrat și tranzacția creată de el, pentru o cheie al cărei complete() a eșuat
+    private static final class PendingCompletion {
+        private final String claimToken;
+        private final String transactionId;
+
+        PendingCompletion(String claimToken, String transactionId) {
+            this.claimToken = claimToken;
+            this.transactionId = transactionId;
+        }
+    }
+}
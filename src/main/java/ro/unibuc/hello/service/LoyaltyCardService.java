@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import ro.unibuc.hello.data.Money;
 import ro.unibuc.hello.data.loyalty.LoyaltyCardEntity;
 import ro.unibuc.hello.data.loyalty.LoyaltyCardRepository;
 import ro.unibuc.hello.data.user.User;
@@ -75,18 +76,28 @@ public class LoyaltyCardService {
     }
     
     public LoyaltyCardEntity addPoints(String cardId, int points) throws Exception {
+        LoyaltyCardEntity card = loyaltyCardRepository.incrementPoints(cardId, points);
+        if (card == null) {
+            throw new Exception(HttpStatus.NOT_FOUND.toString());
+        }
+        return card;
+    }
+    
+    public long calculateDiscount(String cardId, long amount) throws Exception {
         LoyaltyCardEntity card = loyaltyCardRepository.findById(cardId)
                 .orElseThrow(() -> new Exception(HttpStatus.NOT_FOUND.toString()));
         
-        card.addPoints(points);
-        return loyaltyCardRepository.save(card);
+        return Money.percentOf(amount, card.getDiscountPercentage());
     }
     
-    public double calculateDiscount(String cardId, double amount) throws Exception {
-        LoyaltyCardEntity card = loyaltyCardRepository.findById(cardId)
-                .orElseThrow(() -> new Exception(HttpStatus.NOT_FOUND.toString()));
+    // Discount-ul și punctele pentru o cumpărare, cu o singură operație pe card
+    public long applyDiscountAndAccruePoints(String cardId, long amount) throws Exception {
+        LoyaltyCardEntity card = loyaltyCardRepository.accruePointsForPurchase(cardId, amount);
+        if (card == null) {
+            throw new Exception(HttpStatus.NOT_FOUND.toString());
+        }
         
-        return amount * (card.getDiscountPercentage() / 100.0);
+        return Money.percentOf(amount, card.getDiscountPercentage());
     }
     
     public void deleteCard(String cardId) throws Exception {
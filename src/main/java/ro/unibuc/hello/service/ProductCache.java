@@ -0,0 +1,102 @@
+package ro.unibuc.hello.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.product.ProductEntity;
+import ro.unibuc.hello.data.product.ProductRepository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read-through cache of products in front of {@link ProductRepository}, bounded by {@code products.cache.max-size}
+ * entries with Caffeine's W-TinyLFU eviction and by {@code products.cache.ttl} since load. Product writes go to the
+ * repository and then {@link #invalidate(String)} the entry. Stock changes on every checkout, on any instance, so it is
+ * never served from the cache: {@link #get(String)} overlays {@code stockSize} and {@code inStock} read from Mongo on
+ * each call. {@link #getAll(Collection)} skips that read and returns the cached stock, because checkout never relies on
+ * it; stock is reserved with a conditional update in Mongo. Hits, misses, evictions and load times are published as
+ * the {@code cache.*} meters tagged {@code cache=products}.
+ */
+@Component
+public class ProductCache {
+
+    private final ProductRepository productRepository;
+    private final LoadingCache<String, ProductEntity> products;
+
+    public ProductCache(ProductRepository productRepository, MeterRegistry registry,
+                        @Value("${products.cache.max-size:10000}") long maxSize,
+                        @Value("${products.cache.ttl:PT30S}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(new CacheLoader<String, ProductEntity>() {
+                    // Un produs lipsă nu se memorează, ca un insert ulterior să fie văzut imediat
+                    @Override
+                    public ProductEntity load(String id) {
+                        return productRepository.findById(id).orElse(null);
+                    }
+
+                    // Produsele lipsă din cache se încarcă într-o singură interogare
+                    @Override
+                    public Map<String, ProductEntity> loadAll(Set<? extends String> ids) {
+                        Map<String, ProductEntity> loaded = new HashMap<>();
+                        for (ProductEntity product : productRepository.findAllById(List.<String>copyOf(ids))) {
+                            loaded.put(product.getId(), product);
+                        }
+                        return loaded;
+                    }
+                });
+        CaffeineCacheMetrics.monitor(registry, products, "products");
+        Gauge.builder("cache.hit.ratio", products, cache -> cache.stats().hitRate())
+                .tag("cache", "products")
+                .register(registry);
+    }
+
+    // Produsul din cache, cu stocul citit din Mongo
+    public Optional<ProductEntity> get(String id) {
+        ProductEntity cached = products.get(id);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        ProductEntity stock = productRepository.findStock(id);
+        if (stock == null) {
+            // Produsul a fost șters între timp, eventual de altă instanță
+            products.invalidate(id);
+            return Optional.empty();
+        }
+        ProductEntity product = copy(cached);
+        product.stockSize = stock.stockSize;
+        product.inStock = stock.inStock;
+        return Optional.of(product);
+    }
+
+    // Produsele găsite, după id, cu stocul din cache; id-urile inexistente lipsesc din rezultat
+    public Map<String, ProductEntity> getAll(Collection<String> ids) {
+        Map<String, ProductEntity> found = new HashMap<>();
+        products.getAll(ids).forEach((id, product) -> found.put(id, copy(product)));
+        return found;
+    }
+
+    public void invalidate(String id) {
+        products.invalidate(id);
+    }
+
+    // Apelanții primesc o copie, ca modificarea ei să nu schimbe intrarea din cache
+    private static ProductEntity copy(ProductEntity product) {
+        return new ProductEntity(product.id, product.name, product.price, product.inStock, product.stockSize,
+                product.category, product.brand, product.description);
+    }
+}
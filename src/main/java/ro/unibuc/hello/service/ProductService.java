@@ -3,6 +3,7 @@ package ro.unibuc.hello.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import ro.unibuc.hello.data.IdGenerator;
 import ro.unibuc.hello.data.product.ProductDTO;
 import ro.unibuc.hello.data.product.ProductEntity;
 import ro.unibuc.hello.data.product.ProductRepository;
@@ -10,7 +11,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.UUID;
 
 @Service
 public class ProductService {
@@ -19,9 +19,15 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
     public void insertProduct(ProductDTO product) throws Exception {
         ProductEntity productToSave = new ProductEntity();
-        productToSave.id = UUID.randomUUID().toString();
+        productToSave.id = idGenerator.nextId();
         productToSave.name = product.name;
         productToSave.price = product.price;
         productToSave.stockSize = product.stockSize;
@@ -35,11 +41,12 @@ public class ProductService {
         productToSave.inStock = productToSave.stockSize > 0;
 
         productRepository.save(productToSave);
+        productCache.invalidate(productToSave.id);
         checkLowStock(productToSave);
     }
 
     public ProductEntity getProductById(String id) throws Exception {
-        return productRepository.findById(id)
+        return productCache.get(id)
                 .orElseThrow(() -> new Exception(HttpStatus.NOT_FOUND.toString()));
     }
 
@@ -48,7 +55,9 @@ public class ProductService {
     }
 
     public void updateProductById(String id, ProductDTO updateProduct) throws Exception {
-        ProductEntity productInDb = getProductById(id);
+        // Modificarea pornește de la documentul din Mongo, nu din cache, ca să nu suprascrie alte scrieri cu date vechi
+        ProductEntity productInDb = productRepository.findById(id)
+                .orElseThrow(() -> new Exception(HttpStatus.NOT_FOUND.toString()));
         productInDb.name = updateProduct.name;
         productInDb.price = updateProduct.price;
         productInDb.stockSize = updateProduct.stockSize;
@@ -62,11 +71,13 @@ public class ProductService {
         productInDb.inStock = productInDb.stockSize > 0;
 
         productRepository.save(productInDb);
+        productCache.invalidate(id);
         checkLowStock(productInDb);
     }
 
     public void deleteProductById(String id) {
         productRepository.deleteById(id);
+        productCache.invalidate(id);
     }
 
     private void checkLowStock(ProductEntity product) {
@@ -0,0 +1,74 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.promotions.PromotionEntity;
+import ro.unibuc.hello.data.promotions.PromotionRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory index category -> active promotions, used by checkout instead of querying Mongo.
+ * The whole map is rebuilt and swapped in one step whenever promotions change.
+ */
+@Component
+public class PromotionIndex {
+    private static final Logger logger = LoggerFactory.getLogger(PromotionIndex.class);
+
+    private final PromotionRepository promotionRepository;
+    private final Timer rebuildTimer;
+
+    private volatile Map<String, List<PromotionEntity>> promotionsByCategory;
+
+    public PromotionIndex(PromotionRepository promotionRepository, MeterRegistry registry) {
+        this.promotionRepository = promotionRepository;
+        this.rebuildTimer = registry.timer("promotions.index.rebuild");
+        Gauge.builder("promotions.index.categories", this, PromotionIndex::categoryCount).register(registry);
+    }
+
+    public List<PromotionEntity> promotionsFor(String category) {
+        return snapshot().getOrDefault(category, Collections.emptyList());
+    }
+
+    // Indexul curent; nu se mai modifică după publicare, deci un checkout vede aceleași promoții de la început la sfârșit
+    public Map<String, List<PromotionEntity>> snapshot() {
+        Map<String, List<PromotionEntity>> index = promotionsByCategory;
+        if (index == null) {
+            rebuild();
+            index = promotionsByCategory;
+        }
+        return index;
+    }
+
+    // Reconstruiește periodic indexul, ca să preia și modificările făcute de alte instanțe
+    @Scheduled(fixedDelayString = "${promotions.index.refresh-interval-ms:60000}")
+    public synchronized void rebuild() {
+        rebuildTimer.record(() -> {
+            Map<String, List<PromotionEntity>> index = new HashMap<>();
+            for (PromotionEntity promotion : promotionRepository.findByActiveTrue()) {
+                if (promotion.getApplicableCategories() == null) {
+                    continue;
+                }
+                for (String category : promotion.getApplicableCategories()) {
+                    index.computeIfAbsent(category, c -> new ArrayList<>()).add(promotion);
+                }
+            }
+            promotionsByCategory = index;
+            logger.debug("Promotion index rebuilt with {} categories", index.size());
+        });
+    }
+
+    private double categoryCount() {
+        Map<String, List<PromotionEntity>> index = promotionsByCategory;
+        return index == null ? 0 : index.size();
+    }
+}
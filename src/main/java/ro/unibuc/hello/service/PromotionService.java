@@ -19,8 +19,13 @@ public class PromotionService {
     @Autowired
     private PromotionRepository promotionRepository;
     
+    @Autowired
+    private PromotionIndex promotionIndex;
+    
     public PromotionEntity createPromotion(PromotionEntity promotion) {
-        return promotionRepository.save(promotion);
+        PromotionEntity savedPromotion = promotionRepository.save(promotion);
+        promotionIndex.rebuild();
+        return savedPromotion;
     }
     
     public PromotionEntity getPromotionById(String id) throws Exception {
@@ -51,7 +56,9 @@ public class PromotionService {
         promotion.setActive(updatedPromotion.isActive());
         promotion.setApplicableCategories(updatedPromotion.getApplicableCategories());
         
-        return promotionRepository.save(promotion);
+        PromotionEntity savedPromotion = promotionRepository.save(promotion);
+        promotionIndex.rebuild();
+        return savedPromotion;
     }
     
     public void deletePromotion(String id) throws Exception {
@@ -59,12 +66,14 @@ public class PromotionService {
             throw new Exception(HttpStatus.NOT_FOUND.toString());
         }
         promotionRepository.deleteById(id);
+        promotionIndex.rebuild();
     }
 
     @Scheduled(cron = "0 0 0 * * ?") // Rulează zilnic la miezul nopții
     public void checkExpiredPromotions() {
         List<PromotionEntity> activePromotions = promotionRepository.findByActiveTrue();
         LocalDateTime now = LocalDateTime.now();
+        boolean deactivated = false;
         for (PromotionEntity promotion : activePromotions) {
             if (promotion.getEndDate().isBefore(now)) {
                 logger.warn("Alert: Promotion {} (ID: {}) is active but expired on {}", 
@@ -72,7 +81,11 @@ public class PromotionService {
                 // Opțional: Dezactivăm automat promoția
                 promotion.setActive(false);
                 promotionRepository.save(promotion);
+                deactivated = true;
             }
         }
+        if (deactivated) {
+            promotionIndex.rebuild();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package ro.unibuc.hello.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import ro.unibuc.hello.data.report.RevenueBucket;
+import ro.unibuc.hello.data.report.RevenueDimension;
+import ro.unibuc.hello.data.transaction.TransactionRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Revenue by category, brand and hour of day, aggregated by Mongo. A range is split into days: a day that has
+ * ended rarely changes, so its buckets are kept in a bounded LRU cache keyed by (dimension, day) and only the days
+ * still open are aggregated on every request. A deleted transaction evicts its day only on the instance that deleted
+ * it, so cached days also expire after {@code cache-ttl}, which bounds how long other instances serve the old totals.
+ * A request covers at most {@value #MAX_DAYS} days.
+ */
+@Service
+public class RevenueAnalyticsService {
+
+    // O zi se consideră închisă abia după acest interval, ca checkout-urile începute înainte de miezul nopții să fie salvate
+    static final Duration CLOSE_GRACE = Duration.ofMinutes(5);
+
+    // O interogare poate acoperi cel mult atâtea zile, ca un interval larg să nu golească tot cache-ul
+    static final int MAX_DAYS = 1000;
+
+    private final TransactionRepository transactionRepository;
+    private final Duration cacheTtl;
+
+    private final Map<String, CachedDay> closedDays;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    public RevenueAnalyticsService(TransactionRepository transactionRepository,
+                                   @Value("${analytics.revenue.cache-size:5000}") int cacheSize,
+                                   @Value("${analytics.revenue.cache-ttl:PT10M}") Duration cacheTtl) {
+        this.transactionRepository = transactionRepository;
+        this.cacheTtl = cacheTtl;
+        this.closedDays = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedDay> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public List<RevenueBucket> getRevenue(RevenueDimension dimension, LocalDate from, LocalDate to) throws Exception {
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new Exception(HttpStatus.BAD_REQUEST.toString());
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDate firstOpenDay = firstOpenDay(now);
+        Map<String, RevenueBucket> totals = new HashMap<>();
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to) && day.isBefore(firstOpenDay); day = day.plusDays(1)) {
+            CachedDay cached = closedDays.get(cacheKey(dimension, day));
+            if (cached == null || !cached.expiresAt.isAfter(now)) {
+                missing.add(day);
+            } else {
+                addAll(totals, cached.buckets);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            // O singură agregare acoperă toate zilele lipsă; zilele fără vânzări se memorează ca liste goale
+            Map<LocalDate, List<RevenueBucket>> computed = new LinkedHashMap<>();
+            for (LocalDate day : missing) {
+                computed.put(day, new ArrayList<>());
+            }
+            LocalDate lastMissing = missing.get(missing.size() - 1);
+            for (RevenueBucket bucket : transactionRepository.revenueByDay(dimension, missing.get(0), lastMissing)) {
+                // Zilele dintre ele care erau deja în cache au fost adunate mai sus
+                List<RevenueBucket> dayBuckets = computed.get(LocalDate.parse(bucket.getDay()));
+                if (dayBuckets != null) {
+                    dayBuckets.add(bucket);
+                }
+            }
+            LocalDateTime expiresAt = now.plus(cacheTtl);
+            computed.forEach((day, buckets) -> {
+                closedDays.put(cacheKey(dimension, day), new CachedDay(List.copyOf(buckets), expiresAt));
+                addAll(totals, buckets);
+            });
+        }
+
+        // Zilele încă deschise se recalculează mereu
+        LocalDate openFrom = from.isAfter(firstOpenDay) ? from : firstOpenDay;
+        if (!openFrom.isAfter(to)) {
+            addAll(totals, transactionRepository.revenueByDay(dimension, openFrom, to));
+        }
+
+        List<RevenueBucket> result = new ArrayList<>(totals.values());
+        result.sort(dimension == RevenueDimension.HOUR
+                ? Comparator.comparing(RevenueBucket::getKey)
+                : Comparator.comparingLong(RevenueBucket::getRevenue).reversed());
+        return result;
+    }
+
+    // Ștergerea unei tranzacții schimbă ziua ei, chiar dacă era închisă; celelalte instanțe o văd după expirare
+    public void evictDay(LocalDate day) {
+        for (RevenueDimension dimension : RevenueDimension.values()) {
+            closedDays.remove(cacheKey(dimension, day));
+        }
+    }
+
+    static LocalDate firstOpenDay(LocalDateTime now) {
+        return now.minus(CLOSE_GRACE).toLocalDate();
+    }
+
+    private static String cacheKey(RevenueDimension dimension, LocalDate day) {
+        return dimension + "|" + day;
+    }
+
+    private static void addAll(Map<String, RevenueBucket> totals, List<RevenueBucket> buckets) {
+        // Totalurile sunt obiecte noi, ca listele din cache să rămână neschimbate
+        for (RevenueBucket bucket : buckets) {
+            RevenueBucket total = totals.computeIfAbsent(bucket.getKey(), key -> new RevenueBucket(null, key, 0, 0));
+            total.count += bucket.getCount();
+            total.revenue += bucket.getRevenue();
+        }
+    }
+
+    private static final class CachedDay {
+        private final List<RevenueBucket> buckets;
+        private final LocalDateTime expiresAt;
+
+        CachedDay(List<RevenueBucket> buckets, LocalDateTime expiresAt) {
+            this.buckets = buckets;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ro.unibuc.hello.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import ro.unibuc.hello.data.report.SalesRollupEntity;
+import ro.unibuc.hello.data.report.SalesRollupRepository;
+import ro.unibuc.hello.data.transaction.CategorySale;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class SalesReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesReportService.class);
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    public void recordSales(List<TransactionEntity> transactions) {
+        applyToRollups(transactions, 1);
+    }
+
+    public void removeSale(TransactionEntity transaction) {
+        applyToRollups(List.of(transaction), -1);
+    }
+
+    public List<SalesRollupEntity> getDailySales(LocalDate from, LocalDate to) throws Exception {
+        checkRange(from, to);
+        return salesRollupRepository.findDailyTotals(from.toString(), to.toString());
+    }
+
+    public List<SalesRollupEntity> getCategorySales(LocalDate from, LocalDate to) throws Exception {
+        checkRange(from, to);
+        
+        // Câte un document pe zi și categorie; se adună pe categorie, fără zi
+        Map<String, SalesRollupEntity> byCategory = new LinkedHashMap<>();
+        for (SalesRollupEntity rollup : salesRollupRepository.findCategoryTotals(from.toString(), to.toString())) {
+            byCategory.computeIfAbsent(rollup.getCategory(), SalesReportService::categoryTotal)
+                    .add(rollup.count, rollup.gross, rollup.promotionDiscount, rollup.loyaltyDiscount, rollup.net);
+        }
+        
+        List<SalesRollupEntity> totals = new ArrayList<>(byCategory.values());
+        totals.sort(Comparator.comparingLong(SalesRollupEntity::getNet).reversed());
+        return totals;
+    }
+
+    private void applyToRollups(List<TransactionEntity> transactions, int sign) {
+        // Deltele se adună întâi în memorie, ca fiecare document de rollup să primească un singur $inc
+        Map<String, SalesRollupEntity> deltas = new LinkedHashMap<>();
+        for (TransactionEntity transaction : transactions) {
+            addTo(deltas, transaction, sign);
+        }
+        
+        try {
+            salesRollupRepository.increment(deltas.values());
+        } catch (RuntimeException e) {
+            // Rapoartele sunt derivate; checkout-ul nu eșuează din cauza lor
+            logger.error("Could not update sales rollups for {} transactions", transactions.size(), e);
+        }
+    }
+
+    // Contribuția unei tranzacții la rollup-urile zilei și ale categoriilor ei, adunată în deltas după id
+    static void addTo(Map<String, SalesRollupEntity> deltas, TransactionEntity transaction, int sign) {
+        if (transaction.getDate() == null) {
+            return;
+        }
+        String day = transaction.getDate().toLocalDate().toString();
+        delta(deltas, day, null).add(sign, sign * transaction.getTotalAmount(), sign * transaction.getPromotionDiscount(),
+                sign * transaction.getLoyaltyDiscount(), sign * transaction.getFinalAmount());
+
+        // Tranzacțiile create înainte de defalcarea pe categorii contează doar în totalul zilei
+        if (transaction.getCategorySales() != null) {
+            for (CategorySale sale : transaction.getCategorySales()) {
+                delta(deltas, day, sale.getCategory()).add(sign, sign * sale.getGross(), sign * sale.getPromotionDiscount(),
+                        sign * sale.getLoyaltyDiscount(), sign * sale.getNet());
+            }
+        }
+    }
+
+    private static SalesRollupEntity delta(Map<String, SalesRollupEntity> deltas, String day, String category) {
+        return deltas.computeIfAbsent(SalesRollupEntity.id(day, category), id -> new SalesRollupEntity(day, category));
+    }
+
+    private static SalesRollupEntity categoryTotal(String category) {
+        SalesRollupEntity total = new SalesRollupEntity();
+        total.setCategory(category);
+        return total;
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) throws Exception {
+        if (from.isAfter(to)) {
+            throw new Exception(HttpStatus.BAD_REQUEST.toString());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ro.unibuc.hello.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.MigrationRecordRepository;
+import ro.unibuc.hello.data.report.SalesRollupEntity;
+import ro.unibuc.hello.data.report.SalesRollupRepository;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionPartitionMigration;
+import ro.unibuc.hello.data.transaction.TransactionRepository;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds the sales rollups once from every stored transaction, so transactions written before the rollups existed
+ * are counted and deleting one of them no longer drives a day or category below zero. It runs before the web server
+ * starts, under the lock of the {@value #MIGRATION_ID} record, so instances starting together run it once and later
+ * startups skip it. The rebuilt rollups are written with $set on each _id rather than by emptying the collection, so
+ * other instances' $inc updates are never dropped wholesale: only a checkout landing on a rebuilt day between the
+ * stream and its $set is overwritten, and rollups the rebuild does not produce are left alone.
+ */
+@Component
+public class SalesRollupBackfill implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupBackfill.class);
+
+    static final String MIGRATION_ID = "sales_rollups_backfill";
+
+    // O instanță oprită în timpul reconstruirii nu blochează migrarea mai mult de atât
+    static final Duration LOCK_TIMEOUT = Duration.ofHours(1);
+
+    @Autowired
+    private MigrationRecordRepository migrationRecordRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private TransactionPartitionMigration partitionMigration;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (migrationRecordRepository.existsByIdAndCompletedAtIsNotNull(MIGRATION_ID)) {
+            return;
+        }
+        if (!migrationRecordRepository.tryLock(MIGRATION_ID, LOCK_TIMEOUT)) {
+            logger.info("Sales rollups are being rebuilt by another instance");
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            migrationRecordRepository.unlock(MIGRATION_ID);
+            throw e;
+        }
+        migrationRecordRepository.complete(MIGRATION_ID);
+    }
+
+    private void rebuild() {
+        // Tranzacțiile din colecția veche trebuie să fie deja în partiții, ca streamAll să le vadă
+        partitionMigration.migrate();
+
+        Map<String, SalesRollupEntity> rollups = new LinkedHashMap<>();
+        AtomicLong transactions = new AtomicLong();
+        try (Stream<TransactionEntity> all = transactionRepository.streamAll()) {
+            all.forEach(transaction -> {
+                SalesReportService.addTo(rollups, transaction, 1);
+                transactions.incrementAndGet();
+            });
+        }
+        salesRollupRepository.rebuild(rollups.values());
+        logger.info("Rebuilt {} sales rollups from {} transactions", rollups.size(), transactions.get());
+    }
+}
@@ -0,0 +1,354 @@
+package ro.unibuc.hello.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ro.unibuc.hello.data.report.SpaceSavingSummary;
+import ro.unibuc.hello.data.report.TopProduct;
+import ro.unibuc.hello.data.report.TopProductsCheckpointEntity;
+import ro.unibuc.hello.data.report.TopProductsCheckpointRepository;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionEntry;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Best-selling products over a sliding window of {@code buckets} intervals of {@code bucket-minutes}, globally and
+ * per category. Each scope is a ring of {@link SpaceSavingSummary} buckets, and at most {@code max-categories}
+ * categories are tracked at once, so memory stays fixed however large the catalog grows. Reads come from a snapshot
+ * rebuilt every {@code refresh-interval-ms}; the rings are checkpointed to Mongo and reloaded on startup. Only sales
+ * are counted: a deleted transaction stays in the window until its bucket expires.
+ */
+@Service
+public class TopProductsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TopProductsService.class);
+
+    private static final Comparator<TopProduct> BEST_SELLING = Comparator.comparingLong(TopProduct::getQuantity).reversed()
+            .thenComparing(Comparator.comparingLong(TopProduct::getMinQuantity).reversed())
+            .thenComparing(TopProduct::getProductId);
+
+    private final TopProductsCheckpointRepository checkpointRepository;
+    private final int categoryCapacity;
+    private final int maxCategories;
+    private final long bucketMillis;
+    private final int buckets;
+
+    private final Window global;
+    private final Map<String, Window> categories = new HashMap<>();
+    // Categoriile ieșite din fereastră, ale căror checkpoint-uri trebuie șterse
+    private final Set<String> expired = new HashSet<>();
+    private boolean dirty;
+
+    private Clock clock = Clock.systemDefaultZone();
+    private volatile Map<String, List<TopProduct>> snapshot;
+
+    public TopProductsService(TopProductsCheckpointRepository checkpointRepository,
+                              @Value("${reports.top-products.capacity:100}") int capacity,
+                              @Value("${reports.top-products.category-capacity:20}") int categoryCapacity,
+                              @Value("${reports.top-products.max-categories:200}") int maxCategories,
+                              @Value("${reports.top-products.bucket-minutes:60}") int bucketMinutes,
+                              @Value("${reports.top-products.buckets:24}") int buckets) {
+        if (bucketMinutes <= 0 || buckets <= 0) {
+            throw new IllegalArgumentException("Top products window must have positive buckets");
+        }
+        this.checkpointRepository = checkpointRepository;
+        this.categoryCapacity = categoryCapacity;
+        this.maxCategories = maxCategories;
+        this.bucketMillis = bucketMinutes * 60_000L;
+        this.buckets = buckets;
+        this.global = new Window(buckets, capacity);
+    }
+
+    public synchronized void recordSales(List<TransactionEntity> transactions) {
+        long current = currentBucket();
+        for (TransactionEntity transaction : transactions) {
+            if (transaction.getDate() == null || transaction.getProductsList() == null) {
+                continue;
+            }
+            long bucket = bucketOf(transaction.getDate());
+            for (TransactionEntry entry : transaction.getProductsList()) {
+                if (entry.getProductId() == null) {
+                    continue;
+                }
+                dirty |= global.offer(bucket, current, entry.getProductId(), entry.getProductQuantity());
+                Window window = entry.getCategory() == null ? null : categoryWindow(entry.getCategory(), current);
+                if (window != null) {
+                    window.offer(bucket, current, entry.getProductId(), entry.getProductQuantity());
+                }
+            }
+        }
+    }
+
+    // Topul global pentru category == null; o categorie fără vânzări în fereastră are topul gol
+    public List<TopProduct> getTopProducts(String category, int limit) throws Exception {
+        if (limit <= 0) {
+            throw new Exception(HttpStatus.BAD_REQUEST.toString());
+        }
+        Map<String, List<TopProduct>> current = snapshot;
+        if (current == null) {
+            refresh();
+            current = snapshot;
+        }
+        List<TopProduct> top = current.getOrDefault(TopProductsCheckpointEntity.id(category), Collections.emptyList());
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    public long getWindowMinutes() {
+        return buckets * bucketMillis / 60_000L;
+    }
+
+    // Topurile se recalculează aici, nu la fiecare citire, așa că o citire doar ia lista gata făcută
+    @Scheduled(fixedDelayString = "${reports.top-products.refresh-interval-ms:5000}")
+    public synchronized void refresh() {
+        long current = currentBucket();
+        Map<String, List<TopProduct>> tops = new HashMap<>();
+        tops.put(TopProductsCheckpointEntity.id(null), global.top(current));
+        Iterator<Map.Entry<String, Window>> windows = categories.entrySet().iterator();
+        while (windows.hasNext()) {
+            Map.Entry<String, Window> window = windows.next();
+            if (window.getValue().isExpired(current)) {
+                windows.remove();
+                expired.add(window.getKey());
+                dirty = true;
+                continue;
+            }
+            tops.put(TopProductsCheckpointEntity.id(window.getKey()), window.getValue().top(current));
+        }
+        snapshot = tops;
+    }
+
+    @Scheduled(fixedDelayString = "${reports.top-products.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        List<TopProductsCheckpointEntity> checkpoints = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            long current = currentBucket();
+            LocalDateTime now = LocalDateTime.now(clock);
+            checkpoints.add(global.checkpoint(null, bucketMillis, current, now));
+            categories.forEach((category, window) ->
+                    checkpoints.add(window.checkpoint(category, bucketMillis, current, now)));
+            removed.addAll(expired);
+            expired.clear();
+            dirty = false;
+        }
+
+        // Scrierea în Mongo se face în afara lock-ului, ca să nu întârzie checkout-urile
+        try {
+            checkpointRepository.saveAll(checkpoints);
+            if (!removed.isEmpty()) {
+                checkpointRepository.deleteAllById(removed.stream().map(TopProductsCheckpointEntity::id).toList());
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                dirty = true;
+                removed.stream().filter(category -> !categories.containsKey(category)).forEach(expired::add);
+            }
+            logger.error("Could not checkpoint top products", e);
+        }
+    }
+
+    // Reîncarcă fereastra salvată, ca o repornire să nu înceapă de la zero
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        List<TopProductsCheckpointEntity> checkpoints;
+        try {
+            checkpoints = checkpointRepository.findAll();
+        } catch (RuntimeException e) {
+            logger.error("Could not load top products checkpoints", e);
+            return;
+        }
+
+        synchronized (this) {
+            long current = currentBucket();
+            for (TopProductsCheckpointEntity checkpoint : checkpoints) {
+                // Cu altă durată a intervalelor, contoarele salvate nu se mai potrivesc pe inel
+                if (checkpoint.getBucketMillis() != bucketMillis || checkpoint.getBuckets() == null) {
+                    continue;
+                }
+                Window window = checkpoint.getCategory() == null ? global : categoryWindow(checkpoint.getCategory(), current);
+                if (window != null) {
+                    for (TopProductsCheckpointEntity.Bucket bucket : checkpoint.getBuckets()) {
+                        window.restore(bucket, current);
+                    }
+                }
+            }
+            snapshot = null;
+        }
+        logger.info("Restored top products from {} checkpoints", checkpoints.size());
+    }
+
+    private Window categoryWindow(String category, long current) {
+        Window window = categories.get(category);
+        if (window != null) {
+            return window;
+        }
+        if (categories.size() >= maxCategories) {
+            // Memoria rămâne fixă: o categorie nouă așteaptă până iese alta din fereastră
+            categories.entrySet().removeIf(candidate -> {
+                if (!candidate.getValue().isExpired(current)) {
+                    return false;
+                }
+                expired.add(candidate.getKey());
+                return true;
+            });
+            if (categories.size() >= maxCategories) {
+                return null;
+            }
+        }
+        expired.remove(category);
+        window = new Window(buckets, categoryCapacity);
+        categories.put(category, window);
+        return window;
+    }
+
+    private long currentBucket() {
+        return clock.millis() / bucketMillis;
+    }
+
+    private long bucketOf(LocalDateTime date) {
+        return date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / bucketMillis;
+    }
+
+    // Inelul de intervale al unui scope; intervalul i ocupă poziția i % buckets
+    private static final class Window {
+        private final SpaceSavingSummary[] summaries;
+        private final long[] indexes;
+
+        Window(int buckets, int capacity) {
+            summaries = new SpaceSavingSummary[buckets];
+            indexes = new long[buckets];
+            for (int i = 0; i < buckets; i++) {
+                summaries[i] = new SpaceSavingSummary(capacity);
+            }
+            Arrays.fill(indexes, Long.MIN_VALUE);
+        }
+
+        boolean offer(long bucket, long current, String productId, long quantity) {
+            SpaceSavingSummary summary = summary(Math.min(bucket, current), current);
+            if (summary == null) {
+                return false;
+            }
+            summary.offer(productId, quantity);
+            return true;
+        }
+
+        void restore(TopProductsCheckpointEntity.Bucket bucket, long current) {
+            if (bucket.getCounters() == null || bucket.getIndex() > current) {
+                return;
+            }
+            boolean fresh = indexes[slot(bucket.getIndex())] != bucket.getIndex();
+            SpaceSavingSummary summary = summary(bucket.getIndex(), current);
+            if (summary == null) {
+                return;
+            }
+            for (TopProductsCheckpointEntity.Counter counter : bucket.getCounters()) {
+                if (fresh) {
+                    summary.restore(counter.getProductId(), counter.getCount(), counter.getError());
+                } else {
+                    // Intervalul a primit deja vânzări după pornire; contoarele salvate se adaugă peste ele, cu tot cu eroare
+                    summary.merge(counter.getProductId(), counter.getCount(), counter.getError());
+                }
+            }
+        }
+
+        boolean isExpired(long current) {
+            for (long index : indexes) {
+                if (isLive(index, current)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Rezumatele intervalelor se adună: un produs lipsă dintr-un interval plin poate avea acolo cel mult minimul lui
+        List<TopProduct> top(long current) {
+            long floor = 0;
+            Map<String, long[]> merged = new HashMap<>();
+            List<SpaceSavingSummary> live = new ArrayList<>();
+            for (int slot = 0; slot < summaries.length; slot++) {
+                if (isLive(indexes[slot], current)) {
+                    live.add(summaries[slot]);
+                    floor += summaries[slot].minCount();
+                }
+            }
+            for (SpaceSavingSummary summary : live) {
+                long min = summary.minCount();
+                for (SpaceSavingSummary.Counter counter : summary.counters()) {
+                    long[] totals = merged.get(counter.getItem());
+                    if (totals == null) {
+                        totals = new long[]{floor, floor};
+                        merged.put(counter.getItem(), totals);
+                    }
+                    totals[0] += counter.getCount() - min;
+                    totals[1] += counter.getError() - min;
+                }
+            }
+
+            List<TopProduct> top = new ArrayList<>(merged.size());
+            merged.forEach((productId, totals) -> top.add(new TopProduct(productId, totals[0], totals[0] - totals[1])));
+            top.sort(BEST_SELLING);
+            int capacity = summaries[0].getCapacity();
+            return top.size() > capacity ? List.copyOf(top.subList(0, capacity)) : List.copyOf(top);
+        }
+
+        TopProductsCheckpointEntity checkpoint(String category, long bucketMillis, long current, LocalDateTime now) {
+            TopProductsCheckpointEntity checkpoint = new TopProductsCheckpointEntity(category, bucketMillis);
+            for (int slot = 0; slot < summaries.length; slot++) {
+                if (!isLive(indexes[slot], current)) {
+                    continue;
+                }
+                TopProductsCheckpointEntity.Bucket bucket = new TopProductsCheckpointEntity.Bucket(indexes[slot]);
+                for (SpaceSavingSummary.Counter counter : summaries[slot].counters()) {
+                    bucket.getCounters().add(new TopProductsCheckpointEntity.Counter(counter.getItem(), counter.getCount(),
+                            counter.getError()));
+                }
+                checkpoint.getBuckets().add(bucket);
+            }
+            checkpoint.setSavedAt(now);
+            return checkpoint;
+        }
+
+        // Rezumatul intervalului bucket, golit dacă poziția lui ținea un interval mai vechi; null dacă a ieșit din fereastră
+        private SpaceSavingSummary summary(long bucket, long current) {
+            if (!isLive(bucket, current)) {
+                return null;
+            }
+            int slot = slot(bucket);
+            // Două intervale din fereastră nu pot avea aceeași poziție, deci ce era acolo a expirat
+            if (indexes[slot] != bucket) {
+                summaries[slot].clear();
+                indexes[slot] = bucket;
+            }
+            return summaries[slot];
+        }
+
+        private boolean isLive(long bucket, long current) {
+            return bucket != Long.MIN_VALUE && bucket <= current && bucket > current - summaries.length;
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) summaries.length);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package ro.unibuc.hello.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionEntry;
+import ro.unibuc.hello.data.transaction.TransactionExportFormat;
+import ro.unibuc.hello.data.transaction.TransactionRepository;
+import ro.unibuc.hello.data.transaction.TransactionSegment;
+import ro.unibuc.hello.data.transaction.TransactionSegmentWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Streams transactions straight from the repository cursors into an export format. Only one cursor batch, one
+ * output buffer and, for the columnar format, one block of rows are held at a time, so the heap used does not grow
+ * with the size of the export. Writes block while the client is slow, which in turn stops the cursor from fetching.
+ */
+@Service
+public class TransactionExportService {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    static final int COLUMNAR_BLOCK_ROWS = 1024;
+
+    static final String CSV_HEADER = "id,userId,date,loyaltyCardId,useDiscount,totalAmount,discountAmount,"
+            + "promotionDiscount,loyaltyDiscount,totalDiscount,finalAmount,products";
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserService userService;
+
+    // Se verifică înainte să înceapă răspunsul, cât eroarea mai poate schimba statusul
+    public void checkFilters(LocalDateTime from, LocalDateTime to, String userId) throws Exception {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new Exception(HttpStatus.BAD_REQUEST.toString());
+        }
+        if (userId != null) {
+            userService.getUserById(userId);
+        }
+    }
+
+    // Tranzacțiile cu from <= date < to, opțional ale unui utilizator; întoarce numărul de rânduri scrise
+    public long export(TransactionExportFormat format, LocalDateTime from, LocalDateTime to, String userId,
+                       OutputStream output) throws IOException {
+        try (Stream<TransactionEntity> transactions = transactionRepository.streamForExport(from, to, userId)) {
+            Iterator<TransactionEntity> rows = distinct(transactions.iterator());
+            return switch (format) {
+                case CSV -> writeCsv(rows, output);
+                case COLUMNAR -> writeColumnar(rows, output);
+            };
+        }
+    }
+
+    private static long writeCsv(Iterator<TransactionEntity> rows, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        long count = 0;
+        StringBuilder products = new StringBuilder();
+        while (rows.hasNext()) {
+            TransactionEntity transaction = rows.next();
+            writeField(writer, transaction.getId());
+            writer.write(',');
+            writeField(writer, transaction.getUserId());
+            writer.write(',');
+            writer.write(String.valueOf(transaction.getDate()));
+            writer.write(',');
+            writeField(writer, transaction.getLoyaltyCardId());
+            writer.write(',');
+            writer.write(String.valueOf(transaction.isUseDiscount()));
+            // Sumele rămân în cenți, ca în API
+            for (long amount : new long[]{transaction.getTotalAmount(), transaction.getDiscountAmount(),
+                    transaction.getPromotionDiscount(), transaction.getLoyaltyDiscount(), transaction.getTotalDiscount(),
+                    transaction.getFinalAmount()}) {
+                writer.write(',');
+                writer.write(Long.toString(amount));
+            }
+            writer.write(',');
+            writeField(writer, products(transaction.getProductsList(), products));
+            writer.write("\r\n");
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static long writeColumnar(Iterator<TransactionEntity> rows, OutputStream output) throws IOException {
+        TransactionSegmentWriter writer = new TransactionSegmentWriter(output, COLUMNAR_BLOCK_ROWS);
+        while (rows.hasNext()) {
+            writer.append(rows.next());
+        }
+        return writer.commit();
+    }
+
+    // Produsele ca productId:cantitate, separate prin ;
+    private static String products(List<TransactionEntry> entries, StringBuilder products) {
+        products.setLength(0);
+        if (entries != null) {
+            for (TransactionEntry entry : entries) {
+                if (products.length() > 0) {
+                    products.append(';');
+                }
+                products.append(entry.getProductId()).append(':').append(entry.getProductQuantity());
+            }
+        }
+        return products.toString();
+    }
+
+    // RFC 4180: câmpurile cu virgulă, ghilimele sau sfârșit de rând se pun între ghilimele, dublându-le pe cele interioare
+    static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    // Arhiva vine înaintea partițiilor, deci o lună rămasă în ambele când arhivarea s-a oprit înainte de drop apare
+    // a doua oară după ce ordinea (date, _id) a ajuns deja mai departe; rândurile care nu avansează se sar
+    private static Iterator<TransactionEntity> distinct(Iterator<TransactionEntity> rows) {
+        return new Iterator<>() {
+            private TransactionEntity last;
+            private TransactionEntity next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public TransactionEntity next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                TransactionEntity current = next;
+                last = current;
+                next = advance();
+                return current;
+            }
+
+            private TransactionEntity advance() {
+                while (rows.hasNext()) {
+                    TransactionEntity candidate = rows.next();
+                    if (last == null || candidate.getDate() == null || last.getDate() == null
+                            || TransactionSegment.ORDER.compare(last, candidate) < 0) {
+                        return candidate;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+}
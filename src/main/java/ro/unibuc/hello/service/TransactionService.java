@@ -6,19 +6,33 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import ro.unibuc.hello.data.IdGenerator;
+import ro.unibuc.hello.data.Money;
 import ro.unibuc.hello.data.product.ProductEntity;
 import ro.unibuc.hello.data.product.ProductRepository;
 import ro.unibuc.hello.data.promotions.PromotionEntity;
-import ro.unibuc.hello.data.promotions.PromotionRepository;
+import ro.unibuc.hello.data.transaction.CategorySale;
+import ro.unibuc.hello.data.transaction.DateRangeCursor;
+import ro.unibuc.hello.data.transaction.TransactionBatchResult;
 import ro.unibuc.hello.data.transaction.TransactionDTO;
 import ro.unibuc.hello.data.transaction.TransactionEntity;
 import ro.unibuc.hello.data.transaction.TransactionEntry;
+import ro.unibuc.hello.data.transaction.TransactionListItem;
+import ro.unibuc.hello.data.transaction.TransactionPage;
 import ro.unibuc.hello.data.transaction.TransactionRepository;
 import ro.unibuc.hello.data.loyalty.LoyaltyCardEntity;
 import ro.unibuc.hello.data.loyalty.LoyaltyCardRepository;
+import ro.unibuc.hello.data.user.User;
 
+import jakarta.annotation.PreDestroy;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +45,9 @@ public class TransactionService {
     
     @Autowired
     private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
     
     @Autowired
     private UserService userService;
@@ -42,7 +59,35 @@ public class TransactionService {
     private LoyaltyCardRepository loyaltyCardRepository;
 
     @Autowired
-    private PromotionRepository promotionRepository;
+    private PromotionIndex promotionIndex;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private SalesReportService salesReportService;
+
+    @Autowired
+    private RevenueAnalyticsService revenueAnalyticsService;
+
+    @Autowired
+    private TopProductsService topProductsService;
+
+    @Autowired
+    private UniqueBuyersService uniqueBuyersService;
+
+    @Autowired
+    private BasketMetrics basketMetrics;
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    static final String UNCATEGORIZED = "uncategorized";
+
+    // Căutările independente din checkout rulează în paralel pe virtual threads
+    private final ExecutorService lookupExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     private final Counter transactionsPerUserCounter;
     private final Counter totalDiscountCounter;
@@ -52,158 +97,486 @@ public class TransactionService {
         totalDiscountCounter = registry.counter("discounts.total");
     }
 
+    @PreDestroy
+    public void shutdownLookups() {
+        lookupExecutor.shutdown();
+    }
+
     public TransactionEntity createTransaction(TransactionDTO transaction) throws Exception {
-        // Verifică dacă utilizatorul există
-        userService.getUserById(transaction.getUserId());
-        
-        // Inițializează entitatea tranzacției
-        TransactionEntity transactionToSave = new TransactionEntity();
-        transactionToSave.setId(UUID.randomUUID().toString());
-        transactionToSave.setUserId(transaction.getUserId());
-        transactionToSave.setProductsList(transaction.getProductsList());
-        transactionToSave.setLoyaltyCardId(transaction.getLoyaltyCardId());
-        transactionToSave.setUseDiscount(transaction.isUseDiscount());
-        transactionToSave.setDate(LocalDateTime.now());
+        // Verifică utilizatorul, încarcă produsele și promoțiile în paralel
+        CompletableFuture<User> user = lookup(() -> userService.getUserById(transaction.getUserId()));
+        CompletableFuture<Map<String, ProductEntity>> products = lookup(() -> loadProducts(List.of(transaction)));
+        CompletableFuture<Map<String, List<PromotionEntity>>> promotions = lookup(promotionIndex::snapshot);
+        awaitAll(user, products, promotions);
         
-        // Calculează suma totală a tranzacției
-        double totalAmount = 0.0;
+        Checkout checkout = prepareCheckout(transaction, products.join());
         
-        // Grupează produsele după categorie pentru aplicarea promoțiilor
-        Map<String, List<ProductWithQuantity>> productsByCategory = new HashMap<>();
+        // Rezervă stocul atomic, linie cu linie; verificarea stocului se face pe server
+        reserveStock(checkout.quantities);
         
-        // Procesează fiecare produs din tranzacție
-        for (TransactionEntry entry : transactionToSave.getProductsList()) {
-            ProductEntity product = productRepository.findById(entry.getProductId())
-                    .orElseThrow(() -> new Exception(HttpStatus.NOT_FOUND.toString()));
+        int accruedPoints = 0;
+        try {
+            // Aplică promoțiile disponibile
+            long promotionDiscount = applyPromotions(checkout, promotions.join());
+            long amountAfterPromotions = checkout.totalAmount - promotionDiscount;
             
-            // Verifică stocul disponibil
-            if (product.stockSize >= entry.getProductQuantity()) {
-                product.stockSize -= entry.getProductQuantity();
-                
-                // Adaugă la suma totală (înainte de promoții)
-                totalAmount += product.price * entry.getProductQuantity();
-                
-                // Grupează produsele pentru promoții
-                String category = product.getCategory();
-                if (!productsByCategory.containsKey(category)) {
-                    productsByCategory.put(category, new ArrayList<>());
+            // Aplică discount-ul din carduri de fidelitate
+            long loyaltyDiscount = 0;
+            if (usesLoyaltyCard(transaction)) {
+                try {
+                    // Calculează discount-ul și adaugă punctele pe card într-un singur pas
+                    loyaltyDiscount = loyaltyCardService.applyDiscountAndAccruePoints(transaction.getLoyaltyCardId(), amountAfterPromotions);
+                    accruedPoints = (int) ((amountAfterPromotions - loyaltyDiscount) / LoyaltyCardEntity.CENTS_PER_POINT);
+                } catch (Exception e) {
+                    loyaltyDiscount = 0;
                 }
+            }
+            
+            applyDiscounts(checkout, promotionDiscount, loyaltyDiscount);
+            
+            // Salvează tranzacția
+            TransactionEntity savedTransaction = transactionRepository.save(checkout.transaction);
+            salesReportService.recordSales(List.of(checkout.transaction));
+            topProductsService.recordSales(List.of(checkout.transaction));
+            uniqueBuyersService.recordBuyers(List.of(checkout.transaction));
+            userService.recordPurchases(List.of(checkout.transaction));
+            recordMetrics(checkout.transaction);
+            return savedTransaction;
+        } catch (Exception e) {
+            // Tranzacția nu a fost salvată, deci stocul rezervat se eliberează și punctele adăugate se retrag
+            releaseStock(checkout.quantities);
+            if (accruedPoints > 0) {
+                try {
+                    loyaltyCardService.addPoints(transaction.getLoyaltyCardId(), -accruedPoints);
+                } catch (Exception reversal) {
+                    logger.warn("Could not take back {} points from loyalty card {}", accruedPoints,
+                            transaction.getLoyaltyCardId());
+                }
+            }
+            throw e;
+        }
+    }
+    
+    public TransactionEntity createTransaction(TransactionDTO transaction, String idempotencyKey) throws Exception {
+        // Aceeași cheie întoarce tranzacția deja creată, fără a rula din nou checkout-ul
+        return idempotencyService.execute(idempotencyKey, transaction, () -> createTransaction(transaction));
+    }
+    
+    public List<TransactionBatchResult> createTransactions(List<TransactionDTO> transactions) throws Exception {
+        // Utilizatorii, produsele și cardurile se încarcă o singură dată pentru tot lotul
+        Set<String> userIds = new HashSet<>();
+        Set<String> cardIds = new HashSet<>();
+        for (TransactionDTO transaction : transactions) {
+            if (transaction.getUserId() != null) {
+                userIds.add(transaction.getUserId());
+            }
+            if (usesLoyaltyCard(transaction)) {
+                cardIds.add(transaction.getLoyaltyCardId());
+            }
+        }
+        CompletableFuture<Set<String>> existingUsers = lookup(() -> userService.getExistingUserIds(userIds));
+        CompletableFuture<Map<String, ProductEntity>> productsLookup = lookup(() -> loadProducts(transactions));
+        CompletableFuture<Map<String, List<PromotionEntity>>> promotionsLookup = lookup(promotionIndex::snapshot);
+        CompletableFuture<Map<String, LoyaltyCardEntity>> cardsLookup = lookup(() -> {
+            Map<String, LoyaltyCardEntity> cards = new HashMap<>();
+            for (LoyaltyCardEntity card : loyaltyCardRepository.findAllById(cardIds)) {
+                cards.put(card.getId(), card);
+            }
+            return cards;
+        });
+        awaitAll(existingUsers, productsLookup, promotionsLookup, cardsLookup);
+        Set<String> existingUserIds = existingUsers.join();
+        Map<String, ProductEntity> products = productsLookup.join();
+        Map<String, List<PromotionEntity>> promotions = promotionsLookup.join();
+        Map<String, LoyaltyCardEntity> cards = cardsLookup.join();
+        
+        List<TransactionBatchResult> results = new ArrayList<>(transactions.size());
+        List<Checkout> accepted = new ArrayList<>();
+        Map<String, Integer> pointsByCard = new HashMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            TransactionDTO transaction = transactions.get(i);
+            try {
+                if (!existingUserIds.contains(transaction.getUserId())) {
+                    throw new Exception(HttpStatus.NOT_FOUND.toString());
+                }
+                Checkout checkout = prepareCheckout(transaction, products);
+                reserveStock(checkout.quantities);
                 
-                // Adaugă produsul de entry.productQuantity ori
-                for (int i = 0; i < entry.getProductQuantity(); i++) {
-                    productsByCategory.get(category).add(new ProductWithQuantity(product, 1));
+                long promotionDiscount = applyPromotions(checkout, promotions);
+                long amountAfterPromotions = checkout.totalAmount - promotionDiscount;
+                long loyaltyDiscount = 0;
+                LoyaltyCardEntity card = usesLoyaltyCard(transaction) ? cards.get(transaction.getLoyaltyCardId()) : null;
+                if (card != null) {
+                    loyaltyDiscount = Money.percentOf(amountAfterPromotions, card.getDiscountPercentage());
+                    pointsByCard.merge(card.getId(),
+                            (int) ((amountAfterPromotions - loyaltyDiscount) / LoyaltyCardEntity.CENTS_PER_POINT), Integer::sum);
                 }
+                applyDiscounts(checkout, promotionDiscount, loyaltyDiscount);
                 
-                productRepository.save(product);
-            } else {
-                throw new Exception(HttpStatus.BAD_REQUEST.toString());
+                results.add(TransactionBatchResult.success(i, checkout.transaction));
+                accepted.add(checkout);
+            } catch (Exception e) {
+                results.add(checkoutFailure(i, e));
             }
         }
         
-        // Aplică promoțiile disponibile
-        double promotionDiscount = applyPromotions(productsByCategory);
+        if (accepted.isEmpty()) {
+            return results;
+        }
         
-        // Setează suma totală
-        transactionToSave.setTotalAmount(totalAmount);
+        // Toate tranzacțiile acceptate se salvează cu un singur insertMany
+        List<TransactionEntity> transactionsToSave = new ArrayList<>(accepted.size());
+        for (Checkout checkout : accepted) {
+            transactionsToSave.add(checkout.transaction);
+        }
+        try {
+            transactionRepository.insert(transactionsToSave);
+        } catch (RuntimeException e) {
+            logger.error("Batch insert of {} transactions failed", transactionsToSave.size(), e);
+            Map<String, Integer> reserved = new HashMap<>();
+            for (Checkout checkout : accepted) {
+                checkout.quantities.forEach((productId, quantity) -> reserved.merge(productId, quantity, Integer::sum));
+            }
+            releaseStock(reserved);
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).getTransaction() != null) {
+                    results.set(i, checkoutFailure(i, e));
+                }
+            }
+            return results;
+        }
         
-        // Aplică discount-ul din carduri de fidelitate
-        double loyaltyDiscount = 0;
-        if (transaction.isUseDiscount() && transaction.getLoyaltyCardId() != null) {
+        // Punctele se adaugă o singură dată pe card, după salvare
+        pointsByCard.forEach((cardId, points) -> {
+            try {
+                loyaltyCardService.addPoints(cardId, points);
+            } catch (Exception e) {
+                logger.warn("Could not add {} points to loyalty card {}", points, cardId);
+            }
+        });
+        salesReportService.recordSales(transactionsToSave);
+        topProductsService.recordSales(transactionsToSave);
+        uniqueBuyersService.recordBuyers(transactionsToSave);
+        userService.recordPurchases(transactionsToSave);
+        for (TransactionEntity savedTransaction : transactionsToSave) {
+            recordMetrics(savedTransaction);
+        }
+        return results;
+    }
+    
+    private <T> CompletableFuture<T> lookup(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        lookupExecutor.execute(() -> {
             try {
-                loyaltyDiscount = loyaltyCardService.calculateDiscount(transaction.getLoyaltyCardId(), totalAmount - promotionDiscount);
-                // Adaugă puncte pe card
-                int pointsToAdd = (int)((totalAmount - promotionDiscount - loyaltyDiscount) / 10);
-                loyaltyCardService.addPoints(transaction.getLoyaltyCardId(), pointsToAdd);
+                future.complete(task.call());
             } catch (Exception e) {
-                loyaltyDiscount = 0;
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+    
+    // Așteaptă toate căutările, dar se oprește la primul eșec și aruncă excepția originală
+    private void awaitAll(CompletableFuture<?>... lookups) throws Exception {
+        CompletableFuture<Object> firstFailure = new CompletableFuture<>();
+        for (CompletableFuture<?> lookup : lookups) {
+            lookup.whenComplete((result, error) -> {
+                if (error != null) {
+                    firstFailure.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(lookups), firstFailure).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private Map<String, ProductEntity> loadProducts(List<TransactionDTO> transactions) {
+        // Produsele se citesc din cache; cele lipsă se încarcă toate cu un singur findAllById
+        Set<String> productIds = new HashSet<>();
+        for (TransactionDTO transaction : transactions) {
+            if (transaction.getProductsList() == null) {
+                continue;
+            }
+            for (TransactionEntry entry : transaction.getProductsList()) {
+                if (entry.getProductId() != null) {
+                    productIds.add(entry.getProductId());
+                }
             }
         }
+        // Checkout-ul folosește doar prețul, categoria și brandul; stocul se verifică la rezervare, direct în Mongo
+        return productCache.getAll(productIds);
+    }
+    
+    private Checkout prepareCheckout(TransactionDTO transaction, Map<String, ProductEntity> products) throws Exception {
+        // Inițializează entitatea tranzacției
+        TransactionEntity transactionToSave = new TransactionEntity();
+        transactionToSave.setId(idGenerator.nextId());
+        transactionToSave.setUserId(transaction.getUserId());
+        transactionToSave.setProductsList(transaction.getProductsList());
+        transactionToSave.setLoyaltyCardId(transaction.getLoyaltyCardId());
+        transactionToSave.setUseDiscount(transaction.isUseDiscount());
+        transactionToSave.setDate(LocalDateTime.now());
+        
+        Checkout checkout = new Checkout(transactionToSave);
         
+        // Procesează fiecare produs din tranzacție
+        for (TransactionEntry entry : transactionToSave.getProductsList()) {
+            ProductEntity product = products.get(entry.getProductId());
+            if (product == null) {
+                throw new Exception(HttpStatus.NOT_FOUND.toString());
+            }
+            checkout.quantities.merge(entry.getProductId(), entry.getProductQuantity(), Integer::sum);
+            entry.setCategory(product.getCategory());
+            entry.setBrand(product.getBrand());
+            entry.setUnitPrice(product.price);
+            
+            // Adaugă la suma totală (înainte de promoții)
+            checkout.totalAmount += product.price * entry.getProductQuantity();
+            checkout.grossByCategory.merge(product.getCategory(), product.price * entry.getProductQuantity(), Long::sum);
+            
+            // Grupează produsele pentru promoții, ca o singură pereche (produs, cantitate) pe linie
+            checkout.productsByCategory
+                    .computeIfAbsent(product.getCategory(), category -> new ArrayList<>())
+                    .add(new ProductWithQuantity(product, entry.getProductQuantity()));
+        }
+        
+        // Setează suma totală
+        transactionToSave.setTotalAmount(checkout.totalAmount);
+        return checkout;
+    }
+    
+    private boolean usesLoyaltyCard(TransactionDTO transaction) {
+        return transaction.isUseDiscount() && transaction.getLoyaltyCardId() != null;
+    }
+    
+    private void applyDiscounts(Checkout checkout, long promotionDiscount, long loyaltyDiscount) {
         // Calculează sumele finale
-        transactionToSave.setPromotionDiscount(promotionDiscount);
-        transactionToSave.setLoyaltyDiscount(loyaltyDiscount);
-        transactionToSave.setTotalDiscount(promotionDiscount + loyaltyDiscount);
-        transactionToSave.setFinalAmount(totalAmount - transactionToSave.getTotalDiscount());
+        TransactionEntity transaction = checkout.transaction;
+        transaction.setPromotionDiscount(promotionDiscount);
+        transaction.setLoyaltyDiscount(loyaltyDiscount);
+        transaction.setTotalDiscount(promotionDiscount + loyaltyDiscount);
+        transaction.setFinalAmount(transaction.getTotalAmount() - transaction.getTotalDiscount());
+        transaction.setCategorySales(categorySales(checkout, loyaltyDiscount));
+    }
+    
+    // Discount-ul cardului se împarte pe categorii proporțional cu suma de după promoții, iar centul rămas din
+    // rotunjire merge la categoria cea mai mare, ca defalcarea să se adune exact la totalurile tranzacției
+    private static List<CategorySale> categorySales(Checkout checkout, long loyaltyDiscount) {
+        List<CategorySale> sales = new ArrayList<>(checkout.grossByCategory.size());
+        long base = 0;
+        for (Map.Entry<String, Long> category : checkout.grossByCategory.entrySet()) {
+            base += category.getValue() - checkout.promotionByCategory.getOrDefault(category.getKey(), 0L);
+        }
         
+        long allocated = 0;
+        CategorySale largest = null;
+        for (Map.Entry<String, Long> category : checkout.grossByCategory.entrySet()) {
+            long promotion = checkout.promotionByCategory.getOrDefault(category.getKey(), 0L);
+            long afterPromotions = category.getValue() - promotion;
+            long loyaltyShare = base == 0 ? 0 : loyaltyDiscount * afterPromotions / base;
+            allocated += loyaltyShare;
+            
+            String name = category.getKey() != null ? category.getKey() : UNCATEGORIZED;
+            CategorySale sale = new CategorySale(name, category.getValue(), promotion, loyaltyShare);
+            if (largest == null || afterPromotions > largest.getGross() - largest.getPromotionDiscount()) {
+                largest = sale;
+            }
+            sales.add(sale);
+        }
+        if (largest != null && allocated != loyaltyDiscount) {
+            largest.setLoyaltyDiscount(largest.getLoyaltyDiscount() + loyaltyDiscount - allocated);
+            largest.setNet(largest.getGross() - largest.getPromotionDiscount() - largest.getLoyaltyDiscount());
+        }
+        return sales;
+    }
+    
+    private void recordMetrics(TransactionEntity transaction) {
         // Înregistrează metrici
         transactionsPerUserCounter.increment(); // Numără tranzacția
-        totalDiscountCounter.increment(transactionToSave.getTotalDiscount()); // Valoare discount
-        
-        // Salvează tranzacția
-        return transactionRepository.save(transactionToSave);
-    }
-    
-    private double applyPromotions(Map<String, List<ProductWithQuantity>> productsByCategory) {
-        double totalDiscount = 0;
-        
-        // Obține toate promoțiile active
-        List<PromotionEntity> activePromotions = promotionRepository.findByActiveTrue();
-        
-        for (PromotionEntity promotion : activePromotions) {
-            if (promotion.getType() == PromotionEntity.PromotionType.BUY_X_GET_Y_FREE) {
-                for (String category : promotion.getApplicableCategories()) {
-                    if (productsByCategory.containsKey(category)) {
-                        List<ProductWithQuantity> products = productsByCategory.get(category);
-                        products.sort(Comparator.comparingDouble(p -> p.getProduct().getPrice()));
-                        int totalItems = products.size();
-                        int setsCount = totalItems / (promotion.getBuyQuantity() + promotion.getFreeQuantity());
-                        for (int i = 0; i < setsCount * promotion.getFreeQuantity(); i++) {
-                            int index = promotion.getBuyQuantity() * (i / promotion.getFreeQuantity() + 1) + i % promotion.getFreeQuantity();
-                            if (index < totalItems) {
-                                ProductWithQuantity freeProduct = products.get(index);
-                                totalDiscount += freeProduct.getProduct().getPrice();
-                            }
-                        }
-                    }
+        totalDiscountCounter.increment(Money.toUnits(transaction.getTotalDiscount())); // Valoare discount
+        basketMetrics.record(transaction); // Distribuția coșului
+    }
+    
+    static TransactionBatchResult checkoutFailure(int index, Exception e) {
+        if (HttpStatus.NOT_FOUND.toString().equals(e.getMessage())) {
+            return TransactionBatchResult.failure(index, HttpStatus.NOT_FOUND, "Product or user not found");
+        } else if (HttpStatus.BAD_REQUEST.toString().equals(e.getMessage())) {
+            return TransactionBatchResult.failure(index, HttpStatus.BAD_REQUEST, "Insufficient stock");
+        }
+        return TransactionBatchResult.failure(index, HttpStatus.INTERNAL_SERVER_ERROR, "Service not available");
+    }
+    
+    private void reserveStock(Map<String, Integer> quantities) throws Exception {
+        Map<String, Integer> reserved = new HashMap<>();
+        for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+            if (!productRepository.reserveStock(line.getKey(), line.getValue())) {
+                // Anulează liniile deja rezervate
+                releaseStock(reserved);
+                throw new Exception(HttpStatus.BAD_REQUEST.toString());
+            }
+            reserved.put(line.getKey(), line.getValue());
+        }
+    }
+    
+    private void releaseStock(Map<String, Integer> quantities) {
+        if (!quantities.isEmpty()) {
+            productRepository.adjustStock(quantities);
+        }
+    }
+    
+    private long applyPromotions(Checkout checkout, Map<String, List<PromotionEntity>> promotionsByCategory) {
+        long totalDiscount = 0;
+        
+        // Promoțiile active vin din indexul în memorie, doar pentru categoriile din coș
+        for (Map.Entry<String, List<ProductWithQuantity>> category : checkout.productsByCategory.entrySet()) {
+            List<ProductWithQuantity> products = category.getValue();
+            products.sort(Comparator.comparingLong(p -> p.getProduct().getPrice()));
+            
+            long categoryDiscount = 0;
+            for (PromotionEntity promotion : promotionsByCategory.getOrDefault(category.getKey(), Collections.emptyList())) {
+                if (promotion.getType() == PromotionEntity.PromotionType.BUY_X_GET_Y_FREE
+                        && promotion.getBuyQuantity() + promotion.getFreeQuantity() > 0) {
+                    categoryDiscount += buyXGetYFreeDiscount(products, promotion.getBuyQuantity(), promotion.getFreeQuantity());
                 }
             }
+            checkout.promotionByCategory.put(category.getKey(), categoryDiscount);
+            totalDiscount += categoryDiscount;
         }
         
         return totalDiscount;
     }
+    
+    // Lista e sortată după preț; unitatea de pe poziția buy * (k + 1) + j (k < setsCount, j < free) e gratuită.
+    // Numărul de unități gratuite din fiecare linie se calculează direct, fără a expanda coșul pe unități.
+    private long buyXGetYFreeDiscount(List<ProductWithQuantity> products, int buy, int free) {
+        long totalItems = 0;
+        for (ProductWithQuantity product : products) {
+            totalItems += product.getQuantity();
+        }
+        long setsCount = totalItems / (buy + free);
+        
+        long discount = 0;
+        long position = 0;
+        long freeBefore = 0;
+        for (ProductWithQuantity product : products) {
+            position += product.getQuantity();
+            long freeUpTo = freeUnitsBefore(position, setsCount, buy, free);
+            discount += product.getProduct().getPrice() * (freeUpTo - freeBefore);
+            freeBefore = freeUpTo;
+        }
+        return discount;
+    }
+    
+    // Câte poziții gratuite (cu multiplicitate) sunt mai mici decât n: suma după m = 1..setsCount din min(free, max(0, n - buy * m))
+    private static long freeUnitsBefore(long n, long setsCount, int buy, int free) {
+        if (buy == 0) {
+            return setsCount * Math.min(free, Math.max(0, n));
+        }
+        long fullSets = Math.min(setsCount, Math.max(0, Math.floorDiv(n - free, buy)));
+        long count = fullSets * free;
+        for (long m = fullSets + 1; m <= setsCount && n - (long) buy * m > 0; m++) {
+            count += n - (long) buy * m;
+        }
+        return count;
+    }
 
     public TransactionEntity getTransactionById(String id) throws Exception {
         return transactionRepository.findById(id)
                 .orElseThrow(() -> new Exception(HttpStatus.NOT_FOUND.toString()));
     }
     
-    public List<TransactionEntity> getAllTransactions() {
-        return transactionRepository.findAll();
+    public <T extends TransactionListItem> TransactionPage<T> getTransactionsPage(String after, int limit, Class<T> type) {
+        // Pagina e mărginită indiferent de ce cere clientul; cursorul e _id-ul ultimei tranzacții întoarse
+        int pageSize = pageSize(limit);
+        List<T> items = transactionRepository.findPageAfter(after, pageSize, type);
+        String nextCursor = items.size() == pageSize ? items.get(items.size() - 1).getId() : null;
+        return new TransactionPage<>(items, nextCursor);
+    }
+    
+    public Stream<TransactionEntity> streamAllTransactions() {
+        return transactionRepository.streamAll();
     }
     
-    public List<TransactionEntity> getTransactionsByUser(String userId) throws Exception {
+    public <T> List<T> getTransactionsByUser(String userId, Class<T> type) throws Exception {
         userService.getUserById(userId);
-        return transactionRepository.findByUserId(userId);
+        return transactionRepository.findByUserId(userId, type);
     }
     
-    public List<TransactionEntity> getTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return transactionRepository.findByDateBetween(startDate, endDate);
+    public <T extends TransactionListItem> TransactionPage<T> getTransactionsByDateRange(LocalDateTime startDate,
+            LocalDateTime endDate, String cursor, int limit, Class<T> type) throws Exception {
+        DateRangeCursor after = null;
+        if (cursor != null) {
+            try {
+                after = DateRangeCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new Exception(HttpStatus.BAD_REQUEST.toString());
+            }
+        }
+        
+        int pageSize = pageSize(limit);
+        List<T> items = transactionRepository.findDateRangePage(startDate, endDate, after, pageSize, type);
+        String nextCursor = null;
+        if (items.size() == pageSize) {
+            T last = items.get(items.size() - 1);
+            nextCursor = new DateRangeCursor(last.getDate(), last.getId()).encode();
+        }
+        return new TransactionPage<>(items, nextCursor);
+    }
+    
+    public Stream<TransactionEntity> streamTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return transactionRepository.streamByDateBetween(startDate, endDate);
+    }
+    
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
     }
     
     public void deleteTransaction(String id) throws Exception {
         TransactionEntity transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new Exception(HttpStatus.NOT_FOUND.toString()));
+        // Tranzacțiile arhivate sunt doar pentru citire; se șterge înainte de efectele secundare, ca să nu le aplice de două ori
+        if (!transactionRepository.deleteById(id)) {
+            throw new Exception(HttpStatus.CONFLICT.toString());
+        }
         
+        // Repune în stoc toate produsele cu un singur bulk write
+        Map<String, Integer> quantities = new HashMap<>();
         for (TransactionEntry entry : transaction.getProductsList()) {
-            ProductEntity product = productRepository.findById(entry.getProductId())
-                    .orElseThrow(() -> new Exception(HttpStatus.NOT_FOUND.toString()));
-            product.stockSize += entry.getProductQuantity();
-            productRepository.save(product);
+            quantities.merge(entry.getProductId(), entry.getProductQuantity(), Integer::sum);
         }
+        releaseStock(quantities);
         
         if (transaction.isUseDiscount() && transaction.getLoyaltyCardId() != null) {
-            try {
-                LoyaltyCardEntity card = loyaltyCardRepository.findById(transaction.getLoyaltyCardId())
-                        .orElseThrow(() -> new Exception(HttpStatus.NOT_FOUND.toString()));
-                int pointsToRemove = (int)(transaction.getFinalAmount() / 10);
-                card.setPoints(Math.max(0, card.getPoints() - pointsToRemove));
-                loyaltyCardRepository.save(card);
-            } catch (Exception e) {
-                // Continuă dacă cardul nu există
-            }
+            // Scăderea se face pe server, ca punctele acumulate între timp de alte cumpărări să rămână; un card șters se ignoră
+            int pointsToRemove = (int) (transaction.getFinalAmount() / LoyaltyCardEntity.CENTS_PER_POINT);
+            loyaltyCardRepository.deductPoints(transaction.getLoyaltyCardId(), pointsToRemove);
         }
         
-        transactionRepository.deleteById(id);
+        // Scade tranzacția din rapoarte și din sumarul utilizatorului
+        salesReportService.removeSale(transaction);
+        userService.removePurchase(transaction);
+        if (transaction.getDate() != null) {
+            revenueAnalyticsService.evictDay(transaction.getDate().toLocalDate());
+        }
+    }
+    
+    private static class Checkout {
+        private final TransactionEntity transaction;
+        private final Map<String, Integer> quantities = new LinkedHashMap<>();
+        private final Map<String, List<ProductWithQuantity>> productsByCategory = new HashMap<>();
+        private final Map<String, Long> grossByCategory = new LinkedHashMap<>();
+        private final Map<String, Long> promotionByCategory = new HashMap<>();
+        private long totalAmount;
+        
+        public Checkout(TransactionEntity transaction) {
+            this.transaction = transaction;
+        }
     }
     
     private static class ProductWithQuantity {
@@ -0,0 +1,212 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ro.unibuc.hello.data.report.BuyerPeriod;
+import ro.unibuc.hello.data.report.HyperLogLog;
+import ro.unibuc.hello.data.report.UniqueBuyers;
+import ro.unibuc.hello.data.report.UniqueBuyersSketchEntity;
+import ro.unibuc.hello.data.report.UniqueBuyersSketchRepository;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Distinct buyers per hour and per day, counted with {@link HyperLogLog} sketches instead of a distinct over the
+ * transactions. Each instance keeps the sketches of the periods it is selling in and flushes them to Mongo under its
+ * own instance id, so instances never overwrite each other; a range query merges the sketches of every instance and
+ * every period in it. The current hour and day, across all instances, are published as the {@code buyers.unique}
+ * gauges after each flush.
+ */
+@Service
+public class UniqueBuyersService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UniqueBuyersService.class);
+
+    // 4096 de registre: eroare standard de aproximativ 1.6%, 4 KB pe sketch
+    static final int PRECISION = 12;
+
+    // O interogare poate aduna cel mult atâtea ore sau zile
+    static final int MAX_PERIODS = 1000;
+
+    private final UniqueBuyersSketchRepository sketchRepository;
+    private final String instanceId;
+    private final int hourlyRetentionDays;
+
+    private final Map<String, PeriodSketch> sketches = new HashMap<>();
+
+    private Clock clock = Clock.systemDefaultZone();
+    private volatile double currentHourBuyers;
+    private volatile double currentDayBuyers;
+
+    public UniqueBuyersService(UniqueBuyersSketchRepository sketchRepository, MeterRegistry registry,
+                               @Value("${reports.unique-buyers.instance-id:}") String instanceId,
+                               @Value("${reports.unique-buyers.hourly-retention-days:35}") int hourlyRetentionDays) {
+        this.sketchRepository = sketchRepository;
+        this.instanceId = instanceId == null || instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId;
+        this.hourlyRetentionDays = hourlyRetentionDays;
+        Gauge.builder("buyers.unique", this, service -> service.currentHourBuyers).tag("period", "hour").register(registry);
+        Gauge.builder("buyers.unique", this, service -> service.currentDayBuyers).tag("period", "day").register(registry);
+    }
+
+    public synchronized void recordBuyers(List<TransactionEntity> transactions) {
+        for (TransactionEntity transaction : transactions) {
+            if (transaction.getUserId() == null || transaction.getDate() == null) {
+                continue;
+            }
+            for (BuyerPeriod period : BuyerPeriod.values()) {
+                LocalDateTime start = period.startOf(transaction.getDate());
+                PeriodSketch sketch = sketches.computeIfAbsent(UniqueBuyersSketchEntity.id(period, start, instanceId),
+                        id -> new PeriodSketch(period, start));
+                sketch.sketch.add(transaction.getUserId());
+                sketch.dirty = true;
+            }
+        }
+    }
+
+    // Cumpărătorii distincți din intervalele care încep între from și to, inclusiv
+    public UniqueBuyers getUniqueBuyers(BuyerPeriod period, LocalDateTime from, LocalDateTime to) throws Exception {
+        LocalDateTime start = period.startOf(from);
+        LocalDateTime end = period.startOf(to);
+        if (start.isAfter(end) || period.count(start, end) > MAX_PERIODS) {
+            throw new Exception(HttpStatus.BAD_REQUEST.toString());
+        }
+
+        Map<LocalDateTime, HyperLogLog> byStart = new TreeMap<>();
+        for (UniqueBuyersSketchEntity entity : sketchRepository.findSketches(period, start, end)) {
+            HyperLogLog sketch = decode(entity);
+            if (sketch != null) {
+                merge(byStart, entity.getStart(), sketch);
+            }
+        }
+        // Ce n-a ajuns încă în Mongo de la instanța curentă; reuniunea e idempotentă, deci nu contează ce s-a salvat deja
+        synchronized (this) {
+            for (PeriodSketch local : sketches.values()) {
+                if (local.period == period && !local.start.isBefore(start) && !local.start.isAfter(end)) {
+                    merge(byStart, local.start, local.sketch);
+                }
+            }
+        }
+
+        UniqueBuyers result = new UniqueBuyers(period, start, end);
+        HyperLogLog total = new HyperLogLog(PRECISION);
+        byStart.forEach((periodStart, sketch) -> {
+            total.merge(sketch);
+            result.getPeriods().add(new UniqueBuyers.Period(periodStart, sketch.estimate()));
+        });
+        result.setUniqueBuyers(total.estimate());
+        return result;
+    }
+
+    // Salvează sketch-urile modificate și le scoate din memorie pe cele ale intervalelor încheiate
+    @Scheduled(fixedDelayString = "${reports.unique-buyers.flush-interval-ms:60000}")
+    public void flush() {
+        List<PeriodSketch> changed = new ArrayList<>();
+        Map<PeriodSketch, HyperLogLog> copies = new HashMap<>();
+        synchronized (this) {
+            for (PeriodSketch sketch : sketches.values()) {
+                if (sketch.dirty) {
+                    changed.add(sketch);
+                    copies.put(sketch, sketch.sketch.copy());
+                    sketch.dirty = false;
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (PeriodSketch sketch : changed) {
+            try {
+                save(sketch, copies.get(sketch), now);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    sketch.dirty = true;
+                }
+                logger.error("Could not save unique buyers sketch {} {}", sketch.period, sketch.start, e);
+            }
+        }
+
+        synchronized (this) {
+            sketches.values().removeIf(sketch -> !sketch.dirty && sketch.start.isBefore(sketch.period.startOf(now)));
+        }
+        refreshGauges(now);
+    }
+
+    private void save(PeriodSketch sketch, HyperLogLog registers, LocalDateTime now) {
+        String id = UniqueBuyersSketchEntity.id(sketch.period, sketch.start, instanceId);
+        if (!sketch.loaded) {
+            // Cu un instance-id fix, documentul poate exista de dinaintea unei reporniri; se adună, nu se suprascrie
+            sketchRepository.findById(id).map(this::decode).ifPresent(existing -> {
+                registers.merge(existing);
+                synchronized (this) {
+                    sketch.sketch.merge(existing);
+                }
+            });
+            sketch.loaded = true;
+        }
+
+        UniqueBuyersSketchEntity entity = new UniqueBuyersSketchEntity(sketch.period, sketch.start, instanceId);
+        entity.setRegisters(registers.toByteArray());
+        entity.setUpdatedAt(now);
+        if (sketch.period == BuyerPeriod.HOUR && hourlyRetentionDays > 0) {
+            entity.setExpiresAt(sketch.start.plusHours(1).plusDays(hourlyRetentionDays));
+        }
+        sketchRepository.save(entity);
+    }
+
+    private void refreshGauges(LocalDateTime now) {
+        try {
+            currentHourBuyers = getUniqueBuyers(BuyerPeriod.HOUR, now, now).getUniqueBuyers();
+            currentDayBuyers = getUniqueBuyers(BuyerPeriod.DAY, now, now).getUniqueBuyers();
+        } catch (Exception e) {
+            logger.warn("Could not refresh unique buyers gauges", e);
+        }
+    }
+
+    private HyperLogLog decode(UniqueBuyersSketchEntity entity) {
+        try {
+            HyperLogLog sketch = HyperLogLog.fromByteArray(entity.getRegisters());
+            if (sketch.getPrecision() == PRECISION) {
+                return sketch;
+            }
+        } catch (RuntimeException e) {
+            // Se tratează la fel ca un sketch cu altă precizie
+        }
+        logger.warn("Ignoring unique buyers sketch {} with unexpected registers", entity.getId());
+        return null;
+    }
+
+    private static void merge(Map<LocalDateTime, HyperLogLog> byStart, LocalDateTime start, HyperLogLog sketch) {
+        HyperLogLog merged = byStart.get(start);
+        if (merged == null) {
+            byStart.put(start, sketch.copy());
+        } else {
+            merged.merge(sketch);
+        }
+    }
+
+    private static final class PeriodSketch {
+        private final BuyerPeriod period;
+        private final LocalDateTime start;
+        private final HyperLogLog sketch = new HyperLogLog(PRECISION);
+        private boolean dirty;
+        private boolean loaded;
+
+        PeriodSketch(BuyerPeriod period, LocalDateTime start) {
+            this.period = period;
+            this.start = start;
+        }
+    }
+}
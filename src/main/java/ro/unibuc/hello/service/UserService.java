@@ -1,21 +1,40 @@
 package ro.unibuc.hello.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import ro.unibuc.hello.data.user.User;
 import ro.unibuc.hello.data.user.UserDTO;
 import ro.unibuc.hello.data.user.UserRepository;
+import ro.unibuc.hello.data.user.UserSpendSummary;
+import ro.unibuc.hello.data.user.UserSpendSummaryRepository;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionRepository;
 import ro.unibuc.hello.data.loyalty.LoyaltyCardEntity;
 import ro.unibuc.hello.data.loyalty.LoyaltyCardRepository;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class UserService {
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserSpendSummaryRepository userSpendSummaryRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
     @Autowired
     private LoyaltyCardRepository loyaltyCardRepository;
     
@@ -34,6 +53,15 @@ public class UserService {
         return userRepository.findById(id).orElseThrow(() -> new Exception(HttpStatus.NOT_FOUND.toString()));
     }
 
+    public Set<String> getExistingUserIds(Collection<String> ids)
+    {
+        Set<String> existingIds = new HashSet<>();
+        for (User user : userRepository.findAllById(ids)) {
+            existingIds.add(user.getId());
+        }
+        return existingIds;
+    }
+
     public void deleteUserById(String id) throws Exception
     {
          // Trebuie să ștergem cardurile de fidelitate asociate
@@ -44,6 +72,56 @@ public class UserService {
         
         // Apoi ștergem utilizatorul
         userRepository.deleteById(id);
+        userSpendSummaryRepository.deleteById(id);
+    }
+
+    public UserSpendSummary getUserSummary(String id) throws Exception
+    {
+        // Sumarul are ca _id chiar ID-ul utilizatorului; utilizatorul se verifică doar dacă nu are încă tranzacții
+        UserSpendSummary summary = userSpendSummaryRepository.findById(id).orElse(null);
+        if (summary != null) {
+            return summary;
+        }
+        if (!userRepository.existsById(id)) {
+            throw new Exception(HttpStatus.NOT_FOUND.toString());
+        }
+        return new UserSpendSummary(id);
+    }
+
+    public void recordPurchases(List<TransactionEntity> transactions)
+    {
+        // Tranzacțiile aceluiași utilizator dintr-un batch devin un singur update
+        Map<String, UserSpendSummary> deltas = new LinkedHashMap<>();
+        for (TransactionEntity transaction : transactions) {
+            if (transaction.getUserId() != null) {
+                deltas.computeIfAbsent(transaction.getUserId(), UserSpendSummary::new)
+                        .add(1, transaction.getTotalAmount(), transaction.getFinalAmount(), transaction.getDate());
+            }
+        }
+        
+        try {
+            userSpendSummaryRepository.increment(deltas.values());
+        } catch (RuntimeException e) {
+            // Sumarul este derivat; checkout-ul nu eșuează din cauza lui
+            logger.error("Could not update spend summaries for {} transactions", transactions.size(), e);
+        }
+    }
+
+    // Se apelează după ștergerea tranzacției, ca ultima tranzacție rămasă să poată fi citită din index
+    public void removePurchase(TransactionEntity transaction)
+    {
+        if (transaction.getUserId() == null) {
+            return;
+        }
+        UserSpendSummary delta = new UserSpendSummary(transaction.getUserId());
+        delta.add(1, transaction.getTotalAmount(), transaction.getFinalAmount(), null);
+        
+        try {
+            TransactionEntity latest = transactionRepository.findFirstByUserIdOrderByDateDesc(transaction.getUserId());
+            userSpendSummaryRepository.decrement(delta, transaction.getDate(), latest != null ? latest.getDate() : null);
+        } catch (RuntimeException e) {
+            logger.error("Could not update spend summary of user {}", transaction.getUserId(), e);
+        }
     }
     
     // Metode noi pentru gestionarea cardurilor de fidelitate
@@ -0,0 +1,85 @@
+package ro.unibuc.hello.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.MigrationRecordRepository;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionPartitionMigration;
+import ro.unibuc.hello.data.transaction.TransactionRepository;
+import ro.unibuc.hello.data.user.UserSpendSummary;
+import ro.unibuc.hello.data.user.UserSpendSummaryRepository;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds every user's spend summary once from the stored transactions, so purchases made before the summaries
+ * existed count towards the lifetime totals and deleting one of them no longer drives the totals below zero. Like
+ * {@link SalesRollupBackfill}, it runs before the web server starts under the lock of the {@value #MIGRATION_ID}
+ * record, and writes each rebuilt summary with $set on its _id, so summaries of users it does not produce keep the
+ * $inc updates of other instances.
+ */
+@Component
+public class UserSpendSummaryBackfill implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSpendSummaryBackfill.class);
+
+    static final String MIGRATION_ID = "user_spend_summaries_backfill";
+
+    static final Duration LOCK_TIMEOUT = SalesRollupBackfill.LOCK_TIMEOUT;
+
+    @Autowired
+    private MigrationRecordRepository migrationRecordRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserSpendSummaryRepository userSpendSummaryRepository;
+
+    @Autowired
+    private TransactionPartitionMigration partitionMigration;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (migrationRecordRepository.existsByIdAndCompletedAtIsNotNull(MIGRATION_ID)) {
+            return;
+        }
+        if (!migrationRecordRepository.tryLock(MIGRATION_ID, LOCK_TIMEOUT)) {
+            logger.info("User spend summaries are being rebuilt by another instance");
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            migrationRecordRepository.unlock(MIGRATION_ID);
+            throw e;
+        }
+        migrationRecordRepository.complete(MIGRATION_ID);
+    }
+
+    private void rebuild() {
+        // Tranzacțiile din colecția veche trebuie să fie deja în partiții, ca streamAll să le vadă
+        partitionMigration.migrate();
+
+        Map<String, UserSpendSummary> summaries = new HashMap<>();
+        AtomicLong transactions = new AtomicLong();
+        try (Stream<TransactionEntity> all = transactionRepository.streamAll()) {
+            all.forEach(transaction -> {
+                if (transaction.getUserId() != null) {
+                    summaries.computeIfAbsent(transaction.getUserId(), UserSpendSummary::new)
+                            .add(1, transaction.getTotalAmount(), transaction.getFinalAmount(), transaction.getDate());
+                    transactions.incrementAndGet();
+                }
+            });
+        }
+        userSpendSummaryRepository.rebuild(summaries.values());
+        logger.info("Rebuilt spend summaries of {} users from {} transactions", summaries.size(), transactions.get());
+    }
+}
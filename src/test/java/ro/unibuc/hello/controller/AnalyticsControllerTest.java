@@ -0,0 +1,134 @@
+package ro.unibuc.hello.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ro.unibuc.hello.data.report.BuyerPeriod;
+import ro.unibuc.hello.data.report.RevenueBucket;
+import ro.unibuc.hello.data.report.RevenueDimension;
+import ro.unibuc.hello.data.report.UniqueBuyers;
+import ro.unibuc.hello.service.RevenueAnalyticsService;
+import ro.unibuc.hello.service.UniqueBuyersService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class AnalyticsControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private RevenueAnalyticsService revenueAnalyticsService;
+
+    @Mock
+    private UniqueBuyersService uniqueBuyersService;
+
+    @InjectMocks
+    private AnalyticsController analyticsController;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(analyticsController).build();
+    }
+
+    @Test
+    public void testGetRevenueByCategory_Success() throws Exception {
+        when(revenueAnalyticsService.getRevenue(RevenueDimension.CATEGORY, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31)))
+                .thenReturn(List.of(new RevenueBucket(null, "Makeup", 4, 12000L)));
+
+        mockMvc.perform(get("/api/analytics/revenue/categories")
+                .param("from", "2024-05-01")
+                .param("to", "2024-05-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].key", is("Makeup")))
+                .andExpect(jsonPath("$[0].revenue", is(12000)));
+    }
+
+    @Test
+    public void testGetRevenueByBrandAndHour_UseTheirDimensions() throws Exception {
+        when(revenueAnalyticsService.getRevenue(any(), any(LocalDate.class), any(LocalDate.class))).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/analytics/revenue/brands").param("from", "2024-05-01").param("to", "2024-05-02"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/analytics/revenue/hours").param("from", "2024-05-01").param("to", "2024-05-02"))
+                .andExpect(status().isOk());
+
+        verify(revenueAnalyticsService).getRevenue(eq(RevenueDimension.BRAND), any(LocalDate.class), any(LocalDate.class));
+        verify(revenueAnalyticsService).getRevenue(eq(RevenueDimension.HOUR), any(LocalDate.class), any(LocalDate.class));
+    }
+
+    @Test
+    public void testGetRevenue_InvalidRange() throws Exception {
+        when(revenueAnalyticsService.getRevenue(any(), any(LocalDate.class), any(LocalDate.class)))
+                .thenThrow(new Exception(HttpStatus.BAD_REQUEST.toString()));
+
+        mockMvc.perform(get("/api/analytics/revenue/hours")
+                .param("from", "2024-05-07")
+                .param("to", "2024-05-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Invalid date range"));
+    }
+
+    @Test
+    public void testGetDailyBuyers_Success() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 5, 2, 0, 0);
+        UniqueBuyers buyers = new UniqueBuyers(BuyerPeriod.DAY, from, to);
+        buyers.setUniqueBuyers(150);
+        buyers.getPeriods().add(new UniqueBuyers.Period(from, 100));
+        buyers.getPeriods().add(new UniqueBuyers.Period(to, 80));
+        when(uniqueBuyersService.getUniqueBuyers(BuyerPeriod.DAY, from, to)).thenReturn(buyers);
+
+        mockMvc.perform(get("/api/analytics/buyers/daily")
+                .param("from", "2024-05-01")
+                .param("to", "2024-05-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.period", is("DAY")))
+                .andExpect(jsonPath("$.uniqueBuyers", is(150)))
+                .andExpect(jsonPath("$.periods", hasSize(2)))
+                .andExpect(jsonPath("$.periods[1].uniqueBuyers", is(80)));
+    }
+
+    @Test
+    public void testGetHourlyBuyers_Success() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 9, 15);
+        LocalDateTime to = LocalDateTime.of(2024, 5, 1, 11, 0);
+        when(uniqueBuyersService.getUniqueBuyers(BuyerPeriod.HOUR, from, to))
+                .thenReturn(new UniqueBuyers(BuyerPeriod.HOUR, from.withMinute(0), to));
+
+        mockMvc.perform(get("/api/analytics/buyers/hourly")
+                .param("from", "2024-05-01T09:15:00")
+                .param("to", "2024-05-01T11:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.period", is("HOUR")))
+                .andExpect(jsonPath("$.uniqueBuyers", is(0)));
+    }
+
+    @Test
+    public void testGetDailyBuyers_InvalidRange() throws Exception {
+        when(uniqueBuyersService.getUniqueBuyers(eq(BuyerPeriod.DAY), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenThrow(new Exception(HttpStatus.BAD_REQUEST.toString()));
+
+        mockMvc.perform(get("/api/analytics/buyers/daily")
+                .param("from", "2024-05-07")
+                .param("to", "2024-05-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Invalid date range"));
+    }
+}
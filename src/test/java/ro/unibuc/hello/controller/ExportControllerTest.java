@@ -0,0 +1,124 @@
+package ro.unibuc.hello.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ro.unibuc.hello.data.transaction.TransactionExportFormat;
+import ro.unibuc.hello.service.TransactionExportService;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class ExportControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private TransactionExportService transactionExportService;
+
+    @InjectMocks
+    private ExportController exportController;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(exportController).build();
+    }
+
+    @Test
+    public void testExportCsv_StreamsServiceOutput() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(4, OutputStream.class).write("id\r\nt1\r\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(transactionExportService).export(eq(TransactionExportFormat.CSV), eq(LocalDateTime.of(2024, 5, 1, 0, 0)),
+                isNull(), eq("user1"), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/exports/transactions")
+                        .param("from", "2024-05-01T00:00:00")
+                        .param("userId", "user1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.csv\""))
+                .andExpect(content().string("id\r\nt1\r\n"));
+
+        verify(transactionExportService).checkFilters(LocalDateTime.of(2024, 5, 1, 0, 0), null, "user1");
+    }
+
+    @Test
+    public void testExportColumnar_GzipWhenAccepted() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(4, OutputStream.class).write(new byte[]{1, 2, 3});
+            return 1L;
+        }).when(transactionExportService).export(eq(TransactionExportFormat.COLUMNAR), isNull(), isNull(), isNull(),
+                any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/exports/transactions")
+                        .param("format", "columnar")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Type", "application/octet-stream"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals(3, in.readAllBytes().length);
+        }
+    }
+
+    @Test
+    public void testExport_InvalidFormat() throws Exception {
+        mockMvc.perform(get("/api/exports/transactions").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Invalid format"));
+
+        verifyNoInteractions(transactionExportService);
+    }
+
+    @Test
+    public void testExport_InvalidDateRange() throws Exception {
+        doThrow(new Exception(HttpStatus.BAD_REQUEST.toString()))
+                .when(transactionExportService).checkFilters(any(), any(), any());
+
+        mockMvc.perform(get("/api/exports/transactions")
+                        .param("from", "2024-05-02T00:00:00")
+                        .param("to", "2024-05-01T00:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Invalid date range"));
+
+        verify(transactionExportService, never()).export(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testExport_UnknownUser() throws Exception {
+        doThrow(new Exception(HttpStatus.NOT_FOUND.toString()))
+                .when(transactionExportService).checkFilters(isNull(), isNull(), eq("missing"));
+
+        mockMvc.perform(get("/api/exports/transactions").param("userId", "missing"))
+                .andExpect(status().isNotFound())
+                .andExpect(status().reason("User not found"));
+    }
+}
@@ -23,8 +23,8 @@ import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -286,17 +286,17 @@ public class LoyaltyCardControllerTest {
     @Test
     public void testCalculateDiscount_Success() throws Exception {
         String cardId = "card123";
-        double amount = 100.0;
-        double expectedDiscount = 10.0; // 10% of 100
+        long amount = 10000;
+        long expectedDiscount = 1000; // 10% of 100.00
         
         when(loyaltyCardService.calculateDiscount(eq(cardId), eq(amount))).thenReturn(expectedDiscount);
 
         mockMvc.perform(get("/api/loyalty-cards/{id}/discount", cardId)
                 .param("amount", String.valueOf(amount)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.original", is(100.0)))
-                .andExpect(jsonPath("$.discount", is(10.0)))
-                .andExpect(jsonPath("$.final", is(90.0)));
+                .andExpect(jsonPath("$.original", is(10000)))
+                .andExpect(jsonPath("$.discount", is(1000)))
+                .andExpect(jsonPath("$.final", is(9000)));
 
         verify(loyaltyCardService, times(1)).calculateDiscount(eq(cardId), eq(amount));
     }
@@ -304,9 +304,9 @@ public class LoyaltyCardControllerTest {
     @Test
     public void testCalculateDiscount_CardNotFound() throws Exception {
         String cardId = "nonexistent";
-        double amount = 100.0;
+        long amount = 10000;
         
-        when(loyaltyCardService.calculateDiscount(eq(cardId), anyDouble()))
+        when(loyaltyCardService.calculateDiscount(eq(cardId), anyLong()))
                 .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND));
 
         mockMvc.perform(get("/api/loyalty-cards/{id}/discount", cardId)
@@ -314,7 +314,7 @@ public class LoyaltyCardControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(status().reason("Card not found"));
 
-        verify(loyaltyCardService, times(1)).calculateDiscount(eq(cardId), anyDouble());
+        verify(loyaltyCardService, times(1)).calculateDiscount(eq(cardId), anyLong());
     }
 
     @Test
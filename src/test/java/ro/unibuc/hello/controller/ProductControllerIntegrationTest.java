@@ -32,7 +32,7 @@ public class ProductControllerIntegrationTest {
         // Arrange
         ProductDTO productDTO = new ProductDTO();
         productDTO.setName("Lipstick");
-        productDTO.setPrice(29.99);
+        productDTO.setPrice(2999L);
         productDTO.setStockSize(10);
         productDTO.setCategory("Makeup");
         productDTO.setBrand("BrandX");
@@ -47,7 +47,7 @@ public class ProductControllerIntegrationTest {
         // Assert
         assertThat(productRepository.findAll()).hasSize(1);
         assertThat(productRepository.findAll().get(0).getName()).isEqualTo("Lipstick");
-        assertThat(productRepository.findAll().get(0).getPrice()).isEqualTo(29.99);
+        assertThat(productRepository.findAll().get(0).getPrice()).isEqualTo(2999L);
         assertThat(productRepository.findAll().get(0).isInStock()).isTrue();
     }
 } 
\ No newline at end of file
@@ -49,7 +49,7 @@ public class ProductControllerTest {
         // Creăm un produs cosmetic
         ProductDTO productDTO = new ProductDTO(
                 "Cremă hidratantă de zi", // name
-                89.99f,                   // price
+                8999L,                   // price
                 25,                       // stockSize
                 "Îngrijire ten",          // category
                 "La Roche-Posay",         // brand
@@ -71,7 +71,7 @@ public class ProductControllerTest {
         // Produs cu stoc negativ pentru a testa validarea
         ProductDTO productDTO = new ProductDTO(
                 "Șampon reparator", 
-                45.50f,         
+                4550L,         
                 -5,              // stoc negativ pentru a testa BAD_REQUEST
                 "Îngrijire păr",  
                 "L'Oréal Paris",    
@@ -94,7 +94,7 @@ public class ProductControllerTest {
     public void testPostProduct_ServerError() throws Exception {
         ProductDTO productDTO = new ProductDTO(
                 "Mascara volume", 
-                55.99f,         
+                5599L,         
                 15,             
                 "Machiaj",  
                 "Maybelline",    
@@ -119,7 +119,7 @@ public class ProductControllerTest {
         ProductEntity productEntity = new ProductEntity(
                 id, 
                 "Ruj mat", 
-                65.00f, 
+                6500L, 
                 true, 
                 10, 
                 "Machiaj buze", 
@@ -134,7 +134,7 @@ public class ProductControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(id)))
                 .andExpect(jsonPath("$.name", is("Ruj mat")))
-                .andExpect(jsonPath("$.price", is(65.0)))
+                .andExpect(jsonPath("$.price", is(6500)))
                 .andExpect(jsonPath("$.inStock", is(true)))
                 .andExpect(jsonPath("$.stockSize", is(10)))
                 .andExpect(jsonPath("$.category", is("Machiaj buze")))
@@ -173,9 +173,9 @@ public class ProductControllerTest {
     @Test
     public void testGetAllProducts_Success() throws Exception {
         List<ProductEntity> products = Arrays.asList(
-                new ProductEntity("1", "Fond de ten fluid", 120.50f, true, 15, "Machiaj ten", "Estée Lauder", "Fond de ten fluid cu acoperire medie și efect natural"),
-                new ProductEntity("2", "Cremă de mâini", 32.99f, true, 30, "Îngrijire corp", "Neutrogena", "Cremă de mâini intensiv hidratantă pentru piele uscată"),
-                new ProductEntity("3", "Serum cu vitamina C", 159.99f, false, 0, "Îngrijire ten", "The Ordinary", "Serum antioxidant cu 10% vitamina C pură")
+                new ProductEntity("1", "Fond de ten fluid", 12050L, true, 15, "Machiaj ten", "Estée Lauder", "Fond de ten fluid cu acoperire medie și efect natural"),
+                new ProductEntity("2", "Cremă de mâini", 3299L, true, 30, "Îngrijire corp", "Neutrogena", "Cremă de mâini intensiv hidratantă pentru piele uscată"),
+                new ProductEntity("3", "Serum cu vitamina C", 15999L, false, 0, "Îngrijire ten", "The Ordinary", "Serum antioxidant cu 10% vitamina C pură")
         );
 
         when(productService.getAllProducts()).thenReturn(products);
@@ -212,7 +212,7 @@ public class ProductControllerTest {
         String id = "1";
         ProductDTO productDTO = new ProductDTO(
                 "Balsam de buze actualizat", 
-                29.99f,         
+                2999L,         
                 20,             
                 "Îngrijire buze",  
                 "Nivea",    
@@ -234,7 +234,7 @@ public class ProductControllerTest {
         String id = "999";
         ProductDTO productDTO = new ProductDTO(
                 "Gel de duș", 
-                33.50f,         
+                3350L,         
                 25,             
                 "Îngrijire corp",  
                 "Dove",    
@@ -258,7 +258,7 @@ public class ProductControllerTest {
         String id = "1";
         ProductDTO productDTO = new ProductDTO(
                 "Cremă anti-rid", 
-                249.99f,         
+                24999L,         
                 -10,             // Stoc negativ pentru a testa BAD_REQUEST
                 "Anti-aging",  
                 "Vichy",    
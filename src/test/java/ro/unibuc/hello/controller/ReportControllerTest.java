@@ -0,0 +1,163 @@
+package ro.unibuc.hello.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ro.unibuc.hello.data.report.BasketDistribution;
+import ro.unibuc.hello.data.report.SalesRollupEntity;
+import ro.unibuc.hello.data.report.TopProduct;
+import ro.unibuc.hello.service.BasketMetrics;
+import ro.unibuc.hello.service.SalesReportService;
+import ro.unibuc.hello.service.TopProductsService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class ReportControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private SalesReportService salesReportService;
+
+    @Mock
+    private TopProductsService topProductsService;
+
+    @Mock
+    private BasketMetrics basketMetrics;
+
+    @InjectMocks
+    private ReportController reportController;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(reportController).build();
+    }
+
+    @Test
+    public void testGetDailySales_Success() throws Exception {
+        SalesRollupEntity day = new SalesRollupEntity("2024-05-01", null);
+        day.add(3, 4500L, 500L, 0L, 4000L);
+        when(salesReportService.getDailySales(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 7))).thenReturn(List.of(day));
+
+        mockMvc.perform(get("/api/reports/sales/daily")
+                .param("from", "2024-05-01")
+                .param("to", "2024-05-07"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].day", is("2024-05-01")))
+                .andExpect(jsonPath("$[0].count", is(3)))
+                .andExpect(jsonPath("$[0].net", is(4000)));
+    }
+
+    @Test
+    public void testGetCategorySales_Success() throws Exception {
+        SalesRollupEntity makeup = new SalesRollupEntity();
+        makeup.setCategory("Makeup");
+        makeup.add(2, 2000L, 0L, 100L, 1900L);
+        when(salesReportService.getCategorySales(any(LocalDate.class), any(LocalDate.class))).thenReturn(List.of(makeup));
+
+        mockMvc.perform(get("/api/reports/sales/categories")
+                .param("from", "2024-05-01")
+                .param("to", "2024-05-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].category", is("Makeup")))
+                .andExpect(jsonPath("$[0].loyaltyDiscount", is(100)));
+    }
+
+    @Test
+    public void testGetDailySales_InvalidRange() throws Exception {
+        when(salesReportService.getDailySales(any(LocalDate.class), any(LocalDate.class)))
+                .thenThrow(new Exception(HttpStatus.BAD_REQUEST.toString()));
+
+        mockMvc.perform(get("/api/reports/sales/daily")
+                .param("from", "2024-05-07")
+                .param("to", "2024-05-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Invalid date range"));
+    }
+
+    @Test
+    public void testGetCategorySales_ServiceError() throws Exception {
+        when(salesReportService.getCategorySales(any(LocalDate.class), any(LocalDate.class)))
+                .thenThrow(new RuntimeException("Database error"));
+
+        mockMvc.perform(get("/api/reports/sales/categories")
+                .param("from", "2024-05-01")
+                .param("to", "2024-05-31"))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    public void testGetTopProducts_Success() throws Exception {
+        when(topProductsService.getTopProducts("Makeup", 5)).thenReturn(List.of(new TopProduct("prod1", 12L, 10L)));
+
+        mockMvc.perform(get("/api/reports/top-products")
+                .param("category", "Makeup")
+                .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].productId", is("prod1")))
+                .andExpect(jsonPath("$[0].quantity", is(12)))
+                .andExpect(jsonPath("$[0].minQuantity", is(10)));
+    }
+
+    @Test
+    public void testGetTopProducts_DefaultsToGlobalTopTen() throws Exception {
+        when(topProductsService.getTopProducts(null, 10)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/reports/top-products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    public void testGetTopProducts_InvalidLimit() throws Exception {
+        when(topProductsService.getTopProducts(null, 0)).thenThrow(new Exception(HttpStatus.BAD_REQUEST.toString()));
+
+        mockMvc.perform(get("/api/reports/top-products")
+                .param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Invalid limit"));
+    }
+
+    @Test
+    public void testGetBasketDistribution_Success() throws Exception {
+        BasketDistribution lines = new BasketDistribution("checkout.category.lines");
+        lines.setCount(4);
+        lines.getPercentiles().put("0.5", 2.0);
+        lines.getBuckets().put("3.0", 3.0);
+        when(basketMetrics.getDistribution("Makeup")).thenReturn(List.of(lines));
+
+        mockMvc.perform(get("/api/reports/basket-distribution")
+                .param("category", "Makeup"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].metric", is("checkout.category.lines")))
+                .andExpect(jsonPath("$[0].count", is(4)))
+                .andExpect(jsonPath("$[0].percentiles['0.5']", is(2.0)))
+                .andExpect(jsonPath("$[0].buckets['3.0']", is(3.0)));
+    }
+
+    @Test
+    public void testGetBasketDistribution_UnknownCategory() throws Exception {
+        when(basketMetrics.getDistribution("Unknown")).thenThrow(new Exception(HttpStatus.NOT_FOUND.toString()));
+
+        mockMvc.perform(get("/api/reports/basket-distribution")
+                .param("category", "Unknown"))
+                .andExpect(status().isNotFound())
+                .andExpect(status().reason("Category not found"));
+    }
+}
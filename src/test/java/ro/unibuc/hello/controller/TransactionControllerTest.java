@@ -10,11 +10,18 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
+import ro.unibuc.hello.data.transaction.CheckoutTicket;
+import ro.unibuc.hello.data.transaction.TransactionBatchResult;
 import ro.unibuc.hello.data.transaction.TransactionDTO;
 import ro.unibuc.hello.data.transaction.TransactionEntity;
 import ro.unibuc.hello.data.transaction.TransactionEntry;
+import ro.unibuc.hello.data.transaction.TransactionPage;
+import ro.unibuc.hello.data.transaction.TransactionSummary;
+import ro.unibuc.hello.service.CheckoutQueue;
 import ro.unibuc.hello.service.TransactionService;
 
 import java.time.LocalDateTime;
@@ -22,12 +29,18 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,6 +52,9 @@ public class TransactionControllerTest {
     @Mock
     private TransactionService transactionService;
 
+    @Mock
+    private CheckoutQueue checkoutQueue;
+
     @InjectMocks
     private TransactionController transactionController;
 
@@ -52,6 +68,7 @@ public class TransactionControllerTest {
         // Configurare ObjectMapper pentru a gestiona serializarea/deserializarea LocalDateTime
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
+        ReflectionTestUtils.setField(transactionController, "objectMapper", objectMapper);
     }
 
     @Test
@@ -67,11 +84,55 @@ public class TransactionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is("trans123")))
                 .andExpect(jsonPath("$.userId", is("user123")))
-                .andExpect(jsonPath("$.finalAmount", is(85.5)));
+                .andExpect(jsonPath("$.finalAmount", is(8550)));
 
         verify(transactionService, times(1)).createTransaction(any(TransactionDTO.class));
     }
 
+    @Test
+    public void testCreateTransaction_WithIdempotencyKey() throws Exception {
+        TransactionDTO transactionDTO = createMockTransactionDTO();
+
+        when(transactionService.createTransaction(any(TransactionDTO.class), eq("key123")))
+                .thenReturn(createMockTransactionEntity());
+
+        mockMvc.perform(post("/api/transactions")
+                .header("Idempotency-Key", "key123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transactionDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is("trans123")));
+
+        verify(transactionService, times(1)).createTransaction(any(TransactionDTO.class), eq("key123"));
+        verify(transactionService, never()).createTransaction(any(TransactionDTO.class));
+    }
+
+    @Test
+    public void testCreateTransaction_IdempotencyKeyInProgress() throws Exception {
+        when(transactionService.createTransaction(any(TransactionDTO.class), eq("key123")))
+                .thenThrow(new Exception(HttpStatus.CONFLICT.toString()));
+
+        mockMvc.perform(post("/api/transactions")
+                .header("Idempotency-Key", "key123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createMockTransactionDTO())))
+                .andExpect(status().isConflict())
+                .andExpect(status().reason("A request with this idempotency key is still in progress"));
+    }
+
+    @Test
+    public void testCreateTransaction_IdempotencyKeyReusedForDifferentRequest() throws Exception {
+        when(transactionService.createTransaction(any(TransactionDTO.class), eq("key123")))
+                .thenThrow(new Exception(HttpStatus.UNPROCESSABLE_ENTITY.toString()));
+
+        mockMvc.perform(post("/api/transactions")
+                .header("Idempotency-Key", "key123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createMockTransactionDTO())))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(status().reason("This idempotency key was used for a different request"));
+    }
+
     @Test
     public void testCreateTransaction_ProductOrUserNotFound() throws Exception {
         TransactionDTO transactionDTO = createMockTransactionDTO();
@@ -122,6 +183,90 @@ public class TransactionControllerTest {
         verify(transactionService, times(1)).createTransaction(any(TransactionDTO.class));
     }
 
+    @Test
+    public void testCreateTransactions_ReturnsResultPerCart() throws Exception {
+        List<TransactionDTO> transactionDTOs = List.of(createMockTransactionDTO(), createMockTransactionDTO());
+        List<TransactionBatchResult> results = List.of(
+                TransactionBatchResult.success(0, createMockTransactionEntity()),
+                TransactionBatchResult.failure(1, HttpStatus.BAD_REQUEST, "Insufficient stock"));
+
+        when(transactionService.createTransactions(anyList())).thenReturn(results);
+
+        mockMvc.perform(post("/api/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transactionDTOs)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is(200)))
+                .andExpect(jsonPath("$[0].transaction.id", is("trans123")))
+                .andExpect(jsonPath("$[1].status", is(400)))
+                .andExpect(jsonPath("$[1].error", is("Insufficient stock")));
+
+        verify(transactionService, times(1)).createTransactions(anyList());
+    }
+
+    @Test
+    public void testCreateTransactions_ServerError() throws Exception {
+        when(transactionService.createTransactions(anyList()))
+                .thenThrow(new RuntimeException("Database error"));
+
+        mockMvc.perform(post("/api/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(createMockTransactionDTO()))))
+                .andExpect(status().isInternalServerError())
+                .andExpect(status().reason("Service not available"));
+    }
+
+    @Test
+    public void testSubmitTransaction_ReturnsAcceptedTicket() throws Exception {
+        TransactionDTO transactionDTO = createMockTransactionDTO();
+
+        when(checkoutQueue.submit(any(TransactionDTO.class))).thenReturn(new CheckoutTicket("ticket123"));
+
+        mockMvc.perform(post("/api/transactions/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transactionDTO)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id", is("ticket123")))
+                .andExpect(jsonPath("$.status", is("QUEUED")));
+
+        verify(checkoutQueue, times(1)).submit(any(TransactionDTO.class));
+    }
+
+    @Test
+    public void testSubmitTransaction_InvalidRequest() throws Exception {
+        TransactionDTO transactionDTO = createMockTransactionDTO();
+        transactionDTO.getProductsList().get(0).setProductQuantity(0);
+
+        mockMvc.perform(post("/api/transactions/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(transactionDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Invalid transaction"));
+
+        verify(checkoutQueue, never()).submit(any(TransactionDTO.class));
+    }
+
+    @Test
+    public void testSubmitTransaction_QueueFull() throws Exception {
+        when(checkoutQueue.submit(any(TransactionDTO.class))).thenThrow(new RejectedExecutionException());
+
+        mockMvc.perform(post("/api/transactions/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createMockTransactionDTO())))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(status().reason("Checkout queue is full"));
+    }
+
+    @Test
+    public void testGetTicket_NotFound() throws Exception {
+        when(checkoutQueue.getTicket("missing")).thenThrow(new Exception(HttpStatus.NOT_FOUND.toString()));
+
+        mockMvc.perform(get("/api/transactions/tickets/{id}", "missing"))
+                .andExpect(status().isNotFound())
+                .andExpect(status().reason("Ticket not found"));
+    }
+
     @Test
     public void testGetTransactionById_Success() throws Exception {
         String id = "trans123";
@@ -133,8 +278,8 @@ public class TransactionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(id)))
                 .andExpect(jsonPath("$.userId", is("user123")))
-                .andExpect(jsonPath("$.totalAmount", is(100.0)))
-                .andExpect(jsonPath("$.finalAmount", is(85.5)));
+                .andExpect(jsonPath("$.totalAmount", is(10000)))
+                .andExpect(jsonPath("$.finalAmount", is(8550)));
 
         verify(transactionService, times(1)).getTransactionById(id);
     }
@@ -154,34 +299,90 @@ public class TransactionControllerTest {
     }
 
     @Test
-    public void testGetAllTransactions_Success() throws Exception {
+    public void testGetTransactions_FirstPage() throws Exception {
         List<TransactionEntity> transactions = Arrays.asList(
                 createMockTransactionEntity(),
                 createMockTransactionEntity()
         );
         transactions.get(1).setId("trans456");
 
-        when(transactionService.getAllTransactions()).thenReturn(transactions);
+        when(transactionService.getTransactionsPage(null, 100, TransactionEntity.class)).thenReturn(new TransactionPage<>(transactions, "trans456"));
 
         mockMvc.perform(get("/api/transactions"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].id", is("trans123")))
-                .andExpect(jsonPath("$[1].id", is("trans456")));
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id", is("trans123")))
+                .andExpect(jsonPath("$.items[1].id", is("trans456")))
+                .andExpect(jsonPath("$.nextCursor", is("trans456")));
 
-        verify(transactionService, times(1)).getAllTransactions();
+        verify(transactionService, times(1)).getTransactionsPage(null, 100, TransactionEntity.class);
     }
 
     @Test
-    public void testGetAllTransactions_ServerError() throws Exception {
-        when(transactionService.getAllTransactions())
+    public void testGetTransactions_NextPage() throws Exception {
+        when(transactionService.getTransactionsPage("trans456", 50, TransactionEntity.class))
+                .thenReturn(new TransactionPage<>(List.of(createMockTransactionEntity()), null));
+
+        mockMvc.perform(get("/api/transactions")
+                        .param("after", "trans456")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void testGetTransactions_ServerError() throws Exception {
+        when(transactionService.getTransactionsPage(any(), anyInt(), any()))
                 .thenThrow(new RuntimeException("Database error"));
 
         mockMvc.perform(get("/api/transactions"))
                 .andExpect(status().isInternalServerError())
                 .andExpect(status().reason("Service not available"));
 
-        verify(transactionService, times(1)).getAllTransactions();
+        verify(transactionService, times(1)).getTransactionsPage(null, 100, TransactionEntity.class);
+    }
+
+    @Test
+    public void testGetTransactions_SummaryView_ReturnsSlimItems() throws Exception {
+        TransactionSummary summary = new TransactionSummary("trans123", "user123", LocalDateTime.of(2024, 1, 15, 12, 30), 1800L);
+        when(transactionService.getTransactionsPage(null, 100, TransactionSummary.class))
+                .thenReturn(new TransactionPage<>(List.of(summary), null));
+
+        mockMvc.perform(get("/api/transactions").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id", is("trans123")))
+                .andExpect(jsonPath("$.items[0].finalAmount", is(1800)))
+                .andExpect(jsonPath("$.items[0].productsList").doesNotExist());
+    }
+
+    @Test
+    public void testGetTransactions_UnknownView_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/transactions").param("view", "everything"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Invalid view"));
+
+        verifyNoInteractions(transactionService);
+    }
+
+    @Test
+    public void testStreamTransactions_WritesOneLinePerTransaction() throws Exception {
+        TransactionEntity second = createMockTransactionEntity();
+        second.setId("trans456");
+        when(transactionService.streamAllTransactions())
+                .thenReturn(Stream.of(createMockTransactionEntity(), second));
+
+        MvcResult result = mockMvc.perform(get("/api/transactions").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("trans123", objectMapper.readTree(lines[0]).get("id").asText());
+        assertEquals("trans456", objectMapper.readTree(lines[1]).get("id").asText());
     }
 
     @Test
@@ -193,7 +394,7 @@ public class TransactionControllerTest {
         );
         userTransactions.get(1).setId("trans456");
 
-        when(transactionService.getTransactionsByUser(userId)).thenReturn(userTransactions);
+        when(transactionService.getTransactionsByUser(userId, TransactionEntity.class)).thenReturn(userTransactions);
 
         mockMvc.perform(get("/api/transactions/user/{userId}", userId))
                 .andExpect(status().isOk())
@@ -201,21 +402,32 @@ public class TransactionControllerTest {
                 .andExpect(jsonPath("$[0].userId", is(userId)))
                 .andExpect(jsonPath("$[1].userId", is(userId)));
 
-        verify(transactionService, times(1)).getTransactionsByUser(userId);
+        verify(transactionService, times(1)).getTransactionsByUser(userId, TransactionEntity.class);
+    }
+
+    @Test
+    public void testGetTransactionsByUser_SummaryView() throws Exception {
+        when(transactionService.getTransactionsByUser("user123", TransactionSummary.class))
+                .thenReturn(List.of(new TransactionSummary("trans123", "user123", LocalDateTime.now(), 1800L)));
+
+        mockMvc.perform(get("/api/transactions/user/{userId}", "user123").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].totalAmount").doesNotExist());
     }
 
     @Test
     public void testGetTransactionsByUser_UserNotFound() throws Exception {
         String userId = "nonexistent";
 
-        when(transactionService.getTransactionsByUser(userId))
+        when(transactionService.getTransactionsByUser(userId, TransactionEntity.class))
                 .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND));
 
         mockMvc.perform(get("/api/transactions/user/{userId}", userId))
                 .andExpect(status().isNotFound())
                 .andExpect(status().reason("User not found"));
 
-        verify(transactionService, times(1)).getTransactionsByUser(userId);
+        verify(transactionService, times(1)).getTransactionsByUser(userId, TransactionEntity.class);
     }
 
     @Test
@@ -229,8 +441,8 @@ public class TransactionControllerTest {
         );
         rangeTransactions.get(1).setId("trans456");
 
-        when(transactionService.getTransactionsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(rangeTransactions);
+        when(transactionService.getTransactionsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class), isNull(), eq(100), eq(TransactionEntity.class)))
+                .thenReturn(new TransactionPage<>(rangeTransactions, "next-cursor"));
 
         String formattedStartDate = startDate.format(DateTimeFormatter.ISO_DATE_TIME);
         String formattedEndDate = endDate.format(DateTimeFormatter.ISO_DATE_TIME);
@@ -239,11 +451,12 @@ public class TransactionControllerTest {
                 .param("startDate", formattedStartDate)
                 .param("endDate", formattedEndDate))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].id", is("trans123")))
-                .andExpect(jsonPath("$[1].id", is("trans456")));
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id", is("trans123")))
+                .andExpect(jsonPath("$.items[1].id", is("trans456")))
+                .andExpect(jsonPath("$.nextCursor", is("next-cursor")));
 
-        verify(transactionService, times(1)).getTransactionsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(transactionService, times(1)).getTransactionsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class), isNull(), eq(100), eq(TransactionEntity.class));
     }
 
     @Test
@@ -251,7 +464,7 @@ public class TransactionControllerTest {
         LocalDateTime startDate = LocalDateTime.now().minusDays(7);
         LocalDateTime endDate = LocalDateTime.now();
 
-        when(transactionService.getTransactionsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
+        when(transactionService.getTransactionsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class), any(), anyInt(), any()))
                 .thenThrow(new RuntimeException("Database error"));
 
         String formattedStartDate = startDate.format(DateTimeFormatter.ISO_DATE_TIME);
@@ -263,7 +476,39 @@ public class TransactionControllerTest {
                 .andExpect(status().isInternalServerError())
                 .andExpect(status().reason("Service not available"));
 
-        verify(transactionService, times(1)).getTransactionsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(transactionService, times(1)).getTransactionsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class), any(), anyInt(), any());
+    }
+
+    @Test
+    public void testGetTransactionsByDateRange_InvalidCursor() throws Exception {
+        when(transactionService.getTransactionsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class), eq("bad"), anyInt(), any()))
+                .thenThrow(new Exception(HttpStatus.BAD_REQUEST.toString()));
+
+        mockMvc.perform(get("/api/transactions/range")
+                .param("startDate", "2024-01-01T00:00:00")
+                .param("endDate", "2024-02-01T00:00:00")
+                .param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Invalid cursor"));
+    }
+
+    @Test
+    public void testStreamTransactionsByDateRange_WritesOneLinePerTransaction() throws Exception {
+        when(transactionService.streamTransactionsByDateRange(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Stream.of(createMockTransactionEntity()));
+
+        MvcResult result = mockMvc.perform(get("/api/transactions/range")
+                        .param("startDate", "2024-01-01T00:00:00")
+                        .param("endDate", "2024-02-01T00:00:00")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(1, body.split("\n").length);
+        assertEquals("trans123", objectMapper.readTree(body).get("id").asText());
     }
 
     @Test
@@ -292,6 +537,18 @@ public class TransactionControllerTest {
         verify(transactionService, times(1)).deleteTransaction(id);
     }
 
+    @Test
+    public void testDeleteTransaction_Archived() throws Exception {
+        String id = "archived";
+
+        doThrow(new Exception(HttpStatus.CONFLICT.toString()))
+                .when(transactionService).deleteTransaction(id);
+
+        mockMvc.perform(delete("/api/transactions/{id}", id))
+                .andExpect(status().isConflict())
+                .andExpect(status().reason("Archived transactions cannot be deleted"));
+    }
+
     @Test
     public void testDeleteTransaction_ServerError() throws Exception {
         String id = "trans123";
@@ -341,12 +598,12 @@ public class TransactionControllerTest {
         entity.setLoyaltyCardId("card123");
         entity.setUseDiscount(true);
         entity.setDate(LocalDateTime.now());
-        entity.setTotalAmount(100.0);
-        entity.setDiscountAmount(14.5);
-        entity.setPromotionDiscount(5.0);
-        entity.setLoyaltyDiscount(9.5);
-        entity.setTotalDiscount(14.5);
-        entity.setFinalAmount(85.5);
+        entity.setTotalAmount(10000L);
+        entity.setDiscountAmount(1450L);
+        entity.setPromotionDiscount(500L);
+        entity.setLoyaltyDiscount(950L);
+        entity.setTotalDiscount(1450L);
+        entity.setFinalAmount(8550L);
         
         return entity;
     }
@@ -0,0 +1,94 @@
+package ro.unibuc.hello.data;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares insert throughput and _id index size of the random UUID scheme against the time-ordered ObjectId
+ * default. Run with ./gradlew testBenchmark.
+ */
+@Testcontainers
+@Tag("Benchmark")
+class IdGeneratorBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorBenchmarkTest.class);
+
+    private static final int DOCUMENTS = 200_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.20");
+
+    private static MongoClient client;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(mongoDBContainer.getConnectionString());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void objectIdsInsertIntoASmallerIndexThanRandomUuids() {
+        MongoDatabase database = client.getDatabase("benchmark");
+
+        // Spring Data salvează id-urile String în format ObjectId hex ca ObjectId binar, restul rămân String
+        Result uuid = run(database, "uuid_ids", new RandomUuidGenerator(), id -> id);
+        Result objectId = run(database, "objectid_ids", new ObjectIdGenerator(), ObjectId::new);
+
+        log.info("random UUID: {} inserts/s, _id index {} bytes", uuid.insertsPerSecond(), uuid.indexBytes());
+        log.info("ObjectId:    {} inserts/s, _id index {} bytes", objectId.insertsPerSecond(), objectId.indexBytes());
+
+        assertTrue(objectId.indexBytes() < uuid.indexBytes());
+    }
+
+    private Result run(MongoDatabase database, String collectionName, IdGenerator generator,
+                       Function<String, Object> storedId) {
+        database.getCollection(collectionName).drop();
+        MongoCollection<Document> collection = database.getCollection(collectionName);
+
+        long start = System.nanoTime();
+        for (int inserted = 0; inserted < DOCUMENTS; inserted += BATCH_SIZE) {
+            List<Document> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(new Document("_id", storedId.apply(generator.nextId()))
+                        .append("userId", "user" + (i % 100))
+                        .append("totalAmount", 10000L));
+            }
+            collection.insertMany(batch);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        // Forțează un checkpoint ca dimensiunea indexului să reflecte paginile scrise pe disc
+        client.getDatabase("admin").runCommand(new Document("fsync", 1));
+        Document stats = database.runCommand(new Document("collStats", collectionName));
+        long indexBytes = ((Number) stats.get("indexSizes", Document.class).get("_id_")).longValue();
+
+        return new Result(DOCUMENTS * 1_000_000_000L / elapsedNanos, indexBytes);
+    }
+
+    private record Result(long insertsPerSecond, long indexBytes) {
+    }
+}
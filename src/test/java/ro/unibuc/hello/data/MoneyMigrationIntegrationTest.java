@@ -0,0 +1,71 @@
+package ro.unibuc.hello.data;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ro.unibuc.hello.data.product.ProductEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+@Tag("IntegrationTest")
+public class MoneyMigrationIntegrationTest {
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.20");
+
+    private static MongoClient client;
+
+    private MongoTemplate mongoTemplate;
+    private MoneyMigration moneyMigration;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(mongoDBContainer.getConnectionString());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @BeforeEach
+    void createMigration() {
+        mongoTemplate = new MongoTemplate(client, "money");
+        mongoTemplate.getDb().drop();
+        moneyMigration = new MoneyMigration();
+        ReflectionTestUtils.setField(moneyMigration, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    void testDoublePricesAreConvertedToCents() {
+        // Documente scrise înainte de trecerea la cenți, direct în colecția mapată de ProductEntity
+        String collection = mongoTemplate.getCollectionName(ProductEntity.class);
+        mongoTemplate.getCollection(collection).insertMany(List.of(
+                new Document("_id", "lipstick").append("price", 12.99),
+                new Document("_id", "gum").append("price", 0.1),
+                new Document("_id", "shampoo").append("price", 19.99),
+                new Document("_id", "migrated").append("price", 500L)));
+
+        moneyMigration.afterSingletonsInstantiated();
+        // A doua rulare nu mai găsește nimic de convertit
+        moneyMigration.afterSingletonsInstantiated();
+
+        assertEquals(1299L, mongoTemplate.findById("lipstick", ProductEntity.class).getPrice());
+        assertEquals(10L, mongoTemplate.findById("gum", ProductEntity.class).getPrice());
+        assertEquals(1999L, mongoTemplate.findById("shampoo", ProductEntity.class).getPrice());
+        assertEquals(500L, mongoTemplate.findById("migrated", ProductEntity.class).getPrice());
+    }
+}
@@ -0,0 +1,15 @@
+package ro.unibuc.hello.data;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    @Test
+    public void testPercentOfRoundsDownToCent() {
+        assertEquals(500L, Money.percentOf(10000L, 5.0));
+        // 15% din 19.99 = 2.9985, rotunjit în jos la 2.99
+        assertEquals(299L, Money.percentOf(1999L, 15.0));
+        assertEquals(0L, Money.percentOf(0L, 10.0));
+    }
+}
@@ -0,0 +1,77 @@
+package ro.unibuc.hello.data.index;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import ro.unibuc.hello.data.promotions.PromotionEntity;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class IndexManagerTest {
+
+    @Test
+    public void testDeclaredIndexesAreResolvedFromEntityAnnotations() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setInitialEntitySet(Set.of(TransactionEntity.class, PromotionEntity.class));
+        mappingContext.afterPropertiesSet();
+        IndexManager indexManager = new IndexManager(mock(MongoTemplate.class), mappingContext, false);
+
+        Map<String, List<IndexDefinition>> declared = indexManager.declaredIndexes();
+
+        assertEquals(Set.of("date_1__id_1", "userId_1_date_1", "loyaltyCardId_1"), keysOf(declared.get("transactions")));
+        assertEquals(Set.of("active_1_endDate_1_startDate_1"), keysOf(declared.get("promotions")));
+        IndexDefinition loyaltyCardIndex = declared.get("transactions").stream()
+                .filter(definition -> definition.getIndexKeys().containsKey("loyaltyCardId"))
+                .findFirst().orElseThrow();
+        assertTrue(loyaltyCardIndex.getIndexOptions().getBoolean("sparse", false));
+    }
+
+    @Test
+    public void testCompareReportsMissingUndeclaredAndUnusedIndexes() {
+        List<IndexDefinition> declared = List.of(
+            new Index().on("userId", org.springframework.data.domain.Sort.Direction.ASC),
+            new Index().on("cardType", org.springframework.data.domain.Sort.Direction.ASC)
+        );
+        List<Document> existing = List.of(
+            new Document("name", "_id_").append("key", new Document("_id", 1)),
+            new Document("name", "userId_1").append("key", new Document("userId", 1.0)),
+            new Document("name", "points_-1").append("key", new Document("points", -1))
+        );
+        List<Document> stats = List.of(
+            new Document("name", "_id_").append("key", new Document("_id", 1)).append("accesses", new Document("ops", 0L)),
+            new Document("name", "userId_1").append("key", new Document("userId", 1)).append("accesses", new Document("ops", 42L)),
+            new Document("name", "points_-1").append("key", new Document("points", -1)).append("accesses", new Document("ops", 0L))
+        );
+
+        CollectionIndexReport report = IndexManager.compare("loyalty_cards", declared, existing, stats);
+
+        assertEquals(List.of("userId_1", "cardType_1"), report.getDeclared());
+        assertEquals(List.of("cardType_1"), report.getMissing());
+        assertEquals(List.of("points_-1"), report.getUndeclared());
+        assertEquals(List.of("points_-1"), report.getUnused());
+    }
+
+    @Test
+    public void testDescribeMatchesMongoIndexNames() {
+        assertEquals("userId_1_date_-1", IndexManager.describe(new Document("userId", 1).append("date", -1L)));
+        assertEquals("name_text", IndexManager.describe(new Document("name", "text")));
+    }
+
+    private static Set<String> keysOf(List<IndexDefinition> definitions) {
+        List<String> keys = new ArrayList<>();
+        for (IndexDefinition definition : definitions) {
+            keys.add(IndexManager.describe(definition.getIndexKeys()));
+        }
+        return Set.copyOf(keys);
+    }
+}
@@ -18,7 +18,7 @@ public class ProductRepositoryTest {
         ProductEntity product = new ProductEntity(
             "test-id", 
             "Test Product", 
-            19.99f, 
+            1999L, 
             true, 
             10, 
             "Skincare", 
@@ -29,7 +29,7 @@ public class ProductRepositoryTest {
         // Verifică că obiectul a fost creat corect
         assertEquals("test-id", product.id);
         assertEquals("Test Product", product.name);
-        assertEquals(19.99f, product.price);
+        assertEquals(1999L, product.price);
         assertEquals(10, product.stockSize);
         assertEquals("Skincare", product.category);
     }
@@ -42,7 +42,7 @@ public class ProductRepositoryTest {
         ProductEntity productOutOfStock = new ProductEntity(
             "out-of-stock", 
             "Out of Stock Product", 
-            29.99f, 
+            2999L, 
             false,  // setăm inStock manual pentru a vedea că verificarea noastră îl detectează corect
             0, 
             "Makeup", 
@@ -54,7 +54,7 @@ public class ProductRepositoryTest {
         ProductEntity productInStock = new ProductEntity(
             "in-stock", 
             "In Stock Product", 
-            39.99f, 
+            3999L, 
             true,  // setăm inStock manual
             5, 
             "Fragrance", 
@@ -76,7 +76,7 @@ public class ProductRepositoryTest {
         ProductEntity product = new ProductEntity(
             "test-id", 
             "Test Product", 
-            19.99f, 
+            1999L, 
             true, 
             10, 
             "Skincare", 
@@ -87,7 +87,7 @@ public class ProductRepositoryTest {
         String expectedToString = "ProductEntity{" +
                 "id='test-id'" +
                 ", name='Test Product'" +
-                ", price=19.99" +
+                ", price=1999" +
                 ", inStock=true" +
                 ", stockSize=10" +
                 ", category=Skincare" +
@@ -99,7 +99,7 @@ public class ProductRepositoryTest {
         String actualToString = product.toString();
         assertTrue(actualToString.contains("id='test-id'"), "toString() ar trebui să conțină ID-ul");
         assertTrue(actualToString.contains("name='Test Product'"), "toString() ar trebui să conțină numele");
-        assertTrue(actualToString.contains("price=19.99"), "toString() ar trebui să conțină prețul");
+        assertTrue(actualToString.contains("price=1999"), "toString() ar trebui să conțină prețul");
     }
     
     @Test
@@ -110,7 +110,7 @@ public class ProductRepositoryTest {
         // Folosim setter-ele pentru a seta valorile
         product.setId("setter-id");
         product.setName("Setter Product");
-        product.setPrice(49.99f);
+        product.setPrice(4999L);
         product.setInStock(true);
         product.stockSize = 15;
         product.setCategory("Hair Care");
@@ -120,7 +120,7 @@ public class ProductRepositoryTest {
         // Verificare
         assertEquals("setter-id", product.getId(), "ID-ul ar trebui să fie 'setter-id'");
         assertEquals("Setter Product", product.getName(), "Numele ar trebui să fie 'Setter Product'");
-        assertEquals(49.99f, product.getPrice(), "Prețul ar trebui să fie 49.99");
+        assertEquals(4999L, product.getPrice(), "Prețul ar trebui să fie 4999 de cenți");
         assertTrue(product.isInStock(), "inStock ar trebui să fie true");
         assertEquals(15, product.stockSize, "stockSize ar trebui să fie 15");
         assertEquals("Hair Care", product.getCategory(), "Categoria ar trebui să fie 'Hair Care'");
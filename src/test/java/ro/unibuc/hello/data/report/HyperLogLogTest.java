@@ -0,0 +1,76 @@
+package ro.unibuc.hello.data.report;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_EmptySketchIsZero() {
+        HyperLogLog sketch = new HyperLogLog(12);
+
+        assertTrue(sketch.isEmpty());
+        assertEquals(0, sketch.estimate());
+    }
+
+    @Test
+    void estimate_IgnoresDuplicates() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = 0; i < 10; i++) {
+            sketch.add("user1");
+            sketch.add("user2");
+        }
+
+        assertEquals(2, sketch.estimate());
+    }
+
+    @Test
+    void estimate_StaysWithinErrorBounds() {
+        for (int cardinality : new int[]{100, 5_000, 200_000}) {
+            HyperLogLog sketch = new HyperLogLog(12);
+            for (int i = 0; i < cardinality; i++) {
+                sketch.add("user" + i);
+            }
+            // Eroarea standard la 4096 de registre e ~1.6%; 5% înseamnă peste trei abateri standard
+            assertEquals(cardinality, sketch.estimate(), cardinality * 0.05, "cardinality " + cardinality);
+        }
+    }
+
+    @Test
+    void merge_CountsTheUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (int i = 0; i < 30_000; i++) {
+            first.add("user" + i);
+            second.add("user" + (i + 20_000));
+        }
+
+        first.merge(second);
+        long union = first.estimate();
+        // Reuniunea e idempotentă
+        first.merge(second);
+
+        assertEquals(50_000, union, 2_500);
+        assertEquals(union, first.estimate());
+    }
+
+    @Test
+    void merge_DifferentPrecisionFails() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(12).merge(new HyperLogLog(10)));
+    }
+
+    @Test
+    void fromByteArray_RoundTrips() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add("user" + i);
+        }
+
+        HyperLogLog copy = HyperLogLog.fromByteArray(sketch.toByteArray());
+
+        assertEquals(10, copy.getPrecision());
+        assertEquals(sketch.estimate(), copy.estimate());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromByteArray(new byte[100]));
+    }
+}
@@ -0,0 +1,101 @@
+package ro.unibuc.hello.data.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingSummaryTest {
+
+    @Test
+    void offer_CountsExactlyWhileNotFull() {
+        SpaceSavingSummary summary = new SpaceSavingSummary(3);
+        summary.offer("a", 2);
+        summary.offer("b", 1);
+        summary.offer("a", 3);
+
+        assertEquals(2, summary.size());
+        assertEquals(5, summary.get("a").getCount());
+        assertEquals(0, summary.get("a").getError());
+        assertEquals(0, summary.minCount());
+    }
+
+    @Test
+    void offer_WhenFull_ReplacesSmallestCounter() {
+        SpaceSavingSummary summary = new SpaceSavingSummary(2);
+        summary.offer("a", 5);
+        summary.offer("b", 2);
+        summary.offer("c", 1);
+
+        assertNull(summary.get("b"));
+        assertEquals(3, summary.get("c").getCount());
+        assertEquals(2, summary.get("c").getError());
+        assertEquals(3, summary.minCount());
+    }
+
+    @Test
+    void offer_KeepsHeavyHittersWithinErrorBounds() {
+        SpaceSavingSummary summary = new SpaceSavingSummary(20);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        long total = 0;
+        for (int i = 0; i < 20_000; i++) {
+            // Câteva produse domină, restul e o coadă lungă
+            String item = random.nextInt(4) == 0 ? "hot" + random.nextInt(3) : "tail" + random.nextInt(5000);
+            long weight = 1 + random.nextInt(3);
+            summary.offer(item, weight);
+            exact.merge(item, weight, Long::sum);
+            total += weight;
+        }
+
+        assertEquals(20, summary.size());
+        assertTrue(summary.minCount() <= total / 20);
+        for (int i = 0; i < 3; i++) {
+            SpaceSavingSummary.Counter counter = summary.get("hot" + i);
+            assertNotNull(counter);
+            long actual = exact.get("hot" + i);
+            assertTrue(counter.getCount() >= actual);
+            assertTrue(counter.getCount() - counter.getError() <= actual);
+        }
+    }
+
+    @Test
+    void restore_IgnoresCountersBeyondCapacity() {
+        SpaceSavingSummary summary = new SpaceSavingSummary(1);
+        summary.restore("a", 10, 2);
+        summary.restore("b", 20, 0);
+
+        assertEquals(1, summary.size());
+        assertEquals(2, summary.get("a").getError());
+        assertNull(summary.get("b"));
+    }
+
+    @Test
+    void merge_AddsCountAndError() {
+        SpaceSavingSummary summary = new SpaceSavingSummary(2);
+        summary.offer("a", 5);
+        summary.offer("b", 2);
+        summary.merge("a", 4, 1);
+        summary.merge("c", 3, 2);
+
+        assertEquals(9, summary.get("a").getCount());
+        assertEquals(1, summary.get("a").getError());
+        // c ia locul lui b: moștenește valoarea lui ca eroare, peste eroarea adusă din celălalt rezumat
+        assertNull(summary.get("b"));
+        assertEquals(5, summary.get("c").getCount());
+        assertEquals(4, summary.get("c").getError());
+    }
+
+    @Test
+    void clear_EmptiesSummary() {
+        SpaceSavingSummary summary = new SpaceSavingSummary(2);
+        summary.offer("a", 1);
+        summary.clear();
+
+        assertEquals(0, summary.size());
+        assertTrue(summary.counters().isEmpty());
+    }
+}
@@ -0,0 +1,36 @@
+package ro.unibuc.hello.data.transaction;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateRangeCursorTest {
+
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        LocalDateTime date = LocalDateTime.of(2024, 3, 1, 8, 15, 30, 250_000_000);
+        DateRangeCursor cursor = new DateRangeCursor(date, "65e18f2a9b1c4d0012345678");
+
+        DateRangeCursor decoded = DateRangeCursor.decode(cursor.encode());
+
+        assertEquals(date, decoded.getDate());
+        assertEquals("65e18f2a9b1c4d0012345678", decoded.getId());
+    }
+
+    @Test
+    public void testEncodedCursorIsUrlSafe() {
+        String token = new DateRangeCursor(LocalDateTime.of(2024, 1, 1, 0, 0), "a|b/c+d").encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), "Token-ul trebuie să poată fi trimis ca parametru de query");
+        assertEquals("a|b/c+d", DateRangeCursor.decode(token).getId());
+    }
+
+    @Test
+    public void testDecodeRejectsMalformedTokens() {
+        assertThrows(IllegalArgumentException.class, () -> DateRangeCursor.decode("not a token"));
+        assertThrows(IllegalArgumentException.class, () -> DateRangeCursor.decode("bm8tc2VwYXJhdG9y"));
+        assertThrows(IllegalArgumentException.class, () -> DateRangeCursor.decode("bm90LWEtZGF0ZXxpZA"));
+    }
+}
@@ -0,0 +1,182 @@
+package ro.unibuc.hello.data.transaction;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import ro.unibuc.hello.data.report.RevenueBucket;
+import ro.unibuc.hello.data.report.RevenueDimension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static ro.unibuc.hello.data.transaction.TransactionSegmentTest.entry;
+import static ro.unibuc.hello.data.transaction.TransactionSegmentTest.transaction;
+
+public class TransactionArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private TransactionArchive archive;
+
+    private TransactionEntity january1;
+    private TransactionEntity january2;
+    private TransactionEntity february1;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        archive = new TransactionArchive(mongoTemplate, directory.toString());
+
+        january1 = transaction(objectId(LocalDateTime.of(2024, 1, 10, 9, 0)), "user1", LocalDateTime.of(2024, 1, 10, 9, 0), 1000);
+        january1.setProductsList(List.of(entry("prod1", 2, "food", "acme", 300), entry("prod2", 1, "food", null, 400)));
+        january1.setCategorySales(List.of(new CategorySale("food", 1000, 0, 0)));
+        january2 = transaction(objectId(LocalDateTime.of(2024, 1, 10, 17, 30)), "user2", LocalDateTime.of(2024, 1, 10, 17, 30), 500);
+        february1 = transaction(objectId(LocalDateTime.of(2024, 2, 2, 12, 0)), "user1", LocalDateTime.of(2024, 2, 2, 12, 0), 250);
+
+        write(YearMonth.of(2024, 1), january1, january2);
+        write(YearMonth.of(2024, 2), february1);
+        archive.refresh();
+    }
+
+    @Test
+    public void testSegmentsArePickedUpFromDirectory() {
+        assertEquals(List.of(YearMonth.of(2024, 1), YearMonth.of(2024, 2)), archive.months());
+        assertEquals(2, archive.segment(YearMonth.of(2024, 1)).getRowCount());
+    }
+
+    @Test
+    public void testFindById() {
+        assertEquals(500, archive.findById(january2.getId()).orElseThrow().getFinalAmount());
+        assertTrue(archive.findById(objectId(LocalDateTime.of(2024, 1, 10, 9, 1))).isEmpty());
+        assertTrue(archive.findById("7f1c2a9e-4b1d-4c6a-9f3e-2d8b5a6c7e10").isEmpty());
+    }
+
+    @Test
+    public void testFindPageAfterFollowsIdOrderAcrossSegments() {
+        List<TransactionEntity> first = archive.findPageAfter(null, 2, TransactionEntity.class);
+        List<TransactionEntity> second = archive.findPageAfter(first.get(1).getId(), 2, TransactionEntity.class);
+
+        assertEquals(List.of(january1.getId(), january2.getId()), first.stream().map(TransactionEntity::getId).toList());
+        assertEquals(List.of(february1.getId()), second.stream().map(TransactionEntity::getId).toList());
+    }
+
+    @Test
+    public void testFindPageAfterFindsUuidsInLaterSegments() throws IOException {
+        TransactionEntity march = transaction("c2d9e8f1-0a3b-4c5d-8e7f-1a2b3c4d5e6f", "user1", LocalDateTime.of(2024, 3, 5, 10, 0), 100);
+        TransactionEntity april = transaction("0b1c2d3e-4f5a-4b6c-9d7e-8f9a0b1c2d3e", "user2", LocalDateTime.of(2024, 4, 5, 10, 0), 200);
+        write(YearMonth.of(2024, 3), march);
+        write(YearMonth.of(2024, 4), april);
+        archive.refresh();
+
+        List<TransactionEntity> first = archive.findPageAfter(null, 2, TransactionEntity.class);
+        List<TransactionEntity> second = archive.findPageAfter(first.get(1).getId(), 2, TransactionEntity.class);
+
+        // UUID-urile se sortează înaintea ObjectId-urilor, deși sunt în segmentele lunilor mai noi
+        assertEquals(List.of(april.getId(), march.getId()), first.stream().map(TransactionEntity::getId).toList());
+        assertEquals(List.of(january1.getId(), january2.getId()), second.stream().map(TransactionEntity::getId).toList());
+    }
+
+    @Test
+    public void testFindDateRangePageResumesAfterCursor() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+        List<TransactionSummary> page = archive.findDateRangePage(start, end, null, 2, TransactionSummary.class);
+        List<TransactionSummary> next = archive.findDateRangePage(start, end,
+                new DateRangeCursor(page.get(1).getDate(), page.get(1).getId()), 2, TransactionSummary.class);
+
+        assertEquals(List.of(january1.getId(), january2.getId()), page.stream().map(TransactionSummary::getId).toList());
+        assertEquals("user2", page.get(1).getUserId());
+        assertEquals(500, page.get(1).getFinalAmount());
+        assertEquals(List.of(february1.getId()), next.stream().map(TransactionSummary::getId).toList());
+    }
+
+    @Test
+    public void testStreamByDateBetweenUsesExclusiveBounds() {
+        try (Stream<TransactionEntity> rows = archive.streamByDateBetween(january1.getDate(), february1.getDate())) {
+            assertEquals(List.of(january2.getId()), rows.map(TransactionEntity::getId).toList());
+        }
+    }
+
+    @Test
+    public void testStreamForExportFiltersByHalfOpenRangeAndUser() {
+        try (Stream<TransactionEntity> rows = archive.streamForExport(january1.getDate(), null, "user1")) {
+            assertEquals(List.of(january1.getId(), february1.getId()), rows.map(TransactionEntity::getId).toList());
+        }
+        try (Stream<TransactionEntity> rows = archive.streamForExport(null, february1.getDate(), null)) {
+            assertEquals(List.of(january1.getId(), january2.getId()), rows.map(TransactionEntity::getId).toList());
+        }
+    }
+
+    @Test
+    public void testUserLookups() {
+        assertEquals(List.of(january1.getId(), february1.getId()),
+                archive.findByUserId("user1", TransactionEntity.class).stream().map(TransactionEntity::getId).toList());
+        assertEquals(february1.getId(), archive.findFirstByUserIdOrderByDateDesc("user1").getId());
+        assertNull(archive.findFirstByUserIdOrderByDateDesc("user3"));
+    }
+
+    @Test
+    public void testRevenueByDayMatchesMongoGrouping() {
+        LocalDate day = LocalDate.of(2024, 1, 10);
+
+        List<RevenueBucket> hours = archive.revenueByDay(RevenueDimension.HOUR, day, day);
+        List<RevenueBucket> brands = archive.revenueByDay(RevenueDimension.BRAND, day, day);
+        List<RevenueBucket> categories = archive.revenueByDay(RevenueDimension.CATEGORY, day, day);
+
+        assertEquals(2, hours.size());
+        assertEquals("09", hours.get(0).getKey());
+        assertEquals("2024-01-10", hours.get(0).getDay());
+        assertEquals(1000, hours.get(0).getRevenue());
+        assertEquals(2, brands.size());
+        assertEquals("acme", brands.get(0).getKey());
+        assertEquals(600, brands.get(0).getRevenue());
+        assertEquals("unknown", brands.get(1).getKey());
+        assertEquals(1, categories.size());
+        assertEquals(1000, categories.get(0).getRevenue());
+        assertEquals(1, categories.get(0).getCount());
+    }
+
+    @Test
+    public void testDropBeforeDeletesExpiredSegments() {
+        List<Path> dropped = archive.dropBefore(YearMonth.of(2024, 2));
+
+        assertEquals(1, dropped.size());
+        assertFalse(Files.exists(dropped.get(0)));
+        assertEquals(List.of(YearMonth.of(2024, 2)), archive.months());
+        assertTrue(archive.findById(january1.getId()).isEmpty());
+    }
+
+    private void write(YearMonth month, TransactionEntity... transactions) throws IOException {
+        try (TransactionSegmentWriter writer = archive.writer(month, 1)) {
+            for (TransactionEntity transaction : transactions) {
+                writer.append(transaction);
+            }
+            writer.commit();
+        }
+    }
+
+    static String objectId(LocalDateTime date) {
+        return new ObjectId(Date.from(date.atZone(ZoneId.systemDefault()).toInstant()), 0).toHexString();
+    }
+}
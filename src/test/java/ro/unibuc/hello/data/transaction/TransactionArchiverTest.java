@@ -0,0 +1,159 @@
+package ro.unibuc.hello.data.transaction;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static ro.unibuc.hello.data.transaction.TransactionSegmentTest.transaction;
+
+public class TransactionArchiverTest {
+
+    private static final String PARTITION = "transactions_2024_01";
+    private static final String FROZEN = PARTITION + TransactionArchiver.FROZEN_SUFFIX;
+
+    @TempDir
+    Path directory;
+
+    private MongoTemplate mongoTemplate;
+    private TransactionPartitions partitions;
+    private TransactionArchive archive;
+    private TransactionArchiver archiver;
+    private MongoCollection<Document> partitionCollection;
+    private MongoCollection<Document> frozenCollection;
+
+    private final TransactionEntity first = transaction("a1", "user1", LocalDateTime.of(2024, 1, 5, 10, 0), 100);
+    private final TransactionEntity second = transaction("a2", "user2", LocalDateTime.of(2024, 1, 20, 10, 0), 200);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        partitions = mock(TransactionPartitions.class);
+        archive = new TransactionArchive(mongoTemplate, directory.toString());
+        archiver = new TransactionArchiver(mongoTemplate, partitions, archive, 3, 0, 2, true);
+        when(partitions.all()).thenReturn(List.of(PARTITION, "transactions_2024_05"));
+
+        partitionCollection = mock(MongoCollection.class);
+        frozenCollection = mock(MongoCollection.class);
+        MongoDatabase database = mock(MongoDatabase.class);
+        when(database.getName()).thenReturn("hello");
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(mongoTemplate.getCollection(PARTITION)).thenReturn(partitionCollection);
+        when(mongoTemplate.getCollection(FROZEN)).thenReturn(frozenCollection);
+        when(mongoTemplate.stream(any(Query.class), eq(TransactionEntity.class), eq(PARTITION)))
+                .thenReturn(List.of(first, second).stream());
+    }
+
+    @Test
+    public void testArchiveBeforeMovesOlderPartitionsIntoSegments() {
+        when(mongoTemplate.count(any(Query.class), eq(PARTITION))).thenReturn(2L);
+        when(mongoTemplate.count(any(Query.class), eq(FROZEN))).thenReturn(2L);
+
+        List<String> archived = archiver.archiveBefore(YearMonth.of(2024, 3));
+
+        assertEquals(List.of(PARTITION), archived);
+        assertTrue(Files.exists(archive.pathFor(YearMonth.of(2024, 1))));
+        assertEquals(2, archive.segment(YearMonth.of(2024, 1)).getRowCount());
+        assertEquals(200, archive.findById("a2").orElseThrow().getFinalAmount());
+        // Se șterge doar copia redenumită, numărată după ce nicio scriere nu o mai putea atinge
+        verify(partitionCollection).renameCollection(new MongoNamespace("hello", FROZEN));
+        verify(mongoTemplate).dropCollection(FROZEN);
+        verify(mongoTemplate, never()).dropCollection(PARTITION);
+        verify(mongoTemplate, never()).dropCollection("transactions_2024_05");
+        verify(partitions).refresh();
+    }
+
+    @Test
+    public void testPartitionChangedWhileArchivingIsKept() {
+        when(mongoTemplate.count(any(Query.class), eq(PARTITION))).thenReturn(1L);
+
+        List<String> archived = archiver.archiveBefore(YearMonth.of(2024, 3));
+
+        assertTrue(archived.isEmpty());
+        assertFalse(Files.exists(archive.pathFor(YearMonth.of(2024, 1))));
+        verify(partitionCollection, never()).renameCollection(any(MongoNamespace.class));
+        verify(mongoTemplate, never()).dropCollection(any(String.class));
+    }
+
+    @Test
+    public void testPartitionChangedBeforeRenameIsRestored() {
+        // Ștergerea ajunge între prima numărătoare și redenumire
+        when(mongoTemplate.count(any(Query.class), eq(PARTITION))).thenReturn(2L);
+        when(mongoTemplate.count(any(Query.class), eq(FROZEN))).thenReturn(1L);
+
+        List<String> archived = archiver.archiveBefore(YearMonth.of(2024, 3));
+
+        assertTrue(archived.isEmpty());
+        assertFalse(Files.exists(archive.pathFor(YearMonth.of(2024, 1))));
+        verify(frozenCollection).renameCollection(new MongoNamespace("hello", PARTITION));
+        verify(mongoTemplate, never()).dropCollection(any(String.class));
+    }
+
+    @Test
+    public void testFrozenPartitionLeftByEarlierRunIsRenamedBack() {
+        when(mongoTemplate.collectionExists(FROZEN)).thenReturn(true).thenReturn(false);
+        when(mongoTemplate.count(any(Query.class), eq(PARTITION))).thenReturn(2L);
+        when(mongoTemplate.count(any(Query.class), eq(FROZEN))).thenReturn(2L);
+
+        assertEquals(List.of(PARTITION), archiver.archiveBefore(YearMonth.of(2024, 3)));
+
+        verify(frozenCollection).renameCollection(new MongoNamespace("hello", PARTITION));
+        verify(mongoTemplate).dropCollection(FROZEN);
+    }
+
+    @Test
+    public void testNothingIsArchivedUnlessTheDirectoryIsDurable() {
+        TransactionArchiver local = new TransactionArchiver(mongoTemplate, partitions, archive, 3, 0, 2, false);
+
+        assertTrue(local.archiveBefore(YearMonth.of(2024, 3)).isEmpty());
+
+        verifyNoInteractions(partitions);
+        verify(mongoTemplate, never()).dropCollection(any(String.class));
+        assertFalse(Files.exists(archive.pathFor(YearMonth.of(2024, 1))));
+    }
+
+    @Test
+    public void testExistingSegmentIsMergedAndPartitionCopyWins() throws IOException {
+        TransactionEntity earlier = transaction("a0", "user3", LocalDateTime.of(2024, 1, 1, 8, 0), 50);
+        TransactionEntity staleSecond = transaction("a2", "user2", LocalDateTime.of(2024, 1, 20, 10, 0), 999);
+        try (TransactionSegmentWriter writer = archive.writer(YearMonth.of(2024, 1), 2)) {
+            writer.append(earlier);
+            writer.append(staleSecond);
+            writer.commit();
+        }
+        archive.refresh();
+        when(mongoTemplate.count(any(Query.class), eq(PARTITION))).thenReturn(2L);
+        when(mongoTemplate.count(any(Query.class), eq(FROZEN))).thenReturn(2L);
+
+        archiver.archiveBefore(YearMonth.of(2024, 3));
+
+        List<TransactionEntity> rows = archive.segment(YearMonth.of(2024, 1)).rows().toList();
+        assertEquals(List.of("a0", "a1", "a2"), rows.stream().map(TransactionEntity::getId).toList());
+        assertEquals(200, rows.get(2).getFinalAmount());
+    }
+
+    @Test
+    public void testRunIsDisabledByDefault() {
+        new TransactionArchiver(mongoTemplate, partitions, archive, 0, 0, 1024, true).run();
+
+        verifyNoInteractions(partitions);
+        verify(mongoTemplate, never()).dropCollection(any(String.class));
+    }
+}
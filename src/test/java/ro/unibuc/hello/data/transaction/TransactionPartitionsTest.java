@@ -0,0 +1,118 @@
+package ro.unibuc.hello.data.transaction;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import ro.unibuc.hello.data.index.IndexManager;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TransactionPartitionsTest {
+
+    private MongoTemplate mongoTemplate;
+    private IndexManager indexManager;
+    private TransactionPartitions partitions;
+
+    @BeforeEach
+    public void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        indexManager = mock(IndexManager.class);
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("transactions", "transactions_2024_03",
+                "transactions_2024_01", "transactions_2024_02", "transactions_archive", "products"));
+        partitions = new TransactionPartitions(mongoTemplate, indexManager, 0);
+    }
+
+    @Test
+    public void testCollectionNamesRoundTrip() {
+        assertEquals("transactions_2024_05", TransactionPartitions.collectionName(YearMonth.of(2024, 5)));
+        assertEquals(YearMonth.of(2024, 5), TransactionPartitions.monthOf("transactions_2024_05"));
+        assertNull(TransactionPartitions.monthOf("transactions"));
+        assertNull(TransactionPartitions.monthOf("transactions_archive"));
+        assertFalse(TransactionPartitions.isPartition("sales_rollups"));
+    }
+
+    @Test
+    public void testAllListsPartitionsInMonthOrder() {
+        assertEquals(List.of("transactions_2024_01", "transactions_2024_02", "transactions_2024_03"), partitions.all());
+    }
+
+    @Test
+    public void testUndatedPartitionIsListedFirstButNeverMatchesDates() {
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("transactions_2024_01", "transactions_undated"));
+        partitions.refresh();
+
+        assertEquals(List.of("transactions_undated", "transactions_2024_01"), partitions.all());
+        assertEquals(List.of("transactions_undated", "transactions_2024_01"), partitions.forId("7f1c2a9e-4b1d-4c6a-9f3e-2d8b5a6c7e10"));
+        assertEquals(List.of("transactions_2024_01"), partitions.between(null, null));
+        assertEquals("transactions_undated", partitions.ensureUndated());
+        verify(mongoTemplate, never()).createCollection(any(String.class));
+    }
+
+    @Test
+    public void testBetweenRoutesOnlyToOverlappingMonths() {
+        assertEquals(List.of("transactions_2024_02", "transactions_2024_03"),
+                partitions.between(LocalDateTime.of(2024, 2, 28, 23, 0), LocalDateTime.of(2024, 6, 1, 0, 0)));
+        assertEquals(List.of("transactions_2024_01"), partitions.between(null, LocalDateTime.of(2024, 1, 31, 0, 0)));
+        assertTrue(partitions.between(LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2023, 12, 31, 0, 0)).isEmpty());
+    }
+
+    @Test
+    public void testForIdUsesMonthOfObjectIdAndLegacyIdsUseAllPartitions() {
+        Date created = Date.from(LocalDateTime.of(2024, 2, 10, 12, 0).atZone(ZoneId.systemDefault()).toInstant());
+        Date lastSecondOfMonth = Date.from(LocalDateTime.of(2024, 2, 29, 23, 59, 59).atZone(ZoneId.systemDefault()).toInstant());
+
+        assertEquals(List.of("transactions_2024_02"), partitions.forId(new ObjectId(created).toHexString()));
+        assertEquals(List.of("transactions_2024_02", "transactions_2024_03"),
+                partitions.forId(new ObjectId(lastSecondOfMonth).toHexString()));
+        assertEquals(3, partitions.forId("7f1c2a9e-4b1d-4c6a-9f3e-2d8b5a6c7e10").size());
+    }
+
+    @Test
+    public void testEnsureForCreatesMissingPartitionWithTransactionIndexes() {
+        IndexOperations indexOperations = mock(IndexOperations.class);
+        IndexDefinition dateIndex = new Index().on("date", Sort.Direction.ASC);
+        Map<String, List<IndexDefinition>> declared = Map.of("transactions", List.of(dateIndex));
+        when(indexManager.declaredIndexes()).thenReturn(declared);
+        when(mongoTemplate.indexOps("transactions_2024_04")).thenReturn(indexOperations);
+
+        String partition = partitions.ensureFor(LocalDateTime.of(2024, 4, 1, 0, 0));
+        partitions.ensureFor(LocalDateTime.of(2024, 4, 30, 23, 59));
+
+        assertEquals("transactions_2024_04", partition);
+        verify(mongoTemplate, times(1)).createCollection("transactions_2024_04");
+        verify(indexOperations, times(1)).ensureIndex(dateIndex);
+        assertTrue(partitions.all().contains("transactions_2024_04"));
+    }
+
+    @Test
+    public void testEnsureForExistingPartitionCreatesNothing() {
+        assertEquals("transactions_2024_02", partitions.ensureFor(LocalDateTime.of(2024, 2, 15, 10, 0)));
+
+        verify(mongoTemplate, never()).createCollection(any(String.class));
+    }
+
+    @Test
+    public void testDropBeforeDropsWholeOlderMonths() {
+        List<String> dropped = partitions.dropBefore(YearMonth.of(2024, 3));
+
+        assertEquals(List.of("transactions_2024_01", "transactions_2024_02"), dropped);
+        verify(mongoTemplate).dropCollection("transactions_2024_01");
+        verify(mongoTemplate).dropCollection("transactions_2024_02");
+        verify(mongoTemplate, never()).dropCollection("transactions_2024_03");
+    }
+}
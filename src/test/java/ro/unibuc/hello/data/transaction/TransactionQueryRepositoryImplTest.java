@@ -0,0 +1,147 @@
+package ro.unibuc.hello.data.transaction;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ExecutableFindOperation;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static ro.unibuc.hello.data.transaction.TransactionArchiveTest.objectId;
+import static ro.unibuc.hello.data.transaction.TransactionSegmentTest.transaction;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionQueryRepositoryImplTest {
+
+    private static final String JANUARY = "transactions_2024_01";
+    private static final String FEBRUARY = "transactions_2024_02";
+    private static final String MARCH = "transactions_2024_03";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private TransactionPartitions partitions;
+
+    @Mock
+    private TransactionArchive archive;
+
+    @Mock
+    private ExecutableFindOperation.ExecutableFind<TransactionEntity> find;
+
+    @Mock
+    private ExecutableFindOperation.FindWithProjection<TransactionEntity> inCollection;
+
+    @Mock
+    private ExecutableFindOperation.TerminatingFind<TransactionEntity> matching;
+
+    @InjectMocks
+    private TransactionQueryRepositoryImpl repository;
+
+    private Map<String, List<TransactionEntity>> rows;
+    private String collection;
+    private Query query;
+
+    @BeforeEach
+    public void setUp() {
+        // UUID-urile vechi din ianuarie și martie se sortează înaintea tuturor ObjectId-urilor
+        rows = Map.of(
+                JANUARY, List.of(
+                        transaction("c2d9e8f1-0a3b-4c5d-8e7f-1a2b3c4d5e6f", "user1", LocalDateTime.of(2024, 1, 5, 10, 0), 100),
+                        transaction(objectId(LocalDateTime.of(2024, 1, 10, 9, 0)), "user1", LocalDateTime.of(2024, 1, 10, 9, 0), 200)),
+                FEBRUARY, List.of(
+                        transaction(objectId(LocalDateTime.of(2024, 2, 2, 12, 0)), "user2", LocalDateTime.of(2024, 2, 2, 12, 0), 300)),
+                MARCH, List.of(
+                        transaction("0b1c2d3e-4f5a-4b6c-9d7e-8f9a0b1c2d3e", "user2", LocalDateTime.of(2024, 3, 5, 10, 0), 400)));
+
+        lenient().when(archive.findPageAfter(any(), anyInt(), eq(TransactionEntity.class))).thenAnswer(invocation -> new ArrayList<>());
+        lenient().when(partitions.all()).thenReturn(List.of(JANUARY, FEBRUARY, MARCH));
+        lenient().when(partitions.between(any(), isNull())).thenReturn(List.of(JANUARY, FEBRUARY, MARCH));
+        lenient().when(mongoTemplate.query(TransactionEntity.class)).thenReturn(find);
+        lenient().when(find.inCollection(anyString())).thenAnswer(invocation -> {
+            collection = invocation.getArgument(0);
+            return inCollection;
+        });
+        lenient().when(inCollection.as(TransactionEntity.class)).thenReturn(inCollection);
+        lenient().when(inCollection.matching(any(Query.class))).thenAnswer(invocation -> {
+            query = invocation.getArgument(0);
+            return matching;
+        });
+        lenient().when(matching.all()).thenAnswer(invocation -> select(rows.get(collection), query));
+    }
+
+    @Test
+    public void testFindPageAfterReturnsUuidsFromEveryPartition() {
+        List<String> seen = new ArrayList<>();
+        String after = null;
+        List<TransactionEntity> page;
+        while (!(page = repository.findPageAfter(after, 2, TransactionEntity.class)).isEmpty()) {
+            page.forEach(transaction -> seen.add(transaction.getId()));
+            after = page.get(page.size() - 1).getId();
+        }
+
+        List<String> expected = rows.values().stream().flatMap(List::stream).map(TransactionEntity::getId)
+                .sorted(TransactionQueryRepositoryImpl.ID_ORDER).toList();
+        assertEquals(expected, seen);
+        assertEquals("0b1c2d3e-4f5a-4b6c-9d7e-8f9a0b1c2d3e", seen.get(0));
+    }
+
+    @Test
+    public void testStreamForExportWithoutRangeIncludesUndatedPartition() {
+        TransactionEntity undated = transaction("7f3e2d1c-0b9a-4c8d-a7e6-5f4e3d2c1b0a", "user1", null, 50);
+        when(partitions.all()).thenReturn(List.of(TransactionPartitions.UNDATED_COLLECTION, JANUARY, FEBRUARY, MARCH));
+        when(archive.streamForExport(null, null, null)).thenReturn(Stream.empty());
+        when(mongoTemplate.stream(any(Query.class), eq(TransactionEntity.class), anyString())).thenAnswer(invocation -> {
+            String partition = invocation.getArgument(2);
+            return TransactionPartitions.UNDATED_COLLECTION.equals(partition) ? Stream.of(undated) : rows.get(partition).stream();
+        });
+
+        List<String> exported;
+        try (Stream<TransactionEntity> stream = repository.streamForExport(null, null, null)) {
+            exported = stream.map(TransactionEntity::getId).toList();
+        }
+
+        assertEquals(5, exported.size());
+        assertEquals(undated.getId(), exported.get(0));
+        verify(partitions, never()).between(any(), any());
+    }
+
+    // Evaluează criteriile pe _id pe care le pune findPageAfter: $type sau $gt pe String ori ObjectId
+    private static List<TransactionEntity> select(List<TransactionEntity> partition, Query query) {
+        Document id = (Document) query.getQueryObject().get("_id");
+        Predicate<String> accept;
+        if (id.containsKey("$type")) {
+            boolean objectIds = ((Number) id.get("$type")).intValue() == 7;
+            accept = candidate -> ObjectId.isValid(candidate) == objectIds;
+        } else if (id.get("$gt") instanceof ObjectId bound) {
+            accept = candidate -> ObjectId.isValid(candidate) && new ObjectId(candidate).compareTo(bound) > 0;
+        } else {
+            String bound = (String) id.get("$gt");
+            accept = candidate -> !ObjectId.isValid(candidate) && candidate.compareTo(bound) > 0;
+        }
+        return partition.stream()
+                .filter(transaction -> accept.test(transaction.getId()))
+                .sorted(Comparator.comparing(TransactionEntity::getId, TransactionQueryRepositoryImpl.ID_ORDER))
+                .limit(query.getLimit())
+                .toList();
+    }
+}
@@ -25,11 +25,11 @@ public class TransactionRepositoryTest {
         transaction.setLoyaltyCardId("loyalty-card-id-1");
         transaction.setUseDiscount(true);
         transaction.setDate(LocalDateTime.now());
-        transaction.setTotalAmount(100.0);
-        transaction.setPromotionDiscount(10.0);
-        transaction.setLoyaltyDiscount(5.0);
-        transaction.setTotalDiscount(15.0);
-        transaction.setFinalAmount(85.0);
+        transaction.setTotalAmount(10000L);
+        transaction.setPromotionDiscount(1000L);
+        transaction.setLoyaltyDiscount(500L);
+        transaction.setTotalDiscount(1500L);
+        transaction.setFinalAmount(8500L);
         
         // Adăugăm o listă de produse
         List<TransactionEntry> productsList = new ArrayList<>();
@@ -51,11 +51,11 @@ public class TransactionRepositoryTest {
         assertEquals("user-id-1", transaction.getUserId());
         assertEquals("loyalty-card-id-1", transaction.getLoyaltyCardId());
         assertTrue(transaction.isUseDiscount());
-        assertEquals(100.0, transaction.getTotalAmount());
-        assertEquals(10.0, transaction.getPromotionDiscount());
-        assertEquals(5.0, transaction.getLoyaltyDiscount());
-        assertEquals(15.0, transaction.getTotalDiscount());
-        assertEquals(85.0, transaction.getFinalAmount());
+        assertEquals(10000L, transaction.getTotalAmount());
+        assertEquals(1000L, transaction.getPromotionDiscount());
+        assertEquals(500L, transaction.getLoyaltyDiscount());
+        assertEquals(1500L, transaction.getTotalDiscount());
+        assertEquals(8500L, transaction.getFinalAmount());
         
         // Verificăm lista de produse
         assertNotNull(transaction.getProductsList());
@@ -89,19 +89,19 @@ public class TransactionRepositoryTest {
     public void testDiscountCalculations() {
         // Test pentru a verifica calculul corect al discount-urilor
         TransactionEntity transaction = new TransactionEntity();
-        transaction.setTotalAmount(200.0);
+        transaction.setTotalAmount(20000L);
         
         // Setăm discount-urile
-        transaction.setPromotionDiscount(30.0);
-        transaction.setLoyaltyDiscount(10.0);
-        transaction.setTotalDiscount(40.0);  // 30 + 10
-        transaction.setFinalAmount(160.0);   // 200 - 40
+        transaction.setPromotionDiscount(3000L);
+        transaction.setLoyaltyDiscount(1000L);
+        transaction.setTotalDiscount(4000L);  // 3000 + 1000
+        transaction.setFinalAmount(16000L);   // 20000 - 4000
         
         // Verificăm calculele
-        assertEquals(30.0, transaction.getPromotionDiscount());
-        assertEquals(10.0, transaction.getLoyaltyDiscount());
-        assertEquals(40.0, transaction.getTotalDiscount());
-        assertEquals(160.0, transaction.getFinalAmount());
+        assertEquals(3000L, transaction.getPromotionDiscount());
+        assertEquals(1000L, transaction.getLoyaltyDiscount());
+        assertEquals(4000L, transaction.getTotalDiscount());
+        assertEquals(16000L, transaction.getFinalAmount());
         
         // Verificăm că suma discounturilor este egală cu discount-ul total
         assertEquals(transaction.getPromotionDiscount() + transaction.getLoyaltyDiscount(), 
@@ -116,18 +116,18 @@ public class TransactionRepositoryTest {
     public void testTransactionWithoutDiscount() {
         // Test pentru o tranzacție fără discount
         TransactionEntity transaction = new TransactionEntity();
-        transaction.setTotalAmount(150.0);
+        transaction.setTotalAmount(15000L);
         transaction.setUseDiscount(false);
-        transaction.setPromotionDiscount(0.0);
-        transaction.setLoyaltyDiscount(0.0);
-        transaction.setTotalDiscount(0.0);
-        transaction.setFinalAmount(150.0);
+        transaction.setPromotionDiscount(0L);
+        transaction.setLoyaltyDiscount(0L);
+        transaction.setTotalDiscount(0L);
+        transaction.setFinalAmount(15000L);
         
         // Verificăm că nu există discount
         assertFalse(transaction.isUseDiscount());
-        assertEquals(0.0, transaction.getPromotionDiscount());
-        assertEquals(0.0, transaction.getLoyaltyDiscount());
-        assertEquals(0.0, transaction.getTotalDiscount());
+        assertEquals(0L, transaction.getPromotionDiscount());
+        assertEquals(0L, transaction.getLoyaltyDiscount());
+        assertEquals(0L, transaction.getTotalDiscount());
         
         // Verificăm că suma finală este egală cu suma totală
         assertEquals(transaction.getTotalAmount(), transaction.getFinalAmount());
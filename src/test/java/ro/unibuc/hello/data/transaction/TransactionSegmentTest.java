@@ -0,0 +1,131 @@
+package ro.unibuc.hello.data.transaction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionSegmentTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRoundTripKeepsEveryFieldAndBuildsSparseIndex() throws IOException {
+        Path path = directory.resolve(TransactionSegment.fileName(YearMonth.of(2024, 1)));
+        TransactionEntity first = transaction("a1", "user1", LocalDateTime.of(2024, 1, 3, 10, 0), 1500);
+        first.setLoyaltyCardId("card1");
+        first.setUseDiscount(true);
+        first.setTotalAmount(2000);
+        first.setPromotionDiscount(300);
+        first.setLoyaltyDiscount(200);
+        first.setTotalDiscount(500);
+        first.setProductsList(List.of(entry("prod1", 2, "food", "acme", 1000)));
+        first.setCategorySales(List.of(new CategorySale("food", 2000, 300, 200)));
+        TransactionEntity second = transaction("a2", null, LocalDateTime.of(2024, 1, 3, 10, 0), 0);
+        TransactionEntity third = transaction("a0", "user2", LocalDateTime.of(2024, 1, 20, 8, 30), 700);
+
+        try (TransactionSegmentWriter writer = new TransactionSegmentWriter(path, 2)) {
+            writer.append(first);
+            writer.append(second);
+            writer.append(third);
+            assertEquals(3, writer.commit());
+        }
+
+        TransactionSegment segment = TransactionSegment.open(path);
+        assertEquals(YearMonth.of(2024, 1), segment.getMonth());
+        assertEquals(3, segment.getRowCount());
+        assertEquals(2, segment.getBlocks().size());
+        TransactionSegmentBlock block = segment.getBlocks().get(0);
+        assertEquals(2, block.getRows());
+        assertEquals("a1", block.getMinId());
+        assertEquals("a2", block.getMaxId());
+        assertTrue(block.mayContainId("a15"));
+        assertFalse(block.mayContainId("a0"));
+        assertFalse(segment.getBlocks().get(1).overlaps(null, LocalDateTime.of(2024, 1, 10, 0, 0)));
+
+        List<TransactionEntity> rows = segment.rows().toList();
+        assertEquals(List.of("a1", "a2", "a0"), rows.stream().map(TransactionEntity::getId).toList());
+        TransactionEntity read = rows.get(0);
+        assertEquals("user1", read.getUserId());
+        assertEquals(LocalDateTime.of(2024, 1, 3, 10, 0), read.getDate());
+        assertEquals("card1", read.getLoyaltyCardId());
+        assertTrue(read.isUseDiscount());
+        assertEquals(2000, read.getTotalAmount());
+        assertEquals(300, read.getPromotionDiscount());
+        assertEquals(200, read.getLoyaltyDiscount());
+        assertEquals(500, read.getTotalDiscount());
+        assertEquals(1500, read.getFinalAmount());
+        assertEquals("acme", read.getProductsList().get(0).getBrand());
+        assertEquals(1000, read.getProductsList().get(0).getUnitPrice());
+        assertEquals(1500, read.getCategorySales().get(0).getNet());
+        assertNull(rows.get(1).getUserId());
+        assertNull(rows.get(1).getProductsList());
+    }
+
+    @Test
+    public void testOnlyRequestedColumnsAreNeededForFiltering() throws IOException {
+        Path path = directory.resolve(TransactionSegment.fileName(YearMonth.of(2024, 2)));
+        try (TransactionSegmentWriter writer = new TransactionSegmentWriter(path, 10)) {
+            writer.append(transaction("b1", "user1", LocalDateTime.of(2024, 2, 1, 9, 0), 100));
+            writer.append(transaction("b2", "user2", LocalDateTime.of(2024, 2, 1, 9, 5), 200));
+            writer.commit();
+        }
+
+        TransactionSegment segment = TransactionSegment.open(path);
+        TransactionSegment.Block block = segment.read(segment.getBlocks().get(0));
+
+        assertArrayEquals(new String[]{"user1", "user2"}, block.userIds());
+        assertArrayEquals(new String[]{"b1", "b2"}, block.ids());
+        assertEquals(LocalDateTime.of(2024, 2, 1, 9, 5), block.dates()[1]);
+        assertEquals(200, block.row(1).getFinalAmount());
+    }
+
+    @Test
+    public void testRowsOutOfOrderAreRejectedAndNothingIsPublished() throws IOException {
+        Path path = directory.resolve(TransactionSegment.fileName(YearMonth.of(2024, 3)));
+        try (TransactionSegmentWriter writer = new TransactionSegmentWriter(path, 10)) {
+            writer.append(transaction("c2", "user1", LocalDateTime.of(2024, 3, 2, 0, 0), 100));
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.append(transaction("c1", "user1", LocalDateTime.of(2024, 3, 1, 0, 0), 100)));
+        }
+
+        assertFalse(Files.exists(path));
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testMonthOfSegmentFiles() {
+        assertEquals(YearMonth.of(2023, 12), TransactionSegment.monthOf(Path.of("transactions_2023_12.seg")));
+        assertNull(TransactionSegment.monthOf(Path.of("transactions_2023_12.seg.tmp")));
+        assertNull(TransactionSegment.monthOf(Path.of("products.seg")));
+    }
+
+    static TransactionEntity transaction(String id, String userId, LocalDateTime date, long finalAmount) {
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setId(id);
+        transaction.setUserId(userId);
+        transaction.setDate(date);
+        transaction.setFinalAmount(finalAmount);
+        return transaction;
+    }
+
+    static TransactionEntry entry(String productId, int quantity, String category, String brand, long unitPrice) {
+        TransactionEntry entry = new TransactionEntry();
+        entry.setProductId(productId);
+        entry.setProductQuantity(quantity);
+        entry.setCategory(category);
+        entry.setBrand(brand);
+        entry.setUnitPrice(unitPrice);
+        return entry;
+    }
+}
@@ -0,0 +1,164 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import ro.unibuc.hello.data.report.BasketDistribution;
+import ro.unibuc.hello.data.transaction.CategorySale;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BasketMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private BasketMetrics basketMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        basketMetrics = new BasketMetrics(registry, 1);
+    }
+
+    @Test
+    void record_RecordsBasketAndCategoryShares() {
+        basketMetrics.record(transaction(
+                List.of(entry("Makeup", 2), entry("Makeup", 1), entry("Hair", 4)),
+                List.of(new CategorySale("Makeup", 3000L, 300L, 0L), new CategorySale("Hair", 1000L, 0L, 100L))));
+
+        DistributionSummary lines = registry.get("checkout.basket.lines").summary();
+        assertEquals(1, lines.count());
+        assertEquals(3.0, lines.totalAmount());
+        assertEquals(7.0, registry.get("checkout.basket.units").summary().totalAmount());
+        assertEquals(40.0, registry.get("checkout.basket.gross").summary().totalAmount());
+        assertEquals(0.1, registry.get("checkout.basket.discount.ratio").summary().totalAmount(), 1e-9);
+
+        assertEquals(2.0, registry.get("checkout.category.lines").tag("category", "Makeup").tag("overflow", "false")
+                .summary().totalAmount());
+        assertEquals(3.0, registry.get("checkout.category.units").tag("category", "Makeup").summary().totalAmount());
+        // Peste max-categories, categoriile noi se adună în seria comună
+        assertEquals(4.0, registry.get("checkout.category.units").tag("overflow", "true").summary().totalAmount());
+        assertEquals(0.1, registry.get("checkout.category.discount.ratio").tag("category", BasketMetrics.OVERFLOW)
+                .tag("overflow", "true").summary().totalAmount(), 1e-9);
+    }
+
+    @Test
+    void record_OverflowNeverMergesWithCategoryOfTheSameName() {
+        basketMetrics = new BasketMetrics(registry, 2);
+        basketMetrics.record(transaction(List.of(entry("Makeup", 1), entry(BasketMetrics.OVERFLOW, 2), entry("Hair", 3)),
+                List.of(new CategorySale("Makeup", 1000L, 0L, 0L), new CategorySale(BasketMetrics.OVERFLOW, 1000L, 0L, 0L),
+                        new CategorySale("Hair", 1000L, 0L, 0L))));
+
+        assertEquals(2.0, registry.get("checkout.category.units").tag("category", BasketMetrics.OVERFLOW)
+                .tag("overflow", "false").summary().totalAmount());
+        assertEquals(3.0, registry.get("checkout.category.units").tag("category", BasketMetrics.OVERFLOW)
+                .tag("overflow", "true").summary().totalAmount());
+    }
+
+    @Test
+    void record_LegacyTransactionOnlyCountsBasket() {
+        TransactionEntity transaction = transaction(List.of(entry(null, 1)), null);
+        transaction.setTotalAmount(0L);
+
+        basketMetrics.record(transaction);
+
+        assertEquals(1, registry.get("checkout.basket.lines").summary().count());
+        // Fără sumă brută nu există proporție de discount
+        assertEquals(0, registry.get("checkout.basket.discount.ratio").summary().count());
+        assertTrue(registry.find("checkout.category.lines").summaries().isEmpty());
+    }
+
+    @Test
+    void getDistribution_ReturnsCountsPercentilesAndBuckets() throws Exception {
+        for (int i = 1; i <= 10; i++) {
+            List<TransactionEntry> entries = new ArrayList<>();
+            for (int line = 0; line < i; line++) {
+                entries.add(entry("Makeup", 1));
+            }
+            basketMetrics.record(transaction(entries, List.of(new CategorySale("Makeup", i * 1000L, 0L, 0L))));
+        }
+
+        List<BasketDistribution> distributions = basketMetrics.getDistribution(null);
+
+        assertEquals(List.of("checkout.basket.lines", "checkout.basket.units", "checkout.basket.gross",
+                "checkout.basket.discount.ratio"), distributions.stream().map(BasketDistribution::getMetric).toList());
+        BasketDistribution lines = distributions.get(0);
+        assertEquals(10, lines.getCount());
+        assertEquals(5.5, lines.getMean(), 1e-9);
+        assertEquals(10.0, lines.getMax());
+        assertEquals(List.of("0.5", "0.9", "0.99"), List.copyOf(lines.getPercentiles().keySet()));
+        assertEquals(5.0, lines.getBuckets().get("5.0"));
+        assertEquals(10.0, lines.getBuckets().get("13.0"));
+        assertEquals(10, basketMetrics.getDistribution("Makeup").get(0).getCount());
+    }
+
+    @Test
+    void getDistribution_FoldedCategoryReturnsOverflow() throws Exception {
+        basketMetrics.record(transaction(List.of(entry("Makeup", 1), entry("Hair", 4), entry("Nails", 2)),
+                List.of(new CategorySale("Makeup", 1000L, 0L, 0L), new CategorySale("Hair", 1000L, 0L, 0L),
+                        new CategorySale("Nails", 1000L, 0L, 0L))));
+
+        assertFalse(basketMetrics.getDistribution("Makeup").get(0).isOverflow());
+        List<BasketDistribution> hair = basketMetrics.getDistribution("Hair");
+        assertTrue(hair.get(0).isOverflow());
+        assertEquals(2, hair.get(0).getCount());
+        assertEquals(2, basketMetrics.getDistribution("Nails").get(0).getCount());
+    }
+
+    @Test
+    void record_ConcurrentNewCategoriesRespectLimit() throws Exception {
+        basketMetrics = new BasketMetrics(registry, 5);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                String category = "Category" + i;
+                futures.add(executor.submit(() -> basketMetrics.record(transaction(List.of(entry(category, 1)),
+                        List.of(new CategorySale(category, 1000L, 0L, 0L))))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(5, registry.find("checkout.category.lines").tag("overflow", "false").summaries().size());
+        assertEquals(95, registry.get("checkout.category.lines").tag("overflow", "true").summary().count());
+    }
+
+    @Test
+    void getDistribution_UnknownCategory() {
+        Exception exception = assertThrows(Exception.class, () -> basketMetrics.getDistribution("Unknown"));
+        assertEquals(HttpStatus.NOT_FOUND.toString(), exception.getMessage());
+    }
+
+    private static TransactionEntity transaction(List<TransactionEntry> entries, List<CategorySale> sales) {
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setProductsList(new ArrayList<>(entries));
+        transaction.setCategorySales(sales);
+        long gross = sales == null ? 0 : sales.stream().mapToLong(CategorySale::getGross).sum();
+        long discount = sales == null ? 0 : sales.stream()
+                .mapToLong(sale -> sale.getPromotionDiscount() + sale.getLoyaltyDiscount()).sum();
+        transaction.setTotalAmount(gross);
+        transaction.setTotalDiscount(discount);
+        return transaction;
+    }
+
+    private static TransactionEntry entry(String category, int quantity) {
+        TransactionEntry entry = new TransactionEntry();
+        entry.setProductId("prod-" + category);
+        entry.setCategory(category);
+        entry.setProductQuantity(quantity);
+        return entry;
+    }
+}
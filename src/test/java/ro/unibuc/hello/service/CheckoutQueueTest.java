@@ -0,0 +1,100 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ro.unibuc.hello.data.transaction.CheckoutTicket;
+import ro.unibuc.hello.data.transaction.TransactionDTO;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CheckoutQueueTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    private SimpleMeterRegistry registry;
+    private CheckoutQueue checkoutQueue;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        checkoutQueue = new CheckoutQueue(transactionService, registry, 1, 1, 15);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        checkoutQueue.shutdown();
+    }
+
+    @Test
+    void submit_ProcessesCheckoutAndCompletesTicket() throws Exception {
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setId("trans1");
+        when(transactionService.createTransaction(any(TransactionDTO.class))).thenReturn(transaction);
+
+        CheckoutTicket ticket = checkoutQueue.submit(new TransactionDTO());
+
+        CheckoutTicket result = awaitCompletion(ticket.getId());
+        assertEquals(CheckoutTicket.Status.COMPLETED, result.getStatus());
+        assertEquals("trans1", result.getResult().getTransaction().getId());
+        assertEquals(1, registry.timer("transactions.async.processing").count());
+    }
+
+    @Test
+    void submit_FailedCheckout_ReportsError() throws Exception {
+        when(transactionService.createTransaction(any(TransactionDTO.class)))
+                .thenThrow(new Exception("400 BAD_REQUEST"));
+
+        CheckoutTicket ticket = checkoutQueue.submit(new TransactionDTO());
+
+        CheckoutTicket result = awaitCompletion(ticket.getId());
+        assertEquals(CheckoutTicket.Status.FAILED, result.getStatus());
+        assertEquals(400, result.getResult().getStatus());
+        assertEquals("Insufficient stock", result.getResult().getError());
+    }
+
+    @Test
+    void submit_QueueFull_Rejects() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionService.createTransaction(any(TransactionDTO.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new TransactionEntity();
+        });
+
+        // Un checkout rulează, unul așteaptă în coadă, al treilea nu mai are loc
+        checkoutQueue.submit(new TransactionDTO());
+        checkoutQueue.submit(new TransactionDTO());
+
+        assertThrows(RejectedExecutionException.class, () -> checkoutQueue.submit(new TransactionDTO()));
+        release.countDown();
+    }
+
+    @Test
+    void getTicket_UnknownId_ThrowsNotFound() {
+        Exception exception = assertThrows(Exception.class, () -> checkoutQueue.getTicket("missing"));
+        assertEquals("404 NOT_FOUND", exception.getMessage());
+    }
+
+    private CheckoutTicket awaitCompletion(String ticketId) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        CheckoutTicket ticket = checkoutQueue.getTicket(ticketId);
+        while (ticket.getCompletedAt() == null || ticket.getStatus() == CheckoutTicket.Status.PROCESSING) {
+            assertTrue(System.currentTimeMillis() < deadline, "Checkout did not finish in time");
+            Thread.sleep(10);
+        }
+        return ticket;
+    }
+}
@@ -0,0 +1,206 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import ro.unibuc.hello.data.idempotency.IdempotencyRecord;
+import ro.unibuc.hello.data.idempotency.IdempotencyRecordRepository;
+import ro.unibuc.hello.data.transaction.TransactionDTO;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionEntry;
+import ro.unibuc.hello.data.transaction.TransactionRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private IdempotencyService idempotencyService;
+    private TransactionEntity transactionEntity;
+    private TransactionDTO request;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, transactionRepository, 100, 500, 60000);
+        transactionEntity = new TransactionEntity();
+        transactionEntity.setId("trans1");
+        request = request("prod1", 2);
+    }
+
+    @Test
+    void execute_SameKeyTwice_RunsCheckoutOnce() throws Exception {
+        when(idempotencyRecordRepository.complete(eq("key1"), anyString(), eq("trans1"))).thenReturn(true);
+        AtomicInteger calls = new AtomicInteger();
+        Callable<TransactionEntity> checkout = () -> {
+            calls.incrementAndGet();
+            return transactionEntity;
+        };
+
+        assertEquals(transactionEntity, idempotencyService.execute("key1", request, checkout));
+        assertEquals(transactionEntity, idempotencyService.execute("key1", request("prod1", 2), checkout));
+
+        assertEquals(1, calls.get());
+        verify(idempotencyRecordRepository, times(1)).insert(argThat((IdempotencyRecord record) ->
+                record.getStatus() == IdempotencyRecord.Status.PROCESSING
+                        && record.getRequestHash().equals(IdempotencyService.hash(request))
+                        && record.getClaimToken() != null));
+        verify(idempotencyRecordRepository, never()).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void execute_SameKeyWithDifferentCart_ThrowsUnprocessable() throws Exception {
+        when(idempotencyRecordRepository.complete(eq("key1"), anyString(), eq("trans1"))).thenReturn(true);
+        idempotencyService.execute("key1", request, () -> transactionEntity);
+
+        Exception exception = assertThrows(Exception.class, () ->
+                idempotencyService.execute("key1", request("prod1", 3), () -> fail("Checkout must not run again")));
+
+        assertEquals("422 UNPROCESSABLE_ENTITY", exception.getMessage());
+    }
+
+    @Test
+    void execute_KeyCompletedElsewhere_ReturnsStoredTransaction() throws Exception {
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        IdempotencyRecord record = new IdempotencyRecord("key1", IdempotencyRecord.Status.COMPLETED, "trans1");
+        record.setRequestHash(IdempotencyService.hash(request));
+        when(idempotencyRecordRepository.findById("key1")).thenReturn(Optional.of(record));
+        when(transactionRepository.findById("trans1")).thenReturn(Optional.of(transactionEntity));
+
+        TransactionEntity result = idempotencyService.execute("key1", request, () -> fail("Checkout must not run again"));
+
+        assertEquals(transactionEntity, result);
+    }
+
+    @Test
+    void execute_KeyCompletedElsewhereForDifferentCart_ThrowsUnprocessable() {
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        IdempotencyRecord record = new IdempotencyRecord("key1", IdempotencyRecord.Status.COMPLETED, "trans1");
+        record.setRequestHash(IdempotencyService.hash(request("prod2", 1)));
+        when(idempotencyRecordRepository.findById("key1")).thenReturn(Optional.of(record));
+
+        Exception exception = assertThrows(Exception.class, () ->
+                idempotencyService.execute("key1", request, () -> fail("Checkout must not run")));
+
+        assertEquals("422 UNPROCESSABLE_ENTITY", exception.getMessage());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void execute_KeyStillProcessingElsewhere_ThrowsConflict() {
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(idempotencyRecordRepository.findById("key1")).thenReturn(Optional.of(
+                new IdempotencyRecord("key1", IdempotencyService.hash(request), "token1")));
+
+        Exception exception = assertThrows(Exception.class, () ->
+                idempotencyService.execute("key1", request, () -> fail("Checkout must not run again")));
+
+        assertEquals("409 CONFLICT", exception.getMessage());
+    }
+
+    @Test
+    void execute_StaleClaim_IsTakenOverConditionally() throws Exception {
+        IdempotencyRecord staleRecord = new IdempotencyRecord("key1", IdempotencyService.hash(request), "token1");
+        staleRecord.setCreatedAt(LocalDateTime.now().minusHours(1));
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(idempotencyRecordRepository.findById("key1")).thenReturn(Optional.of(staleRecord));
+        when(idempotencyRecordRepository.takeOver(eq("key1"), eq("token1"), anyString())).thenReturn(true);
+        when(idempotencyRecordRepository.complete(eq("key1"), anyString(), eq("trans1"))).thenReturn(true);
+
+        TransactionEntity result = idempotencyService.execute("key1", request, () -> transactionEntity);
+
+        assertEquals(transactionEntity, result);
+        verify(idempotencyRecordRepository, never()).deleteById(anyString());
+    }
+
+    @Test
+    void execute_StaleClaimTakenOverByAnotherWaiter_DoesNotRunCheckout() throws Exception {
+        IdempotencyRecord staleRecord = new IdempotencyRecord("key1", IdempotencyService.hash(request), "token1");
+        staleRecord.setCreatedAt(LocalDateTime.now().minusHours(1));
+        IdempotencyRecord completedRecord = new IdempotencyRecord("key1", IdempotencyRecord.Status.COMPLETED, "trans1");
+        completedRecord.setRequestHash(IdempotencyService.hash(request));
+        when(idempotencyRecordRepository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("duplicate"));
+        when(idempotencyRecordRepository.findById("key1"))
+                .thenReturn(Optional.of(staleRecord))
+                .thenReturn(Optional.of(completedRecord));
+        when(idempotencyRecordRepository.takeOver(eq("key1"), eq("token1"), anyString())).thenReturn(false);
+        when(transactionRepository.findById("trans1")).thenReturn(Optional.of(transactionEntity));
+
+        TransactionEntity result = idempotencyService.execute("key1", request, () -> fail("Checkout must not run twice"));
+
+        assertEquals(transactionEntity, result);
+    }
+
+    @Test
+    void execute_CheckoutFails_ReleasesOnlyOwnClaim() {
+        ArgumentCaptor<IdempotencyRecord> claimed = ArgumentCaptor.forClass(IdempotencyRecord.class);
+
+        Exception exception = assertThrows(Exception.class, () ->
+                idempotencyService.execute("key1", request, () -> {
+                    throw new Exception("400 BAD_REQUEST");
+                }));
+
+        assertEquals("400 BAD_REQUEST", exception.getMessage());
+        verify(idempotencyRecordRepository).insert(claimed.capture());
+        verify(idempotencyRecordRepository).release("key1", claimed.getValue().getClaimToken());
+        verify(idempotencyRecordRepository, never()).deleteById(anyString());
+        verify(idempotencyRecordRepository, never()).complete(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void execute_CompleteFailsAfterCheckout_KeepsClaimAndRetriesCompletion() throws Exception {
+        ArgumentCaptor<IdempotencyRecord> claimed = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        when(idempotencyRecordRepository.complete(eq("key1"), anyString(), eq("trans1")))
+                .thenThrow(new DataAccessResourceFailureException("timeout"))
+                .thenReturn(true);
+        AtomicInteger calls = new AtomicInteger();
+
+        TransactionEntity result = idempotencyService.execute("key1", request, () -> {
+            calls.incrementAndGet();
+            return transactionEntity;
+        });
+
+        assertEquals(transactionEntity, result);
+        verify(idempotencyRecordRepository).insert(claimed.capture());
+        verify(idempotencyRecordRepository, never()).release(anyString(), anyString());
+
+        idempotencyService.retryPendingCompletions();
+        idempotencyService.retryPendingCompletions();
+
+        String claimToken = claimed.getValue().getClaimToken();
+        verify(idempotencyRecordRepository, times(2)).complete("key1", claimToken, "trans1");
+        assertEquals(transactionEntity, idempotencyService.execute("key1", request, () -> fail("Checkout must not run again")));
+        assertEquals(1, calls.get());
+    }
+
+    private static TransactionDTO request(String productId, int quantity) {
+        TransactionEntry entry = new TransactionEntry();
+        entry.setProductId(productId);
+        entry.setProductQuantity(quantity);
+        TransactionDTO request = new TransactionDTO();
+        request.setUserId("user1");
+        request.setProductsList(List.of(entry));
+        return request;
+    }
+}
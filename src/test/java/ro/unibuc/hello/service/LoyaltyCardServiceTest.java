@@ -124,22 +124,51 @@ class LoyaltyCardServiceTest {
 
     @Test
     void addPoints_CardExists_AddsPoints() throws Exception {
-        testCard.setPoints(100);
-        when(loyaltyCardRepository.findById("card1")).thenReturn(Optional.of(testCard));
-        when(loyaltyCardRepository.save(any(LoyaltyCardEntity.class))).thenReturn(testCard);
+        testCard.setPoints(150);
+        when(loyaltyCardRepository.incrementPoints("card1", 50)).thenReturn(testCard);
 
         LoyaltyCardEntity result = loyaltyCardService.addPoints("card1", 50);
 
         assertEquals(150, result.getPoints());
+        verify(loyaltyCardRepository, never()).save(any(LoyaltyCardEntity.class));
+    }
+
+    @Test
+    void addPoints_CardNotFound_ThrowsNotFound() {
+        when(loyaltyCardRepository.incrementPoints("card1", 50)).thenReturn(null);
+
+        Exception exception = assertThrows(Exception.class, () -> loyaltyCardService.addPoints("card1", 50));
+        assertEquals("404 NOT_FOUND", exception.getMessage());
     }
 
     @Test
     void calculateDiscount_CardExists_ReturnsDiscount() throws Exception {
         when(loyaltyCardRepository.findById("card1")).thenReturn(Optional.of(testCard));
 
-        double discount = loyaltyCardService.calculateDiscount("card1", 100.0);
+        long discount = loyaltyCardService.calculateDiscount("card1", 10000L);
+
+        assertEquals(500L, discount); // 5% of 100
+    }
+
+    @Test
+    void applyDiscountAndAccruePoints_CardExists_TouchesCardOnce() throws Exception {
+        when(loyaltyCardRepository.accruePointsForPurchase("card1", 10000L)).thenReturn(testCard);
+
+        long discount = loyaltyCardService.applyDiscountAndAccruePoints("card1", 10000L);
+
+        assertEquals(500L, discount); // 5% of 100
+        verify(loyaltyCardRepository, times(1)).accruePointsForPurchase("card1", 10000L);
+        verify(loyaltyCardRepository, never()).findById(any());
+        verify(loyaltyCardRepository, never()).save(any(LoyaltyCardEntity.class));
+    }
 
-        assertEquals(5.0, discount); // 5% of 100
+    @Test
+    void applyDiscountAndAccruePoints_CardNotFound_ThrowsNotFound() {
+        when(loyaltyCardRepository.accruePointsForPurchase("card1", 10000L)).thenReturn(null);
+
+        Exception exception = assertThrows(Exception.class, () ->
+                loyaltyCardService.applyDiscountAndAccruePoints("card1", 10000L));
+        assertEquals("404 NOT_FOUND", exception.getMessage());
     }
 
     @Test
@@ -0,0 +1,146 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ro.unibuc.hello.data.product.ProductEntity;
+import ro.unibuc.hello.data.product.ProductRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private SimpleMeterRegistry registry;
+    private ProductCache productCache;
+    private ProductEntity lipstick;
+    private ProductEntity mascara;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        productCache = new ProductCache(productRepository, registry, 100, Duration.ofMinutes(1));
+        lipstick = new ProductEntity("prod1", "Lipstick", 2999L, true, 10, "Makeup", "BrandX", "Red lipstick");
+        mascara = new ProductEntity("prod2", "Mascara", 1999L, true, 5, "Makeup", "BrandY", "Black mascara");
+    }
+
+    @Test
+    void get_LoadsOnceAndReturnsCopies() {
+        when(productRepository.findById("prod1")).thenReturn(Optional.of(lipstick));
+        when(productRepository.findStock("prod1")).thenReturn(stock(10));
+
+        ProductEntity first = productCache.get("prod1").orElseThrow();
+        first.price = 1L;
+        ProductEntity second = productCache.get("prod1").orElseThrow();
+
+        assertEquals(2999L, second.price);
+        assertEquals("Makeup", second.category);
+        assertNotSame(first, second);
+        verify(productRepository, times(1)).findById("prod1");
+    }
+
+    @Test
+    void get_MissingProductIsNotCached() {
+        when(productRepository.findById("prod1")).thenReturn(Optional.empty()).thenReturn(Optional.of(lipstick));
+        when(productRepository.findStock("prod1")).thenReturn(stock(10));
+
+        assertTrue(productCache.get("prod1").isEmpty());
+        assertTrue(productCache.get("prod1").isPresent());
+    }
+
+    @Test
+    void getAll_LoadsOnlyMissingProductsInOneQuery() {
+        when(productRepository.findById("prod1")).thenReturn(Optional.of(lipstick));
+        when(productRepository.findStock("prod1")).thenReturn(stock(10));
+        when(productRepository.findAllById(any())).thenReturn(List.of(mascara));
+        productCache.get("prod1");
+
+        Map<String, ProductEntity> products = productCache.getAll(Set.of("prod1", "prod2", "unknown"));
+
+        assertEquals(Set.of("prod1", "prod2"), products.keySet());
+        verify(productRepository).findAllById(argThat(ids -> {
+            List<String> requested = new ArrayList<>();
+            ids.forEach(requested::add);
+            return requested.size() == 2 && requested.containsAll(List.of("prod2", "unknown"));
+        }));
+    }
+
+    @Test
+    void invalidate_ReloadsOnNextRead() {
+        ProductEntity renamed = new ProductEntity("prod1", "Matte Lipstick", 2999L, true, 10, "Makeup", "BrandX", null);
+        when(productRepository.findById("prod1")).thenReturn(Optional.of(lipstick)).thenReturn(Optional.of(renamed));
+        when(productRepository.findStock("prod1")).thenReturn(stock(10));
+
+        productCache.get("prod1");
+        productCache.invalidate("prod1");
+
+        assertEquals("Matte Lipstick", productCache.get("prod1").orElseThrow().name);
+        verify(productRepository, times(2)).findById("prod1");
+    }
+
+    @Test
+    void get_ReadsStockFromMongoOnEveryCall() {
+        when(productRepository.findById("prod1")).thenReturn(Optional.of(lipstick));
+        when(productRepository.findStock("prod1")).thenReturn(stock(3)).thenReturn(stock(0));
+
+        assertEquals(3, productCache.get("prod1").orElseThrow().stockSize);
+        ProductEntity soldOut = productCache.get("prod1").orElseThrow();
+
+        // Restul produsului vine din cache, stocul nu
+        assertEquals(0, soldOut.stockSize);
+        assertFalse(soldOut.inStock);
+        assertEquals("Lipstick", soldOut.name);
+        verify(productRepository, times(1)).findById("prod1");
+    }
+
+    @Test
+    void get_ProductDeletedElsewhere_ReturnsEmpty() {
+        when(productRepository.findById("prod1")).thenReturn(Optional.of(lipstick)).thenReturn(Optional.empty());
+        when(productRepository.findStock("prod1")).thenReturn(stock(10)).thenReturn(null);
+
+        productCache.get("prod1");
+
+        assertTrue(productCache.get("prod1").isEmpty());
+        assertTrue(productCache.get("prod1").isEmpty());
+        verify(productRepository, times(2)).findById("prod1");
+    }
+
+    @Test
+    void metrics_ExportHitsMissesAndLoads() {
+        when(productRepository.findById("prod1")).thenReturn(Optional.of(lipstick));
+        when(productRepository.findStock("prod1")).thenReturn(stock(10));
+
+        productCache.get("prod1");
+        productCache.get("prod1");
+        productCache.get("prod1");
+
+        assertEquals(2.0, registry.get("cache.gets").tags("cache", "products", "result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "products", "result", "miss").functionCounter().count());
+        assertEquals(2.0 / 3, registry.get("cache.hit.ratio").tag("cache", "products").gauge().value(), 1e-9);
+        assertNotNull(registry.find("cache.load.duration").tag("cache", "products").meter());
+        assertNotNull(registry.find("cache.evictions").tag("cache", "products").meter());
+    }
+
+    private static ProductEntity stock(int stockSize) {
+        ProductEntity stock = new ProductEntity();
+        stock.id = "prod1";
+        stock.stockSize = stockSize;
+        stock.inStock = stockSize > 0;
+        return stock;
+    }
+}
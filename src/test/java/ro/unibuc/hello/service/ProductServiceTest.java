@@ -5,11 +5,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ro.unibuc.hello.data.IdGenerator;
+import ro.unibuc.hello.data.ObjectIdGenerator;
 import ro.unibuc.hello.data.product.ProductDTO;
 import ro.unibuc.hello.data.product.ProductEntity;
 import ro.unibuc.hello.data.product.ProductRepository;
 
+import org.bson.types.ObjectId;
+
 import java.util.Collections;
 import java.util.Optional;
 import java.util.List;
@@ -23,6 +28,12 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductCache productCache;
+
+    @Spy
+    private IdGenerator idGenerator = new ObjectIdGenerator();
+
     @InjectMocks
     private ProductService productService;
 
@@ -31,9 +42,9 @@ class ProductServiceTest {
 
     @BeforeEach
     void setUp() {
-        productDTO = new ProductDTO("", 0.0f, 0, "", "", "");
+        productDTO = new ProductDTO("", 0L, 0, "", "", "");
         productDTO.setName("Test Product");
-        productDTO.setPrice(10.0f);
+        productDTO.setPrice(1000L);
         productDTO.setStockSize(5);
         productDTO.setCategory("Test Category");
         productDTO.setBrand("Test Brand");
@@ -42,7 +53,7 @@ class ProductServiceTest {
         productEntity = new ProductEntity();
         productEntity.id = "test-id";
         productEntity.name = "Test Product";
-        productEntity.price = 10.0f;
+        productEntity.price = 1000L;
         productEntity.stockSize = 5;
         productEntity.category = "Test Category";
         productEntity.brand = "Test Brand";
@@ -58,12 +69,14 @@ class ProductServiceTest {
 
         verify(productRepository).save(argThat(product ->
             product.name.equals("Test Product") &&
-            product.price == 10.0f &&
+            product.price == 1000L &&
             product.stockSize == 5 &&
             product.inStock &&
             product.category.equals("Test Category") &&
             product.brand.equals("Test Brand") &&
-            product.description.equals("Test Description")));
+            product.description.equals("Test Description") &&
+            ObjectId.isValid(product.id)));
+        verify(productCache).invalidate(argThat(ObjectId::isValid));
     }
 
     @Test
@@ -88,7 +101,7 @@ class ProductServiceTest {
 
     @Test
     void getProductById_ProductExists_ReturnsProduct() throws Exception {
-        when(productRepository.findById("test-id")).thenReturn(Optional.of(productEntity));
+        when(productCache.get("test-id")).thenReturn(Optional.of(productEntity));
 
         ProductEntity result = productService.getProductById("test-id");
 
@@ -97,7 +110,7 @@ class ProductServiceTest {
 
     @Test
     void getProductById_ProductNotFound_ThrowsNotFound() {
-        when(productRepository.findById("test-id")).thenReturn(Optional.empty());
+        when(productCache.get("test-id")).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(Exception.class, () ->
             productService.getProductById("test-id"));
@@ -119,9 +132,9 @@ class ProductServiceTest {
         when(productRepository.findById("test-id")).thenReturn(Optional.of(productEntity));
         when(productRepository.save(any(ProductEntity.class))).thenReturn(productEntity);
 
-        ProductDTO updateDTO = new ProductDTO("", 0.0f, 0, "", "", "");
+        ProductDTO updateDTO = new ProductDTO("", 0L, 0, "", "", "");
         updateDTO.setName("Updated Product");
-        updateDTO.setPrice(20.0f);
+        updateDTO.setPrice(2000L);
         updateDTO.setStockSize(10);
         updateDTO.setCategory("Updated Category");
         updateDTO.setBrand("Updated Brand");
@@ -131,19 +144,20 @@ class ProductServiceTest {
 
         verify(productRepository).save(argThat(product ->
             product.name.equals("Updated Product") &&
-            product.price == 20.0f &&
+            product.price == 2000L &&
             product.stockSize == 10 &&
             product.inStock &&
             product.category.equals("Updated Category") &&
             product.brand.equals("Updated Brand") &&
             product.description.equals("Updated Description")));
+        verify(productCache).invalidate("test-id");
     }
 
     @Test
     void updateProductById_NegativeStock_ThrowsBadRequest() throws Exception {
         when(productRepository.findById("test-id")).thenReturn(Optional.of(productEntity));
 
-        ProductDTO updateDTO = new ProductDTO("", 0.0f, 0, "", "", "");
+        ProductDTO updateDTO = new ProductDTO("", 0L, 0, "", "", "");
         updateDTO.setStockSize(-1);
 
         Exception exception = assertThrows(Exception.class, () ->
@@ -165,5 +179,6 @@ class ProductServiceTest {
         productService.deleteProductById("test-id");
 
         verify(productRepository).deleteById("test-id");
+        verify(productCache).invalidate("test-id");
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ro.unibuc.hello.data.promotions.PromotionEntity;
+import ro.unibuc.hello.data.promotions.PromotionRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PromotionIndexTest {
+
+    @Mock
+    private PromotionRepository promotionRepository;
+
+    private SimpleMeterRegistry registry;
+    private PromotionIndex promotionIndex;
+    private PromotionEntity promotionEntity;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        promotionIndex = new PromotionIndex(promotionRepository, registry);
+
+        promotionEntity = new PromotionEntity();
+        promotionEntity.setId("promo1");
+        promotionEntity.setType(PromotionEntity.PromotionType.BUY_X_GET_Y_FREE);
+        promotionEntity.setActive(true);
+        promotionEntity.setApplicableCategories(new String[]{"Category1", "Category2"});
+    }
+
+    @Test
+    void promotionsFor_BuildsIndexOnceAndServesFromMemory() {
+        when(promotionRepository.findByActiveTrue()).thenReturn(List.of(promotionEntity));
+
+        assertEquals(List.of(promotionEntity), promotionIndex.promotionsFor("Category1"));
+        assertEquals(List.of(promotionEntity), promotionIndex.promotionsFor("Category2"));
+        assertTrue(promotionIndex.promotionsFor("Category3").isEmpty());
+
+        verify(promotionRepository, times(1)).findByActiveTrue();
+        assertEquals(1, registry.timer("promotions.index.rebuild").count());
+        assertEquals(2.0, registry.get("promotions.index.categories").gauge().value());
+    }
+
+    @Test
+    void rebuild_ReplacesIndex() {
+        when(promotionRepository.findByActiveTrue())
+                .thenReturn(List.of(promotionEntity))
+                .thenReturn(List.of());
+
+        assertFalse(promotionIndex.promotionsFor("Category1").isEmpty());
+        promotionIndex.rebuild();
+
+        assertTrue(promotionIndex.promotionsFor("Category1").isEmpty());
+        assertEquals(2, registry.timer("promotions.index.rebuild").count());
+    }
+}
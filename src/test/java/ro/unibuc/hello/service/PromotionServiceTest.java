@@ -23,6 +23,9 @@ class PromotionServiceTest {
     @Mock
     private PromotionRepository promotionRepository;
 
+    @Mock
+    private PromotionIndex promotionIndex;
+
     @InjectMocks
     private PromotionService promotionService;
 
@@ -52,6 +55,7 @@ class PromotionServiceTest {
 
         assertEquals(promotionEntity, result);
         verify(promotionRepository).save(promotionEntity);
+        verify(promotionIndex).rebuild();
     }
 
     @Test
@@ -123,6 +127,7 @@ class PromotionServiceTest {
                 promotion.getEndDate().equals(updatedPromotion.getEndDate()) &&
                 !promotion.isActive() &&
                 java.util.Arrays.equals(promotion.getApplicableCategories(), new String[]{"Category2"})));
+        verify(promotionIndex).rebuild();
     }
 
     @Test
@@ -135,6 +140,7 @@ class PromotionServiceTest {
                 promotionService.updatePromotion("promo1", updatedPromotion));
         assertEquals("404 NOT_FOUND", exception.getMessage());
         verify(promotionRepository, never()).save(any(PromotionEntity.class));
+        verify(promotionIndex, never()).rebuild();
     }
 
     @Test
@@ -144,6 +150,7 @@ class PromotionServiceTest {
         promotionService.deletePromotion("promo1");
 
         verify(promotionRepository).deleteById("promo1");
+        verify(promotionIndex).rebuild();
     }
 
     @Test
@@ -0,0 +1,166 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import ro.unibuc.hello.data.report.RevenueBucket;
+import ro.unibuc.hello.data.report.RevenueDimension;
+import ro.unibuc.hello.data.transaction.TransactionRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RevenueAnalyticsServiceTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2024, 5, 1);
+    private static final LocalDate MAY_2 = LocalDate.of(2024, 5, 2);
+    private static final LocalDate MAY_3 = LocalDate.of(2024, 5, 3);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private RevenueAnalyticsService revenueAnalyticsService;
+
+    @BeforeEach
+    void setUp() {
+        revenueAnalyticsService = new RevenueAnalyticsService(transactionRepository, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void getRevenue_ClosedDays_AggregatesOnceThenServesFromCache() throws Exception {
+        when(transactionRepository.revenueByDay(RevenueDimension.CATEGORY, MAY_1, MAY_2)).thenReturn(List.of(
+                new RevenueBucket("2024-05-01", "Makeup", 2, 3000L),
+                new RevenueBucket("2024-05-01", "Skincare", 1, 5000L),
+                new RevenueBucket("2024-05-02", "Makeup", 1, 4000L)));
+
+        List<RevenueBucket> first = revenueAnalyticsService.getRevenue(RevenueDimension.CATEGORY, MAY_1, MAY_2);
+        List<RevenueBucket> second = revenueAnalyticsService.getRevenue(RevenueDimension.CATEGORY, MAY_1, MAY_2);
+
+        assertEquals(2, first.size());
+        assertEquals("Makeup", first.get(0).getKey());
+        assertNull(first.get(0).getDay());
+        assertEquals(3L, first.get(0).getCount());
+        assertEquals(7000L, first.get(0).getRevenue());
+        assertEquals("Skincare", first.get(1).getKey());
+        assertEquals(7000L, second.get(0).getRevenue());
+        verify(transactionRepository, times(1)).revenueByDay(any(), any(), any());
+    }
+
+    @Test
+    void getRevenue_PartlyCachedRange_AggregatesOnlyMissingDays() throws Exception {
+        when(transactionRepository.revenueByDay(RevenueDimension.BRAND, MAY_2, MAY_2))
+                .thenReturn(List.of(new RevenueBucket("2024-05-02", "Brand1", 1, 1000L)));
+        when(transactionRepository.revenueByDay(RevenueDimension.BRAND, MAY_1, MAY_3)).thenReturn(List.of(
+                new RevenueBucket("2024-05-01", "Brand1", 1, 200L),
+                new RevenueBucket("2024-05-02", "Brand1", 1, 1000L),
+                new RevenueBucket("2024-05-03", "Brand1", 1, 30L)));
+        revenueAnalyticsService.getRevenue(RevenueDimension.BRAND, MAY_2, MAY_2);
+
+        List<RevenueBucket> result = revenueAnalyticsService.getRevenue(RevenueDimension.BRAND, MAY_1, MAY_3);
+
+        // Ziua din mijloc vine din cache și nu se adună de două ori
+        assertEquals(1, result.size());
+        assertEquals(3L, result.get(0).getCount());
+        assertEquals(1230L, result.get(0).getRevenue());
+    }
+
+    @Test
+    void getRevenue_EmptyClosedDay_IsCachedToo() throws Exception {
+        when(transactionRepository.revenueByDay(RevenueDimension.HOUR, MAY_1, MAY_1)).thenReturn(List.of());
+
+        assertTrue(revenueAnalyticsService.getRevenue(RevenueDimension.HOUR, MAY_1, MAY_1).isEmpty());
+        assertTrue(revenueAnalyticsService.getRevenue(RevenueDimension.HOUR, MAY_1, MAY_1).isEmpty());
+
+        verify(transactionRepository, times(1)).revenueByDay(any(), any(), any());
+    }
+
+    @Test
+    void getRevenue_OpenDay_IsRecomputedEveryTime() throws Exception {
+        LocalDate today = RevenueAnalyticsService.firstOpenDay(LocalDateTime.now());
+        when(transactionRepository.revenueByDay(RevenueDimension.HOUR, today, today)).thenReturn(
+                List.of(new RevenueBucket(today.toString(), "10", 1, 500L)),
+                List.of(new RevenueBucket(today.toString(), "10", 2, 900L)));
+
+        revenueAnalyticsService.getRevenue(RevenueDimension.HOUR, today, today);
+        List<RevenueBucket> result = revenueAnalyticsService.getRevenue(RevenueDimension.HOUR, today, today);
+
+        assertEquals(900L, result.get(0).getRevenue());
+        verify(transactionRepository, times(2)).revenueByDay(RevenueDimension.HOUR, today, today);
+    }
+
+    @Test
+    void getRevenue_ByHour_SortedByHour() throws Exception {
+        when(transactionRepository.revenueByDay(RevenueDimension.HOUR, MAY_1, MAY_1)).thenReturn(List.of(
+                new RevenueBucket("2024-05-01", "18", 1, 9000L),
+                new RevenueBucket("2024-05-01", "09", 1, 100L)));
+
+        List<RevenueBucket> result = revenueAnalyticsService.getRevenue(RevenueDimension.HOUR, MAY_1, MAY_1);
+
+        assertEquals("09", result.get(0).getKey());
+        assertEquals("18", result.get(1).getKey());
+    }
+
+    @Test
+    void evictDay_NextRequestAggregatesAgain() throws Exception {
+        when(transactionRepository.revenueByDay(RevenueDimension.CATEGORY, MAY_1, MAY_1)).thenReturn(List.of());
+        revenueAnalyticsService.getRevenue(RevenueDimension.CATEGORY, MAY_1, MAY_1);
+
+        revenueAnalyticsService.evictDay(MAY_1);
+        revenueAnalyticsService.getRevenue(RevenueDimension.CATEGORY, MAY_1, MAY_1);
+
+        verify(transactionRepository, times(2)).revenueByDay(RevenueDimension.CATEGORY, MAY_1, MAY_1);
+    }
+
+    @Test
+    void getRevenue_CachedDayExpires_AggregatesAgain() throws Exception {
+        when(transactionRepository.revenueByDay(RevenueDimension.CATEGORY, MAY_1, MAY_1)).thenReturn(List.of());
+        Instant now = Instant.now();
+        ReflectionTestUtils.setField(revenueAnalyticsService, "clock", Clock.fixed(now, ZoneId.systemDefault()));
+        revenueAnalyticsService.getRevenue(RevenueDimension.CATEGORY, MAY_1, MAY_1);
+
+        // O ștergere pe altă instanță nu golește cache-ul de aici; intrarea expiră totuși
+        ReflectionTestUtils.setField(revenueAnalyticsService, "clock", Clock.fixed(now.plus(Duration.ofMinutes(11)), ZoneId.systemDefault()));
+        revenueAnalyticsService.getRevenue(RevenueDimension.CATEGORY, MAY_1, MAY_1);
+
+        verify(transactionRepository, times(2)).revenueByDay(RevenueDimension.CATEGORY, MAY_1, MAY_1);
+    }
+
+    @Test
+    void getRevenue_RangeTooWide_ThrowsBadRequest() {
+        LocalDate to = MAY_1.plusDays(RevenueAnalyticsService.MAX_DAYS);
+
+        Exception exception = assertThrows(Exception.class, () ->
+                revenueAnalyticsService.getRevenue(RevenueDimension.BRAND, MAY_1, to));
+
+        assertEquals("400 BAD_REQUEST", exception.getMessage());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getRevenue_FromAfterTo_ThrowsBadRequest() {
+        Exception exception = assertThrows(Exception.class, () ->
+                revenueAnalyticsService.getRevenue(RevenueDimension.BRAND, MAY_3, MAY_1));
+
+        assertEquals("400 BAD_REQUEST", exception.getMessage());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void firstOpenDay_StaysOnPreviousDayDuringGrace() {
+        assertEquals(MAY_1, RevenueAnalyticsService.firstOpenDay(LocalDateTime.of(2024, 5, 2, 0, 2)));
+        assertEquals(MAY_2, RevenueAnalyticsService.firstOpenDay(LocalDateTime.of(2024, 5, 2, 0, 10)));
+    }
+}
@@ -0,0 +1,151 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ro.unibuc.hello.data.report.SalesRollupEntity;
+import ro.unibuc.hello.data.report.SalesRollupRepository;
+import ro.unibuc.hello.data.transaction.CategorySale;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesReportServiceTest {
+
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    @InjectMocks
+    private SalesReportService salesReportService;
+
+    private TransactionEntity transaction;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionEntity();
+        transaction.setId("trans1");
+        transaction.setDate(LocalDateTime.of(2024, 5, 10, 14, 30));
+        transaction.setTotalAmount(3000L);
+        transaction.setPromotionDiscount(1000L);
+        transaction.setLoyaltyDiscount(200L);
+        transaction.setTotalDiscount(1200L);
+        transaction.setFinalAmount(1800L);
+        transaction.setCategorySales(List.of(
+            new CategorySale("Makeup", 2000L, 1000L, 100L),
+            new CategorySale("Skincare", 1000L, 0L, 100L)
+        ));
+    }
+
+    @Test
+    void recordSales_IncrementsDayAndCategoryRollups() {
+        Map<String, SalesRollupEntity> deltas = captureIncrement(() -> salesReportService.recordSales(List.of(transaction, transaction)));
+
+        assertEquals(3, deltas.size());
+        SalesRollupEntity day = deltas.get("2024-05-10");
+        assertNull(day.getCategory());
+        assertEquals(2L, day.getCount());
+        assertEquals(6000L, day.getGross());
+        assertEquals(2000L, day.getPromotionDiscount());
+        assertEquals(400L, day.getLoyaltyDiscount());
+        assertEquals(3600L, day.getNet());
+        SalesRollupEntity makeup = deltas.get("2024-05-10|Makeup");
+        assertEquals("Makeup", makeup.getCategory());
+        assertEquals("2024-05-10", makeup.getDay());
+        assertEquals(2L, makeup.getCount());
+        assertEquals(1800L, makeup.getNet());
+    }
+
+    @Test
+    void removeSale_DecrementsRollups() {
+        Map<String, SalesRollupEntity> deltas = captureIncrement(() -> salesReportService.removeSale(transaction));
+
+        assertEquals(-1L, deltas.get("2024-05-10").getCount());
+        assertEquals(-1800L, deltas.get("2024-05-10").getNet());
+        assertEquals(-900L, deltas.get("2024-05-10|Skincare").getNet());
+    }
+
+    @Test
+    void removeSale_LegacyTransactionWithoutCategories_OnlyUpdatesDay() {
+        transaction.setCategorySales(null);
+
+        Map<String, SalesRollupEntity> deltas = captureIncrement(() -> salesReportService.removeSale(transaction));
+
+        assertEquals(1, deltas.size());
+        assertTrue(deltas.containsKey("2024-05-10"));
+    }
+
+    @Test
+    void recordSales_RollupWriteFails_DoesNotThrow() {
+        doThrow(new RuntimeException("Database error")).when(salesRollupRepository).increment(anyCollection());
+
+        assertDoesNotThrow(() -> salesReportService.recordSales(List.of(transaction)));
+    }
+
+    @Test
+    void getCategorySales_SumsDaysPerCategoryByNetDescending() throws Exception {
+        when(salesRollupRepository.findCategoryTotals("2024-05-01", "2024-05-31")).thenReturn(List.of(
+            rollup("2024-05-01", "Skincare", 1, 500L),
+            rollup("2024-05-01", "Makeup", 2, 800L),
+            rollup("2024-05-02", "Skincare", 3, 700L)
+        ));
+
+        List<SalesRollupEntity> totals = salesReportService.getCategorySales(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31));
+
+        assertEquals(2, totals.size());
+        assertEquals("Skincare", totals.get(0).getCategory());
+        assertEquals(4L, totals.get(0).getCount());
+        assertEquals(1200L, totals.get(0).getNet());
+        assertNull(totals.get(0).getDay());
+        assertEquals("Makeup", totals.get(1).getCategory());
+    }
+
+    @Test
+    void getDailySales_ReadsDailyRollups() throws Exception {
+        List<SalesRollupEntity> rollups = List.of(rollup("2024-05-01", null, 4, 1000L));
+        when(salesRollupRepository.findDailyTotals("2024-05-01", "2024-05-07")).thenReturn(rollups);
+
+        assertEquals(rollups, salesReportService.getDailySales(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 7)));
+    }
+
+    @Test
+    void getDailySales_FromAfterTo_ThrowsBadRequest() {
+        Exception exception = assertThrows(Exception.class, () ->
+                salesReportService.getDailySales(LocalDate.of(2024, 5, 7), LocalDate.of(2024, 5, 1)));
+
+        assertEquals("400 BAD_REQUEST", exception.getMessage());
+        verifyNoInteractions(salesRollupRepository);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, SalesRollupEntity> captureIncrement(Runnable action) {
+        ArgumentCaptor<Collection<SalesRollupEntity>> captor = ArgumentCaptor.forClass(Collection.class);
+        action.run();
+        verify(salesRollupRepository).increment(captor.capture());
+        Map<String, SalesRollupEntity> deltas = new HashMap<>();
+        for (SalesRollupEntity delta : new ArrayList<>(captor.getValue())) {
+            deltas.put(delta.getId(), delta);
+        }
+        return deltas;
+    }
+
+    private static SalesRollupEntity rollup(String day, String category, long count, long net) {
+        SalesRollupEntity rollup = new SalesRollupEntity(day, category);
+        rollup.add(count, net, 0L, 0L, net);
+        return rollup;
+    }
+}
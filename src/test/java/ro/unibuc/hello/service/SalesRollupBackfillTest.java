@@ -0,0 +1,115 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ro.unibuc.hello.data.MigrationRecordRepository;
+import ro.unibuc.hello.data.report.SalesRollupEntity;
+import ro.unibuc.hello.data.report.SalesRollupRepository;
+import ro.unibuc.hello.data.transaction.CategorySale;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionPartitionMigration;
+import ro.unibuc.hello.data.transaction.TransactionRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupBackfillTest {
+
+    @Mock
+    private MigrationRecordRepository migrationRecordRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    @Mock
+    private TransactionPartitionMigration partitionMigration;
+
+    @InjectMocks
+    private SalesRollupBackfill salesRollupBackfill;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void afterSingletonsInstantiated_RebuildsRollupsFromExistingTransactions() {
+        when(migrationRecordRepository.existsByIdAndCompletedAtIsNotNull(SalesRollupBackfill.MIGRATION_ID)).thenReturn(false);
+        when(migrationRecordRepository.tryLock(SalesRollupBackfill.MIGRATION_ID, SalesRollupBackfill.LOCK_TIMEOUT))
+                .thenReturn(true);
+        when(transactionRepository.streamAll()).thenReturn(Stream.of(
+                transaction(LocalDateTime.of(2024, 5, 10, 9, 0), 1000L, List.of(new CategorySale("Makeup", 1000L, 0L, 0L))),
+                transaction(LocalDateTime.of(2024, 5, 10, 18, 0), 500L, null),
+                transaction(LocalDateTime.of(2024, 5, 11, 12, 0), 2000L, List.of(new CategorySale("Makeup", 2000L, 0L, 0L)))));
+        ArgumentCaptor<Collection<SalesRollupEntity>> captor = ArgumentCaptor.forClass(Collection.class);
+
+        salesRollupBackfill.afterSingletonsInstantiated();
+
+        verify(partitionMigration).migrate();
+        verify(salesRollupRepository).rebuild(captor.capture());
+        Map<String, SalesRollupEntity> rollups = new HashMap<>();
+        captor.getValue().forEach(rollup -> rollups.put(rollup.getId(), rollup));
+        assertEquals(4, rollups.size());
+        assertEquals(2, rollups.get("2024-05-10").getCount());
+        assertEquals(1500L, rollups.get("2024-05-10").getNet());
+        assertEquals(1, rollups.get("2024-05-10|Makeup").getCount());
+        assertEquals(2000L, rollups.get("2024-05-11|Makeup").getGross());
+        verify(migrationRecordRepository).complete(SalesRollupBackfill.MIGRATION_ID);
+    }
+
+    @Test
+    void afterSingletonsInstantiated_AlreadyDone_DoesNothing() {
+        when(migrationRecordRepository.existsByIdAndCompletedAtIsNotNull(SalesRollupBackfill.MIGRATION_ID)).thenReturn(true);
+
+        salesRollupBackfill.afterSingletonsInstantiated();
+
+        verifyNoInteractions(transactionRepository, salesRollupRepository, partitionMigration);
+        verify(migrationRecordRepository, never()).tryLock(any(), any());
+    }
+
+    @Test
+    void afterSingletonsInstantiated_LockedByAnotherInstance_DoesNothing() {
+        when(migrationRecordRepository.existsByIdAndCompletedAtIsNotNull(SalesRollupBackfill.MIGRATION_ID)).thenReturn(false);
+        when(migrationRecordRepository.tryLock(SalesRollupBackfill.MIGRATION_ID, SalesRollupBackfill.LOCK_TIMEOUT))
+                .thenReturn(false);
+
+        salesRollupBackfill.afterSingletonsInstantiated();
+
+        verifyNoInteractions(transactionRepository, salesRollupRepository, partitionMigration);
+        verify(migrationRecordRepository, never()).complete(any());
+    }
+
+    @Test
+    void afterSingletonsInstantiated_RebuildFails_ReleasesLock() {
+        when(migrationRecordRepository.existsByIdAndCompletedAtIsNotNull(SalesRollupBackfill.MIGRATION_ID)).thenReturn(false);
+        when(migrationRecordRepository.tryLock(SalesRollupBackfill.MIGRATION_ID, SalesRollupBackfill.LOCK_TIMEOUT))
+                .thenReturn(true);
+        when(transactionRepository.streamAll()).thenThrow(new RuntimeException("Database error"));
+
+        assertThrows(RuntimeException.class, () -> salesRollupBackfill.afterSingletonsInstantiated());
+
+        verify(migrationRecordRepository).unlock(SalesRollupBackfill.MIGRATION_ID);
+        verify(migrationRecordRepository, never()).complete(any());
+    }
+
+    private static TransactionEntity transaction(LocalDateTime date, long amount, List<CategorySale> categorySales) {
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setDate(date);
+        transaction.setTotalAmount(amount);
+        transaction.setFinalAmount(amount);
+        transaction.setCategorySales(categorySales);
+        return transaction;
+    }
+}
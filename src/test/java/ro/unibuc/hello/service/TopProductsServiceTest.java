@@ -0,0 +1,193 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import ro.unibuc.hello.data.report.TopProduct;
+import ro.unibuc.hello.data.report.TopProductsCheckpointEntity;
+import ro.unibuc.hello.data.report.TopProductsCheckpointRepository;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionEntry;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TopProductsServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-10T12:30:00Z");
+
+    @Mock
+    private TopProductsCheckpointRepository checkpointRepository;
+
+    @Captor
+    private ArgumentCaptor<List<TopProductsCheckpointEntity>> checkpoints;
+
+    private TopProductsService topProductsService;
+
+    @BeforeEach
+    void setUp() {
+        // 3 intervale de o oră: fereastra ține ultimele 3 ore
+        topProductsService = new TopProductsService(checkpointRepository, 10, 2, 1, 60, 3);
+        setNow(NOW);
+    }
+
+    @Test
+    void getTopProducts_RanksGloballyAndPerCategory() throws Exception {
+        topProductsService.recordSales(List.of(
+                transaction(0, entry("lipstick", "Makeup", 3), entry("shampoo", "Hair", 1)),
+                transaction(0, entry("mascara", "Makeup", 5), entry("lipstick", "Makeup", 1))));
+        topProductsService.refresh();
+
+        List<TopProduct> top = topProductsService.getTopProducts(null, 10);
+        assertEquals(List.of("mascara", "lipstick", "shampoo"), ids(top));
+        assertEquals(4, top.get(1).getQuantity());
+        assertEquals(4, top.get(1).getMinQuantity());
+        assertEquals(List.of("mascara"), ids(topProductsService.getTopProducts("Makeup", 1)));
+        // Se urmăresc cel mult max-categories categorii
+        assertTrue(topProductsService.getTopProducts("Hair", 10).isEmpty());
+    }
+
+    @Test
+    void getTopProducts_SumsBucketsAndDropsExpiredOnes() throws Exception {
+        topProductsService.recordSales(List.of(
+                transaction(-3, entry("old", "Makeup", 100)),
+                transaction(-2, entry("lipstick", "Makeup", 2)),
+                transaction(0, entry("lipstick", "Makeup", 3))));
+        topProductsService.refresh();
+
+        List<TopProduct> top = topProductsService.getTopProducts(null, 10);
+        assertEquals(List.of("lipstick"), ids(top));
+        assertEquals(5, top.get(0).getQuantity());
+
+        // După încă două ore, rămâne doar intervalul curent
+        setNow(NOW.plusSeconds(2 * 3600));
+        topProductsService.refresh();
+        assertEquals(3, topProductsService.getTopProducts(null, 10).get(0).getQuantity());
+    }
+
+    @Test
+    void getTopProducts_WhenBucketIsFull_ReportsErrorBounds() throws Exception {
+        topProductsService.recordSales(List.of(transaction(0, entry("a", "Makeup", 5), entry("b", "Makeup", 2),
+                entry("c", "Makeup", 1))));
+        topProductsService.refresh();
+
+        List<TopProduct> top = topProductsService.getTopProducts("Makeup", 10);
+        assertEquals(List.of("a", "c"), ids(top));
+        assertEquals(3, top.get(1).getQuantity());
+        assertEquals(1, top.get(1).getMinQuantity());
+    }
+
+    @Test
+    void getTopProducts_InvalidLimit() {
+        Exception exception = assertThrows(Exception.class, () -> topProductsService.getTopProducts(null, 0));
+        assertEquals(HttpStatus.BAD_REQUEST.toString(), exception.getMessage());
+    }
+
+    @Test
+    void checkpoint_SavesLiveBucketsOnlyWhenChanged() {
+        topProductsService.recordSales(List.of(transaction(-1, entry("lipstick", "Makeup", 2))));
+
+        topProductsService.checkpoint();
+        topProductsService.checkpoint();
+
+        verify(checkpointRepository, times(1)).saveAll(checkpoints.capture());
+        List<TopProductsCheckpointEntity> saved = checkpoints.getValue();
+        assertEquals(List.of("global", "category|Makeup"), saved.stream().map(TopProductsCheckpointEntity::getId).toList());
+        assertEquals(3_600_000L, saved.get(0).getBucketMillis());
+        assertEquals(1, saved.get(0).getBuckets().size());
+        assertEquals(2, saved.get(0).getBuckets().get(0).getCounters().get(0).getCount());
+    }
+
+    @Test
+    void restore_ReloadsCheckpointedBuckets() throws Exception {
+        long currentBucket = NOW.toEpochMilli() / 3_600_000L;
+        TopProductsCheckpointEntity checkpoint = new TopProductsCheckpointEntity(null, 3_600_000L);
+        TopProductsCheckpointEntity.Bucket live = new TopProductsCheckpointEntity.Bucket(currentBucket - 1);
+        live.getCounters().add(new TopProductsCheckpointEntity.Counter("lipstick", 7, 0));
+        TopProductsCheckpointEntity.Bucket expired = new TopProductsCheckpointEntity.Bucket(currentBucket - 5);
+        expired.getCounters().add(new TopProductsCheckpointEntity.Counter("old", 50, 0));
+        checkpoint.getBuckets().addAll(List.of(live, expired));
+        // Un checkpoint cu altă durată a intervalelor se ignoră
+        TopProductsCheckpointEntity otherWindow = new TopProductsCheckpointEntity("Makeup", 60_000L);
+        otherWindow.getBuckets().add(live);
+        when(checkpointRepository.findAll()).thenReturn(List.of(checkpoint, otherWindow));
+
+        topProductsService.restore();
+        topProductsService.recordSales(List.of(transaction(0, entry("lipstick", "Makeup", 1))));
+        topProductsService.refresh();
+
+        List<TopProduct> top = topProductsService.getTopProducts(null, 10);
+        assertEquals(List.of("lipstick"), ids(top));
+        assertEquals(8, top.get(0).getQuantity());
+        assertEquals(1, topProductsService.getTopProducts("Makeup", 10).get(0).getQuantity());
+    }
+
+    @Test
+    void restore_AfterSalesInSameBucket_KeepsSavedError() throws Exception {
+        long currentBucket = NOW.toEpochMilli() / 3_600_000L;
+        TopProductsCheckpointEntity checkpoint = new TopProductsCheckpointEntity(null, 3_600_000L);
+        TopProductsCheckpointEntity.Bucket bucket = new TopProductsCheckpointEntity.Bucket(currentBucket);
+        bucket.getCounters().add(new TopProductsCheckpointEntity.Counter("lipstick", 7, 3));
+        checkpoint.getBuckets().add(bucket);
+        when(checkpointRepository.findAll()).thenReturn(List.of(checkpoint));
+
+        // Vânzarea ajunge înaintea checkpoint-ului, deci contorul salvat se adaugă peste un interval deja folosit
+        topProductsService.recordSales(List.of(transaction(0, entry("lipstick", "Makeup", 1))));
+        topProductsService.restore();
+        topProductsService.refresh();
+
+        TopProduct lipstick = topProductsService.getTopProducts(null, 10).get(0);
+        assertEquals(8, lipstick.getQuantity());
+        assertEquals(5, lipstick.getMinQuantity());
+    }
+
+    @Test
+    void checkpoint_RepositoryFailure_RetriesLater() {
+        topProductsService.recordSales(List.of(transaction(0, entry("lipstick", "Makeup", 1))));
+        when(checkpointRepository.saveAll(anyList())).thenThrow(new RuntimeException("Database error"))
+                .thenReturn(List.of());
+
+        topProductsService.checkpoint();
+        topProductsService.checkpoint();
+
+        verify(checkpointRepository, times(2)).saveAll(anyList());
+    }
+
+    private void setNow(Instant now) {
+        ReflectionTestUtils.setField(topProductsService, "clock", Clock.fixed(now, ZoneId.systemDefault()));
+    }
+
+    private static TransactionEntity transaction(int hoursAgo, TransactionEntry... entries) {
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setDate(LocalDateTime.ofInstant(NOW.plusSeconds(hoursAgo * 3600L), ZoneId.systemDefault()));
+        transaction.setProductsList(new ArrayList<>(List.of(entries)));
+        return transaction;
+    }
+
+    private static TransactionEntry entry(String productId, String category, int quantity) {
+        TransactionEntry entry = new TransactionEntry();
+        entry.setProductId(productId);
+        entry.setCategory(category);
+        entry.setProductQuantity(quantity);
+        return entry;
+    }
+
+    private static List<String> ids(List<TopProduct> top) {
+        return top.stream().map(TopProduct::getProductId).toList();
+    }
+}
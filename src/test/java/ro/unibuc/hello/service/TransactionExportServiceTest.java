@@ -0,0 +1,137 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionEntry;
+import ro.unibuc.hello.data.transaction.TransactionExportFormat;
+import ro.unibuc.hello.data.transaction.TransactionRepository;
+import ro.unibuc.hello.data.transaction.TransactionSegment;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private TransactionExportService transactionExportService;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void export_Csv_WritesHeaderAndEscapedRowsInCents() throws Exception {
+        TransactionEntity first = transaction("t1", "user,1", LocalDateTime.of(2024, 5, 1, 10, 0), 1999);
+        TransactionEntry entry = new TransactionEntry();
+        entry.setProductId("prod1");
+        entry.setProductQuantity(2);
+        first.setProductsList(List.of(entry, entry));
+        TransactionEntity second = transaction("t2", "user\"2", LocalDateTime.of(2024, 5, 1, 11, 0), 500);
+        when(transactionRepository.streamForExport(null, null, null)).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long rows = transactionExportService.export(TransactionExportFormat.CSV, null, null, null, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, rows);
+        assertEquals(3, lines.length);
+        assertEquals(TransactionExportService.CSV_HEADER, lines[0]);
+        assertEquals("t1,\"user,1\",2024-05-01T10:00,,false,0,0,0,0,0,1999,prod1:2;prod1:2", lines[1]);
+        assertEquals("t2,\"user\"\"2\",2024-05-01T11:00,,false,0,0,0,0,0,500,", lines[2]);
+    }
+
+    @Test
+    void export_Columnar_WritesReadableSegment() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 6, 1, 0, 0);
+        when(transactionRepository.streamForExport(from, to, "user1")).thenReturn(Stream.of(
+                transaction("t1", "user1", LocalDateTime.of(2024, 5, 1, 10, 0), 1999),
+                transaction("t2", "user1", LocalDateTime.of(2024, 5, 2, 10, 0), 500)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        transactionExportService.export(TransactionExportFormat.COLUMNAR, from, to, "user1", output);
+
+        Path file = directory.resolve(TransactionSegment.fileName(YearMonth.of(2024, 5)));
+        Files.write(file, output.toByteArray());
+        List<TransactionEntity> rows = TransactionSegment.open(file).rows().toList();
+        assertEquals(List.of("t1", "t2"), rows.stream().map(TransactionEntity::getId).toList());
+        assertEquals(500, rows.get(1).getFinalAmount());
+    }
+
+    @Test
+    void export_RowsRepeatedAfterArchiveAreSkipped() throws Exception {
+        TransactionEntity first = transaction("t1", "user1", LocalDateTime.of(2024, 5, 1, 10, 0), 100);
+        TransactionEntity second = transaction("t2", "user1", LocalDateTime.of(2024, 5, 2, 10, 0), 200);
+        TransactionEntity third = transaction("t3", "user1", LocalDateTime.of(2024, 5, 3, 10, 0), 300);
+        when(transactionRepository.streamForExport(null, null, null)).thenReturn(Stream.of(first, second, first, second, third));
+
+        long rows = transactionExportService.export(TransactionExportFormat.CSV, null, null, null, new ByteArrayOutputStream());
+
+        assertEquals(3, rows);
+    }
+
+    @Test
+    void export_ClosesRepositoryStream() throws Exception {
+        boolean[] closed = {false};
+        when(transactionRepository.streamForExport(null, null, null))
+                .thenReturn(Stream.<TransactionEntity>empty().onClose(() -> closed[0] = true));
+
+        transactionExportService.export(TransactionExportFormat.CSV, null, null, null, new ByteArrayOutputStream());
+
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    void checkFilters_InvalidRange_ThrowsBadRequest() {
+        LocalDateTime date = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+        Exception exception = assertThrows(Exception.class, () -> transactionExportService.checkFilters(date, date, null));
+
+        assertEquals("400 BAD_REQUEST", exception.getMessage());
+    }
+
+    @Test
+    void checkFilters_UnknownUser_ThrowsNotFound() throws Exception {
+        when(userService.getUserById("missing")).thenThrow(new Exception("404 NOT_FOUND"));
+
+        Exception exception = assertThrows(Exception.class, () -> transactionExportService.checkFilters(null, null, "missing"));
+
+        assertEquals("404 NOT_FOUND", exception.getMessage());
+    }
+
+    @Test
+    void checkFilters_NoFilters_Passes() throws Exception {
+        transactionExportService.checkFilters(null, null, null);
+
+        verifyNoInteractions(userService);
+    }
+
+    private static TransactionEntity transaction(String id, String userId, LocalDateTime date, long finalAmount) {
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setId(id);
+        transaction.setUserId(userId);
+        transaction.setDate(date);
+        transaction.setFinalAmount(finalAmount);
+        return transaction;
+    }
+}
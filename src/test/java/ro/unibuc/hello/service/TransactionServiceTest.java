@@ -1,28 +1,39 @@
 package ro.unibuc.hello.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import ro.unibuc.hello.data.ObjectIdGenerator;
 import ro.unibuc.hello.data.loyalty.LoyaltyCardEntity;
 import ro.unibuc.hello.data.loyalty.LoyaltyCardRepository;
 import ro.unibuc.hello.data.product.ProductEntity;
 import ro.unibuc.hello.data.product.ProductRepository;
 import ro.unibuc.hello.data.promotions.PromotionEntity;
-import ro.unibuc.hello.data.promotions.PromotionRepository;
+import ro.unibuc.hello.data.transaction.CategorySale;
+import ro.unibuc.hello.data.transaction.TransactionBatchResult;
 import ro.unibuc.hello.data.transaction.TransactionDTO;
 import ro.unibuc.hello.data.transaction.TransactionEntity;
 import ro.unibuc.hello.data.transaction.TransactionEntry;
+import ro.unibuc.hello.data.transaction.DateRangeCursor;
+import ro.unibuc.hello.data.transaction.TransactionPage;
+import ro.unibuc.hello.data.transaction.TransactionSummary;
 import ro.unibuc.hello.data.transaction.TransactionRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -45,9 +56,23 @@ class TransactionServiceTest {
     private LoyaltyCardRepository loyaltyCardRepository;
 
     @Mock
-    private PromotionRepository promotionRepository;
+    private PromotionIndex promotionIndex;
+
+    @Mock
+    private SalesReportService salesReportService;
+
+    @Mock
+    private RevenueAnalyticsService revenueAnalyticsService;
+
+    @Mock
+    private TopProductsService topProductsService;
+
+    @Mock
+    private UniqueBuyersService uniqueBuyersService;
+
+    @Mock
+    private BasketMetrics basketMetrics;
 
-    @InjectMocks
     private TransactionService transactionService;
 
     private TransactionDTO transactionDTO;
@@ -59,12 +84,31 @@ class TransactionServiceTest {
 
     @BeforeEach
     void setUp() {
+        // TransactionService primește MeterRegistry prin constructor, deci dependențele se injectează manual
+        transactionService = new TransactionService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(transactionService, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(transactionService, "productRepository", productRepository);
+        // Cache real peste repository-ul mock, ca testele să vadă încărcările din Mongo
+        ReflectionTestUtils.setField(transactionService, "productCache",
+                new ProductCache(productRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)));
+        ReflectionTestUtils.setField(transactionService, "userService", userService);
+        ReflectionTestUtils.setField(transactionService, "loyaltyCardService", loyaltyCardService);
+        ReflectionTestUtils.setField(transactionService, "loyaltyCardRepository", loyaltyCardRepository);
+        ReflectionTestUtils.setField(transactionService, "promotionIndex", promotionIndex);
+        ReflectionTestUtils.setField(transactionService, "idGenerator", new ObjectIdGenerator());
+        ReflectionTestUtils.setField(transactionService, "salesReportService", salesReportService);
+        ReflectionTestUtils.setField(transactionService, "revenueAnalyticsService", revenueAnalyticsService);
+        ReflectionTestUtils.setField(transactionService, "topProductsService", topProductsService);
+        ReflectionTestUtils.setField(transactionService, "uniqueBuyersService", uniqueBuyersService);
+        ReflectionTestUtils.setField(transactionService, "basketMetrics", basketMetrics);
+
         // Setup ProductEntity
         productEntity = new ProductEntity();
         productEntity.id = "prod1";
-        productEntity.price = 10.0f;
+        productEntity.price = 1000L;
         productEntity.stockSize = 10;
         productEntity.category = "Category1";
+        productEntity.brand = "Brand1";
 
         // Setup TransactionEntry
         transactionEntry = new TransactionEntry();
@@ -86,11 +130,11 @@ class TransactionServiceTest {
         transactionEntity.setLoyaltyCardId("card1");
         transactionEntity.setUseDiscount(true);
         transactionEntity.setDate(LocalDateTime.now());
-        transactionEntity.setTotalAmount(20.0);
-        transactionEntity.setPromotionDiscount(0.0);
-        transactionEntity.setLoyaltyDiscount(0.0);
-        transactionEntity.setTotalDiscount(0.0);
-        transactionEntity.setFinalAmount(20.0);
+        transactionEntity.setTotalAmount(2000L);
+        transactionEntity.setPromotionDiscount(0L);
+        transactionEntity.setLoyaltyDiscount(0L);
+        transactionEntity.setTotalDiscount(0L);
+        transactionEntity.setFinalAmount(2000L);
 
         // Setup LoyaltyCardEntity
         loyaltyCardEntity = new LoyaltyCardEntity();
@@ -112,20 +156,114 @@ class TransactionServiceTest {
     @Test
     void createTransaction_ValidTransaction_SavesTransaction() throws Exception {
         when(userService.getUserById("user1")).thenReturn(null); // Assuming user exists
-        when(productRepository.findById("prod1")).thenReturn(Optional.of(productEntity));
-        when(promotionRepository.findByActiveTrue()).thenReturn(List.of(promotionEntity));
-        when(loyaltyCardService.calculateDiscount("card1", 20.0)).thenReturn(2.0);
+        when(productRepository.findAllById(any())).thenReturn(List.of(productEntity));
+        when(productRepository.reserveStock("prod1", 2)).thenReturn(true);
+        when(promotionIndex.snapshot()).thenReturn(Map.of("Category1", List.of(promotionEntity)));
+        when(loyaltyCardService.applyDiscountAndAccruePoints("card1", 2000L)).thenReturn(200L);
         when(transactionRepository.save(any(TransactionEntity.class))).thenReturn(transactionEntity);
 
         TransactionEntity result = transactionService.createTransaction(transactionDTO);
 
         assertEquals(transactionEntity, result);
-        assertEquals(8, productEntity.stockSize); // Stock reduced by 2
-        verify(productRepository).save(productEntity);
-        verify(loyaltyCardService).addPoints(eq("card1"), anyInt());
+        verify(productRepository, times(1)).findAllById(any());
+        verify(productRepository).reserveStock("prod1", 2); // Stock reduced by 2
+        verify(productRepository, never()).adjustStock(any());
+        verify(productRepository, never()).save(any(ProductEntity.class));
+        verify(loyaltyCardService, times(1)).applyDiscountAndAccruePoints("card1", 2000L);
+        verify(loyaltyCardService, never()).addPoints(anyString(), anyInt());
         verify(transactionRepository).save(any(TransactionEntity.class));
     }
 
+    @Test
+    void createTransaction_BuyTwoGetOneFree_DiscountsThirdUnit() throws Exception {
+        transactionEntry.setProductQuantity(3);
+        when(userService.getUserById("user1")).thenReturn(null);
+        when(productRepository.findAllById(any())).thenReturn(List.of(productEntity));
+        when(productRepository.reserveStock("prod1", 3)).thenReturn(true);
+        when(promotionIndex.snapshot()).thenReturn(Map.of("Category1", List.of(promotionEntity)));
+        when(loyaltyCardService.applyDiscountAndAccruePoints("card1", 2000L)).thenReturn(200L);
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionEntity result = transactionService.createTransaction(transactionDTO);
+
+        assertEquals(3000L, result.getTotalAmount());
+        assertEquals(1000L, result.getPromotionDiscount());
+        assertEquals(1800L, result.getFinalAmount());
+        assertEquals(1, result.getCategorySales().size());
+        CategorySale sale = result.getCategorySales().get(0);
+        assertEquals("Category1", sale.getCategory());
+        assertEquals(3000L, sale.getGross());
+        assertEquals(1000L, sale.getPromotionDiscount());
+        assertEquals(200L, sale.getLoyaltyDiscount());
+        assertEquals(1800L, sale.getNet());
+        TransactionEntry line = result.getProductsList().get(0);
+        assertEquals("Category1", line.getCategory());
+        assertEquals("Brand1", line.getBrand());
+        assertEquals(1000L, line.getUnitPrice());
+        verify(salesReportService).recordSales(List.of(result));
+        verify(topProductsService).recordSales(List.of(result));
+        verify(uniqueBuyersService).recordBuyers(List.of(result));
+        verify(basketMetrics).record(result);
+        verify(userService).recordPurchases(List.of(result));
+    }
+
+    @Test
+    void createTransaction_TwoCategories_SplitsLoyaltyDiscountExactly() throws Exception {
+        ProductEntity otherProduct = new ProductEntity();
+        otherProduct.id = "prod2";
+        otherProduct.price = 333L;
+        otherProduct.stockSize = 10;
+        otherProduct.category = "Category2";
+        TransactionEntry otherEntry = new TransactionEntry();
+        otherEntry.setProductId("prod2");
+        otherEntry.setProductQuantity(1);
+        transactionEntry.setProductQuantity(1);
+        transactionDTO.setProductsList(List.of(transactionEntry, otherEntry));
+        when(userService.getUserById("user1")).thenReturn(null);
+        when(productRepository.findAllById(any())).thenReturn(List.of(productEntity, otherProduct));
+        when(productRepository.reserveStock(any(), anyInt())).thenReturn(true);
+        when(promotionIndex.snapshot()).thenReturn(Map.of("Category1", List.of(promotionEntity)));
+        when(loyaltyCardService.applyDiscountAndAccruePoints("card1", 1333L)).thenReturn(100L);
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionEntity result = transactionService.createTransaction(transactionDTO);
+
+        // 100 * 1000 / 1333 = 75 și 100 * 333 / 1333 = 24; centul rămas merge la categoria mai mare
+        Map<String, CategorySale> sales = new HashMap<>();
+        for (CategorySale sale : result.getCategorySales()) {
+            sales.put(sale.getCategory(), sale);
+        }
+        assertEquals(76L, sales.get("Category1").getLoyaltyDiscount());
+        assertEquals(24L, sales.get("Category2").getLoyaltyDiscount());
+        assertEquals(result.getFinalAmount(), sales.get("Category1").getNet() + sales.get("Category2").getNet());
+    }
+
+    @Test
+    void createTransaction_LargeQuantity_DiscountsPerSet() throws Exception {
+        ProductEntity cheapProduct = new ProductEntity();
+        cheapProduct.id = "prod2";
+        cheapProduct.price = 100L;
+        cheapProduct.stockSize = 20000;
+        cheapProduct.category = "Category1";
+        TransactionEntry cheapEntry = new TransactionEntry();
+        cheapEntry.setProductId("prod2");
+        cheapEntry.setProductQuantity(10000);
+        transactionEntry.setProductQuantity(2);
+        transactionDTO.setProductsList(List.of(transactionEntry, cheapEntry));
+        transactionDTO.setUseDiscount(false);
+        when(userService.getUserById("user1")).thenReturn(null);
+        when(productRepository.findAllById(any())).thenReturn(List.of(productEntity, cheapProduct));
+        when(productRepository.reserveStock(any(), anyInt())).thenReturn(true);
+        when(promotionIndex.snapshot()).thenReturn(Map.of("Category1", List.of(promotionEntity)));
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionEntity result = transactionService.createTransaction(transactionDTO);
+
+        // 10002 unități -> 3334 seturi; pozițiile 2, 4, ..., 6668 sunt gratuite, toate din produsul ieftin
+        assertEquals(1002000L, result.getTotalAmount());
+        assertEquals(333400L, result.getPromotionDiscount());
+    }
+
     @Test
     void createTransaction_UserNotFound_ThrowsException() throws Exception {
         when(userService.getUserById("user1")).thenThrow(new Exception("404 NOT_FOUND"));
@@ -137,10 +275,31 @@ class TransactionServiceTest {
         assertEquals("404 NOT_FOUND", exception.getMessage());
     }
 
+    @Test
+    void createTransaction_RunsLookupsConcurrently() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(userService.getUserById("user1")).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "Product lookup did not start in parallel");
+            return null;
+        });
+        when(productRepository.findAllById(any())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "User lookup did not start in parallel");
+            return List.of(productEntity);
+        });
+        when(productRepository.reserveStock("prod1", 2)).thenReturn(true);
+        transactionDTO.setUseDiscount(false);
+
+        transactionService.createTransaction(transactionDTO);
+
+        verify(transactionRepository).save(any(TransactionEntity.class));
+    }
+
     @Test
     void createTransaction_ProductNotFound_ThrowsNotFound() throws Exception {
         when(userService.getUserById("user1")).thenReturn(null);
-        when(productRepository.findById("prod1")).thenReturn(Optional.empty());
+        when(productRepository.findAllById(any())).thenReturn(Collections.emptyList());
 
         Exception exception = assertThrows(Exception.class, () -> {
             transactionService.createTransaction(transactionDTO);
@@ -151,15 +310,164 @@ class TransactionServiceTest {
 
     @Test
     void createTransaction_InsufficientStock_ThrowsBadRequest() throws Exception {
-        productEntity.stockSize = 1;
         when(userService.getUserById("user1")).thenReturn(null);
-        when(productRepository.findById("prod1")).thenReturn(Optional.of(productEntity));
+        when(productRepository.findAllById(any())).thenReturn(List.of(productEntity));
+        when(productRepository.reserveStock("prod1", 2)).thenReturn(false);
 
         Exception exception = assertThrows(Exception.class, () -> {
             transactionService.createTransaction(transactionDTO);
         });
         
         assertEquals("400 BAD_REQUEST", exception.getMessage());
+        verify(productRepository, never()).adjustStock(any());
+    }
+
+    @Test
+    void createTransaction_RepeatedProduct_ChecksCumulatedStock() throws Exception {
+        TransactionEntry secondEntry = new TransactionEntry();
+        secondEntry.setProductId("prod1");
+        secondEntry.setProductQuantity(2);
+        transactionDTO.setProductsList(List.of(transactionEntry, secondEntry));
+        when(userService.getUserById("user1")).thenReturn(null);
+        when(productRepository.findAllById(any())).thenReturn(List.of(productEntity));
+        when(productRepository.reserveStock("prod1", 4)).thenReturn(false);
+
+        Exception exception = assertThrows(Exception.class, () -> {
+            transactionService.createTransaction(transactionDTO);
+        });
+
+        assertEquals("400 BAD_REQUEST", exception.getMessage());
+        verify(productRepository, never()).adjustStock(any());
+    }
+
+    @Test
+    void createTransaction_LaterLineOutOfStock_ReleasesEarlierLines() throws Exception {
+        ProductEntity secondProduct = new ProductEntity();
+        secondProduct.id = "prod2";
+        secondProduct.price = 500L;
+        secondProduct.stockSize = 0;
+        secondProduct.category = "Category2";
+        TransactionEntry secondEntry = new TransactionEntry();
+        secondEntry.setProductId("prod2");
+        secondEntry.setProductQuantity(1);
+        transactionDTO.setProductsList(List.of(transactionEntry, secondEntry));
+        when(userService.getUserById("user1")).thenReturn(null);
+        when(productRepository.findAllById(any())).thenReturn(List.of(productEntity, secondProduct));
+        when(productRepository.reserveStock("prod1", 2)).thenReturn(true);
+        when(productRepository.reserveStock("prod2", 1)).thenReturn(false);
+
+        Exception exception = assertThrows(Exception.class, () -> {
+            transactionService.createTransaction(transactionDTO);
+        });
+
+        assertEquals("400 BAD_REQUEST", exception.getMessage());
+        verify(productRepository).adjustStock(Map.of("prod1", 2));
+        verify(transactionRepository, never()).save(any(TransactionEntity.class));
+    }
+
+    @Test
+    void createTransaction_SaveFails_ReleasesStockAndTakesBackPoints() throws Exception {
+        productEntity.price = 10000L;
+        when(userService.getUserById("user1")).thenReturn(null);
+        when(productRepository.findAllById(any())).thenReturn(List.of(productEntity));
+        when(productRepository.reserveStock("prod1", 2)).thenReturn(true);
+        when(promotionIndex.snapshot()).thenReturn(Map.of());
+        when(loyaltyCardService.applyDiscountAndAccruePoints("card1", 20000L)).thenReturn(2000L);
+        when(transactionRepository.save(any(TransactionEntity.class))).thenThrow(new RuntimeException("Database error"));
+
+        assertThrows(RuntimeException.class, () -> transactionService.createTransaction(transactionDTO));
+
+        // 18000 de bani după discount înseamnă 18 puncte, retrase după ce salvarea a eșuat
+        verify(productRepository).adjustStock(Map.of("prod1", 2));
+        verify(loyaltyCardService).addPoints("card1", -18);
+        verify(salesReportService, never()).recordSales(anyList());
+    }
+
+    @Test
+    void createTransactions_SharesLookupsAndInsertsOnce() throws Exception {
+        TransactionDTO secondCart = new TransactionDTO();
+        secondCart.setUserId("user1");
+        secondCart.setProductsList(List.of(transactionEntry));
+        TransactionDTO unknownUserCart = new TransactionDTO();
+        unknownUserCart.setUserId("user2");
+        unknownUserCart.setProductsList(List.of(transactionEntry));
+        loyaltyCardEntity.setDiscountPercentage(10.0);
+        when(userService.getExistingUserIds(any())).thenReturn(Set.of("user1"));
+        when(productRepository.findAllById(any())).thenReturn(List.of(productEntity));
+        when(loyaltyCardRepository.findAllById(any())).thenReturn(List.of(loyaltyCardEntity));
+        when(productRepository.reserveStock("prod1", 2)).thenReturn(true);
+
+        List<TransactionBatchResult> results = transactionService.createTransactions(
+                List.of(transactionDTO, secondCart, unknownUserCart));
+
+        assertEquals(3, results.size());
+        assertEquals(200, results.get(0).getStatus());
+        assertEquals(200L, results.get(0).getTransaction().getLoyaltyDiscount());
+        assertEquals(200, results.get(1).getStatus());
+        assertEquals(404, results.get(2).getStatus());
+        assertNull(results.get(2).getTransaction());
+        verify(productRepository, times(1)).findAllById(any());
+        verify(transactionRepository, times(1)).insert(anyList());
+        verify(transactionRepository, never()).save(any(TransactionEntity.class));
+        verify(loyaltyCardService).addPoints("card1", 1);
+        verify(salesReportService).recordSales(argThat(saved -> saved.size() == 2));
+        verify(topProductsService).recordSales(argThat(saved -> saved.size() == 2));
+        verify(uniqueBuyersService).recordBuyers(argThat(saved -> saved.size() == 2));
+        verify(basketMetrics, times(2)).record(any(TransactionEntity.class));
+        verify(userService).recordPurchases(argThat(saved -> saved.size() == 2));
+    }
+
+    @Test
+    void createTransactions_CentPricesAddUpExactly() throws Exception {
+        // Cu prețuri double, 3 x 0.10 + 2 x 19.99 nu dădea exact 40.28, iar defalcarea pe categorii nu se aduna la total
+        ProductEntity gum = new ProductEntity();
+        gum.id = "gum";
+        gum.price = 10L;
+        gum.category = "Snacks";
+        productEntity.price = 1999L;
+        TransactionEntry gumEntry = new TransactionEntry();
+        gumEntry.setProductId("gum");
+        gumEntry.setProductQuantity(3);
+        transactionDTO.setProductsList(List.of(gumEntry, transactionEntry));
+        loyaltyCardEntity.setDiscountPercentage(15.0);
+        when(userService.getExistingUserIds(any())).thenReturn(Set.of("user1"));
+        when(productRepository.findAllById(any())).thenReturn(List.of(gum, productEntity));
+        when(loyaltyCardRepository.findAllById(any())).thenReturn(List.of(loyaltyCardEntity));
+        when(productRepository.reserveStock(any(), anyInt())).thenReturn(true);
+        when(promotionIndex.snapshot()).thenReturn(Map.of("Snacks", List.of(promotionEntity)));
+
+        TransactionEntity result = transactionService.createTransactions(List.of(transactionDTO)).get(0).getTransaction();
+
+        // 2 + 1 gratuit la gumă: 0.10 reducere; 15% din 40.18 = 6.027, rotunjit în jos la 6.02
+        assertEquals(4028L, result.getTotalAmount());
+        assertEquals(10L, result.getPromotionDiscount());
+        assertEquals(602L, result.getLoyaltyDiscount());
+        assertEquals(3416L, result.getFinalAmount());
+        Map<String, CategorySale> sales = new HashMap<>();
+        result.getCategorySales().forEach(sale -> sales.put(sale.getCategory(), sale));
+        assertEquals(18L, sales.get("Snacks").getNet());
+        // Centul rămas din împărțirea discount-ului cardului merge la categoria cea mai mare
+        assertEquals(600L, sales.get("Category1").getLoyaltyDiscount());
+        assertEquals(3398L, sales.get("Category1").getNet());
+        assertEquals(result.getFinalAmount(), result.getCategorySales().stream().mapToLong(CategorySale::getNet).sum());
+        verify(loyaltyCardService).addPoints("card1", 3);
+    }
+
+    @Test
+    void createTransactions_InsertFails_ReleasesStockAndFailsAcceptedCarts() throws Exception {
+        transactionDTO.setUseDiscount(false);
+        when(userService.getExistingUserIds(any())).thenReturn(Set.of("user1"));
+        when(productRepository.findAllById(any())).thenReturn(List.of(productEntity));
+        when(productRepository.reserveStock("prod1", 2)).thenReturn(true);
+        when(transactionRepository.insert(anyList())).thenThrow(new RuntimeException("Database error"));
+
+        List<TransactionBatchResult> results = transactionService.createTransactions(List.of(transactionDTO));
+
+        assertEquals(500, results.get(0).getStatus());
+        verify(productRepository).adjustStock(Map.of("prod1", 2));
+        verify(salesReportService, never()).recordSales(anyList());
+        verify(topProductsService, never()).recordSales(anyList());
+        verify(uniqueBuyersService, never()).recordBuyers(anyList());
     }
 
     @Test
@@ -183,21 +491,58 @@ class TransactionServiceTest {
     }
 
     @Test
-    void getAllTransactions_ReturnsAllTransactions() {
-        when(transactionRepository.findAll()).thenReturn(Collections.singletonList(transactionEntity));
+    void getTransactionsPage_FullPage_ReturnsCursorOfLastItem() {
+        when(transactionRepository.findPageAfter(null, 1, TransactionEntity.class)).thenReturn(Collections.singletonList(transactionEntity));
 
-        List<TransactionEntity> result = transactionService.getAllTransactions();
+        TransactionPage<TransactionEntity> page = transactionService.getTransactionsPage(null, 1, TransactionEntity.class);
 
-        assertEquals(1, result.size());
-        assertEquals(transactionEntity, result.get(0));
+        assertEquals(List.of(transactionEntity), page.getItems());
+        assertEquals(transactionEntity.getId(), page.getNextCursor());
+    }
+
+    @Test
+    void getTransactionsPage_LastPage_HasNoCursor() {
+        when(transactionRepository.findPageAfter("trans0", 100, TransactionEntity.class)).thenReturn(Collections.singletonList(transactionEntity));
+
+        TransactionPage<TransactionEntity> page = transactionService.getTransactionsPage("trans0", 100, TransactionEntity.class);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getTransactionsPage_LimitAboveMaximum_IsClamped() {
+        when(transactionRepository.findPageAfter(null, TransactionService.MAX_PAGE_SIZE, TransactionEntity.class)).thenReturn(Collections.emptyList());
+
+        TransactionPage<TransactionEntity> page = transactionService.getTransactionsPage(null, 1_000_000, TransactionEntity.class);
+
+        assertTrue(page.getItems().isEmpty());
+        verify(transactionRepository).findPageAfter(null, TransactionService.MAX_PAGE_SIZE, TransactionEntity.class);
+    }
+
+    @Test
+    void getTransactionsByDateRange_SummaryView_CursorUsesSummaryFields() throws Exception {
+        LocalDateTime startDate = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2024, 2, 1, 0, 0);
+        TransactionSummary summary = new TransactionSummary("trans1", "user1", LocalDateTime.of(2024, 1, 15, 12, 30), 2000L);
+        when(transactionRepository.findDateRangePage(startDate, endDate, null, 1, TransactionSummary.class))
+                .thenReturn(List.of(summary));
+
+        TransactionPage<TransactionSummary> page = transactionService.getTransactionsByDateRange(startDate, endDate, null, 1,
+                TransactionSummary.class);
+
+        assertEquals(List.of(summary), page.getItems());
+        DateRangeCursor cursor = DateRangeCursor.decode(page.getNextCursor());
+        assertEquals(summary.getDate(), cursor.getDate());
+        assertEquals("trans1", cursor.getId());
     }
 
     @Test
     void getTransactionsByUser_UserExists_ReturnsTransactions() throws Exception {
         when(userService.getUserById("user1")).thenReturn(null);
-        when(transactionRepository.findByUserId("user1")).thenReturn(Collections.singletonList(transactionEntity));
+        when(transactionRepository.findByUserId("user1", TransactionEntity.class)).thenReturn(Collections.singletonList(transactionEntity));
 
-        List<TransactionEntity> result = transactionService.getTransactionsByUser("user1");
+        List<TransactionEntity> result = transactionService.getTransactionsByUser("user1", TransactionEntity.class);
 
         assertEquals(1, result.size());
         assertEquals(transactionEntity, result.get(0));
@@ -208,37 +553,87 @@ class TransactionServiceTest {
         when(userService.getUserById("user1")).thenThrow(new Exception("404 NOT_FOUND"));
 
         Exception exception = assertThrows(Exception.class, () -> {
-            transactionService.getTransactionsByUser("user1");
+            transactionService.getTransactionsByUser("user1", TransactionEntity.class);
         });
         
         assertEquals("404 NOT_FOUND", exception.getMessage());
     }
 
     @Test
-    void getTransactionsByDateRange_ReturnsTransactions() {
+    void getTransactionsByDateRange_ReturnsTransactions() throws Exception {
         LocalDateTime startDate = LocalDateTime.now().minusDays(1);
         LocalDateTime endDate = LocalDateTime.now().plusDays(1);
-        when(transactionRepository.findByDateBetween(startDate, endDate))
+        when(transactionRepository.findDateRangePage(startDate, endDate, null, 100, TransactionEntity.class))
                 .thenReturn(Collections.singletonList(transactionEntity));
 
-        List<TransactionEntity> result = transactionService.getTransactionsByDateRange(startDate, endDate);
+        TransactionPage<TransactionEntity> page = transactionService.getTransactionsByDateRange(startDate, endDate, null, 100,
+                TransactionEntity.class);
 
-        assertEquals(1, result.size());
-        assertEquals(transactionEntity, result.get(0));
+        assertEquals(List.of(transactionEntity), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getTransactionsByDateRange_FullPage_CursorResumesAfterLastItem() throws Exception {
+        LocalDateTime startDate = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2024, 2, 1, 0, 0);
+        transactionEntity.setDate(LocalDateTime.of(2024, 1, 15, 12, 30, 0, 123_000_000));
+        when(transactionRepository.findDateRangePage(startDate, endDate, null, 1, TransactionEntity.class))
+                .thenReturn(Collections.singletonList(transactionEntity));
+        when(transactionRepository.findDateRangePage(eq(startDate), eq(endDate), notNull(), eq(1), eq(TransactionEntity.class)))
+                .thenReturn(Collections.emptyList());
+
+        TransactionPage<TransactionEntity> page = transactionService.getTransactionsByDateRange(startDate, endDate, null, 1,
+                TransactionEntity.class);
+        transactionService.getTransactionsByDateRange(startDate, endDate, page.getNextCursor(), 1, TransactionEntity.class);
+
+        verify(transactionRepository).findDateRangePage(eq(startDate), eq(endDate), argThat(after ->
+                after != null && after.getDate().equals(transactionEntity.getDate())
+                        && after.getId().equals(transactionEntity.getId())), eq(1), eq(TransactionEntity.class));
+    }
+
+    @Test
+    void getTransactionsByDateRange_InvalidCursor_ThrowsBadRequest() {
+        LocalDateTime startDate = LocalDateTime.now().minusDays(1);
+        LocalDateTime endDate = LocalDateTime.now();
+
+        Exception exception = assertThrows(Exception.class, () ->
+                transactionService.getTransactionsByDateRange(startDate, endDate, "not-a-cursor", 100,
+                        TransactionEntity.class));
+
+        assertEquals("400 BAD_REQUEST", exception.getMessage());
+        verify(transactionRepository, never()).findDateRangePage(any(), any(), any(), anyInt(), any());
     }
 
     @Test
     void deleteTransaction_TransactionExists_DeletesTransaction() throws Exception {
         when(transactionRepository.findById("trans1")).thenReturn(Optional.of(transactionEntity));
-        when(productRepository.findById("prod1")).thenReturn(Optional.of(productEntity));
-        when(loyaltyCardRepository.findById("card1")).thenReturn(Optional.of(loyaltyCardEntity));
+        when(transactionRepository.deleteById("trans1")).thenReturn(true);
 
         transactionService.deleteTransaction("trans1");
 
-        assertEquals(12, productEntity.stockSize); // Stock increased by 2
-        verify(productRepository).save(productEntity);
-        verify(loyaltyCardRepository).save(loyaltyCardEntity);
+        verify(productRepository).adjustStock(Map.of("prod1", 2)); // Stock increased by 2
+        verify(productRepository, never()).findById(any());
+        // 20.00 RON plătiți înseamnă 2 puncte, scăzute atomic pe server
+        verify(loyaltyCardRepository).deductPoints("card1", 2);
+        verify(loyaltyCardRepository, never()).save(any(LoyaltyCardEntity.class));
         verify(transactionRepository).deleteById("trans1");
+        verify(salesReportService).removeSale(transactionEntity);
+        verify(userService).removePurchase(transactionEntity);
+        verify(revenueAnalyticsService).evictDay(transactionEntity.getDate().toLocalDate());
+    }
+
+    @Test
+    void deleteTransaction_ArchivedTransaction_ThrowsConflictWithoutSideEffects() throws Exception {
+        when(transactionRepository.findById("trans1")).thenReturn(Optional.of(transactionEntity));
+        when(transactionRepository.deleteById("trans1")).thenReturn(false);
+
+        Exception exception = assertThrows(Exception.class, () -> transactionService.deleteTransaction("trans1"));
+
+        assertEquals("409 CONFLICT", exception.getMessage());
+        verify(productRepository, never()).adjustStock(any());
+        verify(salesReportService, never()).removeSale(any());
+        verify(userService, never()).removePurchase(any());
     }
 
     @Test
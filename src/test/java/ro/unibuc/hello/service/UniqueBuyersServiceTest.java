@@ -0,0 +1,156 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import ro.unibuc.hello.data.report.BuyerPeriod;
+import ro.unibuc.hello.data.report.HyperLogLog;
+import ro.unibuc.hello.data.report.UniqueBuyers;
+import ro.unibuc.hello.data.report.UniqueBuyersSketchEntity;
+import ro.unibuc.hello.data.report.UniqueBuyersSketchRepository;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UniqueBuyersServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 10, 12, 30);
+
+    @Mock
+    private UniqueBuyersSketchRepository sketchRepository;
+
+    private SimpleMeterRegistry registry;
+    private UniqueBuyersService uniqueBuyersService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        uniqueBuyersService = new UniqueBuyersService(sketchRepository, registry, "pod-a", 35);
+        ZoneId zone = ZoneId.systemDefault();
+        ReflectionTestUtils.setField(uniqueBuyersService, "clock", Clock.fixed(NOW.atZone(zone).toInstant(), zone));
+    }
+
+    @Test
+    void getUniqueBuyers_MergesInstancesAndPeriods() throws Exception {
+        LocalDateTime day1 = LocalDateTime.of(2024, 5, 1, 0, 0);
+        LocalDateTime day2 = day1.plusDays(1);
+        when(sketchRepository.findSketches(BuyerPeriod.DAY, day1, day2)).thenReturn(List.of(
+                sketch(BuyerPeriod.DAY, day1, "pod-a", 0, 100),
+                sketch(BuyerPeriod.DAY, day1, "pod-b", 50, 150),
+                sketch(BuyerPeriod.DAY, day2, "pod-b", 100, 200)));
+
+        UniqueBuyers buyers = uniqueBuyersService.getUniqueBuyers(BuyerPeriod.DAY, day1.plusHours(5), day2);
+
+        assertEquals(day1, buyers.getFrom());
+        assertEquals(2, buyers.getPeriods().size());
+        assertEquals(150, buyers.getPeriods().get(0).getUniqueBuyers(), 5);
+        assertEquals(100, buyers.getPeriods().get(1).getUniqueBuyers(), 5);
+        assertEquals(200, buyers.getUniqueBuyers(), 5);
+    }
+
+    @Test
+    void getUniqueBuyers_IncludesUnflushedLocalSketches() throws Exception {
+        uniqueBuyersService.recordBuyers(List.of(transaction("user1", NOW), transaction("user2", NOW),
+                transaction("user1", NOW.plusMinutes(5)), transaction(null, NOW)));
+
+        UniqueBuyers hourly = uniqueBuyersService.getUniqueBuyers(BuyerPeriod.HOUR, NOW, NOW);
+        UniqueBuyers daily = uniqueBuyersService.getUniqueBuyers(BuyerPeriod.DAY, NOW, NOW);
+
+        assertEquals(2, hourly.getUniqueBuyers());
+        assertEquals(NOW.withMinute(0), hourly.getPeriods().get(0).getStart());
+        assertEquals(2, daily.getUniqueBuyers());
+        verify(sketchRepository).findSketches(BuyerPeriod.HOUR, NOW.withMinute(0), NOW.withMinute(0));
+    }
+
+    @Test
+    void getUniqueBuyers_InvalidRange() {
+        Exception reversed = assertThrows(Exception.class,
+                () -> uniqueBuyersService.getUniqueBuyers(BuyerPeriod.DAY, NOW, NOW.minusDays(1)));
+        Exception tooLong = assertThrows(Exception.class,
+                () -> uniqueBuyersService.getUniqueBuyers(BuyerPeriod.HOUR, NOW, NOW.plusDays(60)));
+
+        assertEquals(HttpStatus.BAD_REQUEST.toString(), reversed.getMessage());
+        assertEquals(HttpStatus.BAD_REQUEST.toString(), tooLong.getMessage());
+        verifyNoInteractions(sketchRepository);
+    }
+
+    @Test
+    void flush_SavesChangedSketchesMergedWithStoredOnesAndUpdatesGauges() {
+        LocalDateTime hour = NOW.withMinute(0);
+        UniqueBuyersSketchEntity stored = sketch(BuyerPeriod.HOUR, hour, "pod-a", 10, 20);
+        when(sketchRepository.findById(UniqueBuyersSketchEntity.id(BuyerPeriod.HOUR, hour, "pod-a")))
+                .thenReturn(Optional.of(stored));
+        when(sketchRepository.findById(UniqueBuyersSketchEntity.id(BuyerPeriod.DAY, hour.toLocalDate().atStartOfDay(), "pod-a")))
+                .thenReturn(Optional.empty());
+        when(sketchRepository.findSketches(any(BuyerPeriod.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        uniqueBuyersService.recordBuyers(List.of(transaction("user1", NOW), transaction("user2", NOW)));
+
+        uniqueBuyersService.flush();
+        uniqueBuyersService.flush();
+
+        ArgumentCaptor<UniqueBuyersSketchEntity> saved = ArgumentCaptor.forClass(UniqueBuyersSketchEntity.class);
+        verify(sketchRepository, times(2)).save(saved.capture());
+        UniqueBuyersSketchEntity hourly = saved.getAllValues().stream()
+                .filter(entity -> entity.getPeriod() == BuyerPeriod.HOUR).findFirst().orElseThrow();
+        assertEquals("pod-a", hourly.getInstanceId());
+        assertEquals(12, HyperLogLog.fromByteArray(hourly.getRegisters()).estimate());
+        assertEquals(hour.plusHours(1).plusDays(35), hourly.getExpiresAt());
+        UniqueBuyersSketchEntity daily = saved.getAllValues().stream()
+                .filter(entity -> entity.getPeriod() == BuyerPeriod.DAY).findFirst().orElseThrow();
+        assertNull(daily.getExpiresAt());
+        assertEquals(12.0, registry.get("buyers.unique").tag("period", "hour").gauge().value());
+        assertEquals(2.0, registry.get("buyers.unique").tag("period", "day").gauge().value());
+    }
+
+    @Test
+    void flush_RepositoryFailure_KeepsSketchForRetry() {
+        when(sketchRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(sketchRepository.save(any(UniqueBuyersSketchEntity.class)))
+                .thenThrow(new RuntimeException("Database error"))
+                .thenReturn(new UniqueBuyersSketchEntity());
+        uniqueBuyersService.recordBuyers(List.of(transaction("user1", NOW.minusDays(2))));
+
+        uniqueBuyersService.flush();
+        uniqueBuyersService.flush();
+
+        // Ora eșuată se salvează la a doua rulare, apoi sketch-urile intervalelor încheiate ies din memorie
+        verify(sketchRepository, times(3)).save(any(UniqueBuyersSketchEntity.class));
+        uniqueBuyersService.flush();
+        verify(sketchRepository, times(3)).save(any(UniqueBuyersSketchEntity.class));
+    }
+
+    private static TransactionEntity transaction(String userId, LocalDateTime date) {
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setUserId(userId);
+        transaction.setDate(date);
+        return transaction;
+    }
+
+    // Sketch cu utilizatorii user<from> .. user<to - 1>
+    private static UniqueBuyersSketchEntity sketch(BuyerPeriod period, LocalDateTime start, String instanceId, int from, int to) {
+        HyperLogLog sketch = new HyperLogLog(UniqueBuyersService.PRECISION);
+        for (int i = from; i < to; i++) {
+            sketch.add("user" + i);
+        }
+        UniqueBuyersSketchEntity entity = new UniqueBuyersSketchEntity(period, start, instanceId);
+        entity.setRegisters(sketch.toByteArray());
+        return entity;
+    }
+}
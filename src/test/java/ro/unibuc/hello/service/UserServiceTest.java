@@ -3,22 +3,31 @@ package ro.unibuc.hello.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ro.unibuc.hello.data.loyalty.LoyaltyCardEntity;
 import ro.unibuc.hello.data.loyalty.LoyaltyCardRepository;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionRepository;
 import ro.unibuc.hello.data.user.User;
 import ro.unibuc.hello.data.user.UserDTO;
 import ro.unibuc.hello.data.user.UserRepository;
+import ro.unibuc.hello.data.user.UserSpendSummary;
+import ro.unibuc.hello.data.user.UserSpendSummaryRepository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +42,12 @@ class UserServiceTest {
     @Mock
     private LoyaltyCardService loyaltyCardService;
 
+    @Mock
+    private UserSpendSummaryRepository userSpendSummaryRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
     @InjectMocks
     private UserService userService;
 
@@ -131,6 +146,106 @@ class UserServiceTest {
         verify(loyaltyCardRepository).findByUserId("user1");
         verify(loyaltyCardService).deleteCard("card1");
         verify(userRepository).deleteById("user1");
+        verify(userSpendSummaryRepository).deleteById("user1");
+    }
+
+    @Test
+    void getUserSummary_SummaryExists_ReturnsItWithoutCheckingUser() throws Exception {
+        UserSpendSummary summary = new UserSpendSummary("user1");
+        summary.add(3, 9000L, 7500L, LocalDateTime.of(2024, 5, 1, 10, 0));
+        when(userSpendSummaryRepository.findById("user1")).thenReturn(Optional.of(summary));
+
+        UserSpendSummary result = userService.getUserSummary("user1");
+
+        assertEquals(3L, result.getOrderCount());
+        assertEquals(2500L, result.getAverageBasket());
+        verify(userRepository, never()).existsById(any());
+    }
+
+    @Test
+    void getUserSummary_UserWithoutPurchases_ReturnsEmptySummary() throws Exception {
+        when(userSpendSummaryRepository.findById("user1")).thenReturn(Optional.empty());
+        when(userRepository.existsById("user1")).thenReturn(true);
+
+        UserSpendSummary result = userService.getUserSummary("user1");
+
+        assertEquals("user1", result.getId());
+        assertEquals(0L, result.getOrderCount());
+        assertEquals(0L, result.getAverageBasket());
+        assertNull(result.getLastPurchaseDate());
+    }
+
+    @Test
+    void getUserSummary_UserNotFound_ThrowsNotFound() {
+        when(userSpendSummaryRepository.findById("nonexistent")).thenReturn(Optional.empty());
+        when(userRepository.existsById("nonexistent")).thenReturn(false);
+
+        Exception exception = assertThrows(Exception.class, () -> userService.getUserSummary("nonexistent"));
+
+        assertEquals("404 NOT_FOUND", exception.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordPurchases_MergesTransactionsOfSameUser() {
+        LocalDateTime earlier = LocalDateTime.of(2024, 5, 1, 10, 0);
+        LocalDateTime later = LocalDateTime.of(2024, 5, 1, 12, 0);
+        ArgumentCaptor<Collection<UserSpendSummary>> captor = ArgumentCaptor.forClass(Collection.class);
+
+        userService.recordPurchases(List.of(transaction("user1", 3000L, 2500L, later),
+                transaction("user1", 1000L, 1000L, earlier), transaction(null, 500L, 500L, later)));
+
+        verify(userSpendSummaryRepository).increment(captor.capture());
+        List<UserSpendSummary> deltas = new ArrayList<>(captor.getValue());
+        assertEquals(1, deltas.size());
+        assertEquals("user1", deltas.get(0).getId());
+        assertEquals(2L, deltas.get(0).getOrderCount());
+        assertEquals(4000L, deltas.get(0).getLifetimeGross());
+        assertEquals(3500L, deltas.get(0).getLifetimeNet());
+        assertEquals(later, deltas.get(0).getLastPurchaseDate());
+    }
+
+    @Test
+    void recordPurchases_SummaryWriteFails_DoesNotThrow() {
+        doThrow(new RuntimeException("Database error")).when(userSpendSummaryRepository).increment(any());
+
+        assertDoesNotThrow(() -> userService.recordPurchases(
+                List.of(transaction("user1", 1000L, 1000L, LocalDateTime.now()))));
+    }
+
+    @Test
+    void removePurchase_PassesLatestRemainingPurchase() {
+        LocalDateTime removed = LocalDateTime.of(2024, 5, 2, 9, 0);
+        LocalDateTime remaining = LocalDateTime.of(2024, 5, 1, 10, 0);
+        when(transactionRepository.findFirstByUserIdOrderByDateDesc("user1"))
+                .thenReturn(transaction("user1", 0L, 0L, remaining));
+        ArgumentCaptor<UserSpendSummary> captor = ArgumentCaptor.forClass(UserSpendSummary.class);
+
+        userService.removePurchase(transaction("user1", 3000L, 2500L, removed));
+
+        verify(userSpendSummaryRepository).decrement(captor.capture(), eq(removed), eq(remaining));
+        assertEquals(1L, captor.getValue().getOrderCount());
+        assertEquals(3000L, captor.getValue().getLifetimeGross());
+        assertEquals(2500L, captor.getValue().getLifetimeNet());
+    }
+
+    @Test
+    void removePurchase_LastPurchaseOfUser_ClearsDate() {
+        LocalDateTime removed = LocalDateTime.of(2024, 5, 2, 9, 0);
+        when(transactionRepository.findFirstByUserIdOrderByDateDesc("user1")).thenReturn(null);
+
+        userService.removePurchase(transaction("user1", 3000L, 2500L, removed));
+
+        verify(userSpendSummaryRepository).decrement(any(UserSpendSummary.class), eq(removed), isNull());
+    }
+
+    private static TransactionEntity transaction(String userId, long totalAmount, long finalAmount, LocalDateTime date) {
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setUserId(userId);
+        transaction.setTotalAmount(totalAmount);
+        transaction.setFinalAmount(finalAmount);
+        transaction.setDate(date);
+        return transaction;
     }
 
     @Test
@@ -0,0 +1,107 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ro.unibuc.hello.data.MigrationRecordRepository;
+import ro.unibuc.hello.data.transaction.TransactionEntity;
+import ro.unibuc.hello.data.transaction.TransactionPartitionMigration;
+import ro.unibuc.hello.data.transaction.TransactionRepository;
+import ro.unibuc.hello.data.user.UserSpendSummary;
+import ro.unibuc.hello.data.user.UserSpendSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSpendSummaryBackfillTest {
+
+    @Mock
+    private MigrationRecordRepository migrationRecordRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private UserSpendSummaryRepository userSpendSummaryRepository;
+
+    @Mock
+    private TransactionPartitionMigration partitionMigration;
+
+    @InjectMocks
+    private UserSpendSummaryBackfill userSpendSummaryBackfill;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void afterSingletonsInstantiated_SeedsSummariesFromHistory() {
+        when(migrationRecordRepository.existsByIdAndCompletedAtIsNotNull(UserSpendSummaryBackfill.MIGRATION_ID))
+                .thenReturn(false);
+        when(migrationRecordRepository.tryLock(UserSpendSummaryBackfill.MIGRATION_ID, UserSpendSummaryBackfill.LOCK_TIMEOUT))
+                .thenReturn(true);
+        when(transactionRepository.streamAll()).thenReturn(Stream.of(
+                transaction("user1", LocalDateTime.of(2024, 5, 10, 9, 0), 1000L, 900L),
+                transaction("user1", LocalDateTime.of(2024, 6, 1, 12, 0), 3000L, 3000L),
+                transaction("user2", LocalDateTime.of(2024, 5, 12, 8, 0), 500L, 500L),
+                transaction(null, LocalDateTime.of(2024, 5, 12, 8, 0), 700L, 700L)));
+        ArgumentCaptor<Collection<UserSpendSummary>> captor = ArgumentCaptor.forClass(Collection.class);
+
+        userSpendSummaryBackfill.afterSingletonsInstantiated();
+
+        verify(partitionMigration).migrate();
+        verify(userSpendSummaryRepository).rebuild(captor.capture());
+        Map<String, UserSpendSummary> summaries = new HashMap<>();
+        captor.getValue().forEach(summary -> summaries.put(summary.getId(), summary));
+        assertEquals(2, summaries.size());
+        UserSpendSummary user1 = summaries.get("user1");
+        assertEquals(2, user1.getOrderCount());
+        assertEquals(4000L, user1.getLifetimeGross());
+        assertEquals(3900L, user1.getLifetimeNet());
+        assertEquals(1950L, user1.getAverageBasket());
+        assertEquals(LocalDateTime.of(2024, 6, 1, 12, 0), user1.getLastPurchaseDate());
+        assertEquals(1, summaries.get("user2").getOrderCount());
+        verify(migrationRecordRepository).complete(UserSpendSummaryBackfill.MIGRATION_ID);
+    }
+
+    @Test
+    void afterSingletonsInstantiated_AlreadyDone_DoesNothing() {
+        when(migrationRecordRepository.existsByIdAndCompletedAtIsNotNull(UserSpendSummaryBackfill.MIGRATION_ID))
+                .thenReturn(true);
+
+        userSpendSummaryBackfill.afterSingletonsInstantiated();
+
+        verifyNoInteractions(transactionRepository, userSpendSummaryRepository, partitionMigration);
+        verify(migrationRecordRepository, never()).tryLock(any(), any());
+    }
+
+    @Test
+    void afterSingletonsInstantiated_LockedByAnotherInstance_DoesNothing() {
+        when(migrationRecordRepository.existsByIdAndCompletedAtIsNotNull(UserSpendSummaryBackfill.MIGRATION_ID))
+                .thenReturn(false);
+        when(migrationRecordRepository.tryLock(UserSpendSummaryBackfill.MIGRATION_ID, UserSpendSummaryBackfill.LOCK_TIMEOUT))
+                .thenReturn(false);
+
+        userSpendSummaryBackfill.afterSingletonsInstantiated();
+
+        verifyNoInteractions(transactionRepository, userSpendSummaryRepository, partitionMigration);
+        verify(migrationRecordRepository, never()).complete(any());
+    }
+
+    private static TransactionEntity transaction(String userId, LocalDateTime date, long gross, long net) {
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setUserId(userId);
+        transaction.setDate(date);
+        transaction.setTotalAmount(gross);
+        transaction.setFinalAmount(net);
+        return transaction;
+    }
+}